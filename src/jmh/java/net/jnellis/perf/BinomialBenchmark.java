@@ -1,10 +1,11 @@
 package net.jnellis.perf;
 
 import net.jnellis.probability.Binomial;
+import net.jnellis.probability.combinatorics.Combinatorics;
 import org.apache.commons.math3.distribution.BinomialDistribution;
 import org.openjdk.jmh.annotations.*;
 
-import java.util.BitSet;
+import java.math.BigInteger;
 
 import static net.jnellis.probability.CumulativeOperation.lessThanOrEqual;
 
@@ -27,10 +28,6 @@ public class BinomialBenchmark {
 
 	int rv;
 
-
-	BitSet primes;
-	int[] factors;
-
 	@Setup
 	public void setup(){
 		trials = vals[idx][0];
@@ -58,6 +55,11 @@ public class BinomialBenchmark {
 		return new BinomialDistribution(null, trials,chanceOfSuccess).cumulativeProbability(rv);
 	}
 
+	@Benchmark
+	public BigInteger exactBinomialCoefficientBenchmark(){
+		return Combinatorics.binomial(trials,rv);
+	}
+
 
 
 }
@@ -36,6 +36,11 @@ public class PoissonBenchmark {
 		return new Poisson(lessThanOrEqual,lambda).getResult(rv);
 	}
 
+	@Benchmark
+	public double pmfStreamPoisson() {
+		return new Poisson(lessThanOrEqual, lambda).pmfStream().limit(rv + 1).sum();
+	}
+
 	@Benchmark
 	public double cumulativePoissonACM() {
 		return new PoissonDistribution(lambda).cumulativeProbability(rv);
@@ -0,0 +1,40 @@
+package net.jnellis.perf;
+
+import net.jnellis.probability.PoissonBinomial;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+
+import static net.jnellis.probability.CumulativeOperation.lessThanOrEqual;
+
+/**
+ * Building the whole table of a Poisson binomial distribution.
+ */
+@State(Scope.Benchmark)
+public class PoissonBinomialBenchmark {
+
+	@Param({"50", "1000", "100000"})
+	int trials;
+
+	double[] chances;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(trials);
+		chances = new double[trials];
+		for (int i = 0; i < trials; i++) {
+			chances[i] = random.nextDouble();
+		}
+	}
+
+	@Benchmark
+	public double[] probabilities() {
+		return PoissonBinomial.probabilities(chances);
+	}
+
+	@Benchmark
+	public double refinedNormalApproximation() {
+		return new PoissonBinomial(lessThanOrEqual, chances, 0.5)
+				.getResult(trials / 2);
+	}
+}
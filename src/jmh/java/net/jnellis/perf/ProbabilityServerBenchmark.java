@@ -0,0 +1,75 @@
+package net.jnellis.perf;
+
+import net.jnellis.probability.server.ProbabilityServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A local load generator for the probability server. Many client threads
+ * ask for the cumulative binomial over a range of values, a small range is
+ * mostly cache hits and coalesced queries while a large one is mostly
+ * computed.
+ */
+@State(Scope.Benchmark)
+@Threads(16)
+public class ProbabilityServerBenchmark {
+
+	@Param({"16", "100000"})
+	int distinctValues;
+
+	@Param({"1", "32"})
+	int valuesPerRequest;
+
+	ProbabilityServer server;
+	String base;
+
+	@Setup(Level.Trial)
+	public void start() throws IOException {
+		server = ProbabilityServer.create(new InetSocketAddress("127.0.0.1", 0),
+		                                  ProbabilityServer.DEFAULT_CACHE_SIZE)
+		                          .start();
+		base = "http://127.0.0.1:" + server.getAddress().getPort()
+				+ "/cdf?type=binomial&parameters=1000000,0.3&value=";
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		server.stop(0);
+	}
+
+	@Benchmark
+	public int cdfRequest() throws IOException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		StringBuilder url = new StringBuilder(base);
+		for (int i = 0; i < valuesPerRequest; i++) {
+			if (i > 0) {
+				url.append(',');
+			}
+			url.append(295000 + random.nextInt(distinctValues));
+		}
+		HttpURLConnection connection =
+				(HttpURLConnection) new URL(url.toString()).openConnection();
+		int length = 0;
+		try (InputStream in = connection.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				length += read;
+			}
+		}
+		return length;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Approximation.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import static net.jnellis.probability.CumulativeOperation.*;
+
+/**
+ * Approximations of cumulative results that are only used when a proven
+ * bound on their error is within the caller's tolerance.
+ * <ul>
+ * <li>Normal with continuity correction, bounded by the Berry-Esseen
+ * inequality on the Kolmogorov distance.</li>
+ * <li>Poisson for the binomial, bounded by Barbour and Hall's refinement of
+ * Le Cam's inequality on the total variation distance.</li>
+ * <li>Binomial for the hypergeometric, bounded by Ehm's inequality on the
+ * total variation distance.</li>
+ * </ul>
+ * Each method returns NaN when no approximation is good enough so the
+ * caller can fall back to the exact computation.
+ */
+final class Approximation {
+
+  /**
+   * Shevtsova's constant for the Berry-Esseen inequality of identically
+   * distributed summands.
+   */
+  static final double BERRY_ESSEEN = 0.4748;
+
+  private Approximation() {}
+
+  /**
+   * The number of cumulative distribution values whose errors add up in the
+   * result of the operation.
+   *
+   * @param operation a cumulative operation
+   * @return 1 or 2 for the cumulative operation constants, 0 otherwise.
+   */
+  static int errorMultiplier(CumulativeOperation operation) {
+    if (operation == equal || operation == notEqual) {
+      return 2;
+    }
+    if (operation == lessThan || operation == lessThanOrEqual
+        || operation == greaterThan || operation == greaterThanOrEqual) {
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Approximates a cumulative binomial result.
+   *
+   * @param operation       cumulative operation to apply
+   * @param trials          number of trials
+   * @param chanceOfSuccess chance each trial succeeds
+   * @param randomVariable  number of successes
+   * @param tolerance       largest absolute error allowed
+   * @return the approximate result or NaN
+   */
+  static double binomial(CumulativeOperation operation,
+                         int trials,
+                         double chanceOfSuccess,
+                         int randomVariable,
+                         double tolerance) {
+    final int multiplier = errorMultiplier(operation);
+    if (multiplier == 0 || trials == 0) {
+      return Double.NaN;
+    }
+    final double chanceOfFailure = 1.0 - chanceOfSuccess;
+    final double deviation =
+        Math.sqrt(trials * chanceOfSuccess * chanceOfFailure);
+    // E|X-p|^3 / sigma^3 for a single trial is (p^2+q^2)/sqrt(pq)
+    if (deviation > 0.0
+        && multiplier * BERRY_ESSEEN
+        * (chanceOfSuccess * chanceOfSuccess
+        + chanceOfFailure * chanceOfFailure) / deviation <= tolerance) {
+      return normal(operation, randomVariable,
+                    trials * chanceOfSuccess, deviation);
+    }
+    // Count the rarer of success or failure as a Poisson variable.
+    final double rare = Math.min(chanceOfSuccess, chanceOfFailure);
+    final double lambda = trials * rare;
+    if (rare * -Math.expm1(-lambda) <= tolerance) {
+      if (chanceOfSuccess <= chanceOfFailure) {
+        return fromDistribution(operation, randomVariable,
+                                y -> poissonDistribution(lambda, y));
+      }
+      return fromDistribution(
+          operation, randomVariable,
+          y -> 1.0 - poissonDistribution(lambda, trials - y - 1));
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * Approximates a cumulative Poisson result.
+   *
+   * @param operation      cumulative operation to apply
+   * @param lambda         the average rate of success
+   * @param randomVariable number of successes
+   * @param tolerance      largest absolute error allowed
+   * @return the approximate result or NaN
+   */
+  static double poisson(CumulativeOperation operation,
+                        double lambda,
+                        int randomVariable,
+                        double tolerance) {
+    final int multiplier = errorMultiplier(operation);
+    // A Poisson variable is infinitely divisible so the Berry-Esseen
+    // bound of its summands tends to C / sqrt(lambda)
+    if (multiplier == 0 || lambda <= 0.0
+        || multiplier * BERRY_ESSEEN / Math.sqrt(lambda) > tolerance) {
+      return Double.NaN;
+    }
+    return normal(operation, randomVariable, lambda, Math.sqrt(lambda));
+  }
+
+  /**
+   * Approximates a cumulative hypergeometric result with a binomial whose
+   * result is approximated again if the remaining tolerance allows it.
+   *
+   * @param operation      cumulative operation to apply
+   * @param N              population size
+   * @param n              sample size
+   * @param r              number of success states in the population
+   * @param randomVariable number of successes in the sample
+   * @param tolerance      largest absolute error allowed
+   * @return the approximate result or NaN
+   */
+  static double hyperGeometric(CumulativeOperation operation,
+                               int N,
+                               int n,
+                               int r,
+                               int randomVariable,
+                               double tolerance) {
+    if (errorMultiplier(operation) == 0 || N <= 1) {
+      return Double.NaN;
+    }
+    // The distribution is symmetric in the sample size and the success
+    // states, so sample the smaller of the two.
+    final int trials = Integer.min(n, r);
+    final double chanceOfSuccess = (double) Integer.max(n, r) / N;
+    final double bound = (trials - 1.0) / (N - 1.0);
+    if (bound > tolerance) {
+      return Double.NaN;
+    }
+    double result = binomial(operation, trials, chanceOfSuccess,
+                             randomVariable, tolerance - bound);
+    if (Double.isNaN(result)) {
+      result = operation.apply(randomVariable,
+                               y -> Binomial.probability(trials,
+                                                         chanceOfSuccess,
+                                                         y));
+    }
+    return result;
+  }
+
+  private static double normal(CumulativeOperation operation,
+                               int randomVariable,
+                               double mean,
+                               double deviation) {
+    return fromDistribution(
+        operation, randomVariable,
+        y -> SpecialFunctions.normalCdf((y + 0.5 - mean) / deviation));
+  }
+
+  private static double poissonDistribution(double lambda, int y) {
+    return y < 0 ? 0.0 : SpecialFunctions.regularizedGammaQ(y + 1.0, lambda);
+  }
+}
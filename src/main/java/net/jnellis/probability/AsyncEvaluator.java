@@ -0,0 +1,433 @@
+/*
+ * AsyncEvaluator.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates distributions on an executor instead of the calling thread,
+ * returning a CompletableFuture or publishing values to a
+ * {@link Flow.Subscriber} as they are produced.
+ * <p>
+ * Cumulative results that would be summed are summed here, in ranges of
+ * the random variable spread over the executor, each generated by the
+ * distribution's recurrence from an anchor. Every range checks its future
+ * every {@link #CHECK_INTERVAL} values and stops once it is cancelled, so
+ * cancelling a future stops the summation rather than just discarding its
+ * result. Distributions with closed forms are evaluated as they are.
+ * <p>
+ * Publishers are cold, each subscription generates its own values and
+ * honors its subscriber's demand, producing nothing ahead of it.
+ * <pre>
+ * AsyncEvaluator async = AsyncEvaluator.create();
+ * CompletableFuture&lt;Double&gt; result =
+ *     async.getResult(new Binomial(lessThan, 10000000, 0.3), 3001000);
+ * async.cdfPublisher(new Poisson(equal, 4.5), 0, 20).subscribe(subscriber);
+ * </pre>
+ */
+public final class AsyncEvaluator {
+
+  /**
+   * The number of values summed or generated between checks for
+   * cancellation.
+   */
+  public static final int CHECK_INTERVAL = 4096;
+
+  /**
+   * Ranges smaller than this aren't split over the executor.
+   */
+  private static final int MINIMUM_RANGE = 1 << 16;
+
+  // true for classes that override getResult, which don't sum.
+  private static final ClassValue<Boolean> CLOSED_FORM =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          try {
+            return type.getMethod("getResult", int.class)
+                       .getDeclaringClass() != DiscreteProbability.class;
+          } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      };
+
+  private final Executor executor;
+  private final int parallelism;
+
+  /**
+   * @param executor    runs the evaluations
+   * @param parallelism the most ranges one summation is split into
+   */
+  public AsyncEvaluator(Executor executor, int parallelism) {
+    this.executor = Objects.requireNonNull(executor,
+                                           "executor can't be null.");
+    assert parallelism > 0 : "Parallelism must be positive.";
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * An evaluator on virtual threads when the runtime has them, looked up
+   * reflectively so the library still runs on older runtimes, and on the
+   * common fork join pool otherwise.
+   *
+   * @return the evaluator
+   */
+  public static AsyncEvaluator create() {
+    Executor executor;
+    try {
+      executor = (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      executor = ForkJoinPool.commonPool();
+    }
+    return new AsyncEvaluator(executor,
+                              Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * The result of {@link DiscreteProbability#getResult(int)}.
+   *
+   * @param distribution   the distribution
+   * @param randomVariable The random variable of the probability function
+   * @return the cumulative probability result, which stops being computed
+   * when it is cancelled.
+   */
+  public CompletableFuture<Double> getResult(DiscreteProbability distribution,
+                                             int randomVariable) {
+    Objects.requireNonNull(distribution, "distribution can't be null.");
+    final CumulativeOperation operation =
+        distribution.getCumulativeOperation();
+    final boolean summed = operation == CumulativeOperation.lessThan
+        || operation == CumulativeOperation.lessThanOrEqual
+        || operation == CumulativeOperation.greaterThan
+        || operation == CumulativeOperation.greaterThanOrEqual;
+    if (!summed || CLOSED_FORM.get(distribution.getClass())) {
+      return CompletableFuture.supplyAsync(
+          () -> distribution.getResult(randomVariable), executor);
+    }
+    final CompletableFuture<Double> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      if (result.isDone()) {
+        return;
+      }
+      try {
+        if (distribution.getTolerance() > 0.0) {
+          double approximation =
+              distribution.approximateResult(randomVariable);
+          if (!Double.isNaN(approximation)) {
+            result.complete(approximation);
+            return;
+          }
+        }
+        final boolean inclusive = operation == CumulativeOperation.lessThan
+            || operation == CumulativeOperation.greaterThanOrEqual;
+        final int last = inclusive ? randomVariable - 1 : randomVariable;
+        final boolean lower = operation == CumulativeOperation.lessThan
+            || operation == CumulativeOperation.lessThanOrEqual;
+        sum(distribution, last, result).thenAccept(
+            sum -> result.complete(lower ? sum : 1.0 - sum));
+      } catch (RuntimeException | AssertionError e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Sums P(Y = y) for y from zero to the last, in ranges on the executor.
+   */
+  private CompletableFuture<Double> sum(DiscreteProbability distribution,
+                                        int last,
+                                        CompletableFuture<?> owner) {
+    if (last < 0) {
+      return CompletableFuture.completedFuture(0.0);
+    }
+    final long count = last + 1L;
+    final int ranges = (int) Long.max(1L, Long.min(parallelism,
+                                                   count / MINIMUM_RANGE));
+    final List<CompletableFuture<Double>> parts = new ArrayList<>(ranges);
+    for (int i = 0; i < ranges; i++) {
+      final int start = (int) (count * i / ranges);
+      final int end = (int) (count * (i + 1) / ranges);
+      parts.add(CompletableFuture.supplyAsync(
+          () -> sumRange(distribution, start, end, owner), executor));
+    }
+    final CompletableFuture<Double> total = CompletableFuture
+        .allOf(parts.toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> parts.stream()
+                                .mapToDouble(CompletableFuture::join)
+                                .sum());
+    total.whenComplete((sum, failure) -> {
+      if (failure != null) {
+        owner.completeExceptionally(failure);
+      }
+    });
+    return total;
+  }
+
+  private static double sumRange(DiscreteProbability distribution,
+                                 int start,
+                                 int end,
+                                 CompletableFuture<?> owner) {
+    double probability = distribution.computeResult(start);
+    double sum = probability;
+    for (int y = start + 1; y < end; y++) {
+      if ((y - start) % CHECK_INTERVAL == 0 && owner.isDone()) {
+        return Double.NaN;
+      }
+      probability = distribution.nextResult(y - 1, probability);
+      sum += probability;
+    }
+    return sum;
+  }
+
+  /**
+   * P(Y = y) for y from the first to the last random variable.
+   *
+   * @param distribution the distribution
+   * @param first        the first random variable
+   * @param last         the last random variable
+   * @return the probabilities indexed by y - first, which stop being
+   * computed when it is cancelled.
+   */
+  public CompletableFuture<double[]> pmf(DiscreteProbability distribution,
+                                         int first,
+                                         int last) {
+    Objects.requireNonNull(distribution, "distribution can't be null.");
+    assert first <= last && last < Integer.MAX_VALUE : "Invalid range.";
+    final CompletableFuture<double[]> result = new CompletableFuture<>();
+    final double[] probabilities = new double[last - first + 1];
+    final long count = probabilities.length;
+    final int ranges = (int) Long.max(1L, Long.min(parallelism,
+                                                   count / MINIMUM_RANGE));
+    final CompletableFuture<?>[] parts = new CompletableFuture<?>[ranges];
+    for (int i = 0; i < ranges; i++) {
+      final int start = (int) (count * i / ranges);
+      final int end = (int) (count * (i + 1) / ranges);
+      parts[i] = CompletableFuture.runAsync(() -> {
+        double probability = 0.0;
+        for (int j = start; j < end; j++) {
+          if ((j - start) % CHECK_INTERVAL == 0 && result.isDone()) {
+            return;
+          }
+          probability = j == start
+                        ? distribution.computeResult(first + j)
+                        : distribution.nextResult(first + j - 1, probability);
+          probabilities[j] = probability;
+        }
+      }, executor);
+    }
+    CompletableFuture.allOf(parts).whenComplete((done, failure) -> {
+      if (failure != null) {
+        result.completeExceptionally(failure);
+      } else {
+        result.complete(probabilities);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * The quantile of each probability, see
+   * {@link DiscreteProbability#quantile(double)}.
+   *
+   * @param distribution  the distribution
+   * @param probabilities cumulative probabilities between zero and one
+   * @return the quantiles in the same order, which stop being computed
+   * when it is cancelled.
+   */
+  public CompletableFuture<int[]> quantiles(DiscreteProbability distribution,
+                                            double... probabilities) {
+    Objects.requireNonNull(distribution, "distribution can't be null.");
+    final double[] copy = probabilities.clone();
+    final CompletableFuture<int[]> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        int[] quantiles = new int[copy.length];
+        for (int i = 0; i < copy.length; i++) {
+          if (result.isDone()) {
+            return;
+          }
+          quantiles[i] = distribution.quantile(copy[i]);
+        }
+        result.complete(quantiles);
+      } catch (RuntimeException | AssertionError e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Publishes P(Y = y) for y from the first to the last random variable.
+   *
+   * @param distribution the distribution
+   * @param first        the first random variable
+   * @param last         the last random variable
+   * @return a publisher of the probabilities in order of y
+   */
+  public Flow.Publisher<Double> pmfPublisher(DiscreteProbability distribution,
+                                             int first,
+                                             int last) {
+    return publisher(distribution, first, last, false);
+  }
+
+  /**
+   * Publishes P(Y &lt;= y) for y from the first to the last random variable,
+   * each partial sum as soon as it is produced.
+   *
+   * @param distribution the distribution
+   * @param first        the first random variable
+   * @param last         the last random variable
+   * @return a publisher of the cumulative probabilities in order of y
+   */
+  public Flow.Publisher<Double> cdfPublisher(DiscreteProbability distribution,
+                                             int first,
+                                             int last) {
+    return publisher(distribution, first, last, true);
+  }
+
+  private Flow.Publisher<Double> publisher(DiscreteProbability distribution,
+                                           int first,
+                                           int last,
+                                           boolean cumulative) {
+    Objects.requireNonNull(distribution, "distribution can't be null.");
+    assert first <= last && last < Integer.MAX_VALUE : "Invalid range.";
+    return subscriber -> {
+      Objects.requireNonNull(subscriber, "subscriber can't be null.");
+      ValueSubscription subscription = new ValueSubscription(
+          subscriber, distribution, first, last, cumulative);
+      subscriber.onSubscribe(subscription);
+    };
+  }
+
+  /**
+   * Generates values on the executor while its subscriber has demand, one
+   * drain task at a time.
+   */
+  private final class ValueSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super Double> subscriber;
+    private final DiscreteProbability distribution;
+    private final int last;
+    private final boolean cumulative;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    // only touched by the drain task that holds a positive demand.
+    private int next;
+    private boolean anchored;
+    private double probability;
+    private double cumulativeProbability;
+
+    ValueSubscription(Flow.Subscriber<? super Double> subscriber,
+                      DiscreteProbability distribution,
+                      int first,
+                      int last,
+                      boolean cumulative) {
+      this.subscriber = subscriber;
+      this.distribution = distribution;
+      this.next = first;
+      this.last = last;
+      this.cumulative = cumulative;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0L) {
+        if (!cancelled.getAndSet(true)) {
+          subscriber.onError(new IllegalArgumentException(
+              "Demand must be positive, was " + n));
+        }
+        return;
+      }
+      // the task that raises the demand from zero starts a drain.
+      long previous = demand.getAndAccumulate(
+          n, (current, added) -> current + added < 0L
+                                 ? Long.MAX_VALUE
+                                 : current + added);
+      if (previous == 0L) {
+        try {
+          executor.execute(this::drain);
+        } catch (RuntimeException e) {
+          if (!cancelled.getAndSet(true)) {
+            subscriber.onError(e);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void cancel() {
+      cancelled.set(true);
+    }
+
+    private void drain() {
+      long owed = demand.get();
+      while (true) {
+        long sent = 0L;
+        while (true) {
+          if (cancelled.get()) {
+            return;
+          }
+          // completion needs no demand.
+          if (next > last) {
+            cancelled.set(true);
+            subscriber.onComplete();
+            return;
+          }
+          if (sent == owed) {
+            break;
+          }
+          final double value;
+          try {
+            value = advance();
+          } catch (RuntimeException | AssertionError e) {
+            cancelled.set(true);
+            subscriber.onError(e);
+            return;
+          }
+          subscriber.onNext(value);
+          sent++;
+        }
+        owed = demand.addAndGet(-sent);
+        if (owed == 0L) {
+          return;
+        }
+      }
+    }
+
+    private double advance() {
+      if (anchored) {
+        probability = distribution.nextResult(next - 1, probability);
+        cumulativeProbability += probability;
+      } else {
+        probability = distribution.computeResult(next);
+        if (cumulative) {
+          cumulativeProbability = distribution.cumulativeProbability(next);
+        }
+        anchored = true;
+      }
+      next++;
+      return cumulative
+             ? Double.min(1.0, cumulativeProbability)
+             : probability;
+    }
+  }
+}
@@ -46,7 +46,8 @@ package net.jnellis.probability;
  *                             .166666, y));
  * </pre>
  */
-public class Binomial extends DiscreteProbability {
+public class Binomial extends DiscreteProbability
+    implements DifferentiableProbability {
 
   private final int trials;
   private final double chanceOfSuccess;
@@ -61,7 +62,26 @@ public class Binomial extends DiscreteProbability {
   public Binomial(CumulativeOperation rvOperation,
                   int trials,
                   double chanceOfSuccess) {
-    super(rvOperation);
+    this(rvOperation, trials, chanceOfSuccess, 0.0);
+  }
+
+  /**
+   * Creates a representation of a binomial probability distribution whose
+   * cumulative results may be approximated by a normal or Poisson
+   * distribution when the error bound of the approximation is within
+   * the tolerance.
+   *
+   * @param rvOperation     The cumulative operation on this probability
+   * @param trials          Number of times the experiment takes place
+   * @param chanceOfSuccess The probability of the successful event.
+   * @param tolerance       The largest absolute error allowed in a
+   *                        cumulative result.
+   */
+  public Binomial(CumulativeOperation rvOperation,
+                  int trials,
+                  double chanceOfSuccess,
+                  double tolerance) {
+    super(rvOperation, tolerance);
 
     assert nonNegative(trials);
     assert betweenZeroAndOneInclusive(chanceOfSuccess);
@@ -75,6 +95,99 @@ public class Binomial extends DiscreteProbability {
     return probability(trials, chanceOfSuccess, randomVariable);
   }
 
+  /**
+   * The log of the saddle point density.
+   */
+  @Override
+  public double logProbability(int randomVariable) {
+    return SpecialFunctions.logBinomialDensity(
+        randomVariable, trials, chanceOfSuccess, 1.0 - chanceOfSuccess);
+  }
+
+  /**
+   * d/dp log P(Y = y) = y/p - (n - y)/(1 - p)
+   */
+  @Override
+  public double score(int randomVariable) {
+    if (randomVariable < 0 || randomVariable > trials) {
+      return Double.NaN;
+    }
+    double successes = randomVariable == 0
+                       ? 0.0
+                       : randomVariable / chanceOfSuccess;
+    double failures = randomVariable == trials
+                      ? 0.0
+                      : (trials - randomVariable) / (1.0 - chanceOfSuccess);
+    return successes - failures;
+  }
+
+  @Override
+  double approximateResult(int randomVariable) {
+    return Approximation.binomial(getCumulativeOperation(), trials,
+                                  chanceOfSuccess, randomVariable,
+                                  getTolerance());
+  }
+
+  /**
+   * P(Y &lt;= y) is the regularized incomplete beta function
+   * I_q(n - y, y + 1).
+   */
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 0.0;
+    }
+    if (randomVariable >= trials) {
+      return 1.0;
+    }
+    return SpecialFunctions.regularizedBeta(1.0 - chanceOfSuccess,
+                                            trials - randomVariable,
+                                            randomVariable + 1.0);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 1.0;
+    }
+    if (randomVariable >= trials) {
+      return 0.0;
+    }
+    return SpecialFunctions.regularizedBetaComplement(1.0 - chanceOfSuccess,
+                                                      trials - randomVariable,
+                                                      randomVariable + 1.0);
+  }
+
+  /**
+   * P(y+1) = P(y) * (n-y)/(y+1) * p/q
+   */
+  @Override
+  double nextResult(int randomVariable, double result) {
+    if (randomVariable < 0 || randomVariable >= trials) {
+      return computeResult(randomVariable + 1);
+    }
+    final double chanceOfFailure = 1.0 - chanceOfSuccess;
+    if (result < Double.MIN_NORMAL) {
+      // underflow or before the support, start over from the saddle point
+      // until the result has its full precision.
+      return SpecialFunctions.binomialDensity(randomVariable + 1, trials,
+                                              chanceOfSuccess,
+                                              chanceOfFailure);
+    }
+    return result * (trials - randomVariable) / (randomVariable + 1)
+        * chanceOfSuccess / chanceOfFailure;
+  }
+
+  @Override
+  double anchorResult(int randomVariable) {
+    return Math.exp(logProbability(randomVariable));
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return trials;
+  }
+
   /**
    * The binomial probability at P(randomVariable)
    * <p>
@@ -97,10 +210,28 @@ public class Binomial extends DiscreteProbability {
   public static double probability(final int trials,
                                    final double chanceOfSuccess,
                                    final int randomVariable) {
+    return scaledProbability(trials, chanceOfSuccess, randomVariable)
+        .doubleValue();
+  }
+
+  /**
+   * The binomial probability at P(randomVariable) with its exponent kept
+   * apart, so probabilities far out in the tails of many trials don't
+   * underflow to zero.
+   *
+   * @param trials          Number of trials of this experiment
+   * @param chanceOfSuccess chance each trial succeeds
+   * @param randomVariable  number of successes to investigate
+   * @return The probability of P(Y = randomVariable)
+   * @see #probability(int, double, int)
+   */
+  public static ScaledDouble scaledProbability(final int trials,
+                                               final double chanceOfSuccess,
+                                               final int randomVariable) {
     // no trials, negative successes, or more successes than possible,
     // has zero probability anything happened.
     if (trials == 0 || randomVariable < 0 || randomVariable > trials) {
-      return 0.0;
+      return ScaledDouble.ZERO;
     }
 
     final double chanceOfFailure = 1.0 - chanceOfSuccess;
@@ -108,11 +239,11 @@ public class Binomial extends DiscreteProbability {
     // Early Optimizations:
     // The factorial and P components cancel out leaving the Q component.
     if (randomVariable == 0) {
-      return Math.pow(chanceOfFailure, trials);
+      return ScaledDouble.pow(chanceOfFailure, trials);
     }
     // The factorial and Q components cancel out leaving the P component.
     if (randomVariable == trials) {
-      return Math.pow(chanceOfSuccess, randomVariable);
+      return ScaledDouble.pow(chanceOfSuccess, randomVariable);
     }
 
     // In the factorial part of the equation [ n!/((n-y)!y!) ],
@@ -131,9 +262,21 @@ public class Binomial extends DiscreteProbability {
     // While loop soup - computing the result by multiplying by components
     // of the equation in order to maintain an intermediate result that
     // floats around 1.0 if possible.
+    final double rescaleBelow = ScaledDouble.rescaleBelow(
+        Double.min(chanceOfSuccess, chanceOfFailure));
     double result = 1.0;
+    long scale = 0L;
     while (successes > 0 || numer > numerFloor) {
       if (result >= 1.0 || numer == numerFloor) { // lowering values
+        // once the numerator runs out the result only falls, move its
+        // exponent into the scale before the next factor could underflow
+        // it. Rescaling earlier would upset the choice between raising and
+        // lowering.
+        if (numer == numerFloor && result < rescaleBelow && result > 0.0) {
+          int exponent = ScaledDouble.exponentOf(result);
+          result = Math.scalb(result, -exponent);
+          scale += exponent;
+        }
         if (denom > 1) {
           result = result / denom;
           denom--;
@@ -149,7 +292,21 @@ public class Binomial extends DiscreteProbability {
         numer--;
       }
     }
-    return result;
+    return ScaledDouble.of(result, scale);
+  }
+
+  /**
+   * @return the number of trials.
+   */
+  public int getTrials() {
+    return trials;
+  }
+
+  /**
+   * @return the chance of success of a single trial.
+   */
+  public double getChanceOfSuccess() {
+    return chanceOfSuccess;
   }
 
   /**
@@ -170,4 +327,52 @@ public class Binomial extends DiscreteProbability {
     return trials * chanceOfSuccess * (1.0 - chanceOfSuccess);
   }
 
+  /**
+   * The skewness is defined by
+   * <code>(1 - 2p) / sqrt(np(1-p))</code>
+   */
+  @Override
+  public double getSkewness() {
+    final double variance = getVariance();
+    return variance == 0.0
+           ? Double.NaN
+           : (1.0 - 2.0 * chanceOfSuccess) / Math.sqrt(variance);
+  }
+
+  /**
+   * The excess kurtosis is defined by
+   * <code>(1 - 6p(1-p)) / (np(1-p))</code>
+   */
+  @Override
+  public double getKurtosis() {
+    final double variance = getVariance();
+    return variance == 0.0
+           ? Double.NaN
+           : (1.0 - 6.0 * chanceOfSuccess * (1.0 - chanceOfSuccess))
+               / variance;
+  }
+
+  /**
+   * The factorial moment is defined by
+   * <code>n!/(n-r)! p^r</code>
+   */
+  @Override
+  public double factorialMoment(int order) {
+    assert nonNegative(order) : "Order must be non-negative.";
+    double moment = 1.0;
+    for (int i = 0; i < order && moment != 0.0; i++) {
+      moment *= (trials - i) * chanceOfSuccess;
+    }
+    return moment;
+  }
+
+  /**
+   * The generating function is defined by
+   * <code>G(s) = (1 - p + ps)^n</code>
+   */
+  @Override
+  public double generatingFunction(double s) {
+    return Math.pow(1.0 - chanceOfSuccess + chanceOfSuccess * s, trials);
+  }
+
 }
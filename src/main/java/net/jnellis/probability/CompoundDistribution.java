@@ -0,0 +1,412 @@
+/*
+ * CompoundDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+
+/**
+ * The distribution of an aggregate S = X1 + X2 + ... + XN where the number
+ * of events N is {@link Poisson}, {@link Binomial} or
+ * {@link NegativeBinomial}, the (a,b,0) class of frequencies, and each event
+ * contributes an independent severity X with a discrete distribution.
+ * <p>
+ * The aggregate probabilities are computed by whichever of two methods is
+ * cheaper for the size of the aggregate and the severity table.
+ * <ul>
+ * <li>Panjer's recursion,
+ * g(s) = &#931; (a + b*j/s) f(j) g(s-j) / (1 - a*f(0)), which costs the
+ * aggregate size times the severity size and is exact up to rounding. Its
+ * start value is rescaled when it would underflow, as it does for large
+ * Poisson rates.</li>
+ * <li>The fast Fourier transform of the severity table evaluated in the
+ * frequency's probability generating function and transformed back, which
+ * costs n*log(n) for a transform sized past the mean plus twelve standard
+ * deviations of the aggregate so the mass wrapped around by the transform is
+ * negligible.</li>
+ * </ul>
+ * This library's negative binomial counts every trial, so its aggregate is
+ * the k-fold convolution of the severity with the compound of the failures,
+ * which are in the (a,b,0) class with a = q and b = (k-1)q.
+ * <pre>
+ * double[] severity = {0.0, 0.5, 0.3, 0.2};
+ * TabulatedDistribution aggregate = CompoundDistribution.of(
+ *     greaterThan, new Poisson(equal, 100), severity, 1000);
+ * double overTwoHundred = aggregate.getResult(200);
+ * </pre>
+ */
+public final class CompoundDistribution {
+
+  /**
+   * The largest transform, beyond this Panjer's recursion is always used.
+   */
+  private static final int TRANSFORM_LIMIT = 1 << 26;
+
+  private static final double LOG_SCALE = Math.log(1.0E300);
+
+  private CompoundDistribution() {}
+
+  /**
+   * The distribution of the aggregate from zero up to the largest aggregate.
+   * Any probability above the largest aggregate is left out of the table.
+   *
+   * @param rvOperation  The cumulative operation on the aggregate
+   * @param frequency    the distribution of the number of events, a Poisson,
+   *                     Binomial or NegativeBinomial.
+   * @param severity     the probability of each event's value indexed by the
+   *                     value from zero.
+   * @param maxAggregate the largest aggregate value to compute
+   * @return the distribution of the aggregate
+   * @throws IllegalArgumentException when the frequency is not one of the
+   *                                  three (a,b,0) distributions.
+   */
+  public static TabulatedDistribution of(CumulativeOperation rvOperation,
+                                         DiscreteProbability frequency,
+                                         double[] severity,
+                                         int maxAggregate) {
+    Objects.requireNonNull(severity, "severity can't be null.");
+    assert severity.length > 0 : "Severity can't be empty.";
+    assert DiscreteProbability.nonNegative(maxAggregate);
+    return new TabulatedDistribution(
+        rvOperation,
+        ProbabilityTables.of(probabilities(frequency(frequency), severity,
+                                            maxAggregate)));
+  }
+
+  static double[] probabilities(Frequency frequency,
+                                double[] severity,
+                                int maxAggregate) {
+    int size = transformSize(frequency, severity, maxAggregate);
+    if (size > 0 && transformCost(size)
+        < recursionCost(frequency, severity.length, maxAggregate)) {
+      return transform(frequency, severity, maxAggregate, size);
+    }
+    return recursion(frequency, severity, maxAggregate);
+  }
+
+  /**
+   * The aggregate probabilities by Panjer's recursion.
+   */
+  static double[] recursion(Frequency frequency,
+                            double[] severity,
+                            int maxAggregate) {
+    final double a = frequency.a;
+    final double b = frequency.b;
+    final double[] g = new double[maxAggregate + 1];
+    final double logStart = frequency.logStart(severity[0]);
+    // g is kept in units of exp(scale) so the recursion neither starts
+    // from an underflow nor overflows on the way up.
+    double scale = 0.0;
+    if (logStart < -LOG_SCALE) {
+      scale = logStart + LOG_SCALE;
+    }
+    g[0] = Math.exp(logStart - scale);
+    final double denominator = 1.0 - a * severity[0];
+    for (int s = 1; s <= maxAggregate; s++) {
+      final int last = Integer.min(s, severity.length - 1);
+      double sum = 0.0;
+      for (int j = 1; j <= last; j++) {
+        sum += (a + b * j / s) * severity[j] * g[s - j];
+      }
+      g[s] = sum / denominator;
+      if (g[s] > 1.0E300) {
+        for (int i = 0; i <= s; i++) {
+          g[i] *= 1.0E-300;
+        }
+        scale += LOG_SCALE;
+      }
+    }
+    if (scale != 0.0) {
+      for (int s = 0; s <= maxAggregate; s++) {
+        g[s] = g[s] == 0.0 ? 0.0 : Math.exp(Math.log(g[s]) + scale);
+      }
+    }
+    if (frequency.shift == 0) {
+      return g;
+    }
+    return truncate(FastFourierTransform.convolve(
+        power(severity, frequency.shift, maxAggregate), g), maxAggregate);
+  }
+
+  /**
+   * The aggregate probabilities by fast Fourier transform of the severity
+   * and the frequency's probability generating function.
+   */
+  static double[] transform(Frequency frequency,
+                            double[] severity,
+                            int maxAggregate,
+                            int size) {
+    double[] real = new double[size];
+    double[] imaginary = new double[size];
+    System.arraycopy(severity, 0, real, 0,
+                     Integer.min(severity.length, size));
+    FastFourierTransform.transform(real, imaginary, false);
+    double[] value = new double[2];
+    for (int k = 0; k < size; k++) {
+      frequency.generatingFunction(real[k], imaginary[k], value);
+      real[k] = value[0];
+      imaginary[k] = value[1];
+    }
+    FastFourierTransform.transform(real, imaginary, true);
+    double[] result = new double[maxAggregate + 1];
+    for (int s = 0; s < result.length && s < size; s++) {
+      result[s] = Math.max(0.0, real[s]);
+    }
+    return result;
+  }
+
+  /**
+   * The transform length needed to hold the aggregate's probabilities up to
+   * the largest aggregate and its mean plus twelve standard deviations, or
+   * zero when that is too large for a transform.
+   */
+  static int transformSize(Frequency frequency,
+                           double[] severity,
+                           int maxAggregate) {
+    double mean = 0.0;
+    double secondMoment = 0.0;
+    for (int j = 1; j < severity.length; j++) {
+      mean += j * severity[j];
+      secondMoment += (double) j * j * severity[j];
+    }
+    final double variance = frequency.mean * (secondMoment - mean * mean)
+        + frequency.variance * mean * mean;
+    final double tail = frequency.mean * mean
+        + 12.0 * Math.sqrt(Math.max(0.0, variance)) + severity.length;
+    final double length = Math.max(maxAggregate + 1.0, tail);
+    if (!(length <= TRANSFORM_LIMIT)) {
+      return 0;
+    }
+    return FastFourierTransform.powerOfTwo((int) Math.ceil(length));
+  }
+
+  /**
+   * Two complex transforms and a generating function evaluation per point.
+   */
+  static double transformCost(int size) {
+    return size * (10.0 * Integer.numberOfTrailingZeros(size) + 100.0);
+  }
+
+  /**
+   * A multiply and add per severity value for every aggregate value, plus
+   * the k-fold severity convolutions of the negative binomial.
+   */
+  static double recursionCost(Frequency frequency,
+                              int severityLength,
+                              int maxAggregate) {
+    double size = maxAggregate + 1.0;
+    double cost = 2.0 * size * Math.min(size, severityLength);
+    if (frequency.shift > 0) {
+      int bits = 32 - Integer.numberOfLeadingZeros(frequency.shift);
+      cost += 2.0 * bits * transformCost(
+          FastFourierTransform.powerOfTwo(2 * (maxAggregate + 1)));
+    }
+    return cost;
+  }
+
+  /**
+   * The k-fold convolution of a table with itself by repeated squaring,
+   * truncated to the largest aggregate.
+   */
+  private static double[] power(double[] table, int k, int maxAggregate) {
+    double[] result = {1.0};
+    double[] square = truncate(table, maxAggregate);
+    while (true) {
+      if ((k & 1) != 0) {
+        result = truncate(FastFourierTransform.convolve(result, square),
+                          maxAggregate);
+      }
+      k >>>= 1;
+      if (k == 0) {
+        return result;
+      }
+      square = truncate(FastFourierTransform.convolve(square, square),
+                        maxAggregate);
+    }
+  }
+
+  private static double[] truncate(double[] table, int maxAggregate) {
+    if (table.length <= maxAggregate + 1) {
+      return table;
+    }
+    double[] result = new double[maxAggregate + 1];
+    System.arraycopy(table, 0, result, 0, result.length);
+    return result;
+  }
+
+  static Frequency frequency(DiscreteProbability distribution) {
+    Objects.requireNonNull(distribution, "frequency can't be null.");
+    if (distribution instanceof Poisson) {
+      return new PoissonFrequency(((Poisson) distribution).getLambda());
+    }
+    if (distribution instanceof Binomial) {
+      Binomial binomial = (Binomial) distribution;
+      return new BinomialFrequency(binomial.getTrials(),
+                                   binomial.getChanceOfSuccess());
+    }
+    if (distribution instanceof NegativeBinomial) {
+      NegativeBinomial negativeBinomial = (NegativeBinomial) distribution;
+      return new NegativeBinomialFrequency(
+          negativeBinomial.getSuccessfulTrials(),
+          negativeBinomial.getChanceOfSuccess());
+    }
+    throw new IllegalArgumentException(
+        "Frequency must be a Poisson, Binomial or NegativeBinomial.");
+  }
+
+  /**
+   * A frequency of the (a,b,0) class where P(n) = (a + b/n) P(n-1), shifted
+   * up by a fixed number of events.
+   */
+  abstract static class Frequency {
+    final double a;
+    final double b;
+    final int shift;
+    final double mean;
+    final double variance;
+
+    Frequency(double a, double b, int shift, double mean, double variance) {
+      this.a = a;
+      this.b = b;
+      this.shift = shift;
+      this.mean = mean;
+      this.variance = variance;
+    }
+
+    /**
+     * @param severityAtZero f(0)
+     * @return the log of the unshifted aggregate's P(S = 0), the generating
+     * function at f(0).
+     */
+    abstract double logStart(double severityAtZero);
+
+    /**
+     * The probability generating function of the shifted frequency at a
+     * complex value.
+     *
+     * @param real      the real part
+     * @param imaginary the imaginary part
+     * @param value     receives the real and imaginary parts of the result
+     */
+    abstract void generatingFunction(double real,
+                                     double imaginary,
+                                     double[] value);
+
+    /**
+     * Raises a complex value to a power in polar form.
+     */
+    static void power(double real,
+                      double imaginary,
+                      double exponent,
+                      double[] value) {
+      double modulus = Math.hypot(real, imaginary);
+      if (modulus == 0.0) {
+        value[0] = exponent == 0.0 ? 1.0 : 0.0;
+        value[1] = 0.0;
+        return;
+      }
+      double magnitude = Math.exp(exponent * Math.log(modulus));
+      double angle = exponent * Math.atan2(imaginary, real);
+      value[0] = magnitude * Math.cos(angle);
+      value[1] = magnitude * Math.sin(angle);
+    }
+  }
+
+  /**
+   * a = 0, b = &#955; and P(z) = exp(&#955;(z - 1))
+   */
+  static final class PoissonFrequency extends Frequency {
+    private final double lambda;
+
+    PoissonFrequency(double lambda) {
+      super(0.0, lambda, 0, lambda, lambda);
+      this.lambda = lambda;
+    }
+
+    @Override
+    double logStart(double severityAtZero) {
+      return lambda * (severityAtZero - 1.0);
+    }
+
+    @Override
+    void generatingFunction(double real, double imaginary, double[] value) {
+      double magnitude = Math.exp(lambda * (real - 1.0));
+      value[0] = magnitude * Math.cos(lambda * imaginary);
+      value[1] = magnitude * Math.sin(lambda * imaginary);
+    }
+  }
+
+  /**
+   * a = -p/q, b = (n+1)p/q and P(z) = (q + pz)^n. When every trial
+   * succeeds there are always n events, a = b = 0 shifted by n.
+   */
+  static final class BinomialFrequency extends Frequency {
+    private final int trials;
+    private final double p;
+    private final double q;
+
+    BinomialFrequency(int trials, double p) {
+      super(p == 1.0 ? 0.0 : -p / (1.0 - p),
+            p == 1.0 ? 0.0 : (trials + 1.0) * p / (1.0 - p),
+            p == 1.0 ? trials : 0, trials * p, trials * p * (1.0 - p));
+      this.trials = trials;
+      this.p = p;
+      this.q = 1.0 - p;
+    }
+
+    @Override
+    double logStart(double severityAtZero) {
+      if (shift > 0) {
+        return 0.0;
+      }
+      return trials * Math.log(q + p * severityAtZero);
+    }
+
+    @Override
+    void generatingFunction(double real, double imaginary, double[] value) {
+      power(q + p * real, p * imaginary, trials, value);
+    }
+  }
+
+  /**
+   * The failures before the kth success are a = q, b = (k-1)q, shifted by
+   * the k successes, so P(z) = (pz / (1 - qz))^k.
+   */
+  static final class NegativeBinomialFrequency extends Frequency {
+    private final int successfulTrials;
+    private final double p;
+    private final double q;
+
+    NegativeBinomialFrequency(int successfulTrials, double p) {
+      super(1.0 - p, (successfulTrials - 1.0) * (1.0 - p), successfulTrials,
+            successfulTrials / p, successfulTrials * (1.0 - p) / (p * p));
+      this.successfulTrials = successfulTrials;
+      this.p = p;
+      this.q = 1.0 - p;
+    }
+
+    @Override
+    double logStart(double severityAtZero) {
+      return successfulTrials
+          * (Math.log(p) - Math.log1p(-q * severityAtZero));
+    }
+
+    @Override
+    void generatingFunction(double real, double imaginary, double[] value) {
+      double denominatorReal = 1.0 - q * real;
+      double denominatorImaginary = -q * imaginary;
+      double norm = denominatorReal * denominatorReal
+          + denominatorImaginary * denominatorImaginary;
+      double ratioReal = p * (real * denominatorReal
+          + imaginary * denominatorImaginary) / norm;
+      double ratioImaginary = p * (imaginary * denominatorReal
+          - real * denominatorImaginary) / norm;
+      power(ratioReal, ratioImaginary, successfulTrials, value);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Convolution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * The distribution of a sum of independent discrete random variables,
+ * Y1 + Y2 + ... + Yk.
+ * <p>
+ * Each distribution is tabulated by its {@link DiscreteProbability#pmfStream}
+ * up to its share of the tail mass, then the tables are convolved, shortest
+ * first, by fast Fourier transform for large tables or by direct summation
+ * for small ones. The sum is returned as a {@link TabulatedDistribution} so
+ * any cumulative operation or quantile works on it.
+ * <pre>
+ * TabulatedDistribution sum = Convolution.of(
+ *     lessThanOrEqual,
+ *     new Poisson(equal, 4.5),
+ *     new Binomial(equal, 20, 0.3),
+ *     new HyperGeometric(equal, 50, 10, 12));
+ * int median = sum.quantile(0.5);
+ * </pre>
+ */
+public final class Convolution {
+
+  private Convolution() {}
+
+  /**
+   * The distribution of the sum of the distributions with no more than
+   * {@link DiscreteProbability#DEFAULT_TAIL_MASS} left out.
+   *
+   * @param rvOperation   The cumulative operation on the sum
+   * @param distributions the distributions of the independent summands,
+   *                      their own cumulative operations are ignored.
+   * @return the distribution of the sum
+   */
+  public static TabulatedDistribution of(CumulativeOperation rvOperation,
+                                         DiscreteProbability... distributions) {
+    return of(rvOperation, DiscreteProbability.DEFAULT_TAIL_MASS,
+              distributions);
+  }
+
+  /**
+   * The distribution of the sum of the distributions. Each summand with an
+   * infinite support is truncated where no more than its share of the tail
+   * mass is left, so the sum is missing no more than the tail mass.
+   *
+   * @param rvOperation   The cumulative operation on the sum
+   * @param tailMass      the largest probability left out of the sum
+   * @param distributions the distributions of the independent summands,
+   *                      their own cumulative operations are ignored.
+   * @return the distribution of the sum
+   */
+  public static TabulatedDistribution of(CumulativeOperation rvOperation,
+                                         double tailMass,
+                                         DiscreteProbability... distributions) {
+    Objects.requireNonNull(distributions, "distributions can't be null.");
+    assert distributions.length > 0 : "Need at least one distribution.";
+    assert tailMass > 0.0 && tailMass < 1.0 : "Tail mass must be in (0,1).";
+    final double share = tailMass / distributions.length;
+    double[][] tables = Arrays.stream(distributions)
+                              .parallel()
+                              .map(Objects::requireNonNull)
+                              .map(d -> d.pmfStream(share).toArray())
+                              .toArray(double[][]::new);
+    return new TabulatedDistribution(rvOperation,
+                                     ProbabilityTables.of(convolve(tables)));
+  }
+
+  /**
+   * Convolves probability tables, always the two shortest next, which keeps
+   * the intermediate tables as short as possible.
+   *
+   * @param tables probability tables indexed by the random variable.
+   * @return the probability table of the sum.
+   */
+  static double[] convolve(double[]... tables) {
+    PriorityQueue<double[]> queue = new PriorityQueue<>(
+        Integer.max(1, tables.length),
+        Comparator.comparingInt(table -> table.length));
+    queue.addAll(Arrays.asList(tables));
+    while (queue.size() > 1) {
+      queue.add(FastFourierTransform.convolve(queue.poll(), queue.poll()));
+    }
+    return queue.poll();
+  }
+}
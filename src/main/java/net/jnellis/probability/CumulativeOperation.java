@@ -9,6 +9,7 @@
 package net.jnellis.probability;
 
 import java.util.function.IntToDoubleFunction;
+import java.util.function.LongToDoubleFunction;
 import java.util.stream.IntStream;
 
 /**
@@ -78,4 +79,74 @@ public interface CumulativeOperation {
   double apply(int randomVariable,
                IntToDoubleFunction probabilityFunction);
 
+  /**
+   * Applies one of the cumulative operations above to a cumulative
+   * distribution function instead of summing a probability function.
+   *
+   * @param operation            One of the cumulative operation constants.
+   * @param randomVariable       The P(Y= ?) random variable of the
+   *                             probability.
+   * @param distributionFunction The cumulative distribution function,
+   *                             P(Y &lt;= y)
+   * @return A cumulative probability in the range of 0 to 1.0 or NaN if
+   * the operation is not one of the constants.
+   */
+  static double fromDistribution(CumulativeOperation operation,
+                                 int randomVariable,
+                                 IntToDoubleFunction distributionFunction) {
+    if (operation == lessThanOrEqual) {
+      return distributionFunction.applyAsDouble(randomVariable);
+    }
+    if (operation == lessThan) {
+      return distributionFunction.applyAsDouble(randomVariable - 1);
+    }
+    if (operation == greaterThan) {
+      return 1.0 - distributionFunction.applyAsDouble(randomVariable);
+    }
+    if (operation == greaterThanOrEqual) {
+      return 1.0 - distributionFunction.applyAsDouble(randomVariable - 1);
+    }
+    if (operation != equal && operation != notEqual) {
+      return Double.NaN;
+    }
+    double equalResult = distributionFunction.applyAsDouble(randomVariable)
+        - distributionFunction.applyAsDouble(randomVariable - 1);
+    return operation == equal ? equalResult : 1.0 - equalResult;
+  }
+
+  /**
+   * Applies one of the cumulative operations above to a cumulative
+   * distribution function of a long random variable, see
+   * {@link #fromDistribution}.
+   *
+   * @param operation            One of the cumulative operation constants.
+   * @param randomVariable       The P(Y= ?) random variable of the
+   *                             probability.
+   * @param distributionFunction The cumulative distribution function,
+   *                             P(Y &lt;= y)
+   * @return A cumulative probability in the range of 0 to 1.0 or NaN if
+   * the operation is not one of the constants.
+   */
+  static double fromLongDistribution(CumulativeOperation operation,
+                                     long randomVariable,
+                                     LongToDoubleFunction distributionFunction) {
+    if (operation == lessThanOrEqual) {
+      return distributionFunction.applyAsDouble(randomVariable);
+    }
+    if (operation == lessThan) {
+      return distributionFunction.applyAsDouble(randomVariable - 1);
+    }
+    if (operation == greaterThan) {
+      return 1.0 - distributionFunction.applyAsDouble(randomVariable);
+    }
+    if (operation == greaterThanOrEqual) {
+      return 1.0 - distributionFunction.applyAsDouble(randomVariable - 1);
+    }
+    if (operation != equal && operation != notEqual) {
+      return Double.NaN;
+    }
+    double equalResult = distributionFunction.applyAsDouble(randomVariable)
+        - distributionFunction.applyAsDouble(randomVariable - 1);
+    return operation == equal ? equalResult : 1.0 - equalResult;
+  }
 }
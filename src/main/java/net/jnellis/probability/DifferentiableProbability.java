@@ -0,0 +1,109 @@
+/*
+ * DifferentiableProbability.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * A probability distribution function with a continuous parameter whose
+ * log probability has a closed form derivative, the score. The parameter
+ * is the chance of success of the {@link Binomial}, {@link Geometric} and
+ * {@link NegativeBinomial} and the rate of the {@link Poisson}.
+ * <p>
+ * The score of every one of them is linear in the random variable, so it
+ * costs a few arithmetic operations next to the log probability and no
+ * more evaluations of the probability function, as finite differences
+ * would. A random variable outside the support has a log probability of
+ * negative infinity and no score, NaN.
+ * <pre>
+ * Binomial pdf = new Binomial(equal, 40, 0.3);
+ * LogProbabilityScore total = pdf.totalScore(observations);
+ * double step = total.getScore();
+ * </pre>
+ */
+public interface DifferentiableProbability extends Probability {
+
+  /**
+   * @param randomVariable The random variable of the
+   *                       probability function
+   * @return the natural log of P(Y = randomVariable)
+   */
+  double logProbability(int randomVariable);
+
+  /**
+   * @param randomVariable The random variable of the
+   *                       probability function
+   * @return the derivative of the log probability by the parameter
+   */
+  double score(int randomVariable);
+
+  /**
+   * @param randomVariable The random variable of the
+   *                       probability function
+   * @return the log probability and its score
+   */
+  default LogProbabilityScore logProbabilityScore(int randomVariable) {
+    return new LogProbabilityScore(logProbability(randomVariable),
+                                   score(randomVariable));
+  }
+
+  /**
+   * The log likelihood of independent observations and its derivative by
+   * the parameter, the sums of their log probabilities and scores.
+   *
+   * @param observations the observed random variables
+   * @return the summed log probability and score
+   */
+  default LogProbabilityScore totalScore(int... observations) {
+    Objects.requireNonNull(observations, "observations can't be null.");
+    IntStream range = IntStream.range(0, observations.length);
+    if (observations.length >= Multinomial.PARALLEL_BATCH) {
+      range = range.parallel();
+    }
+    final double[] sums = range.collect(
+        () -> new double[2],
+        (sum, i) -> {
+          sum[0] += logProbability(observations[i]);
+          sum[1] += score(observations[i]);
+        },
+        (left, right) -> {
+          left[0] += right[0];
+          left[1] += right[1];
+        });
+    return new LogProbabilityScore(sums[0], sums[1]);
+  }
+
+  /**
+   * The log probability and score of each observation, into arrays so no
+   * object is created per observation.
+   *
+   * @param observations     the observed random variables
+   * @param logProbabilities receives the log probability of each
+   * @param scores           receives the score of each
+   */
+  default void scores(int[] observations,
+                      double[] logProbabilities,
+                      double[] scores) {
+    Objects.requireNonNull(observations, "observations can't be null.");
+    Objects.requireNonNull(logProbabilities,
+                           "logProbabilities can't be null.");
+    Objects.requireNonNull(scores, "scores can't be null.");
+    assert logProbabilities.length >= observations.length
+        && scores.length >= observations.length : "Arrays are too short.";
+    IntStream range = IntStream.range(0, observations.length);
+    if (observations.length >= Multinomial.PARALLEL_BATCH) {
+      range = range.parallel();
+    }
+    range.forEach(i -> {
+      logProbabilities[i] = logProbability(observations[i]);
+      scores[i] = score(observations[i]);
+    });
+  }
+}
@@ -8,21 +8,44 @@
 package net.jnellis.probability;
 
 import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * An abstract class that represents a discrete probability distribution.
  */
 public abstract class DiscreteProbability implements Probability  {
 
+  /**
+   * The probability mass left out of the streams of distributions with
+   * infinite support when no tail mass is given.
+   */
+  public static final double DEFAULT_TAIL_MASS = 1.0E-15;
+
   private final CumulativeOperation rvOperation;
+  private final double tolerance;
 
   /**
    * Super constructor for derived classes.
    * @param rvOperation The cumulative operation that will be applied.
    */
   DiscreteProbability(CumulativeOperation rvOperation) {
+    this(rvOperation, 0.0);
+  }
+
+  /**
+   * Super constructor for derived classes that opt in to approximations.
+   * @param rvOperation The cumulative operation that will be applied.
+   * @param tolerance   The largest absolute error allowed in the result of
+   *                    {@link #getResult}, zero for exact results.
+   */
+  DiscreteProbability(CumulativeOperation rvOperation, double tolerance) {
+    assert tolerance >= 0.0 : "Tolerance must be non-negative.";
     this.rvOperation =
         Objects.requireNonNull(rvOperation,"rvOperation can't be null.");
+    this.tolerance = tolerance;
   }
 
   /**
@@ -86,16 +109,233 @@ public abstract class DiscreteProbability implements Probability  {
    * computed by means other than summing the probability
    * distribution function. Override {@link #computeResult} to
    * provide the PDF that this function uses.
+   * <p>
+   * When a tolerance was given, an approximation is used instead
+   * if its error bound is within the tolerance.
    *
    * @param randomVariable The random variable of the
    *                       probability function
    * @return The cumulative probability result.
    */
   public double getResult(int randomVariable) {
+    if (tolerance > 0.0) {
+      double approximation = approximateResult(randomVariable);
+      if (!Double.isNaN(approximation)) {
+        return approximation;
+      }
+    }
     return this.getCumulativeOperation()
                .apply(randomVariable, this::computeResult);
   }
 
+  /**
+   * The result of the cumulative operation from
+   * {@link #cumulativeProbability(int)}, with the upper tails from
+   * {@link #survivalProbability(int)}, for distributions whose cumulative
+   * probabilities are cheaper than summing. Operations other than the
+   * constants still sum {@link #computeResult}.
+   *
+   * @param randomVariable The random variable of the
+   *                       probability function
+   * @return The cumulative probability result.
+   */
+  final double resultFromDistribution(int randomVariable) {
+    final CumulativeOperation operation = getCumulativeOperation();
+    if (operation == CumulativeOperation.greaterThan) {
+      return survivalProbability(randomVariable);
+    }
+    if (operation == CumulativeOperation.greaterThanOrEqual) {
+      return survivalProbability(randomVariable - 1);
+    }
+    double result = CumulativeOperation.fromDistribution(
+        operation, randomVariable, this::cumulativeProbability);
+    return Double.isNaN(result)
+           ? operation.apply(randomVariable, this::computeResult)
+           : result;
+  }
+
+  /**
+   * Approximates the cumulative result with an approximation whose
+   * error bound is within the tolerance. Distributions that have
+   * approximations override this.
+   *
+   * @param randomVariable The random variable of the
+   *                       probability function
+   * @return The approximate cumulative result or NaN if no approximation
+   * is accurate enough.
+   */
+  double approximateResult(int randomVariable) {
+    return Double.NaN;
+  }
+
+  /**
+   * The cumulative distribution function, P(Y &lt;= y), regardless of this
+   * distribution's cumulative operation. Distributions with a closed form
+   * override this, otherwise it is the sum of the probability distribution
+   * function.
+   *
+   * @param randomVariable The random variable of the
+   *                       probability function
+   * @return P(Y &lt;= randomVariable)
+   */
+  public double cumulativeProbability(int randomVariable) {
+    return CumulativeOperation.lessThanOrEqual
+                              .apply(randomVariable, this::computeResult);
+  }
+
+  /**
+   * The survival function, P(Y &gt; y), which distributions with a closed
+   * form override to keep the precision of tiny upper tails.
+   *
+   * @param randomVariable The random variable of the
+   *                       probability function
+   * @return P(Y &gt; randomVariable)
+   */
+  public double survivalProbability(int randomVariable) {
+    return 1.0 - cumulativeProbability(randomVariable);
+  }
+
+  /**
+   * The quantile function, the smallest random variable y where
+   * P(Y &lt;= y) is at least the probability. The default brackets the
+   * quantile by {@link #upperLimit} and bisects on
+   * {@link #cumulativeProbability(int)}.
+   *
+   * @param probability a cumulative probability between zero and one.
+   * @return the smallest y with P(Y &lt;= y) &gt;= probability
+   */
+  public int quantile(double probability) {
+    assert betweenZeroAndOneInclusive(probability);
+    int low = -1;
+    int high = upperLimit(1.0 - probability);
+    while (high - low > 1) {
+      int middle = (int) (((long) low + high) / 2);
+      if (cumulativeProbability(middle) < probability) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * A lazy stream of P(Y = y) for y from zero up to the end of the support,
+   * or for infinite supports up to where no more than
+   * {@link #DEFAULT_TAIL_MASS} remains.
+   *
+   * @return probabilities indexed by the random variable.
+   */
+  public DoubleStream pmfStream() {
+    return pmfStream(DEFAULT_TAIL_MASS);
+  }
+
+  /**
+   * A lazy stream of P(Y = y) for y from zero up to the end of the support,
+   * or for infinite supports up to where no more than the tail mass remains.
+   * Values are generated by recurrence from an anchor value and parallel
+   * streams split at freshly computed anchors.
+   *
+   * @param tailMass the largest probability left beyond the stream.
+   * @return probabilities indexed by the random variable.
+   */
+  public DoubleStream pmfStream(double tailMass) {
+    return stream(false, tailMass);
+  }
+
+  /**
+   * A lazy stream of P(Y &lt;= y) for y from zero up to the end of the
+   * support, or for infinite supports up to where no more than
+   * {@link #DEFAULT_TAIL_MASS} remains.
+   *
+   * @return cumulative probabilities indexed by the random variable.
+   */
+  public DoubleStream cdfStream() {
+    return cdfStream(DEFAULT_TAIL_MASS);
+  }
+
+  /**
+   * A lazy stream of P(Y &lt;= y) for y from zero up to the end of the
+   * support, or for infinite supports up to where no more than the tail mass
+   * remains. Values are running sums of the {@link #pmfStream(double)} and
+   * parallel streams split at anchors computed by
+   * {@link #cumulativeProbability(int)}.
+   *
+   * @param tailMass the largest probability left beyond the stream.
+   * @return cumulative probabilities indexed by the random variable.
+   */
+  public DoubleStream cdfStream(double tailMass) {
+    return stream(true, tailMass);
+  }
+
+  private DoubleStream stream(boolean cumulative, double tailMass) {
+    assert tailMass > 0.0 && tailMass < 1.0 : "Tail mass must be in (0,1).";
+    return StreamSupport.doubleStream(
+        new DistributionSpliterator(this, cumulative, 0,
+                                    upperLimit(tailMass) + 1), false);
+  }
+
+  /**
+   * The next probability of the recurrence, P(Y = y+1), given P(Y = y).
+   * Distributions override this with the ratio of successive
+   * probabilities.
+   *
+   * @param randomVariable y
+   * @param result         P(Y = y)
+   * @return P(Y = y + 1)
+   */
+  double nextResult(int randomVariable, double result) {
+    return computeResult(randomVariable + 1);
+  }
+
+  /**
+   * P(Y = y) to start a recurrence from. Distributions whose
+   * {@link #computeResult} grows with its arguments override this with a
+   * density that costs the same everywhere.
+   *
+   * @param randomVariable y
+   * @return P(Y = y)
+   */
+  double anchorResult(int randomVariable) {
+    return computeResult(randomVariable);
+  }
+
+  /**
+   * The largest random variable of the support, or for infinite supports
+   * the smallest random variable with no more than the tail mass above it.
+   *
+   * @param tailMass the largest probability left above the limit.
+   * @return the last random variable worth computing.
+   */
+  int upperLimit(double tailMass) {
+    final double mean = getExpectedValue();
+    if (Double.isNaN(mean) || mean >= Integer.MAX_VALUE - 1) {
+      return Integer.MAX_VALUE - 1;
+    }
+    // double a step of one standard deviation until past the tail
+    // then bisect.
+    int low = -1;
+    int high = Integer.max(0, (int) mean);
+    long step = Long.max(1L, (long) Math.ceil(Math.sqrt(getVariance())));
+    while (survivalProbability(high) > tailMass) {
+      if (high == Integer.MAX_VALUE - 1) {
+        return high;
+      }
+      low = high;
+      high = (int) Long.min(Integer.MAX_VALUE - 1, high + step);
+      step *= 2;
+    }
+    while (high - low > 1) {
+      int middle = (int) (((long) low + high) / 2);
+      if (survivalProbability(middle) > tailMass) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return high;
+  }
+
   /**
    * The CumulativeOperation that will be
    * applied should the getResult method be called.
@@ -107,6 +347,14 @@ public abstract class DiscreteProbability implements Probability  {
     return rvOperation;
   }
 
+  /**
+   * @return The largest absolute error allowed in the result of
+   * {@link #getResult}, zero when results are exact.
+   */
+  public double getTolerance() {
+    return tolerance;
+  }
+
   /**
    * @return The expected value, or mean, for this probability distribution.
    */
@@ -117,4 +365,180 @@ public abstract class DiscreteProbability implements Probability  {
    * @return The variance (&#963;&#178;) of the probability distribution.
    */
   public abstract double getVariance();
+
+  /**
+   * The skewness, E[(Y - &#956;)&#179;] / &#963;&#179;. Distributions with
+   * a closed form override this, otherwise it is an {@link #expectation}.
+   *
+   * @return the skewness, or NaN when the variance is zero.
+   */
+  public double getSkewness() {
+    final double mean = getExpectedValue();
+    final double sd = Math.sqrt(getVariance());
+    return expectation(y -> {
+      double d = (y - mean) / sd;
+      return d * d * d;
+    });
+  }
+
+  /**
+   * The excess kurtosis, E[(Y - &#956;)<sup>4</sup>] / &#963;<sup>4</sup>
+   * - 3, which is zero for the normal distribution. Distributions with a
+   * closed form override this, otherwise it is an {@link #expectation}.
+   *
+   * @return the excess kurtosis, or NaN when the variance is zero.
+   */
+  public double getKurtosis() {
+    final double mean = getExpectedValue();
+    final double variance = getVariance();
+    return expectation(y -> {
+      double d = (y - mean) * (y - mean) / variance;
+      return d * d;
+    }) - 3.0;
+  }
+
+  /**
+   * The factorial moment E[Y(Y-1)...(Y-r+1)]. Distributions with a closed
+   * form override this, otherwise it is an {@link #expectation}.
+   *
+   * @param order r, non-negative.
+   * @return the r-th factorial moment.
+   */
+  public double factorialMoment(int order) {
+    assert nonNegative(order) : "Order must be non-negative.";
+    return expectation(y -> {
+      double product = 1.0;
+      for (int i = 0; i < order; i++) {
+        product *= y - i;
+      }
+      return product;
+    });
+  }
+
+  /**
+   * The probability generating function, G(s) = E[s<sup>Y</sup>].
+   * Distributions with a closed form override this, otherwise it is an
+   * {@link #expectation}, which for infinite supports needs |s| &lt;= 1.
+   *
+   * @param s the argument
+   * @return E[s<sup>Y</sup>]
+   */
+  public double generatingFunction(double s) {
+    return expectation(y -> Math.pow(s, y));
+  }
+
+  /**
+   * E[g(Y)], leaving out no more than {@link #DEFAULT_TAIL_MASS} of
+   * probability.
+   *
+   * @param function g
+   * @return E[g(Y)]
+   * @see #expectation(IntToDoubleFunction, double)
+   */
+  public double expectation(IntToDoubleFunction function) {
+    return expectation(function, DEFAULT_TAIL_MASS);
+  }
+
+  /**
+   * E[g(Y)] = &#931; g(y) P(Y = y), summed over the support between the
+   * quantile of half the tail mass and the {@link #upperLimit} of the other
+   * half, so the probability left out is no more than the tail mass. When g
+   * is bounded by M the error from the truncation is no more than M times
+   * the tail mass; functions that grow with y need a smaller tail mass.
+   * <p>
+   * Probabilities are generated by the distribution's recurrence in blocks,
+   * each starting from a directly computed probability, and the blocks are
+   * summed in parallel.
+   *
+   * @param function g
+   * @param tailMass the largest probability left out of the sum.
+   * @return E[g(Y)]
+   */
+  public double expectation(IntToDoubleFunction function, double tailMass) {
+    Objects.requireNonNull(function, "function can't be null.");
+    assert tailMass > 0.0 && tailMass < 1.0 : "Tail mass must be in (0,1).";
+    return sum(function, lowerLimit(tailMass / 2.0),
+               upperLimit(tailMass / 2.0))[0];
+  }
+
+  /**
+   * The truncated expectation E[g(Y) | a &lt;= Y &lt;= b], the sum of g(y)
+   * P(Y = y) over the range divided by the probability of the range. The
+   * probability left out of the range's sum is no more than
+   * {@link #DEFAULT_TAIL_MASS} of the range's own, so ranges far out in a
+   * tail keep their precision.
+   *
+   * @param function g
+   * @param lowest   a, the smallest random variable of the range
+   * @param highest  b, the largest random variable of the range
+   * @return E[g(Y) | a &lt;= Y &lt;= b], or NaN when the range has no
+   * probability.
+   */
+  public double conditionalExpectation(IntToDoubleFunction function,
+                                       int lowest,
+                                       int highest) {
+    Objects.requireNonNull(function, "function can't be null.");
+    assert lowest <= highest : "The range can't be empty.";
+    final int below = lowest <= 0 ? -1 : lowest - 1;
+    // the tail the range is in keeps the precision of its probability.
+    final double mass = highest < getExpectedValue()
+                        ? cumulativeProbability(highest)
+                            - cumulativeProbability(below)
+                        : survivalProbability(below)
+                            - survivalProbability(highest);
+    if (!(mass > 0.0)) {
+      return Double.NaN;
+    }
+    final double tailMass = DEFAULT_TAIL_MASS * Double.min(1.0, mass) / 2.0;
+    final int upper = Integer.min(highest, upperLimit(tailMass));
+    final int lower = Integer.min(upper,
+                                  Integer.max(lowest, lowerLimit(tailMass)));
+    final double[] sums = sum(function, lower, upper);
+    return sums[1] > 0.0 ? sums[0] / sums[1] : Double.NaN;
+  }
+
+  /**
+   * The smallest random variable with no more than the tail mass below it.
+   */
+  private int lowerLimit(double tailMass) {
+    return Integer.max(0, quantile(tailMass));
+  }
+
+  /**
+   * Sums g(y) P(Y = y) and P(Y = y) over the range, in parallel blocks.
+   */
+  private double[] sum(IntToDoubleFunction function, int lowest, int highest) {
+    final int from = Integer.max(0, lowest);
+    final long size = (long) highest - from + 1;
+    if (size <= 0) {
+      return new double[2];
+    }
+    final int block = Multinomial.PARALLEL_BATCH;
+    final int blocks = (int) ((size + block - 1) / block);
+    IntStream range = IntStream.range(0, blocks);
+    if (blocks > 1) {
+      range = range.parallel();
+    }
+    return range.mapToObj(i -> {
+      int start = from + i * block;
+      int end = (int) Long.min(highest, (long) start + block - 1);
+      double expectation = 0.0;
+      double mass = 0.0;
+      double probability = anchorResult(start);
+      for (int y = start; ; y++) {
+        // zero probabilities don't evaluate g, which may not be finite.
+        if (probability > 0.0) {
+          expectation += function.applyAsDouble(y) * probability;
+          mass += probability;
+        }
+        if (y == end) {
+          break;
+        }
+        probability = nextResult(y, probability);
+      }
+      return new double[]{expectation, mass};
+    }).reduce(new double[2],
+              (left, right) -> new double[]{left[0] + right[0],
+                                            left[1] + right[1]});
+  }
 }
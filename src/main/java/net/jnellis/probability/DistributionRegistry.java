@@ -0,0 +1,428 @@
+/*
+ * DistributionRegistry.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interns distributions by their type and parameters so every thread that
+ * asks for the same distribution shares one instance, and one table of it
+ * once it has been tabulated.
+ * <p>
+ * Lookups of a distribution already in the registry are a read of a
+ * concurrent map and of a clock that only misses advance, without locks.
+ * Distributions with a tolerance answer approximately and are not interned. The
+ * registry is bounded by an estimate of the memory its entries hold, about
+ * 24 bytes per tabulated value plus a fixed amount per instance. When an
+ * entry pushes it over the bound, the thread that gets the eviction lock
+ * evicts the least recently used entries down to seven eighths of the
+ * bound, so evictions are batched rather than paid on every insert.
+ * Evicted instances keep working for whoever holds them.
+ * <pre>
+ * DistributionRegistry registry = DistributionRegistry.shared();
+ * DiscreteProbability pdf = registry.get(lessThanOrEqual,
+ *                                        DistributionType.binomial, 1000, 0.3);
+ * TabulatedDistribution table = registry.tabulated(
+ *     greaterThan, DistributionType.poisson, 4.5);
+ * </pre>
+ */
+public final class DistributionRegistry {
+
+  /**
+   * The bound of the shared registry, 64 MB.
+   */
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 64L << 20;
+
+  /**
+   * The estimated weight of an entry and of each of its instances.
+   */
+  static final long ENTRY_WEIGHT = 256L;
+  static final long INSTANCE_WEIGHT = 64L;
+
+  /**
+   * The estimated weight of a tabulated value, its probability, cumulative
+   * and survival probability.
+   */
+  static final long TABLE_VALUE_WEIGHT = 24L;
+
+  private static final class Shared {
+    static final DistributionRegistry REGISTRY =
+        new DistributionRegistry(DEFAULT_MAXIMUM_WEIGHT);
+  }
+
+  private static final class Key {
+    final DistributionType type;
+    final double[] parameters;
+    final int hash;
+
+    Key(DistributionType type, double[] parameters) {
+      this.type = type;
+      this.parameters = parameters;
+      this.hash = 31 * type.hashCode() + Arrays.hashCode(parameters);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return type == key.type && Arrays.equals(parameters, key.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final class Entry {
+    final Key key;
+    final ConcurrentHashMap<CumulativeOperation, DiscreteProbability>
+        instances = new ConcurrentHashMap<>(4);
+    final ConcurrentHashMap<CumulativeOperation, TabulatedDistribution>
+        tabulated = new ConcurrentHashMap<>(4);
+    volatile ProbabilityTables tables;
+    // racy, eviction only needs an approximate order.
+    long lastAccess;
+    // guarded by the entry.
+    long weight;
+    boolean evicted;
+
+    Entry(Key key) {
+      this.key = key;
+    }
+  }
+
+  private final long maximumWeight;
+  private final ConcurrentHashMap<Key, Entry> entries =
+      new ConcurrentHashMap<>();
+  // advanced by every miss, entries remember the tick they were last used.
+  private volatile long clock;
+  private final AtomicLong weight = new AtomicLong();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param maximumWeight the estimated bytes the registry may hold before
+   *                      it evicts entries.
+   */
+  public DistributionRegistry(long maximumWeight) {
+    assert maximumWeight > 0L : "Maximum weight must be positive.";
+    this.maximumWeight = maximumWeight;
+  }
+
+  /**
+   * @return the registry shared by the whole process, bounded by
+   * {@link #DEFAULT_MAXIMUM_WEIGHT}.
+   */
+  public static DistributionRegistry shared() {
+    return Shared.REGISTRY;
+  }
+
+  /**
+   * The registry's distribution of a type with the parameters and
+   * cumulative operation, created the first time it is asked for.
+   *
+   * @param rvOperation The cumulative operation on the distribution
+   * @param type        the type of distribution, other than tabulated.
+   * @param parameters  the parameters in the order of the type's
+   *                    description.
+   * @return the shared distribution
+   */
+  public DiscreteProbability get(CumulativeOperation rvOperation,
+                                 DistributionType type,
+                                 double... parameters) {
+    Objects.requireNonNull(rvOperation, "rvOperation can't be null.");
+    final Entry entry = entry(type, parameters);
+    DiscreteProbability distribution = entry.instances.get(rvOperation);
+    if (distribution == null) {
+      final boolean[] created = {false};
+      distribution = entry.instances.computeIfAbsent(
+          rvOperation, operation -> {
+            created[0] = true;
+            return type.create(operation, entry.key.parameters);
+          });
+      if (created[0]) {
+        addWeight(entry, INSTANCE_WEIGHT);
+      }
+    }
+    return distribution;
+  }
+
+  /**
+   * The registry's instance equal to a distribution, by its type,
+   * parameters and cumulative operation. Tabulated distributions and
+   * distributions with a tolerance, whose results are approximate, aren't
+   * interned and are returned as they are.
+   *
+   * @param distribution a distribution
+   * @return the shared distribution
+   */
+  public DiscreteProbability intern(DiscreteProbability distribution) {
+    final DistributionType type = DistributionType.of(distribution);
+    if (type == DistributionType.tabulated
+        || distribution.getTolerance() > 0.0) {
+      return distribution;
+    }
+    final Entry entry = entry(type, type.parameters(distribution));
+    final CumulativeOperation operation =
+        distribution.getCumulativeOperation();
+    DiscreteProbability interned = entry.instances.get(operation);
+    if (interned == null) {
+      interned = entry.instances.putIfAbsent(operation, distribution);
+      if (interned == null) {
+        interned = distribution;
+        addWeight(entry, INSTANCE_WEIGHT);
+      }
+    }
+    return interned;
+  }
+
+  /**
+   * A table of the registry's distribution up to the end of its support,
+   * or with no more than {@link DiscreteProbability#DEFAULT_TAIL_MASS} left
+   * out, which is computed once and shared by every cumulative operation.
+   *
+   * @param rvOperation The cumulative operation on the table
+   * @param type        the type of distribution, other than tabulated.
+   * @param parameters  the parameters in the order of the type's
+   *                    description.
+   * @return the shared table
+   */
+  public TabulatedDistribution tabulated(CumulativeOperation rvOperation,
+                                         DistributionType type,
+                                         double... parameters) {
+    Objects.requireNonNull(rvOperation, "rvOperation can't be null.");
+    final Entry entry = entry(type, parameters);
+    TabulatedDistribution table = entry.tabulated.get(rvOperation);
+    if (table == null) {
+      final ProbabilityTables tables = tables(entry);
+      final DiscreteProbability distribution =
+          entry.instances.get(CumulativeOperation.equal);
+      final boolean[] created = {false};
+      table = entry.tabulated.computeIfAbsent(rvOperation, operation -> {
+        created[0] = true;
+        return new TabulatedDistribution(operation, tables,
+                                         distribution.getExpectedValue(),
+                                         distribution.getVariance());
+      });
+      if (created[0]) {
+        addWeight(entry, INSTANCE_WEIGHT);
+      }
+    }
+    return table;
+  }
+
+  private ProbabilityTables tables(Entry entry) {
+    ProbabilityTables tables = entry.tables;
+    if (tables == null) {
+      boolean created = false;
+      synchronized (entry) {
+        tables = entry.tables;
+        if (tables == null) {
+          tables = ProbabilityTables.of(
+              entry.instances.get(CumulativeOperation.equal)
+                             .pmfStream().toArray());
+          entry.tables = tables;
+          created = true;
+        }
+      }
+      // weighed outside the entry's lock, eviction locks other entries.
+      if (created) {
+        addWeight(entry, TABLE_VALUE_WEIGHT * tables.size());
+      }
+    }
+    return tables;
+  }
+
+  private Entry entry(DistributionType type, double[] parameters) {
+    Objects.requireNonNull(type, "type can't be null.");
+    Objects.requireNonNull(parameters, "parameters can't be null.");
+    if (type == DistributionType.tabulated) {
+      throw new IllegalArgumentException(
+          "A tabulated distribution needs its table.");
+    }
+    final double[] normalized = normalize(type, parameters);
+    Entry entry = entries.get(new Key(type, normalized));
+    if (entry == null) {
+      misses.increment();
+      clock++;
+      // keys keep their own copy, the caller may reuse its array.
+      final Key key = new Key(type, normalized == parameters
+                                    ? parameters.clone()
+                                    : normalized);
+      // create the first instance before the entry so that invalid
+      // parameters never leave an entry behind.
+      DiscreteProbability distribution =
+          type.create(CumulativeOperation.equal, key.parameters);
+      Entry created = new Entry(key);
+      created.instances.put(CumulativeOperation.equal, distribution);
+      entry = entries.putIfAbsent(key, created);
+      if (entry == null) {
+        entry = created;
+        addWeight(entry, ENTRY_WEIGHT + INSTANCE_WEIGHT);
+      }
+    } else {
+      hits.increment();
+    }
+    final long tick = clock;
+    if (entry.lastAccess != tick) {
+      entry.lastAccess = tick;
+    }
+    return entry;
+  }
+
+  /**
+   * Counts truncated as the distributions' constructors truncate them, so
+   * parameters that make the same distribution make the same key. The
+   * parameters are returned as they are when they are already whole.
+   */
+  private static double[] normalize(DistributionType type,
+                                    double[] parameters) {
+    double[] normalized = parameters;
+    for (int i = 0; i < parameters.length; i++) {
+      if (type.isCount(i) && parameters[i] != (int) parameters[i]) {
+        if (normalized == parameters) {
+          normalized = parameters.clone();
+        }
+        normalized[i] = (int) parameters[i];
+      }
+    }
+    return normalized;
+  }
+
+  private void addWeight(Entry entry, long added) {
+    synchronized (entry) {
+      // an evicted entry no longer counts against the registry.
+      if (entry.evicted) {
+        return;
+      }
+      entry.weight += added;
+    }
+    if (weight.addAndGet(added) > maximumWeight && evictionLock.tryLock()) {
+      try {
+        evict();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Evicts the least recently used entries down to seven eighths of the
+   * maximum weight.
+   */
+  private void evict() {
+    final long target = maximumWeight - (maximumWeight >> 3);
+    if (weight.get() <= target) {
+      return;
+    }
+    final List<Entry> candidates = new ArrayList<>(entries.values());
+    final long[] accessed = new long[candidates.size()];
+    for (int i = 0; i < accessed.length; i++) {
+      accessed[i] = candidates.get(i).lastAccess;
+    }
+    // sort on the access times read once, they change while sorting.
+    final Integer[] order = new Integer[accessed.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong(i -> accessed[i]));
+    for (int i = 0; i < order.length && weight.get() > target; i++) {
+      Entry entry = candidates.get(order[i]);
+      if (entries.remove(entry.key, entry)) {
+        long removed;
+        synchronized (entry) {
+          entry.evicted = true;
+          removed = entry.weight;
+        }
+        weight.addAndGet(-removed);
+        evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Removes every entry.
+   */
+  public void clear() {
+    evictionLock.lock();
+    try {
+      for (Entry entry : entries.values()) {
+        if (entries.remove(entry.key, entry)) {
+          long removed;
+          synchronized (entry) {
+            entry.evicted = true;
+            removed = entry.weight;
+          }
+          weight.addAndGet(-removed);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of distinct types and parameters in the registry.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the estimated bytes the registry holds.
+   */
+  public long getWeight() {
+    return weight.get();
+  }
+
+  /**
+   * @return the estimated bytes the registry may hold.
+   */
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  /**
+   * @return the number of lookups that found their type and parameters.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of lookups that created an entry.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of entries evicted to stay within the maximum
+   * weight.
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * DistributionSpliterator.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A spliterator over the probabilities, or cumulative probabilities, of a
+ * distribution's random variable from zero up to a limit.
+ * <p>
+ * The first value is computed directly and is the anchor for the rest, which
+ * are generated by the distribution's recurrence from one random variable to
+ * the next. A split hands the prefix, and the recurrence state, to the new
+ * spliterator and this one recomputes a fresh anchor at the midpoint, so no
+ * prefix is ever computed twice.
+ */
+final class DistributionSpliterator implements Spliterator.OfDouble {
+
+  /**
+   * Ranges smaller than this are not worth a new anchor.
+   */
+  private static final int MINIMUM_SPLIT = 1024;
+
+  private final DiscreteProbability distribution;
+  private final boolean cumulative;
+  private final int end;
+  private int next;
+  private boolean anchored;
+  private double probability;
+  private double cumulativeProbability;
+
+  /**
+   * @param distribution the distribution whose values are generated
+   * @param cumulative   true for P(Y &lt;= y), false for P(Y = y)
+   * @param start        the first random variable
+   * @param end          one past the last random variable
+   */
+  DistributionSpliterator(DiscreteProbability distribution,
+                          boolean cumulative,
+                          int start,
+                          int end) {
+    this.distribution = distribution;
+    this.cumulative = cumulative;
+    this.next = start;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(DoubleConsumer action) {
+    if (next >= end) {
+      return false;
+    }
+    action.accept(advance());
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(DoubleConsumer action) {
+    while (next < end) {
+      action.accept(advance());
+    }
+  }
+
+  private double advance() {
+    if (anchored) {
+      probability = distribution.nextResult(next - 1, probability);
+      cumulativeProbability += probability;
+    } else {
+      probability = distribution.computeResult(next);
+      if (cumulative) {
+        cumulativeProbability = distribution.cumulativeProbability(next);
+      }
+      anchored = true;
+    }
+    next++;
+    return cumulative ? Math.min(1.0, cumulativeProbability) : probability;
+  }
+
+  @Override
+  public Spliterator.OfDouble trySplit() {
+    if (end - next < 2 * MINIMUM_SPLIT) {
+      return null;
+    }
+    int middle = next + (end - next) / 2;
+    DistributionSpliterator prefix =
+        new DistributionSpliterator(distribution, cumulative, next, middle);
+    prefix.anchored = anchored;
+    prefix.probability = probability;
+    prefix.cumulativeProbability = cumulativeProbability;
+    next = middle;
+    anchored = false;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return end - next;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  }
+}
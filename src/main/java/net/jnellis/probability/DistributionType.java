@@ -0,0 +1,188 @@
+/*
+ * DistributionType.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+
+/**
+ * The families of distributions by their parameters, so a distribution can
+ * be described by its type and a parameter array and be recreated from
+ * them. Each type has a fixed code for storing it, such as in the header of
+ * a {@link MappedDistribution} file.
+ * <pre>
+ * DistributionType type = DistributionType.of(pdf);
+ * double[] parameters = type.parameters(pdf);
+ * DiscreteProbability copy = type.create(lessThan, parameters);
+ * </pre>
+ */
+public enum DistributionType {
+  /**
+   * A table of probabilities, which has no parameters.
+   */
+  tabulated(0, 0),
+  /**
+   * {trials, chanceOfSuccess}
+   */
+  binomial(1, 2),
+  /**
+   * {lambda}
+   */
+  poisson(2, 1),
+  /**
+   * {chanceOfSuccess}
+   */
+  geometric(3, 1),
+  /**
+   * {successfulTrials, chanceOfSuccess}
+   */
+  negativeBinomial(4, 2),
+  /**
+   * {populationSize, sampleSize, successStates}
+   */
+  hyperGeometric(5, 3);
+
+  private final int code;
+  private final int parameterCount;
+
+  DistributionType(int code, int parameterCount) {
+    this.code = code;
+    this.parameterCount = parameterCount;
+  }
+
+  /**
+   * @return the code that identifies this type when stored.
+   */
+  public int getCode() {
+    return code;
+  }
+
+  /**
+   * @return the number of parameters of this type.
+   */
+  public int getParameterCount() {
+    return parameterCount;
+  }
+
+  /**
+   * @param index the index of a parameter in this type's description
+   * @return true when the parameter is a count, which
+   * {@link #create(CumulativeOperation, double...)} truncates to an int.
+   */
+  boolean isCount(int index) {
+    switch (this) {
+      case binomial:
+      case negativeBinomial:
+        return index == 0;
+      case hyperGeometric:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @param code a stored code
+   * @return the type with the code
+   * @throws IllegalArgumentException when no type has the code.
+   */
+  public static DistributionType fromCode(int code) {
+    for (DistributionType type : values()) {
+      if (type.code == code) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Unknown distribution type " + code);
+  }
+
+  /**
+   * @param distribution a distribution
+   * @return its type, any distribution other than the five named ones is
+   * tabulated.
+   */
+  public static DistributionType of(DiscreteProbability distribution) {
+    Objects.requireNonNull(distribution, "distribution can't be null.");
+    if (distribution instanceof Binomial) {
+      return binomial;
+    }
+    if (distribution instanceof Poisson) {
+      return poisson;
+    }
+    if (distribution instanceof Geometric) {
+      return geometric;
+    }
+    if (distribution instanceof NegativeBinomial) {
+      return negativeBinomial;
+    }
+    if (distribution instanceof HyperGeometric) {
+      return hyperGeometric;
+    }
+    return tabulated;
+  }
+
+  /**
+   * The parameters of a distribution of this type.
+   *
+   * @param distribution a distribution of this type
+   * @return its parameters in the order of this type's description.
+   */
+  public double[] parameters(DiscreteProbability distribution) {
+    assert of(distribution) == this : "Distribution is not a " + this;
+    switch (this) {
+      case binomial:
+        Binomial b = (Binomial) distribution;
+        return new double[]{b.getTrials(), b.getChanceOfSuccess()};
+      case poisson:
+        return new double[]{((Poisson) distribution).getLambda()};
+      case geometric:
+        return new double[]{((Geometric) distribution).getChanceOfSuccess()};
+      case negativeBinomial:
+        NegativeBinomial nb = (NegativeBinomial) distribution;
+        return new double[]{nb.getSuccessfulTrials(), nb.getChanceOfSuccess()};
+      case hyperGeometric:
+        HyperGeometric h = (HyperGeometric) distribution;
+        return new double[]{h.getPopulationSize(), h.getSampleSize(),
+                            h.getSuccessStates()};
+      default:
+        return new double[0];
+    }
+  }
+
+  /**
+   * Creates a distribution of this type.
+   *
+   * @param rvOperation The cumulative operation on the distribution
+   * @param parameters  the parameters in the order of this type's
+   *                    description.
+   * @return the distribution
+   * @throws UnsupportedOperationException for tabulated distributions,
+   *                                       which need their table.
+   */
+  public DiscreteProbability create(CumulativeOperation rvOperation,
+                                    double... parameters) {
+    assert parameters.length == parameterCount
+        : this + " needs " + parameterCount + " parameters.";
+    switch (this) {
+      case binomial:
+        return new Binomial(rvOperation, (int) parameters[0], parameters[1]);
+      case poisson:
+        return new Poisson(rvOperation, parameters[0]);
+      case geometric:
+        return new Geometric(rvOperation, parameters[0]);
+      case negativeBinomial:
+        return new NegativeBinomial(rvOperation, (int) parameters[0],
+                                    parameters[1]);
+      case hyperGeometric:
+        return new HyperGeometric(rvOperation, (int) parameters[0],
+                                  (int) parameters[1], (int) parameters[2]);
+      default:
+        throw new UnsupportedOperationException(
+            "A tabulated distribution needs its table.");
+    }
+  }
+}
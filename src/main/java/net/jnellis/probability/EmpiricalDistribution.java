@@ -0,0 +1,242 @@
+/*
+ * EmpiricalDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * The distribution of observed counts of a random variable from zero up to
+ * a largest value, which can be updated while it is being queried.
+ * <p>
+ * Counts are kept in a Fenwick tree, a binary indexed tree of partial sums,
+ * so an update, any cumulative probability and a quantile each cost
+ * O(log n) rather than rebuilding running sums on every read. Updates are
+ * lock-free atomic adds. A query that runs during updates sees each of them
+ * wholly, partly or not at all, so take a {@link #snapshot()} when a set of
+ * queries must agree with each other.
+ * <pre>
+ * EmpiricalDistribution observed = new EmpiricalDistribution(lessThan, 100);
+ * observed.add(12);
+ * observed.add(40, 3);
+ * double underTwenty = observed.getResult(20);
+ * int median = observed.quantile(0.5);
+ * </pre>
+ */
+public class EmpiricalDistribution extends DiscreteProbability {
+
+  private final int largestValue;
+  private final AtomicLongArray counts;
+  private final AtomicLongArray tree;
+  private final DoubleAdder sum = new DoubleAdder();
+  private final DoubleAdder sumOfSquares = new DoubleAdder();
+
+  /**
+   * Creates an empty distribution.
+   *
+   * @param rvOperation  The cumulative operation on this probability
+   * @param largestValue The largest value that can be observed.
+   */
+  public EmpiricalDistribution(CumulativeOperation rvOperation,
+                               int largestValue) {
+    super(rvOperation);
+    assert nonNegative(largestValue) && largestValue < Integer.MAX_VALUE - 1;
+    this.largestValue = largestValue;
+    this.counts = new AtomicLongArray(largestValue + 1);
+    this.tree = new AtomicLongArray(largestValue + 2);
+  }
+
+  /**
+   * Creates a distribution from a table of counts indexed by the value.
+   *
+   * @param rvOperation The cumulative operation on this probability
+   * @param counts      the count of each value from zero.
+   */
+  public EmpiricalDistribution(CumulativeOperation rvOperation,
+                               long[] counts) {
+    this(rvOperation, counts.length - 1);
+    for (int i = 0; i < counts.length; i++) {
+      assert counts[i] >= 0 : "Counts can't be negative.";
+      this.counts.set(i, counts[i]);
+      sum.add((double) i * counts[i]);
+      sumOfSquares.add((double) i * i * counts[i]);
+    }
+    // build the tree in linear time, each node passes its partial sum up
+    // to its parent.
+    final int size = tree.length();
+    for (int i = 1; i < size; i++) {
+      long value = tree.get(i) + counts[i - 1];
+      tree.set(i, value);
+      int parent = i + (i & -i);
+      if (parent < size) {
+        tree.set(parent, tree.get(parent) + value);
+      }
+    }
+  }
+
+  /**
+   * Observes a value once.
+   *
+   * @param value the observed value
+   */
+  public void add(int value) {
+    add(value, 1L);
+  }
+
+  /**
+   * Adds to the count of a value, a negative count removes observations.
+   *
+   * @param value the observed value
+   * @param count the number of times it was observed
+   */
+  public void add(int value, long count) {
+    assert 0 <= value && value <= largestValue : "Value out of range.";
+    counts.getAndAdd(value, count);
+    for (int i = value + 1; i < tree.length(); i += i & -i) {
+      tree.getAndAdd(i, count);
+    }
+    sum.add((double) value * count);
+    sumOfSquares.add((double) value * value * count);
+  }
+
+  /**
+   * @param value a value
+   * @return the number of times the value was observed.
+   */
+  public long getCount(int value) {
+    if (value < 0 || value > largestValue) {
+      return 0L;
+    }
+    return counts.get(value);
+  }
+
+  /**
+   * @return the number of observations.
+   */
+  public long getTotal() {
+    return prefix(largestValue);
+  }
+
+  /**
+   * @return the largest value that can be observed.
+   */
+  public int getLargestValue() {
+    return largestValue;
+  }
+
+  /**
+   * The sum of the counts of every value up to and including a value.
+   */
+  private long prefix(int value) {
+    long result = 0L;
+    for (int i = Integer.min(value, largestValue) + 1; i > 0; i -= i & -i) {
+      result += tree.get(i);
+    }
+    return result;
+  }
+
+  @Override
+  public double computeResult(int randomVariable) {
+    long total = getTotal();
+    return total == 0L ? 0.0 : (double) getCount(randomVariable) / total;
+  }
+
+  /**
+   * Cumulative operations are answered from two prefix sums of the tree.
+   */
+  @Override
+  public double getResult(int randomVariable) {
+    return resultFromDistribution(randomVariable);
+  }
+
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 0.0;
+    }
+    long total = getTotal();
+    if (total == 0L) {
+      return 0.0;
+    }
+    return Math.min(1.0, (double) prefix(randomVariable) / total);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 1.0;
+    }
+    long total = getTotal();
+    if (total == 0L) {
+      return 0.0;
+    }
+    return Math.max(0.0, (double) (total - prefix(randomVariable)) / total);
+  }
+
+  /**
+   * Descends the tree for the smallest value whose cumulative count reaches
+   * the probability's share of the total.
+   */
+  @Override
+  public int quantile(double probability) {
+    assert betweenZeroAndOneInclusive(probability);
+    final double target = probability * getTotal();
+    // position is the largest index whose prefix sum is below the target.
+    int position = 0;
+    double below = 0.0;
+    for (int step = Integer.highestOneBit(tree.length() - 1); step > 0;
+         step >>= 1) {
+      int next = position + step;
+      if (next < tree.length() && below + tree.get(next) < target) {
+        position = next;
+        below += tree.get(next);
+      }
+    }
+    return Integer.min(position, largestValue);
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return largestValue;
+  }
+
+  /**
+   * @return an independent copy of this distribution, which contains each
+   * update made while it was taken either wholly or not at all.
+   */
+  public EmpiricalDistribution snapshot() {
+    long[] copy = new long[largestValue + 1];
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = counts.get(i);
+    }
+    return new EmpiricalDistribution(getCumulativeOperation(), copy);
+  }
+
+  /**
+   * The Expected Value is the mean of the observations.
+   */
+  @Override
+  public double getExpectedValue() {
+    long total = getTotal();
+    return total == 0L ? Double.NaN : sum.sum() / total;
+  }
+
+  /**
+   * The Variance is the population variance of the observations.
+   */
+  @Override
+  public double getVariance() {
+    long total = getTotal();
+    if (total == 0L) {
+      return Double.NaN;
+    }
+    double mean = sum.sum() / total;
+    return Math.max(0.0, sumOfSquares.sum() / total - mean * mean);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * FastFourierTransform.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * A radix-2 fast Fourier transform and the convolution of probability
+ * tables built on it.
+ * <p>
+ * Convolution by transform has an absolute error of a few ulps of the
+ * largest value, so values smaller than about 1e-15 of the peak are
+ * rounding noise. Short tables are convolved directly, which is both
+ * faster and exact to the last bit.
+ */
+final class FastFourierTransform {
+
+  /**
+   * Convolutions where either table is this short are summed directly.
+   */
+  static final int DIRECT_LIMIT = 64;
+
+  private FastFourierTransform() {}
+
+  /**
+   * @param n a positive value
+   * @return the smallest power of two that is at least n
+   */
+  static int powerOfTwo(int n) {
+    int size = Integer.highestOneBit(n);
+    return size == n ? n : size << 1;
+  }
+
+  /**
+   * Transforms in place, the length must be a power of two.
+   *
+   * @param real      the real parts
+   * @param imaginary the imaginary parts
+   * @param inverse   true for the inverse transform, which is scaled by 1/n
+   */
+  static void transform(double[] real, double[] imaginary, boolean inverse) {
+    final int n = real.length;
+    assert Integer.bitCount(n) == 1 : "Length must be a power of two.";
+    // bit reversal permutation
+    for (int i = 1, j = 0; i < n; i++) {
+      int bit = n >> 1;
+      for (; (j & bit) != 0; bit >>= 1) {
+        j ^= bit;
+      }
+      j ^= bit;
+      if (i < j) {
+        double t = real[i];
+        real[i] = real[j];
+        real[j] = t;
+        t = imaginary[i];
+        imaginary[i] = imaginary[j];
+        imaginary[j] = t;
+      }
+    }
+    // twiddle factors computed directly rather than by recurrence to keep
+    // their precision.
+    final int half = n >> 1;
+    final double[] cos = new double[half];
+    final double[] sin = new double[half];
+    final double sign = inverse ? 1.0 : -1.0;
+    for (int k = 0; k < half; k++) {
+      double angle = 2.0 * Math.PI * k / n;
+      cos[k] = Math.cos(angle);
+      sin[k] = sign * Math.sin(angle);
+    }
+    for (int length = 2; length <= n; length <<= 1) {
+      final int halfLength = length >> 1;
+      final int stride = n / length;
+      for (int start = 0; start < n; start += length) {
+        for (int k = 0; k < halfLength; k++) {
+          int even = start + k;
+          int odd = even + halfLength;
+          double wr = cos[k * stride];
+          double wi = sin[k * stride];
+          double tr = real[odd] * wr - imaginary[odd] * wi;
+          double ti = real[odd] * wi + imaginary[odd] * wr;
+          real[odd] = real[even] - tr;
+          imaginary[odd] = imaginary[even] - ti;
+          real[even] += tr;
+          imaginary[even] += ti;
+        }
+      }
+    }
+    if (inverse) {
+      for (int i = 0; i < n; i++) {
+        real[i] /= n;
+        imaginary[i] /= n;
+      }
+    }
+  }
+
+  /**
+   * The convolution of two probability tables, negative rounding noise from
+   * the transform is clipped to zero.
+   *
+   * @param left  a probability table
+   * @param right a probability table
+   * @return a table of length left.length + right.length - 1
+   */
+  static double[] convolve(double[] left, double[] right) {
+    final int length = left.length + right.length - 1;
+    if (Integer.min(left.length, right.length) <= DIRECT_LIMIT) {
+      return convolveDirectly(left, right);
+    }
+    // Transform both real tables at once as the real and imaginary parts
+    // of one complex table.
+    final int n = powerOfTwo(length);
+    double[] real = new double[n];
+    double[] imaginary = new double[n];
+    System.arraycopy(left, 0, real, 0, left.length);
+    System.arraycopy(right, 0, imaginary, 0, right.length);
+    transform(real, imaginary, false);
+    double[] productReal = new double[n];
+    double[] productImaginary = new double[n];
+    for (int k = 0; k < n; k++) {
+      int j = (n - k) & (n - 1);
+      // separate the two transforms by their conjugate symmetry
+      double leftReal = 0.5 * (real[k] + real[j]);
+      double leftImaginary = 0.5 * (imaginary[k] - imaginary[j]);
+      double rightReal = 0.5 * (imaginary[k] + imaginary[j]);
+      double rightImaginary = -0.5 * (real[k] - real[j]);
+      productReal[k] = leftReal * rightReal - leftImaginary * rightImaginary;
+      productImaginary[k] =
+          leftReal * rightImaginary + leftImaginary * rightReal;
+    }
+    transform(productReal, productImaginary, true);
+    double[] result = new double[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = Math.max(0.0, productReal[i]);
+    }
+    return result;
+  }
+
+  /**
+   * The convolution of two tables by direct summation.
+   *
+   * @param left  a table
+   * @param right a table
+   * @return a table of length left.length + right.length - 1
+   */
+  static double[] convolveDirectly(double[] left, double[] right) {
+    double[] result = new double[left.length + right.length - 1];
+    for (int i = 0; i < left.length; i++) {
+      double value = left[i];
+      if (value == 0.0) {
+        continue;
+      }
+      for (int j = 0; j < right.length; j++) {
+        result[i + j] += value * right[j];
+      }
+    }
+    return result;
+  }
+}
@@ -33,7 +33,8 @@ package net.jnellis.probability;
  * double result = Geometric.probability(3,1.0/6.0);
  * </pre>
  */
-public class Geometric extends DiscreteProbability {
+public class Geometric extends DiscreteProbability
+    implements DifferentiableProbability {
 
   private final double p;
 
@@ -43,6 +44,13 @@ public class Geometric extends DiscreteProbability {
     this.p = chanceOfSuccess;
   }
 
+  /**
+   * @return the chance of success of a single trial.
+   */
+  public double getChanceOfSuccess() {
+    return p;
+  }
+
   /**
    * Expected value or population mean is defined by
    * E(Y) = 1/p
@@ -61,11 +69,124 @@ public class Geometric extends DiscreteProbability {
     return p == 0.0 ? Double.POSITIVE_INFINITY : (1.0 - p) / (p * p);
   }
 
+  /**
+   * Skewness is defined by
+   * (2-p)/sqrt(1-p)
+   */
+  @Override
+  public double getSkewness() {
+    return p == 0.0 || p == 1.0 ? Double.NaN : (2.0 - p) / Math.sqrt(1.0 - p);
+  }
+
+  /**
+   * Excess kurtosis is defined by
+   * 6 + p^2/(1-p)
+   */
+  @Override
+  public double getKurtosis() {
+    return p == 0.0 || p == 1.0 ? Double.NaN : 6.0 + p * p / (1.0 - p);
+  }
+
+  /**
+   * Factorial moments are defined by
+   * E[Y(Y-1)...(Y-r+1)] = r! (1-p)^(r-1) / p^r
+   */
+  @Override
+  public double factorialMoment(int order) {
+    assert nonNegative(order) : "Order must be non-negative.";
+    if (order == 0) {
+      return 1.0;
+    }
+    double moment = p == 0.0 ? Double.POSITIVE_INFINITY : reciprocal(p);
+    for (int i = 2; i <= order; i++) {
+      moment *= i * (1.0 - p) / p;
+    }
+    return moment;
+  }
+
+  /**
+   * The generating function is defined by
+   * G(s) = ps/(1-(1-p)s), which diverges for |(1-p)s| &gt;= 1
+   */
+  @Override
+  public double generatingFunction(double s) {
+    final double ratio = (1.0 - p) * s;
+    if (Math.abs(ratio) >= 1.0) {
+      return s > 0.0 ? Double.POSITIVE_INFINITY : Double.NaN;
+    }
+    return p * s / (1.0 - ratio);
+  }
+
   @Override
   public double computeResult(int randomVariable) {
     return probability(p, randomVariable);
   }
 
+  /**
+   * log P(Y = y) = log(p) + (y - 1) log(1 - p)
+   */
+  @Override
+  public double logProbability(int randomVariable) {
+    if (randomVariable < 1 || p == 0.0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    if (randomVariable == 1) {
+      return Math.log(p);
+    }
+    return Math.log(p) + (randomVariable - 1) * Math.log1p(-p);
+  }
+
+  /**
+   * d/dp log P(Y = y) = 1/p - (y - 1)/(1 - p)
+   */
+  @Override
+  public double score(int randomVariable) {
+    if (randomVariable < 1) {
+      return Double.NaN;
+    }
+    return reciprocal(p)
+        - (randomVariable == 1 ? 0.0 : (randomVariable - 1) / (1.0 - p));
+  }
+
+  /**
+   * P(Y &lt;= y) = 1 - (1-p)^y
+   */
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    return randomVariable < 1 ? 0.0 : -Math.expm1(randomVariable * Math.log1p(-p));
+  }
+
+  /**
+   * P(Y &gt; y) = (1-p)^y
+   */
+  @Override
+  public double survivalProbability(int randomVariable) {
+    return randomVariable < 1 ? 1.0 : Math.exp(randomVariable * Math.log1p(-p));
+  }
+
+  /**
+   * P(y+1) = P(y) * (1-p)
+   */
+  @Override
+  double nextResult(int randomVariable, double result) {
+    if (randomVariable < 1) {
+      return computeResult(randomVariable + 1);
+    }
+    return result * (1.0 - p);
+  }
+
+  /**
+   * The smallest y where (1-p)^y &lt;= tailMass
+   */
+  @Override
+  int upperLimit(double tailMass) {
+    if (p >= 1.0) {
+      return 1;
+    }
+    double limit = Math.ceil(Math.log(tailMass) / Math.log1p(-p));
+    return (int) Math.min(Integer.MAX_VALUE - 1, Math.max(1.0, limit));
+  }
+
   /**
    * Computes the geometric distribution probability.
    *
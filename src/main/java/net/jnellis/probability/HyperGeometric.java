@@ -71,7 +71,28 @@ public class HyperGeometric extends DiscreteProbability {
                         int populationSize,
                         int sampleSize,
                         int successStates) {
-    super(rvOperation);
+    this(rvOperation, populationSize, sampleSize, successStates, 0.0);
+  }
+
+  /**
+   * The Hypergeometric probability distribution whose cumulative results
+   * may be approximated by a binomial distribution, or by the binomial's
+   * own approximations, when the error bound of the approximation is within
+   * the tolerance. This is worthwhile when the sampling fraction is tiny.
+   *
+   * @param rvOperation    CumulativeOperation to apply
+   * @param populationSize Population size
+   * @param sampleSize     Size of sample drawn from population.
+   * @param successStates  Number of Success items in the population.
+   * @param tolerance      The largest absolute error allowed in a
+   *                       cumulative result.
+   */
+  public HyperGeometric(CumulativeOperation rvOperation,
+                        int populationSize,
+                        int sampleSize,
+                        int successStates,
+                        double tolerance) {
+    super(rvOperation, tolerance);
     this.N = populationSize;
     this.n = sampleSize;
     this.r = successStates;
@@ -89,6 +110,116 @@ public class HyperGeometric extends DiscreteProbability {
     return probability(N, n, r, randomVariable);
   }
 
+  @Override
+  double approximateResult(int randomVariable) {
+    return Approximation.hyperGeometric(getCumulativeOperation(), N, n, r,
+                                        randomVariable, getTolerance());
+  }
+
+  /**
+   * Summed from y down to the lower end of the support below the mode, and
+   * as the complement of the upper tail from the mode, so each call costs
+   * one probability and a recurrence over the shorter side.
+   */
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    if (randomVariable < lowest()) {
+      return 0.0;
+    }
+    if (randomVariable >= highest()) {
+      return 1.0;
+    }
+    return randomVariable < mode()
+           ? lowerTail(randomVariable)
+           : 1.0 - upperTail(randomVariable + 1);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    if (randomVariable < lowest()) {
+      return 1.0;
+    }
+    if (randomVariable >= highest()) {
+      return 0.0;
+    }
+    return randomVariable < mode()
+           ? 1.0 - lowerTail(randomVariable)
+           : upperTail(randomVariable + 1);
+  }
+
+  /**
+   * P(Y &lt;= y), summed down from y.
+   */
+  private double lowerTail(int y) {
+    final int lowest = lowest();
+    double term = computeResult(y);
+    double sum = term;
+    for (int x = y; x > lowest && term > sum * 1.0E-17; x--) {
+      // P(x-1) = P(x) * x(N-r-n+x) / ((r-x+1)(n-x+1))
+      term *= (double) x * (N - r - n + x) / ((r - x + 1.0) * (n - x + 1.0));
+      sum += term;
+    }
+    return sum;
+  }
+
+  /**
+   * P(Y &gt;= y), summed up from y.
+   */
+  private double upperTail(int y) {
+    final int highest = highest();
+    double term = computeResult(y);
+    double sum = term;
+    for (int x = y; x < highest && term > sum * 1.0E-17; x++) {
+      // P(x+1) = P(x) * (r-x)(n-x) / ((x+1)(N-r-n+x+1))
+      term *= (double) (r - x) * (n - x) / ((x + 1.0) * (N - r - n + x + 1.0));
+      sum += term;
+    }
+    return sum;
+  }
+
+  private int lowest() {
+    return Integer.max(0, n - (N - r));
+  }
+
+  private int highest() {
+    return Integer.min(n, r);
+  }
+
+  private int mode() {
+    return Integer.max(lowest(), Integer.min(highest(), (int) Math.floor(
+        (n + 1.0) * (r + 1.0) / (N + 2.0))));
+  }
+
+  /**
+   * P(y+1) = P(y) * (r-y)(n-y) / ((y+1)(N-r-n+y+1))
+   */
+  @Override
+  double nextResult(int randomVariable, double result) {
+    if (randomVariable < 0) {
+      return computeResult(randomVariable + 1);
+    }
+    if (randomVariable >= upperLimit(0.0)) {
+      return 0.0;
+    }
+    if (result < Double.MIN_NORMAL) {
+      return Math.exp(SpecialFunctions.logHyperGeometricDensity(
+          randomVariable + 1, N, n, r));
+    }
+    return result * (r - randomVariable) * (n - randomVariable)
+        / ((randomVariable + 1.0) * (N - r - n + randomVariable + 1.0));
+  }
+
+  @Override
+  double anchorResult(int randomVariable) {
+    return Math.exp(SpecialFunctions.logHyperGeometricDensity(
+        randomVariable, N, n, r));
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return Integer.min(n, r);
+  }
+
   /**
    * Computes the HyperGeometric probability of a random variable.
    * <pre>
@@ -108,6 +239,22 @@ public class HyperGeometric extends DiscreteProbability {
    * @return The probability of this event, between 0.0 and 1.0 inclusive.
    */
   public static double probability(int N, int n, int r, int y) {
+    return scaledProbability(N, n, r, y).doubleValue();
+  }
+
+  /**
+   * Computes the HyperGeometric probability of a random variable with its
+   * exponent kept apart, so that it doesn't underflow far out in the tails
+   * of large populations.
+   *
+   * @param N Population size
+   * @param n sample size
+   * @param r number of success states in population.
+   * @param y the number of success states we're interested in.
+   * @return The probability of this event, between 0.0 and 1.0 inclusive.
+   * @see #probability(int, int, int, int)
+   */
+  public static ScaledDouble scaledProbability(int N, int n, int r, int y) {
     assert (y >= 0) : "Random variable must be greater than or equal to zero.";
     assert (N > 0) : "Population size must be greater than zero.";
     assert (r >= 0) : "Success states must be greater than or equal to zero.";
@@ -116,7 +263,7 @@ public class HyperGeometric extends DiscreteProbability {
     // The number of failure states (n-y) must be less than or equal
     // to the number of total failure states possible (N-r).
     if (!(n - y <= N - r)) {
-      return 0.0;  // otherwise 0% chance this event happens.
+      return ScaledDouble.ZERO;  // otherwise 0% chance this event happens.
     }
     //break equation up into ranges of numerators and denominators
     int numer1 = r;
@@ -143,8 +290,19 @@ public class HyperGeometric extends DiscreteProbability {
     // r!/(r-y)!y!  *   (N-r)!/(N-r-(n-y))!(n-y)!  * (N-n)!n!/N!
     // swap numerator and denominator on last component, N!/((N-n)!n!)
     double result = 1.0;
+    long scale = 0L;
     while (numer3 > numer3floor || denom3 > 0) {
       if (result > 1.0 || denom3 == 0) {
+        // once the numerators run out the result only falls, move its
+        // exponent into the scale before the next divisor could underflow
+        // it. Rescaling earlier would upset the choice between raising and
+        // lowering.
+        if (denom3 == 0 && result < ScaledDouble.RESCALE_BELOW
+            && result > 0.0) {
+          int exponent = ScaledDouble.exponentOf(result);
+          result = Math.scalb(result, -exponent);
+          scale += exponent;
+        }
         if (denom1 > 0)
           result = result / denom1--;
         else if (denom2 > 0)
@@ -160,7 +318,28 @@ public class HyperGeometric extends DiscreteProbability {
           result = result * denom3--;
       }
     }
-    return result;
+    return ScaledDouble.of(result, scale);
+  }
+
+  /**
+   * @return the population size, N.
+   */
+  public int getPopulationSize() {
+    return N;
+  }
+
+  /**
+   * @return the sample size, n.
+   */
+  public int getSampleSize() {
+    return n;
+  }
+
+  /**
+   * @return the number of success states in the population, r.
+   */
+  public int getSuccessStates() {
+    return r;
   }
 
   /**
@@ -186,4 +365,58 @@ public class HyperGeometric extends DiscreteProbability {
     return 1.0 * n * r / N * (N - r) / N * (N - n) / (N - 1);
   }
 
+  /**
+   * The skewness is defined by:
+   * (N-2r)(N-2n) sqrt(N-1) / ((N-2) sqrt(nr(N-r)(N-n)))
+   */
+  @Override
+  public double getSkewness() {
+    if (getVariance() == 0.0) {
+      return Double.NaN;
+    }
+    final double population = N;
+    return (population - 2.0 * r) * (population - 2.0 * n)
+        * Math.sqrt(population - 1.0)
+        / ((population - 2.0)
+            * Math.sqrt(1.0 * n * r * (population - r) * (population - n)));
+  }
+
+  /**
+   * The excess kurtosis is defined by:
+   * ((N-1)N^2(N(N+1) - 6r(N-r) - 6n(N-n)) + 6nr(N-r)(N-n)(5N-6))
+   * / (nr(N-r)(N-n)(N-2)(N-3))
+   */
+  @Override
+  public double getKurtosis() {
+    if (getVariance() == 0.0) {
+      return Double.NaN;
+    }
+    final double population = N;
+    final double product = 1.0 * n * r * (population - r) * (population - n);
+    return ((population - 1.0) * population * population
+        * (population * (population + 1.0) - 6.0 * r * (population - r)
+           - 6.0 * n * (population - n))
+        + 6.0 * product * (5.0 * population - 6.0))
+        / (product * (population - 2.0) * (population - 3.0));
+  }
+
+  /**
+   * The factorial moments are defined by:
+   * E[(Y)_k] = (n)_k (r)_k / (N)_k
+   * where (x)_k is the falling factorial x(x-1)...(x-k+1).
+   * The generating function has no closed form simpler than its finite sum.
+   */
+  @Override
+  public double factorialMoment(int order) {
+    assert nonNegative(order) : "Order must be non-negative.";
+    if (order > Integer.min(n, r)) {
+      return 0.0;
+    }
+    double moment = 1.0;
+    for (int i = 0; i < order; i++) {
+      moment *= (n - i) * ((double) (r - i) / (N - i));
+    }
+    return moment;
+  }
+
 }
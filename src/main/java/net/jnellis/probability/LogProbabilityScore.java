@@ -0,0 +1,49 @@
+/*
+ * LogProbabilityScore.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * A log probability together with its score, the derivative of the log
+ * probability by the distribution's continuous parameter, see
+ * {@link DifferentiableProbability}.
+ */
+public final class LogProbabilityScore {
+
+  private final double logProbability;
+  private final double score;
+
+  /**
+   * @param logProbability the natural log of the probability
+   * @param score          its derivative by the parameter
+   */
+  public LogProbabilityScore(double logProbability, double score) {
+    this.logProbability = logProbability;
+    this.score = score;
+  }
+
+  /**
+   * @return the natural log of the probability.
+   */
+  public double getLogProbability() {
+    return logProbability;
+  }
+
+  /**
+   * @return the derivative of the log probability by the parameter.
+   */
+  public double getScore() {
+    return score;
+  }
+
+  @Override
+  public String toString() {
+    return "LogProbabilityScore{logProbability=" + logProbability
+        + ", score=" + score + '}';
+  }
+}
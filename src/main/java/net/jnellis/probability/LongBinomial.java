@@ -0,0 +1,102 @@
+/*
+ * LongBinomial.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * The binomial distribution with a long number of trials.
+ *
+ * @see Binomial
+ * @see LongDistribution
+ */
+public class LongBinomial extends LongDistribution {
+
+  private final long trials;
+  private final double chanceOfSuccess;
+  private final double chanceOfFailure;
+
+  /**
+   * @param rvOperation     The cumulative operation on the distribution
+   * @param trials          the number of trials, n
+   * @param chanceOfSuccess chance each trial succeeds
+   */
+  public LongBinomial(CumulativeOperation rvOperation,
+                      long trials,
+                      double chanceOfSuccess) {
+    super(rvOperation);
+    assert exact(trials);
+    assert DiscreteProbability.betweenZeroAndOneInclusive(chanceOfSuccess);
+    this.trials = trials;
+    this.chanceOfSuccess = chanceOfSuccess;
+    this.chanceOfFailure = 1.0 - chanceOfSuccess;
+  }
+
+  @Override
+  public double computeResult(long randomVariable) {
+    return SpecialFunctions.binomialDensity(randomVariable, trials,
+                                            chanceOfSuccess, chanceOfFailure);
+  }
+
+  /**
+   * P(Y &lt;= y) is I_q(n - y, y + 1).
+   */
+  @Override
+  public double cumulativeProbability(long randomVariable) {
+    if (randomVariable < 0) {
+      return 0.0;
+    }
+    if (randomVariable >= trials) {
+      return 1.0;
+    }
+    return SpecialFunctions.regularizedBeta(chanceOfFailure,
+                                            trials - randomVariable,
+                                            randomVariable + 1.0);
+  }
+
+  @Override
+  public double survivalProbability(long randomVariable) {
+    if (randomVariable < 0) {
+      return 1.0;
+    }
+    if (randomVariable >= trials) {
+      return 0.0;
+    }
+    return SpecialFunctions.regularizedBetaComplement(chanceOfFailure,
+                                                      trials - randomVariable,
+                                                      randomVariable + 1.0);
+  }
+
+  @Override
+  long getHighest() {
+    return trials;
+  }
+
+  /**
+   * @return the number of trials.
+   */
+  public long getTrials() {
+    return trials;
+  }
+
+  /**
+   * @return the chance of success of a single trial.
+   */
+  public double getChanceOfSuccess() {
+    return chanceOfSuccess;
+  }
+
+  @Override
+  public double getExpectedValue() {
+    return trials * chanceOfSuccess;
+  }
+
+  @Override
+  public double getVariance() {
+    return trials * chanceOfSuccess * chanceOfFailure;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * LongDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+
+/**
+ * A distribution whose parameters and random variable are longs, for
+ * populations and counts past 2^31 such as impressions or packets.
+ * <p>
+ * Nothing is summed or looped over values: densities are saddle point
+ * densities and cumulative probabilities are regularized incomplete beta or
+ * gamma functions, whose quadratures have a fixed cost, so a result costs
+ * the same however large the parameters are. Parameters and random
+ * variables are converted to doubles, so they are exact up to 2^53.
+ */
+public abstract class LongDistribution implements LongProbability {
+
+  /**
+   * The largest parameter or random variable that is exact as a double.
+   */
+  public static final long MAX_EXACT = 1L << 53;
+
+  private final CumulativeOperation rvOperation;
+
+  LongDistribution(CumulativeOperation rvOperation) {
+    this.rvOperation = Objects.requireNonNull(rvOperation,
+                                              "rvOperation can't be null.");
+  }
+
+  static boolean exact(long value) {
+    return value >= 0 && value <= MAX_EXACT;
+  }
+
+  /**
+   * The result of this distribution's cumulative operation. The upper tails
+   * come from the survival function so they keep their precision. An
+   * operation other than the constants is only applied to a random variable
+   * that fits in an int, by summing the density.
+   *
+   * @param randomVariable The random variable of the probability function
+   * @return The cumulative probability result.
+   * @throws UnsupportedOperationException for an operation other than the
+   *                                       constants and a random variable
+   *                                       past Integer.MAX_VALUE.
+   */
+  public double getResult(long randomVariable) {
+    if (rvOperation == CumulativeOperation.greaterThan) {
+      return survivalProbability(randomVariable);
+    }
+    if (rvOperation == CumulativeOperation.greaterThanOrEqual) {
+      return survivalProbability(randomVariable - 1);
+    }
+    if (rvOperation == CumulativeOperation.equal) {
+      return computeResult(randomVariable);
+    }
+    if (rvOperation == CumulativeOperation.notEqual) {
+      return 1.0 - computeResult(randomVariable);
+    }
+    double result = CumulativeOperation.fromLongDistribution(
+        rvOperation, randomVariable, this::cumulativeProbability);
+    if (!Double.isNaN(result)) {
+      return result;
+    }
+    if (randomVariable > Integer.MAX_VALUE) {
+      throw new UnsupportedOperationException(
+          "Only the cumulative operation constants apply past "
+              + Integer.MAX_VALUE);
+    }
+    return rvOperation.apply((int) randomVariable, this::computeResult);
+  }
+
+  /**
+   * @param randomVariable The random variable of the probability function
+   * @return P(Y &lt;= randomVariable)
+   */
+  public abstract double cumulativeProbability(long randomVariable);
+
+  /**
+   * @param randomVariable The random variable of the probability function
+   * @return P(Y &gt; randomVariable)
+   */
+  public abstract double survivalProbability(long randomVariable);
+
+  /**
+   * The quantile function, found by bisecting the cumulative distribution
+   * over a bracket grown from the mean, so it takes at most about 64
+   * evaluations of it.
+   *
+   * @param probability a cumulative probability, at least zero and less
+   *                    than one.
+   * @return the smallest y with P(Y &lt;= y) &gt;= probability
+   */
+  public long quantile(double probability) {
+    assert probability >= 0.0 && probability < 1.0;
+    long low = getLowest() - 1;
+    if (probability == 0.0) {
+      return low + 1;
+    }
+    long step = Math.max(1L, (long) Math.ceil(Math.sqrt(getVariance())));
+    long high = Math.max(low + 1, (long) getExpectedValue());
+    while (cumulativeProbability(high) < probability) {
+      low = high;
+      if (high >= getHighest() - step) {
+        high = getHighest();
+        break;
+      }
+      high += step;
+      step = step > Long.MAX_VALUE / 4 ? step : step * 2;
+    }
+    while (high - low > 1) {
+      long middle = low + (high - low) / 2;
+      if (cumulativeProbability(middle) < probability) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * @return the smallest value of the support.
+   */
+  long getLowest() {
+    return 0L;
+  }
+
+  /**
+   * @return the largest value of the support.
+   */
+  long getHighest() {
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * @return the cumulative operation applied by {@link #getResult(long)}.
+   */
+  public CumulativeOperation getCumulativeOperation() {
+    return rvOperation;
+  }
+
+  /**
+   * @return the mean of the distribution.
+   */
+  public abstract double getExpectedValue();
+
+  /**
+   * @return the variance of the distribution.
+   */
+  public abstract double getVariance();
+}
@@ -0,0 +1,84 @@
+/*
+ * LongGeometric.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * The geometric distribution of a long number of trials until the first
+ * success.
+ *
+ * @see Geometric
+ * @see LongDistribution
+ */
+public class LongGeometric extends LongDistribution {
+
+  private final double chanceOfSuccess;
+  // log(1 - p), which keeps tiny chances of success precise.
+  private final double logFailure;
+
+  /**
+   * @param rvOperation     The cumulative operation on the distribution
+   * @param chanceOfSuccess chance each trial succeeds
+   */
+  public LongGeometric(CumulativeOperation rvOperation,
+                       double chanceOfSuccess) {
+    super(rvOperation);
+    assert chanceOfSuccess > 0.0 && chanceOfSuccess <= 1.0;
+    this.chanceOfSuccess = chanceOfSuccess;
+    this.logFailure = Math.log1p(-chanceOfSuccess);
+  }
+
+  /**
+   * P(y) = p * q^(y-1)
+   */
+  @Override
+  public double computeResult(long randomVariable) {
+    return randomVariable < 1
+           ? 0.0
+           : chanceOfSuccess * Math.exp((randomVariable - 1.0) * logFailure);
+  }
+
+  /**
+   * P(Y &lt;= y) = 1 - q^y
+   */
+  @Override
+  public double cumulativeProbability(long randomVariable) {
+    return randomVariable < 1
+           ? 0.0
+           : -Math.expm1(randomVariable * logFailure);
+  }
+
+  @Override
+  public double survivalProbability(long randomVariable) {
+    return randomVariable < 1
+           ? 1.0
+           : Math.exp(randomVariable * logFailure);
+  }
+
+  @Override
+  long getLowest() {
+    return 1L;
+  }
+
+  /**
+   * @return the chance of success of a single trial.
+   */
+  public double getChanceOfSuccess() {
+    return chanceOfSuccess;
+  }
+
+  @Override
+  public double getExpectedValue() {
+    return 1.0 / chanceOfSuccess;
+  }
+
+  @Override
+  public double getVariance() {
+    return (1.0 - chanceOfSuccess) / (chanceOfSuccess * chanceOfSuccess);
+  }
+}
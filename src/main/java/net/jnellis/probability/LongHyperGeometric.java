@@ -0,0 +1,162 @@
+/*
+ * LongHyperGeometric.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * The hypergeometric distribution with long population and sample sizes.
+ * <p>
+ * The hypergeometric has no closed form cumulative distribution, so a
+ * cumulative probability sums the tail on the far side of the mode from
+ * the random variable, starting with the saddle point density and stepping
+ * with the ratio of neighbouring densities until the terms stop counting.
+ * That is on the order of a standard deviation of steps at most, which
+ * grows with the square root of the sample rather than with the sample.
+ *
+ * @see HyperGeometric
+ * @see LongDistribution
+ */
+public class LongHyperGeometric extends LongDistribution {
+
+  private final long N;
+  private final long n;
+  private final long r;
+  private final long lowest;
+  private final long highest;
+  private final long mode;
+
+  /**
+   * @param rvOperation    The cumulative operation on the distribution
+   * @param populationSize the population size, N
+   * @param sampleSize     the sample size, n
+   * @param successStates  the number of success states in the population, r
+   */
+  public LongHyperGeometric(CumulativeOperation rvOperation,
+                            long populationSize,
+                            long sampleSize,
+                            long successStates) {
+    super(rvOperation);
+    assert exact(populationSize) && populationSize > 0;
+    assert sampleSize >= 0 && sampleSize <= populationSize;
+    assert successStates >= 0 && successStates <= populationSize;
+    this.N = populationSize;
+    this.n = sampleSize;
+    this.r = successStates;
+    this.lowest = Math.max(0L, n - (N - r));
+    this.highest = Math.min(n, r);
+    this.mode = Math.max(lowest, Math.min(highest, (long) Math.floor(
+        (n + 1.0) * (r + 1.0) / (N + 2.0))));
+  }
+
+  @Override
+  public double computeResult(long randomVariable) {
+    if (randomVariable < lowest || randomVariable > highest) {
+      return 0.0;
+    }
+    return Math.exp(SpecialFunctions.logHyperGeometricDensity(
+        randomVariable, N, n, r));
+  }
+
+  @Override
+  public double cumulativeProbability(long randomVariable) {
+    if (randomVariable < lowest) {
+      return 0.0;
+    }
+    if (randomVariable >= highest) {
+      return 1.0;
+    }
+    return randomVariable < mode
+           ? lowerTail(randomVariable)
+           : 1.0 - upperTail(randomVariable + 1);
+  }
+
+  @Override
+  public double survivalProbability(long randomVariable) {
+    if (randomVariable < lowest) {
+      return 1.0;
+    }
+    if (randomVariable >= highest) {
+      return 0.0;
+    }
+    return randomVariable < mode
+           ? 1.0 - lowerTail(randomVariable)
+           : upperTail(randomVariable + 1);
+  }
+
+  /**
+   * P(Y &lt;= y), summed down from y.
+   */
+  private double lowerTail(long y) {
+    double term = computeResult(y);
+    double sum = term;
+    for (long x = y; x > lowest && term > sum * 1.0E-17; x--) {
+      // P(x-1) = P(x) * x(N-r-n+x) / ((r-x+1)(n-x+1))
+      term *= (double) x * (N - r - n + x) / ((r - x + 1.0) * (n - x + 1.0));
+      sum += term;
+    }
+    return sum;
+  }
+
+  /**
+   * P(Y &gt;= y), summed up from y.
+   */
+  private double upperTail(long y) {
+    double term = computeResult(y);
+    double sum = term;
+    for (long x = y; x < highest && term > sum * 1.0E-17; x++) {
+      // P(x+1) = P(x) * (r-x)(n-x) / ((x+1)(N-r-n+x+1))
+      term *= (double) (r - x) * (n - x) / ((x + 1.0) * (N - r - n + x + 1.0));
+      sum += term;
+    }
+    return sum;
+  }
+
+  @Override
+  long getLowest() {
+    return lowest;
+  }
+
+  @Override
+  long getHighest() {
+    return highest;
+  }
+
+  /**
+   * @return the population size, N.
+   */
+  public long getPopulationSize() {
+    return N;
+  }
+
+  /**
+   * @return the sample size, n.
+   */
+  public long getSampleSize() {
+    return n;
+  }
+
+  /**
+   * @return the number of success states in the population, r.
+   */
+  public long getSuccessStates() {
+    return r;
+  }
+
+  @Override
+  public double getExpectedValue() {
+    return (double) n * r / N;
+  }
+
+  @Override
+  public double getVariance() {
+    if (N == 1) {
+      return 0.0;
+    }
+    return (double) n * r / N * (N - r) / N * (N - n) / (N - 1.0);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * LongNegativeBinomial.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * The negative binomial distribution of a long number of trials until the
+ * kth success.
+ *
+ * @see NegativeBinomial
+ * @see LongDistribution
+ */
+public class LongNegativeBinomial extends LongDistribution {
+
+  private final long successfulTrials;
+  private final double chanceOfSuccess;
+  private final double chanceOfFailure;
+
+  /**
+   * @param rvOperation      The cumulative operation on the distribution
+   * @param successfulTrials the number of successes, k
+   * @param chanceOfSuccess  chance each trial succeeds
+   */
+  public LongNegativeBinomial(CumulativeOperation rvOperation,
+                              long successfulTrials,
+                              double chanceOfSuccess) {
+    super(rvOperation);
+    assert exact(successfulTrials) && successfulTrials > 0;
+    assert chanceOfSuccess > 0.0 && chanceOfSuccess <= 1.0;
+    this.successfulTrials = successfulTrials;
+    this.chanceOfSuccess = chanceOfSuccess;
+    this.chanceOfFailure = 1.0 - chanceOfSuccess;
+  }
+
+  /**
+   * P(y) = p * ((y-1) C (k-1)) * p^(k-1) * q^(y-k)
+   */
+  @Override
+  public double computeResult(long randomVariable) {
+    if (randomVariable < successfulTrials) {
+      return 0.0;
+    }
+    return chanceOfSuccess
+        * SpecialFunctions.binomialDensity(successfulTrials - 1,
+                                           randomVariable - 1,
+                                           chanceOfSuccess,
+                                           chanceOfFailure);
+  }
+
+  /**
+   * P(Y &lt;= y) is I_p(k, y - k + 1).
+   */
+  @Override
+  public double cumulativeProbability(long randomVariable) {
+    if (randomVariable < successfulTrials) {
+      return 0.0;
+    }
+    return SpecialFunctions.regularizedBeta(
+        chanceOfSuccess, successfulTrials,
+        randomVariable - successfulTrials + 1.0);
+  }
+
+  @Override
+  public double survivalProbability(long randomVariable) {
+    if (randomVariable < successfulTrials) {
+      return 1.0;
+    }
+    return SpecialFunctions.regularizedBetaComplement(
+        chanceOfSuccess, successfulTrials,
+        randomVariable - successfulTrials + 1.0);
+  }
+
+  @Override
+  long getLowest() {
+    return successfulTrials;
+  }
+
+  /**
+   * @return the number of successes, k.
+   */
+  public long getSuccessfulTrials() {
+    return successfulTrials;
+  }
+
+  /**
+   * @return the chance of success of a single trial.
+   */
+  public double getChanceOfSuccess() {
+    return chanceOfSuccess;
+  }
+
+  @Override
+  public double getExpectedValue() {
+    return successfulTrials / chanceOfSuccess;
+  }
+
+  @Override
+  public double getVariance() {
+    return successfulTrials * chanceOfFailure
+        / (chanceOfSuccess * chanceOfSuccess);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * LongPoisson.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * The Poisson distribution of a long random variable.
+ *
+ * @see Poisson
+ * @see LongDistribution
+ */
+public class LongPoisson extends LongDistribution {
+
+  private final double lambda;
+
+  /**
+   * @param rvOperation The cumulative operation on the distribution
+   * @param lambda      The average rate of success
+   */
+  public LongPoisson(CumulativeOperation rvOperation, double lambda) {
+    super(rvOperation);
+    assert lambda >= 0.0 && lambda <= MAX_EXACT;
+    this.lambda = lambda;
+  }
+
+  @Override
+  public double computeResult(long randomVariable) {
+    return SpecialFunctions.poissonDensity(randomVariable, lambda);
+  }
+
+  /**
+   * P(Y &lt;= y) is Q(y + 1, lambda).
+   */
+  @Override
+  public double cumulativeProbability(long randomVariable) {
+    return randomVariable < 0
+           ? 0.0
+           : SpecialFunctions.regularizedGammaQ(randomVariable + 1.0, lambda);
+  }
+
+  @Override
+  public double survivalProbability(long randomVariable) {
+    return randomVariable < 0
+           ? 1.0
+           : SpecialFunctions.regularizedGammaP(randomVariable + 1.0, lambda);
+  }
+
+  /**
+   * @return the average rate of success.
+   */
+  public double getLambda() {
+    return lambda;
+  }
+
+  @Override
+  public double getExpectedValue() {
+    return lambda;
+  }
+
+  @Override
+  public double getVariance() {
+    return lambda;
+  }
+}
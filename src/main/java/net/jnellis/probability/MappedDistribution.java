@@ -0,0 +1,270 @@
+/*
+ * MappedDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * A distribution whose probability, cumulative and survival tables are read
+ * straight from a read only memory mapping of a table file. Big tables are
+ * written once and every process that opens the file shares the same pages
+ * of the operating system's file cache, with no copy on the heap.
+ * <p>
+ * The file is little endian, every section is aligned to eight bytes:
+ * <pre>
+ *  0  int    magic, "DSCP"
+ *  4  int    version
+ *  8  int    distribution type code, see {@link DistributionType}
+ * 12  int    parameter count, k
+ * 16  int    table length, n
+ * 20  int    reserved
+ * 24  long   CRC32 of everything from byte 32 to the end
+ * 32  double mean
+ * 40  double variance
+ * 48  double[k] parameters
+ *     double[n] P(Y = y)
+ *     double[n] P(Y &lt;= y)
+ *     double[n] P(Y &gt; y)
+ * </pre>
+ * Files are written to a temporary file, readable by every user, and moved
+ * into place so a reader never sees a partly written table. Opening checks
+ * the header, the checksum of the tables is verified only on request.
+ * <pre>
+ * Path file = Paths.get("binomial-1e6.dscp");
+ * MappedDistribution.write(file, new Binomial(equal, 1000000, 0.3));
+ * MappedDistribution pdf = MappedDistribution.open(file, lessThanOrEqual);
+ * double result = pdf.getResult(300100);
+ * </pre>
+ */
+public class MappedDistribution extends TabulatedDistribution {
+
+  static final int MAGIC = 0x44534350;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 48;
+  private static final int CHECKSUM_OFFSET = 24;
+  private static final int CHECKED_OFFSET = 32;
+  // temporary files are private, published tables are readable by all.
+  private static final Set<PosixFilePermission> PUBLISHED =
+      PosixFilePermissions.fromString("rw-r--r--");
+
+  private final DistributionType type;
+  private final double[] parameters;
+
+  private MappedDistribution(CumulativeOperation rvOperation,
+                             ProbabilityTables tables,
+                             double mean,
+                             double variance,
+                             DistributionType type,
+                             double[] parameters) {
+    super(rvOperation, tables, mean, variance);
+    this.type = type;
+    this.parameters = parameters;
+  }
+
+  /**
+   * Writes the tables of a distribution with no more than
+   * {@link DiscreteProbability#DEFAULT_TAIL_MASS} left out.
+   *
+   * @param file         the table file to write
+   * @param distribution the distribution to tabulate
+   * @throws IOException if the file can't be written
+   */
+  public static void write(Path file, DiscreteProbability distribution)
+      throws IOException {
+    write(file, distribution, DEFAULT_TAIL_MASS);
+  }
+
+  /**
+   * Writes the tables of a distribution up to the end of its support or,
+   * for infinite supports, to where no more than the tail mass is left.
+   *
+   * @param file         the table file to write
+   * @param distribution the distribution to tabulate
+   * @param tailMass     the largest probability left out of the table
+   * @throws IOException if the file can't be written
+   */
+  public static void write(Path file,
+                           DiscreteProbability distribution,
+                           double tailMass) throws IOException {
+    Objects.requireNonNull(file, "file can't be null.");
+    final DistributionType type = DistributionType.of(distribution);
+    final double[] parameters = type.parameters(distribution);
+    final ProbabilityTables tables =
+        ProbabilityTables.of(distribution.pmfStream(tailMass).toArray());
+    final int length = tables.size();
+    final long size = HEADER_SIZE + 8L * parameters.length + 24L * length;
+    final Path parent = file.toAbsolutePath().getParent();
+    final Path temporary = Files.createTempFile(parent, ".table", ".tmp");
+    try {
+      if (Files.getFileStore(temporary)
+               .supportsFileAttributeView(PosixFileAttributeView.class)) {
+        Files.setPosixFilePermissions(temporary, PUBLISHED);
+      }
+      try (FileChannel channel = FileChannel.open(
+          temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer =
+            channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+              .putInt(VERSION)
+              .putInt(type.getCode())
+              .putInt(parameters.length)
+              .putInt(length)
+              .putInt(0)
+              .putLong(0L)
+              .putDouble(distribution.getExpectedValue())
+              .putDouble(distribution.getVariance());
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        doubles.put(parameters);
+        for (int i = 0; i < length; i++) {
+          doubles.put(tables.probabilityAt(i));
+        }
+        for (int i = 0; i < length; i++) {
+          doubles.put(tables.cumulativeAt(i));
+        }
+        for (int i = 0; i < length; i++) {
+          doubles.put(tables.survivalAt(i));
+        }
+        buffer.putLong(CHECKSUM_OFFSET, checksum(buffer));
+        buffer.force();
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                 StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Opens a table file, checking its header but not reading its tables, so
+   * only the pages that are looked up are ever touched.
+   *
+   * @param file        the table file
+   * @param rvOperation The cumulative operation on the distribution
+   * @return the distribution over the mapped tables
+   * @throws IOException if the file can't be read or its header is not a
+   *                     valid table header
+   */
+  public static MappedDistribution open(Path file,
+                                        CumulativeOperation rvOperation)
+      throws IOException {
+    return open(file, rvOperation, false);
+  }
+
+  /**
+   * Opens a table file, checking its header and, when asked, the checksum
+   * of the whole file, which reads every page of it.
+   *
+   * @param file        the table file
+   * @param rvOperation The cumulative operation on the distribution
+   * @param verify      true to verify the checksum of the tables
+   * @return the distribution over the mapped tables
+   * @throws IOException if the file can't be read or is not a valid table
+   *                     file
+   */
+  public static MappedDistribution open(Path file,
+                                        CumulativeOperation rvOperation,
+                                        boolean verify)
+      throws IOException {
+    Objects.requireNonNull(file, "file can't be null.");
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file,
+                                                StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IOException(file + " is too short for a table file.");
+      }
+      // the mapping stays valid after the channel is closed.
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException(file + " is not a table file.");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException(file + " has unsupported version "
+                                + buffer.getInt(4));
+    }
+    final DistributionType type;
+    try {
+      type = DistributionType.fromCode(buffer.getInt(8));
+    } catch (IllegalArgumentException e) {
+      throw new IOException(file + ": " + e.getMessage(), e);
+    }
+    final int parameterCount = buffer.getInt(12);
+    final int length = buffer.getInt(16);
+    if (parameterCount != type.getParameterCount() || length < 1
+        || buffer.capacity()
+        != HEADER_SIZE + 8L * parameterCount + 24L * length) {
+      throw new IOException(file + " has an inconsistent header.");
+    }
+    if (verify && buffer.getLong(CHECKSUM_OFFSET) != checksum(buffer)) {
+      throw new IOException(file + " failed its checksum.");
+    }
+    final double mean = buffer.getDouble(32);
+    final double variance = buffer.getDouble(40);
+    buffer.position(HEADER_SIZE);
+    DoubleBuffer doubles = buffer.asDoubleBuffer();
+    double[] parameters = new double[parameterCount];
+    doubles.get(parameters);
+    return new MappedDistribution(
+        rvOperation,
+        ProbabilityTables.of(section(doubles, parameterCount, length),
+                             section(doubles, parameterCount + length,
+                                     length),
+                             section(doubles, parameterCount + 2 * length,
+                                     length)),
+        mean, variance, type, parameters);
+  }
+
+  private static DoubleBuffer section(DoubleBuffer doubles,
+                                      int start,
+                                      int length) {
+    DoubleBuffer section = doubles.duplicate();
+    section.limit(start + length).position(start);
+    return section.slice();
+  }
+
+  private static long checksum(ByteBuffer buffer) {
+    ByteBuffer checked = buffer.duplicate();
+    checked.limit(checked.capacity()).position(CHECKED_OFFSET);
+    CRC32 crc = new CRC32();
+    crc.update(checked);
+    return crc.getValue();
+  }
+
+  /**
+   * @return the type of the distribution the tables were written from.
+   */
+  public DistributionType getType() {
+    return type;
+  }
+
+  /**
+   * @return a copy of the parameters of the distribution the tables were
+   * written from.
+   */
+  public double[] getParameters() {
+    return parameters.clone();
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * MixtureDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * A finite mixture, a draw from one of several component distributions
+ * chosen with fixed weights, P(Y = y) = &#931; w<sub>i</sub> P(X<sub>i</sub>
+ * = y).
+ * <p>
+ * The weights are normalized once when the mixture is created. Cumulative
+ * and survival probabilities are the weighted sums of the components' own,
+ * so components with closed forms never sum their probability functions,
+ * and a quantile bisects between the smallest and largest of the
+ * components' quantiles. The batch methods evaluate many random variables
+ * at once, in parallel across the components or the random variables,
+ * whichever there are more of.
+ * <pre>
+ * MixtureDistribution counts = new MixtureDistribution(
+ *     lessThanOrEqual, new double[]{0.7, 0.3},
+ *     new Poisson(equal, 2.0), new NegativeBinomial(equal, 2, 0.1));
+ * double result = counts.getResult(10);
+ * double[] table = counts.cumulativeProbabilities(0, 5, 10, 20);
+ * </pre>
+ */
+public class MixtureDistribution extends DiscreteProbability {
+
+  private final double[] weights;
+  private final DiscreteProbability[] components;
+
+  /**
+   * @param rvOperation The cumulative operation on this probability
+   * @param weights     the non-negative weight of each component, which are
+   *                    normalized to sum to one.
+   * @param components  the component distributions
+   */
+  public MixtureDistribution(CumulativeOperation rvOperation,
+                             double[] weights,
+                             DiscreteProbability... components) {
+    super(rvOperation);
+    Objects.requireNonNull(weights, "weights can't be null.");
+    Objects.requireNonNull(components, "components can't be null.");
+    assert components.length > 0 : "A mixture needs a component.";
+    assert weights.length == components.length
+        : "Every component needs a weight.";
+    double total = 0.0;
+    for (int i = 0; i < weights.length; i++) {
+      assert weights[i] >= 0.0 : "Weights can't be negative.";
+      Objects.requireNonNull(components[i], "components can't be null.");
+      total += weights[i];
+    }
+    assert total > 0.0 : "Weights can't all be zero.";
+    this.weights = new double[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      this.weights[i] = weights[i] / total;
+    }
+    this.components = components.clone();
+  }
+
+  @Override
+  public double getResult(int randomVariable) {
+    return resultFromDistribution(randomVariable);
+  }
+
+  @Override
+  public double computeResult(int randomVariable) {
+    double result = 0.0;
+    for (int i = 0; i < components.length; i++) {
+      if (weights[i] > 0.0) {
+        result += weights[i] * components[i].computeResult(randomVariable);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    double result = 0.0;
+    for (int i = 0; i < components.length; i++) {
+      if (weights[i] > 0.0) {
+        result += weights[i]
+            * components[i].cumulativeProbability(randomVariable);
+      }
+    }
+    return Double.min(1.0, result);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    double result = 0.0;
+    for (int i = 0; i < components.length; i++) {
+      if (weights[i] > 0.0) {
+        result += weights[i]
+            * components[i].survivalProbability(randomVariable);
+      }
+    }
+    return Double.min(1.0, result);
+  }
+
+  /**
+   * The mixture's cumulative probability is below the probability before
+   * the smallest of the components' quantiles and reaches it by the
+   * largest, so only that range is bisected.
+   */
+  @Override
+  public int quantile(double probability) {
+    assert betweenZeroAndOneInclusive(probability);
+    int smallest = Integer.MAX_VALUE;
+    int largest = 0;
+    for (int i = 0; i < components.length; i++) {
+      if (weights[i] > 0.0) {
+        int quantile = components[i].quantile(probability);
+        smallest = Integer.min(smallest, quantile);
+        largest = Integer.max(largest, quantile);
+      }
+    }
+    int low = smallest - 1;
+    int high = largest;
+    while (high - low > 1) {
+      int middle = (int) (((long) low + high) / 2);
+      if (cumulativeProbability(middle) < probability) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * No component has more than the tail mass above the largest of their
+   * limits, so neither has the mixture.
+   */
+  @Override
+  int upperLimit(double tailMass) {
+    int limit = 0;
+    for (int i = 0; i < components.length; i++) {
+      if (weights[i] > 0.0) {
+        limit = Integer.max(limit, components[i].upperLimit(tailMass));
+      }
+    }
+    return limit;
+  }
+
+  /**
+   * P(Y = y) of each random variable.
+   *
+   * @param randomVariables the random variables
+   * @return the probability of each, in the same order.
+   */
+  public double[] computeResults(int... randomVariables) {
+    return evaluate(Evaluation.probability, randomVariables);
+  }
+
+  /**
+   * P(Y &lt;= y) of each random variable.
+   *
+   * @param randomVariables the random variables
+   * @return the cumulative probability of each, in the same order.
+   */
+  public double[] cumulativeProbabilities(int... randomVariables) {
+    return evaluate(Evaluation.cumulative, randomVariables);
+  }
+
+  /**
+   * P(Y &gt; y) of each random variable.
+   *
+   * @param randomVariables the random variables
+   * @return the survival probability of each, in the same order.
+   */
+  public double[] survivalProbabilities(int... randomVariables) {
+    return evaluate(Evaluation.survival, randomVariables);
+  }
+
+  /**
+   * The component functions the batch methods evaluate.
+   */
+  private enum Evaluation {
+    probability, cumulative, survival;
+
+    double apply(DiscreteProbability component, int randomVariable) {
+      switch (this) {
+        case probability:
+          return component.computeResult(randomVariable);
+        case cumulative:
+          return component.cumulativeProbability(randomVariable);
+        default:
+          return component.survivalProbability(randomVariable);
+      }
+    }
+  }
+
+  private double[] evaluate(Evaluation function,
+                            int[] randomVariables) {
+    Objects.requireNonNull(randomVariables, "randomVariables can't be null.");
+    final int size = randomVariables.length;
+    final boolean parallel = (long) size * components.length
+        >= Multinomial.PARALLEL_BATCH;
+    final double[] results;
+    if (parallel && components.length >= size) {
+      // each worker sums its share of the components into its own array.
+      results = IntStream.range(0, components.length)
+                         .parallel()
+                         .filter(i -> weights[i] > 0.0)
+                         .collect(() -> new double[size],
+                                  (sums, i) -> {
+                                    for (int j = 0; j < size; j++) {
+                                      sums[j] += weights[i] * function.apply(
+                                          components[i], randomVariables[j]);
+                                    }
+                                  },
+                                  (left, right) -> {
+                                    for (int j = 0; j < size; j++) {
+                                      left[j] += right[j];
+                                    }
+                                  });
+    } else {
+      results = new double[size];
+      IntStream range = IntStream.range(0, size);
+      if (parallel) {
+        range = range.parallel();
+      }
+      range.forEach(j -> {
+        double sum = 0.0;
+        for (int i = 0; i < components.length; i++) {
+          if (weights[i] > 0.0) {
+            sum += weights[i]
+                * function.apply(components[i], randomVariables[j]);
+          }
+        }
+        results[j] = sum;
+      });
+    }
+    if (function != Evaluation.probability) {
+      for (int j = 0; j < size; j++) {
+        results[j] = Double.min(1.0, results[j]);
+      }
+    }
+    return results;
+  }
+
+  @Override
+  public double getExpectedValue() {
+    double mean = 0.0;
+    for (int i = 0; i < components.length; i++) {
+      if (weights[i] > 0.0) {
+        mean += weights[i] * components[i].getExpectedValue();
+      }
+    }
+    return mean;
+  }
+
+  /**
+   * The law of total variance, &#931; w<sub>i</sub>(&#963;<sub>i</sub>&#178;
+   * + (&#956;<sub>i</sub> - &#956;)&#178;).
+   */
+  @Override
+  public double getVariance() {
+    final double mean = getExpectedValue();
+    double variance = 0.0;
+    for (int i = 0; i < components.length; i++) {
+      if (weights[i] > 0.0) {
+        double d = components[i].getExpectedValue() - mean;
+        variance += weights[i] * (components[i].getVariance() + d * d);
+      }
+    }
+    return variance;
+  }
+
+  /**
+   * @return a copy of the normalized weights.
+   */
+  public double[] getWeights() {
+    return weights.clone();
+  }
+
+  /**
+   * @return a copy of the components.
+   */
+  public DiscreteProbability[] getComponents() {
+    return components.clone();
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Multinomial.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * The <a href="https://en.wikipedia.org/wiki/Multinomial_distribution">
+ * Multinomial distribution</a>, the counts of each of k categories in n
+ * independent trials.
+ * <p>
+ * The probability of the counts is the product of a chain of binomial
+ * densities, the count of each category out of the trials left to the
+ * categories after it, with its chance of success renormalized over them.
+ * Each binomial density is a saddle point density, so evaluating an outcome
+ * is O(k) and keeps its precision when the counts are in the millions,
+ * where sums of log factorials do not.
+ * <pre>
+ * Multinomial ballots = new Multinomial(1000, 0.5, 0.3, 0.2);
+ * double chance = ballots.probability(480, 310, 210);
+ * Binomial first = ballots.marginal(lessThanOrEqual, 0);
+ * </pre>
+ */
+public class Multinomial {
+
+  /**
+   * Batches with at least this many outcomes are evaluated in parallel.
+   */
+  static final int PARALLEL_BATCH = 1024;
+
+  private final int trials;
+  private final double[] probabilities;
+  // chances of each category given it or a later one, and their complements.
+  private final double[] conditional;
+  private final double[] conditionalComplement;
+
+  /**
+   * @param trials        the number of trials, n
+   * @param probabilities the chance of each category, which sum to one.
+   */
+  public Multinomial(int trials, double... probabilities) {
+    Objects.requireNonNull(probabilities, "probabilities can't be null.");
+    assert DiscreteProbability.nonNegative(trials);
+    assert probabilities.length > 0;
+    this.trials = trials;
+    this.probabilities = probabilities.clone();
+    final int k = probabilities.length;
+    // tail sums from the end, so the complements don't lose precision.
+    final double[] tail = new double[k + 1];
+    for (int i = k - 1; i >= 0; i--) {
+      assert DiscreteProbability.betweenZeroAndOneInclusive(probabilities[i]);
+      tail[i] = tail[i + 1] + probabilities[i];
+    }
+    assert Math.abs(tail[0] - 1.0) < 1.0E-9 : "Probabilities sum to " + tail[0];
+    this.conditional = new double[k];
+    this.conditionalComplement = new double[k];
+    for (int i = 0; i < k; i++) {
+      conditional[i] = tail[i] == 0.0 ? 0.0 : probabilities[i] / tail[i];
+      conditionalComplement[i] = tail[i] == 0.0 ? 1.0 : tail[i + 1] / tail[i];
+    }
+    conditional[k - 1] = 1.0;
+    conditionalComplement[k - 1] = 0.0;
+  }
+
+  /**
+   * @param counts the count of each category
+   * @return the natural log of the probability of the counts, negative
+   * infinity if they are impossible.
+   */
+  public double logProbability(int... counts) {
+    assert counts.length == probabilities.length
+        : "There are " + probabilities.length + " categories.";
+    int left = trials;
+    double result = 0.0;
+    for (int i = 0; i < counts.length && result != Double.NEGATIVE_INFINITY;
+         i++) {
+      result += SpecialFunctions.logBinomialDensity(
+          counts[i], left, conditional[i], conditionalComplement[i]);
+      left -= counts[i];
+    }
+    return left == 0 ? result : Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * @param counts the count of each category
+   * @return the probability of the counts.
+   */
+  public double probability(int... counts) {
+    return Math.exp(logProbability(counts));
+  }
+
+  /**
+   * Evaluates many outcomes, in parallel when there are enough of them.
+   *
+   * @param outcomes the counts of each category of each outcome
+   * @return the natural log of the probability of each outcome.
+   */
+  public double[] logProbabilities(int[][] outcomes) {
+    Objects.requireNonNull(outcomes, "outcomes can't be null.");
+    final double[] results = new double[outcomes.length];
+    IntStream range = IntStream.range(0, outcomes.length);
+    if (outcomes.length >= PARALLEL_BATCH) {
+      range = range.parallel();
+    }
+    range.forEach(i -> results[i] = logProbability(outcomes[i]));
+    return results;
+  }
+
+  /**
+   * The count of one category, which is binomial.
+   *
+   * @param rvOperation The cumulative operation on the distribution
+   * @param category    the index of the category
+   * @return the distribution of the count of the category.
+   */
+  public Binomial marginal(CumulativeOperation rvOperation, int category) {
+    return new Binomial(rvOperation, trials, probabilities[category]);
+  }
+
+  /**
+   * The count of one category once the count of another is known, which is
+   * binomial over the trials the other category didn't take.
+   *
+   * @param rvOperation The cumulative operation on the distribution
+   * @param category    the index of the category
+   * @param given       the index of the category whose count is known
+   * @param givenCount  the known count
+   * @return the distribution of the count of the category.
+   */
+  public Binomial conditional(CumulativeOperation rvOperation,
+                              int category,
+                              int given,
+                              int givenCount) {
+    assert category != given && givenCount >= 0 && givenCount <= trials;
+    final double rest = 1.0 - probabilities[given];
+    return new Binomial(rvOperation, trials - givenCount,
+                        rest <= 0.0 ? 0.0
+                                    : Math.min(1.0,
+                                               probabilities[category] / rest));
+  }
+
+  /**
+   * Draws the counts as a chain of binomial variates, O(k) variates per
+   * sample.
+   *
+   * @param random the source of randomness
+   * @return the count of each category.
+   */
+  public int[] sample(Random random) {
+    Objects.requireNonNull(random, "random can't be null.");
+    final int[] counts = new int[probabilities.length];
+    int left = trials;
+    for (int i = 0; i < counts.length - 1 && left > 0; i++) {
+      counts[i] = Sampling.binomial(random, left, conditional[i]);
+      left -= counts[i];
+    }
+    counts[counts.length - 1] += left;
+    return counts;
+  }
+
+  /**
+   * @return the expected count of each category.
+   */
+  public double[] getExpectedValues() {
+    double[] means = new double[probabilities.length];
+    for (int i = 0; i < means.length; i++) {
+      means[i] = trials * probabilities[i];
+    }
+    return means;
+  }
+
+  /**
+   * @return the number of trials.
+   */
+  public int getTrials() {
+    return trials;
+  }
+
+  /**
+   * @return a copy of the chance of each category.
+   */
+  public double[] getProbabilities() {
+    return probabilities.clone();
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * MultivariateHyperGeometric.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * The <a href="https://en.wikipedia.org/wiki/Hypergeometric_distribution#Multivariate_hypergeometric_distribution">
+ * Multivariate Hypergeometric distribution</a>, the counts of each of k
+ * categories in a sample drawn without replacement, like the suits in a
+ * hand of cards.
+ * <p>
+ * The probability of the counts is the product of a chain of hypergeometric
+ * densities, the count of each category in what is left of the sample drawn
+ * from it and the categories after it. Each is a ratio of saddle point
+ * binomial densities, so evaluating an outcome is O(k) with no factorial
+ * loops.
+ * <pre>
+ * MultivariateHyperGeometric hands =
+ *     new MultivariateHyperGeometric(13, 13, 13, 13, 13);
+ * double chance = hands.probability(4, 3, 3, 3);
+ * HyperGeometric spades = hands.marginal(greaterThanOrEqual, 0);
+ * </pre>
+ */
+public class MultivariateHyperGeometric {
+
+  private final int sampleSize;
+  private final int[] categorySizes;
+  // the population left to each category and the ones after it.
+  private final int[] remaining;
+
+  /**
+   * @param sampleSize    the sample size, n
+   * @param categorySizes the number of members of each category in the
+   *                      population.
+   */
+  public MultivariateHyperGeometric(int sampleSize, int... categorySizes) {
+    Objects.requireNonNull(categorySizes, "categorySizes can't be null.");
+    assert categorySizes.length > 0;
+    this.sampleSize = sampleSize;
+    this.categorySizes = categorySizes.clone();
+    this.remaining = new int[categorySizes.length];
+    long total = 0L;
+    for (int i = categorySizes.length - 1; i >= 0; i--) {
+      assert DiscreteProbability.nonNegative(categorySizes[i]);
+      total += categorySizes[i];
+      assert total <= Integer.MAX_VALUE : "The population is too large.";
+      remaining[i] = (int) total;
+    }
+    assert sampleSize >= 0 && sampleSize <= total;
+  }
+
+  /**
+   * @param counts the count of each category in the sample
+   * @return the natural log of the probability of the counts, negative
+   * infinity if they are impossible.
+   */
+  public double logProbability(int... counts) {
+    assert counts.length == categorySizes.length
+        : "There are " + categorySizes.length + " categories.";
+    int left = sampleSize;
+    double result = 0.0;
+    for (int i = 0; i < counts.length && result != Double.NEGATIVE_INFINITY;
+         i++) {
+      if (left == 0) {
+        if (counts[i] != 0) {
+          return Double.NEGATIVE_INFINITY;
+        }
+        continue;
+      }
+      result += SpecialFunctions.logHyperGeometricDensity(
+          counts[i], remaining[i], left, categorySizes[i]);
+      left -= counts[i];
+    }
+    return left == 0 ? result : Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * @param counts the count of each category in the sample
+   * @return the probability of the counts.
+   */
+  public double probability(int... counts) {
+    return Math.exp(logProbability(counts));
+  }
+
+  /**
+   * Evaluates many outcomes, in parallel when there are enough of them.
+   *
+   * @param outcomes the counts of each category of each outcome
+   * @return the natural log of the probability of each outcome.
+   */
+  public double[] logProbabilities(int[][] outcomes) {
+    Objects.requireNonNull(outcomes, "outcomes can't be null.");
+    final double[] results = new double[outcomes.length];
+    IntStream range = IntStream.range(0, outcomes.length);
+    if (outcomes.length >= Multinomial.PARALLEL_BATCH) {
+      range = range.parallel();
+    }
+    range.forEach(i -> results[i] = logProbability(outcomes[i]));
+    return results;
+  }
+
+  /**
+   * The count of one category, which is hypergeometric.
+   *
+   * @param rvOperation The cumulative operation on the distribution
+   * @param category    the index of the category
+   * @return the distribution of the count of the category.
+   */
+  public HyperGeometric marginal(CumulativeOperation rvOperation,
+                                 int category) {
+    return new HyperGeometric(rvOperation, getPopulationSize(), sampleSize,
+                              categorySizes[category]);
+  }
+
+  /**
+   * The count of one category once the count of another is known, which is
+   * hypergeometric over the rest of the sample drawn from the rest of the
+   * population.
+   *
+   * @param rvOperation The cumulative operation on the distribution
+   * @param category    the index of the category
+   * @param given       the index of the category whose count is known
+   * @param givenCount  the known count
+   * @return the distribution of the count of the category.
+   */
+  public HyperGeometric conditional(CumulativeOperation rvOperation,
+                                    int category,
+                                    int given,
+                                    int givenCount) {
+    assert category != given && givenCount >= 0
+        && givenCount <= Integer.min(sampleSize, categorySizes[given]);
+    return new HyperGeometric(rvOperation,
+                              getPopulationSize() - categorySizes[given],
+                              sampleSize - givenCount,
+                              categorySizes[category]);
+  }
+
+  /**
+   * Draws the counts as a chain of hypergeometric variates, O(k) variates
+   * per sample.
+   *
+   * @param random the source of randomness
+   * @return the count of each category in the sample.
+   */
+  public int[] sample(Random random) {
+    Objects.requireNonNull(random, "random can't be null.");
+    final int[] counts = new int[categorySizes.length];
+    int left = sampleSize;
+    for (int i = 0; i < counts.length - 1 && left > 0; i++) {
+      counts[i] = Sampling.hyperGeometric(random, remaining[i], left,
+                                          categorySizes[i]);
+      left -= counts[i];
+    }
+    counts[counts.length - 1] += left;
+    return counts;
+  }
+
+  /**
+   * @return the expected count of each category.
+   */
+  public double[] getExpectedValues() {
+    final double fraction = (double) sampleSize / getPopulationSize();
+    double[] means = new double[categorySizes.length];
+    for (int i = 0; i < means.length; i++) {
+      means[i] = categorySizes[i] * fraction;
+    }
+    return means;
+  }
+
+  /**
+   * @return the sample size.
+   */
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  /**
+   * @return the population size, the sum of the category sizes.
+   */
+  public int getPopulationSize() {
+    return remaining[0];
+  }
+
+  /**
+   * @return a copy of the number of members of each category.
+   */
+  public int[] getCategorySizes() {
+    return categorySizes.clone();
+  }
+}
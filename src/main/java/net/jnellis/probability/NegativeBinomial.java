@@ -37,7 +37,8 @@ package net.jnellis.probability;
  *                    y));
  * </pre>
  */
-public class NegativeBinomial extends DiscreteProbability {
+public class NegativeBinomial extends DiscreteProbability
+    implements DifferentiableProbability {
 
   private final int successfulTrials;
   private final double chanceOfSuccess;
@@ -64,6 +65,97 @@ public class NegativeBinomial extends DiscreteProbability {
     return probability(successfulTrials, chanceOfSuccess, randomVariable);
   }
 
+  /**
+   * The log of (k/y) times the binomial density of k successes in y
+   * trials, since (y-1)C(k-1) = (k/y) * yCk.
+   */
+  @Override
+  public double logProbability(int randomVariable) {
+    if (randomVariable < successfulTrials) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    if (successfulTrials == 0) {
+      return randomVariable == 0 ? 0.0 : Double.NEGATIVE_INFINITY;
+    }
+    return Math.log((double) successfulTrials / randomVariable)
+        + SpecialFunctions.logBinomialDensity(
+        successfulTrials, randomVariable, chanceOfSuccess,
+        1.0 - chanceOfSuccess);
+  }
+
+  /**
+   * d/dp log P(Y = y) = k/p - (y - k)/(1 - p)
+   */
+  @Override
+  public double score(int randomVariable) {
+    if (randomVariable < successfulTrials) {
+      return Double.NaN;
+    }
+    double successes = successfulTrials == 0
+                       ? 0.0
+                       : successfulTrials / chanceOfSuccess;
+    double failures = randomVariable == successfulTrials
+                      ? 0.0
+                      : (randomVariable - successfulTrials)
+                          / (1.0 - chanceOfSuccess);
+    return successes - failures;
+  }
+
+  /**
+   * P(Y &lt;= y) is the chance of at least k successes in y trials, the
+   * regularized incomplete beta function I_p(k, y - k + 1).
+   */
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    if (randomVariable < successfulTrials) {
+      return 0.0;
+    }
+    if (successfulTrials == 0) {
+      return 1.0;
+    }
+    return SpecialFunctions.regularizedBeta(chanceOfSuccess, successfulTrials,
+                                            randomVariable
+                                                - successfulTrials + 1.0);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    if (randomVariable < successfulTrials) {
+      return 1.0;
+    }
+    if (successfulTrials == 0) {
+      return 0.0;
+    }
+    return SpecialFunctions.regularizedBetaComplement(
+        chanceOfSuccess, successfulTrials,
+        randomVariable - successfulTrials + 1.0);
+  }
+
+  /**
+   * P(y+1) = P(y) * y/(y-k+1) * (1-p)
+   */
+  @Override
+  double nextResult(int randomVariable, double result) {
+    if (randomVariable < successfulTrials || successfulTrials < 2) {
+      return computeResult(randomVariable + 1);
+    }
+    final double chanceOfFailure = 1.0 - chanceOfSuccess;
+    if (result < Double.MIN_NORMAL) {
+      // P(y) = p * ((y-1) C (k-1)) * p^(k-1) * q^(y-k)
+      return chanceOfSuccess
+          * SpecialFunctions.binomialDensity(successfulTrials - 1,
+                                             randomVariable, chanceOfSuccess,
+                                             chanceOfFailure);
+    }
+    return result * randomVariable
+        / (randomVariable - successfulTrials + 1) * chanceOfFailure;
+  }
+
+  @Override
+  double anchorResult(int randomVariable) {
+    return Math.exp(logProbability(randomVariable));
+  }
+
   /**
    * Computes the Negative binomial probability.
    *
@@ -75,6 +167,23 @@ public class NegativeBinomial extends DiscreteProbability {
   public static double probability(int successfulTrials,
                                    double chanceOfSuccess,
                                    int totalTrials) {
+    return scaledProbability(successfulTrials, chanceOfSuccess, totalTrials)
+        .doubleValue();
+  }
+
+  /**
+   * Computes the Negative binomial probability with its exponent kept
+   * apart, so that it doesn't underflow far out in the tail.
+   *
+   * @param successfulTrials number of successful trials
+   * @param chanceOfSuccess  chance of a successful trial
+   * @param totalTrials      total number of trials
+   * @return probability of this event
+   * @see #probability(int, double, int)
+   */
+  public static ScaledDouble scaledProbability(int successfulTrials,
+                                               double chanceOfSuccess,
+                                               int totalTrials) {
     /*  The equation for this probability is based on the equation that counts
      *  failures instead of total trials and successes.
      *  where x is failed trials,
@@ -95,17 +204,18 @@ public class NegativeBinomial extends DiscreteProbability {
     // the base class function GetResult will possibly
     // set our number of trials below K so just return 0.0;
     if (successfulTrials > totalTrials || totalTrials == 0)
-      return 0.0;
+      return ScaledDouble.ZERO;
 
     // initialize some variables
     double result = 1.0;
     double chanceOfFailure = 1.0 - chanceOfSuccess;
     // check optimizations
     if (successfulTrials == totalTrials) {
-      return Math.pow(chanceOfSuccess, successfulTrials);
+      return ScaledDouble.pow(chanceOfSuccess, successfulTrials);
     }
     if (successfulTrials == 1) {
-      return Math.pow(chanceOfFailure, totalTrials);
+      return ScaledDouble.pow(chanceOfFailure, totalTrials - 1)
+                         .multiply(chanceOfSuccess);
     }
 
     // cancellation optimization, the larger denominator term cancels out.
@@ -118,8 +228,20 @@ public class NegativeBinomial extends DiscreteProbability {
     int numers = totalTrials - 1;
     int numerFloor = totalTrials - 1 - range;
 
+    final double rescaleBelow = ScaledDouble.rescaleBelow(
+        Double.min(chanceOfSuccess, chanceOfFailure));
+    long scale = 0L;
     while (pees > 0 || ques > 0 || denoms > 0 || numers > numerFloor) {
       if (result >= 1.0 || numers == numerFloor) {
+        // once the numerators run out the result only falls, move its
+        // exponent into the scale before the next factor could underflow
+        // it. Rescaling earlier would upset the choice between raising and
+        // lowering.
+        if (numers == numerFloor && result < rescaleBelow && result > 0.0) {
+          int exponent = ScaledDouble.exponentOf(result);
+          result = Math.scalb(result, -exponent);
+          scale += exponent;
+        }
         if (denoms > 0) {
           result /= denoms;
           --denoms;
@@ -135,7 +257,21 @@ public class NegativeBinomial extends DiscreteProbability {
         --numers;
       }
     }
-    return result;
+    return ScaledDouble.of(result, scale);
+  }
+
+  /**
+   * @return the number of successful trials, k.
+   */
+  public int getSuccessfulTrials() {
+    return successfulTrials;
+  }
+
+  /**
+   * @return the chance of success of a single trial.
+   */
+  public double getChanceOfSuccess() {
+    return chanceOfSuccess;
   }
 
   /**
@@ -158,4 +294,67 @@ public class NegativeBinomial extends DiscreteProbability {
     return successfulTrials * (1 - chanceOfSuccess) / (chanceOfSuccess *
         chanceOfSuccess);
   }
+
+  /**
+   * The skewness is defined by
+   * (2-p)/sqrt(k(1-p))
+   */
+  @Override
+  public double getSkewness() {
+    final double q = 1.0 - chanceOfSuccess;
+    return q == 0.0 ? Double.NaN : (2.0 - chanceOfSuccess)
+        / Math.sqrt(successfulTrials * q);
+  }
+
+  /**
+   * The excess kurtosis is defined by
+   * 6/k + p^2/(k(1-p))
+   */
+  @Override
+  public double getKurtosis() {
+    final double q = 1.0 - chanceOfSuccess;
+    return q == 0.0 ? Double.NaN : (6.0 + chanceOfSuccess
+        * chanceOfSuccess / q) / successfulTrials;
+  }
+
+  /**
+   * The number of trials is k plus the number of failures X, whose
+   * factorial moments are k(k+1)...(k+j-1) ((1-p)/p)^j, so by Vandermonde's
+   * identity for falling factorials
+   * E[(Y)_r] = sum over j of C(r,j) (k)_(r-j) k(k+1)...(k+j-1) ((1-p)/p)^j
+   */
+  @Override
+  public double factorialMoment(int order) {
+    assert nonNegative(order) : "Order must be non-negative.";
+    final int k = successfulTrials;
+    final double odds = (1.0 - chanceOfSuccess) / chanceOfSuccess;
+    // the terms with r - j > k are zero.
+    final int first = Integer.max(0, order - k);
+    double term = 1.0;
+    for (int i = 0; i < order - first; i++) {
+      term *= k - i;
+    }
+    for (int i = 0; i < first; i++) {
+      term *= (k + i) * odds * (order - i) / (i + 1.0);
+    }
+    double moment = term;
+    for (int j = first; j < order; j++) {
+      term *= (order - j) / (j + 1.0) * (k + j) * odds / (k - order + j + 1.0);
+      moment += term;
+    }
+    return moment;
+  }
+
+  /**
+   * The generating function is defined by
+   * G(s) = (ps/(1-(1-p)s))^k, which diverges for |(1-p)s| &gt;= 1
+   */
+  @Override
+  public double generatingFunction(double s) {
+    final double ratio = (1.0 - chanceOfSuccess) * s;
+    if (Math.abs(ratio) >= 1.0) {
+      return s > 0.0 ? Double.POSITIVE_INFINITY : Double.NaN;
+    }
+    return Math.pow(chanceOfSuccess * s / (1.0 - ratio), successfulTrials);
+  }
 }
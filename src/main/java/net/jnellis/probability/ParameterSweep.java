@@ -0,0 +1,331 @@
+/*
+ * ParameterSweep.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates a cumulative operation over a grid of parameter values and
+ * random variables into a matrix, with a row for each parameter value and
+ * a column for each random variable.
+ * <p>
+ * Rows are evaluated in parallel. Within a row the random variables are
+ * visited in order so each cell continues from its neighbor: the
+ * probabilities between two nearby random variables are generated by the
+ * distribution's recurrence, carried on from the last one computed, and
+ * added to the neighbor's cumulative probability. Only the first cell, the
+ * last cell, cells far from their neighbor and a cell every few hundred
+ * steps are computed from the closed forms. Cells below the mean are summed
+ * up from the first cell and cells above it down from the last, as survival
+ * probabilities, so that small upper tails keep their precision.
+ * <pre>
+ * double[] chances = ParameterSweep.grid(0.25, 0.35, 101);
+ * double[][] table = ParameterSweep.binomial(lessThanOrEqual, 1000, chances,
+ *                                            280, 290, 300, 310, 320);
+ * </pre>
+ */
+public final class ParameterSweep {
+
+  /**
+   * Random variables further apart than this are computed from the closed
+   * forms instead of summed between.
+   */
+  static final int RECURRENCE_LIMIT = 64;
+
+  /**
+   * Cells are summed from their neighbors for no more than this many
+   * recurrence steps before one is computed from the closed forms again,
+   * which bounds the rounding error carried along a row.
+   */
+  static final int RESTART_STEPS = 256;
+
+  private ParameterSweep() {}
+
+  /**
+   * Evenly spaced values from the first to the last inclusive.
+   *
+   * @param from   the first value
+   * @param to     the last value
+   * @param points the number of values, at least two.
+   * @return the values
+   */
+  public static double[] grid(double from, double to, int points) {
+    assert points > 1 : "A grid needs at least two points.";
+    final double[] values = new double[points];
+    for (int i = 0; i < points; i++) {
+      values[i] = from + (to - from) * i / (points - 1);
+    }
+    values[points - 1] = to;
+    return values;
+  }
+
+  /**
+   * Binomial distributions over a grid of chances of success.
+   *
+   * @param rvOperation     The cumulative operation of every cell
+   * @param trials          the number of trials
+   * @param chances         the chance of success of each row
+   * @param randomVariables the random variable of each column
+   * @return the results indexed by row then column
+   */
+  public static double[][] binomial(CumulativeOperation rvOperation,
+                                    int trials,
+                                    double[] chances,
+                                    int... randomVariables) {
+    return sweep(rvOperation, p -> new Binomial(rvOperation, trials, p),
+                 chances, randomVariables);
+  }
+
+  /**
+   * Poisson distributions over a grid of rates.
+   *
+   * @param rvOperation     The cumulative operation of every cell
+   * @param lambdas         the rate of each row
+   * @param randomVariables the random variable of each column
+   * @return the results indexed by row then column
+   */
+  public static double[][] poisson(CumulativeOperation rvOperation,
+                                   double[] lambdas,
+                                   int... randomVariables) {
+    return sweep(rvOperation, lambda -> new Poisson(rvOperation, lambda),
+                 lambdas, randomVariables);
+  }
+
+  /**
+   * Geometric distributions over a grid of chances of success.
+   *
+   * @param rvOperation     The cumulative operation of every cell
+   * @param chances         the chance of success of each row
+   * @param randomVariables the random variable of each column
+   * @return the results indexed by row then column
+   */
+  public static double[][] geometric(CumulativeOperation rvOperation,
+                                     double[] chances,
+                                     int... randomVariables) {
+    return sweep(rvOperation, p -> new Geometric(rvOperation, p),
+                 chances, randomVariables);
+  }
+
+  /**
+   * Negative binomial distributions over a grid of chances of success.
+   *
+   * @param rvOperation      The cumulative operation of every cell
+   * @param successfulTrials the number of successes
+   * @param chances          the chance of success of each row
+   * @param randomVariables  the random variable of each column
+   * @return the results indexed by row then column
+   */
+  public static double[][] negativeBinomial(CumulativeOperation rvOperation,
+                                            int successfulTrials,
+                                            double[] chances,
+                                            int... randomVariables) {
+    return sweep(rvOperation,
+                 p -> new NegativeBinomial(rvOperation, successfulTrials, p),
+                 chances, randomVariables);
+  }
+
+  /**
+   * Hypergeometric distributions over a grid of the number of success
+   * states in the population.
+   *
+   * @param rvOperation     The cumulative operation of every cell
+   * @param populationSize  the population size, N
+   * @param sampleSize      the sample size, n
+   * @param successStates   the success states, r, of each row
+   * @param randomVariables the random variable of each column
+   * @return the results indexed by row then column
+   */
+  public static double[][] hyperGeometric(CumulativeOperation rvOperation,
+                                          int populationSize,
+                                          int sampleSize,
+                                          int[] successStates,
+                                          int... randomVariables) {
+    Objects.requireNonNull(successStates, "successStates can't be null.");
+    return sweep(rvOperation,
+                 r -> new HyperGeometric(rvOperation, populationSize,
+                                         sampleSize, (int) r),
+                 Arrays.stream(successStates).asDoubleStream().toArray(),
+                 randomVariables);
+  }
+
+  /**
+   * Any family of distributions over a grid of one parameter, for example
+   * the population size of a hypergeometric.
+   *
+   * @param rvOperation     The cumulative operation of every cell
+   * @param family          creates the distribution of a parameter value
+   * @param parameters      the parameter value of each row
+   * @param randomVariables the random variable of each column
+   * @return the results indexed by row then column
+   */
+  public static double[][] sweep(CumulativeOperation rvOperation,
+                                 DoubleFunction<? extends DiscreteProbability>
+                                     family,
+                                 double[] parameters,
+                                 int... randomVariables) {
+    Objects.requireNonNull(rvOperation, "rvOperation can't be null.");
+    Objects.requireNonNull(family, "family can't be null.");
+    Objects.requireNonNull(parameters, "parameters can't be null.");
+    Objects.requireNonNull(randomVariables, "randomVariables can't be null.");
+    final Columns columns = new Columns(rvOperation, randomVariables);
+    final double[][] results = new double[parameters.length][];
+    IntStream rows = IntStream.range(0, parameters.length);
+    if ((long) parameters.length * columns.points.length
+        >= Multinomial.PARALLEL_BATCH) {
+      rows = rows.parallel();
+    }
+    rows.forEach(row -> results[row] =
+        columns.evaluate(family.apply(parameters[row])));
+    return results;
+  }
+
+  /**
+   * The distinct random variables whose cumulative probabilities, or
+   * probabilities, the columns of a row need, in order.
+   */
+  private static final class Columns {
+    final CumulativeOperation operation;
+    final int[] randomVariables;
+    final boolean probabilities;
+    final int[] points;
+
+    Columns(CumulativeOperation operation, int[] randomVariables) {
+      this.operation = operation;
+      this.randomVariables = randomVariables.clone();
+      this.probabilities = operation == CumulativeOperation.equal
+          || operation == CumulativeOperation.notEqual;
+      // lessThan and greaterThanOrEqual are about the value below.
+      final int offset = operation == CumulativeOperation.lessThan
+          || operation == CumulativeOperation.greaterThanOrEqual ? 1 : 0;
+      this.points = Arrays.stream(randomVariables)
+                          .mapToLong(y -> (long) y - offset)
+                          .mapToInt(y -> (int) Long.max(-1L, y))
+                          .sorted()
+                          .distinct()
+                          .toArray();
+    }
+
+    double[] evaluate(DiscreteProbability distribution) {
+      final double[] row = new double[randomVariables.length];
+      if (probabilities) {
+        for (int i = 0; i < row.length; i++) {
+          double probability = distribution.computeResult(randomVariables[i]);
+          row[i] = operation == CumulativeOperation.equal
+                   ? probability
+                   : 1.0 - probability;
+        }
+        return row;
+      }
+      final double[] cumulative = new double[points.length];
+      final double[] survival = new double[points.length];
+      if (!cumulativeAtPoints(distribution, cumulative, survival)) {
+        // an operation other than the constants is summed cell by cell.
+        for (int i = 0; i < row.length; i++) {
+          row[i] = operation.apply(randomVariables[i],
+                                   distribution::computeResult);
+        }
+        return row;
+      }
+      for (int i = 0; i < row.length; i++) {
+        int y = randomVariables[i];
+        if (operation == CumulativeOperation.lessThanOrEqual) {
+          row[i] = cumulative[indexOf(y)];
+        } else if (operation == CumulativeOperation.lessThan) {
+          row[i] = cumulative[indexOf(y - 1)];
+        } else if (operation == CumulativeOperation.greaterThan) {
+          row[i] = survival[indexOf(y)];
+        } else {
+          row[i] = survival[indexOf(y - 1)];
+        }
+      }
+      return row;
+    }
+
+    private int indexOf(int y) {
+      return Arrays.binarySearch(points, Integer.max(-1, y));
+    }
+
+    /**
+     * Fills the cumulative and survival probabilities of every point,
+     * returning false for operations that aren't one of the constants.
+     */
+    private boolean cumulativeAtPoints(DiscreteProbability distribution,
+                                       double[] cumulative,
+                                       double[] survival) {
+      if (operation != CumulativeOperation.lessThan
+          && operation != CumulativeOperation.lessThanOrEqual
+          && operation != CumulativeOperation.greaterThan
+          && operation != CumulativeOperation.greaterThanOrEqual) {
+        return false;
+      }
+      final int size = points.length;
+      if (size == 0) {
+        return true;
+      }
+      // P(points[j-1] < Y <= points[j]) for nearby points, NaN where the
+      // point is computed from the closed forms instead.
+      final double[] between = new double[size];
+      between[0] = Double.NaN;
+      int carried = Integer.MIN_VALUE;
+      double carriedProbability = 0.0;
+      int steps = 0;
+      for (int j = 1; j < size; j++) {
+        int from = points[j - 1] + 1;
+        int to = points[j];
+        if (to - from >= RECURRENCE_LIMIT || steps >= RESTART_STEPS) {
+          between[j] = Double.NaN;
+          steps = 0;
+          continue;
+        }
+        // continue the recurrence from the last probability when it
+        // ended just below this range.
+        double probability = carried == from - 1
+                             ? distribution.nextResult(carried,
+                                                       carriedProbability)
+                             : distribution.anchorResult(from);
+        double sum = probability;
+        for (int y = from; y < to; y++) {
+          probability = distribution.nextResult(y, probability);
+          sum += probability;
+        }
+        steps += to - from + 1;
+        carried = to;
+        carriedProbability = probability;
+        // out in the tails the recurrence underflows and the closed forms
+        // are cheap.
+        between[j] = probability < Double.MIN_NORMAL ? Double.NaN : sum;
+      }
+      final double mean = distribution.getExpectedValue();
+      // split the points at the mean, below it sum up the cumulative
+      // probabilities, above it sum down the survival probabilities.
+      int split = 0;
+      while (split < size && points[split] < mean) {
+        split++;
+      }
+      for (int j = 0; j < split; j++) {
+        cumulative[j] = j == 0 || Double.isNaN(between[j])
+                        ? distribution.cumulativeProbability(points[j])
+                        : cumulative[j - 1] + between[j];
+        cumulative[j] = Double.min(1.0, cumulative[j]);
+        survival[j] = 1.0 - cumulative[j];
+      }
+      for (int j = size - 1; j >= split; j--) {
+        survival[j] = j == size - 1 || Double.isNaN(between[j + 1])
+                      ? distribution.survivalProbability(points[j])
+                      : survival[j + 1] + between[j + 1];
+        survival[j] = Double.min(1.0, survival[j]);
+        cumulative[j] = 1.0 - survival[j];
+      }
+      return true;
+    }
+  }
+}
@@ -35,7 +35,8 @@ package net.jnellis.probability;
  *                             .apply(3, y-&gt; Poisson.probability(7,y));
  * </pre>
  */
-public class Poisson extends DiscreteProbability {
+public class Poisson extends DiscreteProbability
+    implements DifferentiableProbability {
 
   private final double lambda;
 
@@ -47,10 +48,33 @@ public class Poisson extends DiscreteProbability {
    */
   public Poisson(CumulativeOperation rvOperation,
                  double lambda) {
-    super(rvOperation);
+    this(rvOperation, lambda, 0.0);
+  }
+
+  /**
+   * Creates a representation of a Poisson probability distribution whose
+   * cumulative results may be approximated by a normal distribution when
+   * the error bound of the approximation is within the tolerance.
+   *
+   * @param rvOperation The cumulative operation to be applied
+   * @param lambda      The average rate of success
+   * @param tolerance   The largest absolute error allowed in a cumulative
+   *                    result.
+   */
+  public Poisson(CumulativeOperation rvOperation,
+                 double lambda,
+                 double tolerance) {
+    super(rvOperation, tolerance);
     this.lambda = lambda;
   }
 
+  /**
+   * @return the average rate of success.
+   */
+  public double getLambda() {
+    return lambda;
+  }
+
   @Override
   public double getExpectedValue() {
     return lambda;
@@ -61,11 +85,103 @@ public class Poisson extends DiscreteProbability {
     return lambda;
   }
 
+  /**
+   * Skewness is defined by 1/sqrt(lambda)
+   */
+  @Override
+  public double getSkewness() {
+    return lambda == 0.0 ? Double.NaN : 1.0 / Math.sqrt(lambda);
+  }
+
+  /**
+   * Excess kurtosis is defined by 1/lambda
+   */
+  @Override
+  public double getKurtosis() {
+    return lambda == 0.0 ? Double.NaN : reciprocal(lambda);
+  }
+
+  /**
+   * Factorial moments are defined by lambda^r
+   */
+  @Override
+  public double factorialMoment(int order) {
+    assert nonNegative(order) : "Order must be non-negative.";
+    return Math.pow(lambda, order);
+  }
+
+  /**
+   * The generating function is defined by G(s) = e^(lambda(s-1))
+   */
+  @Override
+  public double generatingFunction(double s) {
+    return Math.exp(lambda * (s - 1.0));
+  }
+
   @Override
   public double computeResult(int randomVariable) {
     return probability(lambda, randomVariable);
   }
 
+  @Override
+  public double logProbability(int randomVariable) {
+    return SpecialFunctions.logPoissonDensity(randomVariable, lambda);
+  }
+
+  /**
+   * d/d&#955; log P(Y = y) = y/&#955; - 1
+   */
+  @Override
+  public double score(int randomVariable) {
+    if (randomVariable < 0) {
+      return Double.NaN;
+    }
+    return (randomVariable == 0 ? 0.0 : randomVariable / lambda) - 1.0;
+  }
+
+  @Override
+  double approximateResult(int randomVariable) {
+    return Approximation.poisson(getCumulativeOperation(), lambda,
+                                 randomVariable, getTolerance());
+  }
+
+  /**
+   * P(Y &lt;= y) is the regularized upper incomplete gamma function
+   * Q(y + 1, lambda).
+   */
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    return randomVariable < 0
+           ? 0.0
+           : SpecialFunctions.regularizedGammaQ(randomVariable + 1.0, lambda);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    return randomVariable < 0
+           ? 1.0
+           : SpecialFunctions.regularizedGammaP(randomVariable + 1.0, lambda);
+  }
+
+  /**
+   * P(y+1) = P(y) * lambda/(y+1)
+   */
+  @Override
+  double nextResult(int randomVariable, double result) {
+    if (randomVariable < 0) {
+      return computeResult(randomVariable + 1);
+    }
+    if (result < Double.MIN_NORMAL) {
+      return SpecialFunctions.poissonDensity(randomVariable + 1, lambda);
+    }
+    return result * lambda / (randomVariable + 1);
+  }
+
+  @Override
+  double anchorResult(int randomVariable) {
+    return Math.exp(logProbability(randomVariable));
+  }
+
   /**
    * The Poisson probability.
    * The equation for this probability is:
@@ -86,9 +202,9 @@ public class Poisson extends DiscreteProbability {
     // start with the fractional component, it's between 0 and 1.0
     double result = Math.exp(-1.0 * fractional);
 
-    while (integral > 0 || lambdas > 0) {
+    while (integral > 0 || lambdas > 0 || denoms > 0) {
       //lowering values
-      if (result >= 1.0 || lambdas == 0) {
+      if ((result >= 1.0 || lambdas == 0) && (denoms > 0 || integral > 0)) {
         if (denoms > 0) {
           result /= denoms;
           denoms--;
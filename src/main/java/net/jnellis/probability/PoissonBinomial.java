@@ -0,0 +1,263 @@
+/*
+ * PoissonBinomial.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * The <a href="https://en.wikipedia.org/wiki/Poisson_binomial_distribution">
+ * Poisson binomial probability distribution.</a>
+ * <p>
+ * Like the binomial, the random variable is the number of successful
+ * trials, but each trial has its own chance of success. For example, ten
+ * free throw shooters each take one shot, each with their own free throw
+ * percentage. What is the probability that exactly seven shots go in.
+ * <p>
+ * The probability generating function is the product of each trial's
+ * generating function, q + p*z, so the whole probability table is built at
+ * once by multiplying those polynomials, pairwise by fast Fourier transform
+ * for large tables and by direct convolution for small ones. The table is
+ * built the first time it is needed and shared after that.
+ * <pre>
+ * double[] chances = {0.9, 0.75, 0.6, 0.8, 0.7, 0.85, 0.5, 0.65, 0.7, 0.8};
+ * PoissonBinomial pdf = new PoissonBinomial(greaterThanOrEqual, chances);
+ * double sevenOrMore = pdf.getResult(7);
+ * </pre>
+ * With a tolerance, cumulative results come from the refined normal
+ * approximation without building the table whenever the Berry-Esseen bound
+ * for non-identical trials is within the tolerance.
+ */
+public class PoissonBinomial extends DiscreteProbability {
+
+  /**
+   * Shevtsova's constant for the Berry-Esseen inequality of summands that
+   * are not identically distributed.
+   */
+  private static final double BERRY_ESSEEN = 0.5600;
+
+  private final double[] chancesOfSuccess;
+  private final double mean;
+  private final double variance;
+  private final double thirdCentralMoment;
+  private final double absoluteThirdMoment;
+  private volatile ProbabilityTables tables;
+
+  /**
+   * Creates a representation of a Poisson binomial distribution.
+   *
+   * @param rvOperation      The cumulative operation on this probability
+   * @param chancesOfSuccess The chance of success of each trial.
+   */
+  public PoissonBinomial(CumulativeOperation rvOperation,
+                         double[] chancesOfSuccess) {
+    this(rvOperation, chancesOfSuccess, 0.0);
+  }
+
+  /**
+   * Creates a representation of a Poisson binomial distribution whose
+   * cumulative results may come from the refined normal approximation when
+   * its error bound is within the tolerance.
+   *
+   * @param rvOperation      The cumulative operation on this probability
+   * @param chancesOfSuccess The chance of success of each trial.
+   * @param tolerance        The largest absolute error allowed in a
+   *                         cumulative result.
+   */
+  public PoissonBinomial(CumulativeOperation rvOperation,
+                         double[] chancesOfSuccess,
+                         double tolerance) {
+    super(rvOperation, tolerance);
+    this.chancesOfSuccess = chancesOfSuccess.clone();
+    double mean = 0.0;
+    double variance = 0.0;
+    double third = 0.0;
+    double absoluteThird = 0.0;
+    for (double p : this.chancesOfSuccess) {
+      assert betweenZeroAndOneInclusive(p);
+      double q = 1.0 - p;
+      mean += p;
+      variance += p * q;
+      third += p * q * (q - p);
+      absoluteThird += p * q * (p * p + q * q);
+    }
+    this.mean = mean;
+    this.variance = variance;
+    this.thirdCentralMoment = third;
+    this.absoluteThirdMoment = absoluteThird;
+  }
+
+  /**
+   * The whole probability table of a Poisson binomial distribution.
+   *
+   * @param chancesOfSuccess The chance of success of each trial.
+   * @return probabilities indexed by the number of successes, from zero to
+   * the number of trials.
+   */
+  public static double[] probabilities(double[] chancesOfSuccess) {
+    if (chancesOfSuccess.length == 0) {
+      return new double[]{1.0};
+    }
+    return product(chancesOfSuccess, 0, chancesOfSuccess.length);
+  }
+
+  /**
+   * Multiplies the generating functions of the trials from start up to end,
+   * halving the range until it is small enough to multiply directly.
+   */
+  private static double[] product(double[] chances, int start, int end) {
+    if (end - start <= FastFourierTransform.DIRECT_LIMIT) {
+      double[] table = new double[end - start + 1];
+      table[0] = 1.0;
+      for (int i = start; i < end; i++) {
+        double p = chances[i];
+        double q = 1.0 - p;
+        int last = i - start + 1;
+        table[last] = table[last - 1] * p;
+        for (int k = last - 1; k > 0; k--) {
+          table[k] = table[k] * q + table[k - 1] * p;
+        }
+        table[0] *= q;
+      }
+      return table;
+    }
+    int middle = (start + end) >>> 1;
+    return FastFourierTransform.convolve(product(chances, start, middle),
+                                         product(chances, middle, end));
+  }
+
+  @Override
+  public double computeResult(int randomVariable) {
+    if (randomVariable < 0 || randomVariable > chancesOfSuccess.length) {
+      return 0.0;
+    }
+    return tables().probabilityAt(randomVariable);
+  }
+
+  /**
+   * Cumulative results are looked up in the cumulative tables rather than
+   * summed.
+   */
+  @Override
+  public double getResult(int randomVariable) {
+    if (getTolerance() > 0.0) {
+      double approximation = approximateResult(randomVariable);
+      if (!Double.isNaN(approximation)) {
+        return approximation;
+      }
+    }
+    return tables().result(getCumulativeOperation(), randomVariable);
+  }
+
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 0.0;
+    }
+    if (randomVariable >= chancesOfSuccess.length) {
+      return 1.0;
+    }
+    return tables().cumulativeProbability(randomVariable);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 1.0;
+    }
+    if (randomVariable >= chancesOfSuccess.length) {
+      return 0.0;
+    }
+    return tables().survivalProbability(randomVariable);
+  }
+
+  /**
+   * The refined normal approximation,
+   * G(x) = &#934;(x) + &#947;(1 - x&#178;)&#966;(x)/6 where &#947; is the
+   * skewness and x is the continuity corrected standard score. The
+   * Berry-Esseen bound covers &#934;(x) alone, and |(1 - x&#178;)&#966;(x)|
+   * is at most &#966;(0), so the refinement widens the bound by
+   * |&#947;|&#966;(0)/6.
+   */
+  @Override
+  double approximateResult(int randomVariable) {
+    final int multiplier =
+        Approximation.errorMultiplier(getCumulativeOperation());
+    if (multiplier == 0 || variance == 0.0) {
+      return Double.NaN;
+    }
+    final double deviation = Math.sqrt(variance);
+    final double skewness = thirdCentralMoment / (variance * deviation);
+    if (multiplier * (BERRY_ESSEEN * absoluteThirdMoment
+        / (variance * deviation)
+        + Math.abs(skewness) * SpecialFunctions.normalDensity(0.0) / 6.0)
+        > getTolerance()) {
+      return Double.NaN;
+    }
+    return CumulativeOperation.fromDistribution(
+        getCumulativeOperation(), randomVariable, y -> {
+          if (y < 0) {
+            return 0.0;
+          }
+          if (y >= chancesOfSuccess.length) {
+            return 1.0;
+          }
+          double x = (y + 0.5 - mean) / deviation;
+          double refined = SpecialFunctions.normalCdf(x)
+              + skewness * (1.0 - x * x) * SpecialFunctions.normalDensity(x)
+              / 6.0;
+          return Math.min(1.0, Math.max(0.0, refined));
+        });
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return chancesOfSuccess.length;
+  }
+
+  @Override
+  public int quantile(double probability) {
+    assert betweenZeroAndOneInclusive(probability);
+    return tables().quantile(probability);
+  }
+
+  /**
+   * The Expected Value is the sum of the chances of success.
+   */
+  @Override
+  public double getExpectedValue() {
+    return mean;
+  }
+
+  /**
+   * The Variance is the sum of p * (1-p) of each trial.
+   */
+  @Override
+  public double getVariance() {
+    return variance;
+  }
+
+  /**
+   * @return a copy of the chance of success of each trial.
+   */
+  public double[] getChancesOfSuccess() {
+    return chancesOfSuccess.clone();
+  }
+
+  private ProbabilityTables tables() {
+    ProbabilityTables result = tables;
+    if (result == null) {
+      synchronized (this) {
+        result = tables;
+        if (result == null) {
+          result = ProbabilityTables.of(probabilities(chancesOfSuccess));
+          tables = result;
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,468 @@
+/*
+ * ProbabilityTables.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * A probability table indexed by the random variable with its running sums
+ * from each end, so every cumulative operation is a lookup. The survival
+ * table is summed from the top so tiny upper tails keep their precision.
+ * <p>
+ * The tables are either arrays on the heap or buffers, such as the read
+ * only mapping of a file written by {@link MappedDistribution}, or the
+ * compact encodings of a {@link QuantizedDistribution}.
+ */
+abstract class ProbabilityTables {
+
+  /**
+   * Tables summed from a probability table.
+   *
+   * @param probabilities P(Y = y) for y from zero, the table is not copied.
+   * @return the tables
+   */
+  static ProbabilityTables of(double[] probabilities) {
+    return new ArrayTables(probabilities);
+  }
+
+  /**
+   * Tables over buffers of equal length, which are not copied.
+   *
+   * @param probabilities P(Y = y)
+   * @param cumulative    P(Y &lt;= y)
+   * @param survival      P(Y &gt; y)
+   * @return the tables
+   */
+  static ProbabilityTables of(DoubleBuffer probabilities,
+                              DoubleBuffer cumulative,
+                              DoubleBuffer survival) {
+    return new BufferTables(probabilities, cumulative, survival);
+  }
+
+  /**
+   * Tables of a window of a distribution's probabilities starting at an
+   * offset, whose cumulative and survival tables include the probability
+   * left below and above the window, stored in an encoding. Random
+   * variables below the offset have no probability, and their cumulative
+   * probability is the mass left below the window.
+   *
+   * @param encoding  how the tables are stored
+   * @param window    P(Y = y) for y from the offset, the table is not kept.
+   * @param offset    the first random variable of the window
+   * @param lowerMass P(Y &lt; offset)
+   * @param upperMass the probability above the window
+   * @return the tables
+   */
+  static ProbabilityTables of(QuantizedDistribution.Encoding encoding,
+                              double[] window,
+                              int offset,
+                              double lowerMass,
+                              double upperMass) {
+    final int length = window.length;
+    final double[] cumulative = new double[length];
+    final double[] survival = new double[length];
+    double sum = lowerMass;
+    for (int i = 0; i < length; i++) {
+      sum += window[i];
+      cumulative[i] = Math.min(1.0, sum);
+    }
+    sum = upperMass;
+    for (int i = length - 1; i >= 0; i--) {
+      survival[i] = Math.min(1.0, sum);
+      sum += window[i];
+    }
+    final ProbabilityTables tables;
+    switch (encoding) {
+      case float32:
+        tables = new FloatTables(window, cumulative, survival);
+        break;
+      case logFixedPoint:
+        tables = new LogTables(window, cumulative, survival);
+        break;
+      default:
+        tables = new ArrayTables(window.clone(), cumulative, survival);
+    }
+    return offset == 0 ? tables
+                       : new OffsetTables(tables, offset, lowerMass);
+  }
+
+  /**
+   * @return the number of random variables in the tables.
+   */
+  abstract int size();
+
+  /**
+   * @param index a random variable within the tables
+   * @return P(Y = index)
+   */
+  abstract double probabilityAt(int index);
+
+  /**
+   * @param index a random variable within the tables
+   * @return P(Y &lt;= index)
+   */
+  abstract double cumulativeAt(int index);
+
+  /**
+   * @param index a random variable within the tables
+   * @return P(Y &gt; index)
+   */
+  abstract double survivalAt(int index);
+
+  /**
+   * @return a heap copy of the probability table.
+   */
+  double[] probabilities() {
+    double[] copy = new double[size()];
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = probabilityAt(i);
+    }
+    return copy;
+  }
+
+  double probability(int randomVariable) {
+    if (randomVariable < 0 || randomVariable >= size()) {
+      return 0.0;
+    }
+    return probabilityAt(randomVariable);
+  }
+
+  double cumulativeProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 0.0;
+    }
+    return cumulativeAt(Integer.min(randomVariable, size() - 1));
+  }
+
+  double survivalProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 1.0;
+    }
+    if (randomVariable >= size()) {
+      return 0.0;
+    }
+    return survivalAt(randomVariable);
+  }
+
+  /**
+   * Applies a cumulative operation by looking up the tables. Equal and
+   * not equal look up the probability itself rather than a difference of
+   * cumulative probabilities, which keeps the error of a stored value.
+   *
+   * @param operation      cumulative operation to apply
+   * @param randomVariable the random variable
+   * @return the cumulative result
+   */
+  double result(CumulativeOperation operation, int randomVariable) {
+    if (operation == CumulativeOperation.greaterThan) {
+      return survivalProbability(randomVariable);
+    }
+    if (operation == CumulativeOperation.greaterThanOrEqual) {
+      return survivalProbability(randomVariable - 1);
+    }
+    if (operation == CumulativeOperation.equal) {
+      return probability(randomVariable);
+    }
+    if (operation == CumulativeOperation.notEqual) {
+      return 1.0 - probability(randomVariable);
+    }
+    double result = CumulativeOperation.fromDistribution(
+        operation, randomVariable, this::cumulativeProbability);
+    return Double.isNaN(result)
+           ? operation.apply(randomVariable, this::probability)
+           : result;
+  }
+
+  /**
+   * Binary search of the cumulative table.
+   *
+   * @param probability a cumulative probability
+   * @return the smallest random variable whose cumulative probability is
+   * at least the given probability.
+   */
+  int quantile(double probability) {
+    int low = -1;
+    int high = size() - 1;
+    while (high - low > 1) {
+      int middle = (low + high) >>> 1;
+      if (cumulativeAt(middle) < probability) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return high;
+  }
+
+  double mean() {
+    double sum = 0.0;
+    for (int i = 1; i < size(); i++) {
+      sum += i * probabilityAt(i);
+    }
+    return sum;
+  }
+
+  double variance() {
+    final double mean = mean();
+    double sum = 0.0;
+    for (int i = 0; i < size(); i++) {
+      double deviation = i - mean;
+      sum += deviation * deviation * probabilityAt(i);
+    }
+    return sum;
+  }
+
+  /**
+   * Tables in heap arrays.
+   */
+  private static final class ArrayTables extends ProbabilityTables {
+    private final double[] probabilities;
+    private final double[] cumulative;
+    private final double[] survival;
+
+    ArrayTables(double[] probabilities) {
+      this.probabilities = probabilities;
+      this.cumulative = new double[probabilities.length];
+      this.survival = new double[probabilities.length];
+      double sum = 0.0;
+      for (int i = 0; i < probabilities.length; i++) {
+        sum += probabilities[i];
+        cumulative[i] = Math.min(1.0, sum);
+      }
+      sum = 0.0;
+      for (int i = probabilities.length - 1; i >= 0; i--) {
+        survival[i] = Math.min(1.0, sum);
+        sum += probabilities[i];
+      }
+    }
+
+    ArrayTables(double[] probabilities,
+                double[] cumulative,
+                double[] survival) {
+      this.probabilities = probabilities;
+      this.cumulative = cumulative;
+      this.survival = survival;
+    }
+
+    @Override
+    int size() {
+      return probabilities.length;
+    }
+
+    @Override
+    double probabilityAt(int index) {
+      return probabilities[index];
+    }
+
+    @Override
+    double cumulativeAt(int index) {
+      return cumulative[index];
+    }
+
+    @Override
+    double survivalAt(int index) {
+      return survival[index];
+    }
+
+    @Override
+    double[] probabilities() {
+      return probabilities.clone();
+    }
+  }
+
+  /**
+   * Tables in buffers, read with absolute gets so they are safe to share
+   * between threads.
+   */
+  private static final class BufferTables extends ProbabilityTables {
+    private final DoubleBuffer probabilities;
+    private final DoubleBuffer cumulative;
+    private final DoubleBuffer survival;
+
+    BufferTables(DoubleBuffer probabilities,
+                 DoubleBuffer cumulative,
+                 DoubleBuffer survival) {
+      assert probabilities.limit() == cumulative.limit()
+          && probabilities.limit() == survival.limit();
+      this.probabilities = probabilities;
+      this.cumulative = cumulative;
+      this.survival = survival;
+    }
+
+    @Override
+    int size() {
+      return probabilities.limit();
+    }
+
+    @Override
+    double probabilityAt(int index) {
+      return probabilities.get(index);
+    }
+
+    @Override
+    double cumulativeAt(int index) {
+      return cumulative.get(index);
+    }
+
+    @Override
+    double survivalAt(int index) {
+      return survival.get(index);
+    }
+  }
+
+  /**
+   * Tables rounded to floats, half the size of doubles. Every value at
+   * least {@link Float#MIN_NORMAL} has a relative error of at most
+   * 2<sup>-24</sup>, smaller ones an absolute error of at most
+   * 2<sup>-150</sup>.
+   */
+  private static final class FloatTables extends ProbabilityTables {
+    private final float[] probabilities;
+    private final float[] cumulative;
+    private final float[] survival;
+
+    FloatTables(double[] probabilities,
+                double[] cumulative,
+                double[] survival) {
+      this.probabilities = encode(probabilities);
+      this.cumulative = encode(cumulative);
+      this.survival = encode(survival);
+    }
+
+    private static float[] encode(double[] values) {
+      final float[] codes = new float[values.length];
+      for (int i = 0; i < values.length; i++) {
+        codes[i] = (float) values[i];
+      }
+      return codes;
+    }
+
+    @Override
+    int size() {
+      return probabilities.length;
+    }
+
+    @Override
+    double probabilityAt(int index) {
+      return probabilities[index];
+    }
+
+    @Override
+    double cumulativeAt(int index) {
+      return cumulative[index];
+    }
+
+    @Override
+    double survivalAt(int index) {
+      return survival[index];
+    }
+  }
+
+  /**
+   * Tables of natural logs in fixed point, -log(p) in steps of
+   * 2<sup>-21</sup>, which reaches below the smallest double. Every value
+   * at least {@link Double#MIN_NORMAL} has a relative error of at most
+   * exp(2<sup>-22</sup>) - 1, however deep in a tail it is.
+   */
+  private static final class LogTables extends ProbabilityTables {
+    private static final double SCALE = 0x1.0p21;
+    private static final double STEP = 1.0 / SCALE;
+    // the code of zero, every other code is non-negative.
+    private static final int ZERO = -1;
+
+    private final int[] probabilities;
+    private final int[] cumulative;
+    private final int[] survival;
+
+    LogTables(double[] probabilities,
+              double[] cumulative,
+              double[] survival) {
+      this.probabilities = encode(probabilities);
+      this.cumulative = encode(cumulative);
+      this.survival = encode(survival);
+    }
+
+    private static int[] encode(double[] values) {
+      final int[] codes = new int[values.length];
+      for (int i = 0; i < values.length; i++) {
+        codes[i] = values[i] <= 0.0
+                   ? ZERO
+                   : (int) Math.round(
+                       Math.max(0.0, -Math.log(values[i])) * SCALE);
+      }
+      return codes;
+    }
+
+    private static double decode(int code) {
+      return code == ZERO ? 0.0 : Math.exp(-code * STEP);
+    }
+
+    @Override
+    int size() {
+      return probabilities.length;
+    }
+
+    @Override
+    double probabilityAt(int index) {
+      return decode(probabilities[index]);
+    }
+
+    @Override
+    double cumulativeAt(int index) {
+      return decode(cumulative[index]);
+    }
+
+    @Override
+    double survivalAt(int index) {
+      return decode(survival[index]);
+    }
+  }
+
+  /**
+   * Tables that start at an offset, below which there is no probability
+   * stored. The cumulative probability there is the mass left below the
+   * window and the survival is that of the offset's window.
+   */
+  private static final class OffsetTables extends ProbabilityTables {
+    private final ProbabilityTables window;
+    private final int offset;
+    private final double cumulativeBelow;
+    private final double survivalBelow;
+
+    OffsetTables(ProbabilityTables window, int offset, double lowerMass) {
+      this.window = window;
+      this.offset = offset;
+      this.cumulativeBelow = lowerMass;
+      this.survivalBelow =
+          Math.min(1.0, window.survivalAt(0) + window.probabilityAt(0));
+    }
+
+    @Override
+    int size() {
+      return offset + window.size();
+    }
+
+    @Override
+    double probabilityAt(int index) {
+      return index < offset ? 0.0 : window.probabilityAt(index - offset);
+    }
+
+    @Override
+    double cumulativeAt(int index) {
+      return index < offset ? cumulativeBelow
+                            : window.cumulativeAt(index - offset);
+    }
+
+    @Override
+    double survivalAt(int index) {
+      return index < offset ? survivalBelow
+                            : window.survivalAt(index - offset);
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * QuantizedDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+import java.util.stream.StreamSupport;
+
+/**
+ * A distribution whose probability, cumulative and survival tables are kept
+ * in a compact encoding and cover only the window of random variables that
+ * holds all but a negligible residual mass in each tail.
+ * <p>
+ * Doubles cost 24 bytes a random variable over the three tables, the float
+ * and log fixed point encodings half that, and the window of a distribution
+ * with a large support is usually a small part of it. A binomial with ten
+ * million trials keeps a few tens of thousands of values rather than ten
+ * million. Every lookup decodes one value, a widening for floats and an
+ * exponential for logs.
+ * <p>
+ * The errors are bounded. Each stored value has at most the
+ * {@link Encoding#getRelativeErrorBound() relative error} of its encoding,
+ * and the residual mass below the window is included in the cumulative
+ * table and the mass above it in the survival table, so outside the window
+ * probabilities read as zero and cumulative results are off by at most the
+ * residual of their tail.
+ * <pre>
+ * QuantizedDistribution pdf = QuantizedDistribution.of(
+ *     lessThanOrEqual, new Binomial(equal, 10000000, 0.3),
+ *     Encoding.float32);
+ * double result = pdf.getResult(3001000);
+ * </pre>
+ */
+public class QuantizedDistribution extends TabulatedDistribution {
+
+  /**
+   * How the tables are stored.
+   */
+  public enum Encoding {
+    /**
+     * Doubles, exact but for the truncated tails.
+     */
+    float64(24, 0.0),
+    /**
+     * Floats, with a relative error of at most 2<sup>-24</sup> down to
+     * {@link Float#MIN_NORMAL} and an absolute error of at most
+     * 2<sup>-150</sup> below it.
+     */
+    float32(12, 0x1.0p-24),
+    /**
+     * Natural logs in 32 bit fixed point, with a relative error of at most
+     * exp(2<sup>-22</sup>) - 1 down to {@link Double#MIN_NORMAL}, which
+     * suits deep tails.
+     */
+    logFixedPoint(12, Math.expm1(0x1.0p-22));
+
+    private final int bytesPerValue;
+    private final double relativeErrorBound;
+
+    Encoding(int bytesPerValue, double relativeErrorBound) {
+      this.bytesPerValue = bytesPerValue;
+      this.relativeErrorBound = relativeErrorBound;
+    }
+
+    /**
+     * @return the bytes a random variable costs over the three tables.
+     */
+    public int getBytesPerValue() {
+      return bytesPerValue;
+    }
+
+    /**
+     * @return the largest relative error of a stored value, apart from the
+     * rounding of the double it decodes to.
+     */
+    public double getRelativeErrorBound() {
+      return relativeErrorBound;
+    }
+  }
+
+  private final Encoding encoding;
+  private final int firstValue;
+  private final double lowerResidualMass;
+  private final double upperResidualMass;
+
+  private QuantizedDistribution(CumulativeOperation rvOperation,
+                                ProbabilityTables tables,
+                                double mean,
+                                double variance,
+                                Encoding encoding,
+                                int firstValue,
+                                double lowerResidualMass,
+                                double upperResidualMass) {
+    super(rvOperation, tables, mean, variance);
+    this.encoding = encoding;
+    this.firstValue = firstValue;
+    this.lowerResidualMass = lowerResidualMass;
+    this.upperResidualMass = upperResidualMass;
+  }
+
+  /**
+   * Tabulates a distribution leaving out no more than
+   * {@link DiscreteProbability#DEFAULT_TAIL_MASS} from each tail.
+   *
+   * @param rvOperation  The cumulative operation on the distribution
+   * @param distribution the distribution to tabulate
+   * @param encoding     how the tables are stored
+   * @return the compact distribution
+   */
+  public static QuantizedDistribution of(CumulativeOperation rvOperation,
+                                         DiscreteProbability distribution,
+                                         Encoding encoding) {
+    return of(rvOperation, distribution, encoding, DEFAULT_TAIL_MASS);
+  }
+
+  /**
+   * Tabulates the window of a distribution from the smallest random
+   * variable whose cumulative probability exceeds the residual mass to the
+   * smallest whose survival probability is no more than it. Only the
+   * window's probabilities are computed, by the distribution's recurrence.
+   *
+   * @param rvOperation  The cumulative operation on the distribution
+   * @param distribution the distribution to tabulate
+   * @param encoding     how the tables are stored
+   * @param residualMass the largest probability left out of each tail
+   * @return the compact distribution
+   */
+  public static QuantizedDistribution of(CumulativeOperation rvOperation,
+                                         DiscreteProbability distribution,
+                                         Encoding encoding,
+                                         double residualMass) {
+    Objects.requireNonNull(distribution, "distribution can't be null.");
+    Objects.requireNonNull(encoding, "encoding can't be null.");
+    assert residualMass > 0.0 && residualMass < 0.5
+        : "Residual mass must be in (0, 0.5).";
+    final int first = Integer.max(0, distribution.quantile(residualMass));
+    final int last = lastValue(distribution, first, residualMass);
+    final double[] window = StreamSupport.doubleStream(
+        new DistributionSpliterator(distribution, false, first, last + 1),
+        false).toArray();
+    final double lower =
+        first == 0 ? 0.0 : distribution.cumulativeProbability(first - 1);
+    final double upper = distribution.survivalProbability(last);
+    return new QuantizedDistribution(
+        rvOperation,
+        ProbabilityTables.of(encoding, window, first, lower, upper),
+        distribution.getExpectedValue(), distribution.getVariance(),
+        encoding, first, lower, upper);
+  }
+
+  /**
+   * The smallest random variable from the first whose survival probability
+   * is no more than the residual mass, bisected below the distribution's
+   * upper limit, which for finite supports is the end of the support.
+   */
+  private static int lastValue(DiscreteProbability distribution,
+                               int first,
+                               double residualMass) {
+    int low = first - 1;
+    int high = Integer.max(first, distribution.upperLimit(residualMass));
+    while (high - low > 1) {
+      int middle = (int) (((long) low + high) / 2);
+      if (distribution.survivalProbability(middle) > residualMass) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * @return how the tables are stored.
+   */
+  public Encoding getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * @return the first random variable of the window, below which
+   * probabilities read as zero.
+   */
+  public int getFirstValue() {
+    return firstValue;
+  }
+
+  /**
+   * @return P(Y &lt; first value), the most a cumulative probability may be
+   * short.
+   */
+  public double getLowerResidualMass() {
+    return lowerResidualMass;
+  }
+
+  /**
+   * @return the probability above the largest value, the most a survival
+   * probability may be short.
+   */
+  public double getUpperResidualMass() {
+    return upperResidualMass;
+  }
+
+  /**
+   * @return the bytes of the encoded tables.
+   */
+  public long getTableBytes() {
+    return (long) encoding.getBytesPerValue()
+        * (getLargestValue() - firstValue + 1);
+  }
+}
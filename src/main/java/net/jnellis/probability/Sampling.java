@@ -0,0 +1,112 @@
+/*
+ * Sampling.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Random;
+
+/**
+ * Random variates by inversion searched outward from the mode. The mode's
+ * density is computed once by the saddle point densities and the search
+ * steps with the ratios of neighbouring densities, so a variate costs on
+ * the order of one standard deviation of steps and there are no
+ * rejections.
+ */
+final class Sampling {
+
+  private Sampling() {}
+
+  /**
+   * @return a binomial variate with n trials and chance of success p.
+   */
+  static int binomial(Random random, int n, double p) {
+    if (n == 0 || p <= 0.0) {
+      return 0;
+    }
+    if (p >= 1.0) {
+      return n;
+    }
+    final double q = 1.0 - p;
+    final double odds = p / q;
+    final int mode = (int) Math.min(n, Math.floor((n + 1) * p));
+    final double density = SpecialFunctions.binomialDensity(mode, n, p, q);
+    double u = random.nextDouble() - density;
+    if (u <= 0.0) {
+      return mode;
+    }
+    double above = density;
+    double below = density;
+    int high = mode;
+    int low = mode;
+    while (high < n || low > 0) {
+      if (high < n) {
+        above *= (double) (n - high) / (high + 1) * odds;
+        high++;
+        u -= above;
+        if (u <= 0.0) {
+          return high;
+        }
+      }
+      if (low > 0) {
+        below *= (double) low / (n - low + 1) / odds;
+        low--;
+        u -= below;
+        if (u <= 0.0) {
+          return low;
+        }
+      }
+    }
+    // rounding left a sliver of probability unassigned.
+    return mode;
+  }
+
+  /**
+   * @return the number of successes in a sample of size n without
+   * replacement from a population of size N with r success states.
+   */
+  static int hyperGeometric(Random random, int N, int n, int r) {
+    final int lowest = Integer.max(0, n - (N - r));
+    final int highest = Integer.min(n, r);
+    if (lowest == highest) {
+      return lowest;
+    }
+    final int mode = (int) Math.max(lowest, Math.min(
+        highest, Math.floor((n + 1.0) * (r + 1.0) / (N + 2.0))));
+    final double density =
+        Math.exp(SpecialFunctions.logHyperGeometricDensity(mode, N, n, r));
+    double u = random.nextDouble() - density;
+    if (u <= 0.0) {
+      return mode;
+    }
+    double above = density;
+    double below = density;
+    int high = mode;
+    int low = mode;
+    while (high < highest || low > lowest) {
+      if (high < highest) {
+        above *= (double) (r - high) * (n - high)
+            / ((high + 1.0) * (N - r - n + high + 1.0));
+        high++;
+        u -= above;
+        if (u <= 0.0) {
+          return high;
+        }
+      }
+      if (low > lowest) {
+        below *= (double) low * (N - r - n + low)
+            / ((r - low + 1.0) * (n - low + 1.0));
+        low--;
+        u -= below;
+        if (u <= 0.0) {
+          return low;
+        }
+      }
+    }
+    return mode;
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * ScaledDouble.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * A non-negative double with an exponent of its own, mantissa &#215;
+ * 2<sup>exponent</sup>, for probabilities too small for a double.
+ * <p>
+ * The mantissa is kept between one and two, or is zero, so products and
+ * quotients are a double operation and an integer addition, and never
+ * underflow. {@link #doubleValue()} rounds to the nearest double, which may
+ * be subnormal or zero, while {@link #log()} keeps the full range.
+ * <pre>
+ * ScaledDouble p = Binomial.scaledProbability(100000, 0.5, 10);
+ * double log = p.log(); // -69214.69...
+ * </pre>
+ */
+public final class ScaledDouble implements Comparable<ScaledDouble> {
+
+  /**
+   * Zero.
+   */
+  public static final ScaledDouble ZERO = new ScaledDouble(0.0, 0L);
+
+  /**
+   * One.
+   */
+  public static final ScaledDouble ONE = new ScaledDouble(1.0, 0L);
+
+  /**
+   * Loops that keep a product near one move its exponent out into a scale
+   * once it falls below this, far above where doubles start to underflow.
+   */
+  static final double RESCALE_BELOW = 0x1.0p-512;
+
+  private static final double LN_2 = Math.log(2.0);
+
+  /**
+   * The bound below which a loop moves its product's exponent into its
+   * scale before multiplying by its factors, {@link #RESCALE_BELOW} unless
+   * a factor is so small that a product that low would underflow.
+   *
+   * @param smallestFactor the smallest factor the loop multiplies by
+   * @return the bound, no more than one.
+   */
+  static double rescaleBelow(double smallestFactor) {
+    final int lowest = Double.MIN_EXPONENT - Math.getExponent(smallestFactor);
+    return Math.scalb(1.0, Integer.min(0, Integer.max(
+        Math.getExponent(RESCALE_BELOW), lowest)));
+  }
+
+  private final double mantissa;
+  private final long exponent;
+
+  private ScaledDouble(double mantissa, long exponent) {
+    this.mantissa = mantissa;
+    this.exponent = exponent;
+  }
+
+  /**
+   * @param value a non-negative, finite value
+   * @return the value with its exponent split off.
+   */
+  public static ScaledDouble of(double value) {
+    return of(value, 0L);
+  }
+
+  /**
+   * @param value    a non-negative, finite value
+   * @param exponent a power of two to scale the value by
+   * @return value &#215; 2<sup>exponent</sup>
+   */
+  public static ScaledDouble of(double value, long exponent) {
+    assert value >= 0.0 && value < Double.POSITIVE_INFINITY
+        : "Value must be non-negative and finite.";
+    if (value == 0.0) {
+      return ZERO;
+    }
+    final int e = exponentOf(value);
+    return new ScaledDouble(Math.scalb(value, -e), exponent + e);
+  }
+
+  /**
+   * @param value a positive, finite value
+   * @return the exponent of its leading bit, which for subnormal values is
+   * below {@link Double#MIN_EXPONENT}.
+   */
+  static int exponentOf(double value) {
+    // subnormal values are normalized first, their exponent is the minimum.
+    if (value < Double.MIN_NORMAL) {
+      return Math.getExponent(Math.scalb(value, Double.MAX_EXPONENT))
+          - Double.MAX_EXPONENT;
+    }
+    return Math.getExponent(value);
+  }
+
+  /**
+   * Base raised to a power, which is {@link Math#pow} unless that would
+   * underflow or overflow, and otherwise squares and multiplies with the
+   * exponent kept apart.
+   *
+   * @param base  a non-negative, finite base
+   * @param power a non-negative power
+   * @return base<sup>power</sup>
+   */
+  public static ScaledDouble pow(double base, int power) {
+    assert power >= 0 : "Power must be non-negative.";
+    final double result = Math.pow(base, power);
+    if (result >= Double.MIN_NORMAL && result < Double.POSITIVE_INFINITY
+        || base == 0.0 || power == 0) {
+      return of(result);
+    }
+    ScaledDouble square = of(base);
+    ScaledDouble product = ONE;
+    for (int p = power; p > 0; p >>>= 1) {
+      if ((p & 1) == 1) {
+        product = product.multiply(square);
+      }
+      if (p > 1) {
+        square = square.multiply(square);
+      }
+    }
+    return product;
+  }
+
+  /**
+   * @param factor a non-negative, finite factor
+   * @return this &#215; factor
+   */
+  public ScaledDouble multiply(double factor) {
+    return of(mantissa * factor, exponent);
+  }
+
+  /**
+   * @param factor a scaled factor
+   * @return this &#215; factor
+   */
+  public ScaledDouble multiply(ScaledDouble factor) {
+    return of(mantissa * factor.mantissa, exponent + factor.exponent);
+  }
+
+  /**
+   * @param divisor a positive, finite divisor
+   * @return this / divisor
+   */
+  public ScaledDouble divide(double divisor) {
+    return of(mantissa / divisor, exponent);
+  }
+
+  /**
+   * @param divisor a positive scaled divisor
+   * @return this / divisor
+   */
+  public ScaledDouble divide(ScaledDouble divisor) {
+    return of(mantissa / divisor.mantissa, exponent - divisor.exponent);
+  }
+
+  /**
+   * @return the nearest double, zero when it is too small even for a
+   * subnormal and infinity when it is too large.
+   */
+  public double doubleValue() {
+    if (exponent > Double.MAX_EXPONENT) {
+      return Double.POSITIVE_INFINITY;
+    }
+    // below the smallest subnormal, 2^-1074, everything rounds to zero.
+    if (exponent < Double.MIN_EXPONENT - 64) {
+      return 0.0;
+    }
+    return Math.scalb(mantissa, (int) exponent);
+  }
+
+  /**
+   * @return the natural log, negative infinity for zero.
+   */
+  public double log() {
+    return mantissa == 0.0
+           ? Double.NEGATIVE_INFINITY
+           : Math.log(mantissa) + exponent * LN_2;
+  }
+
+  /**
+   * @return the mantissa, between one and two, or zero.
+   */
+  public double getMantissa() {
+    return mantissa;
+  }
+
+  /**
+   * @return the power of two of the value.
+   */
+  public long getExponent() {
+    return exponent;
+  }
+
+  @Override
+  public int compareTo(ScaledDouble other) {
+    if (mantissa == 0.0 || other.mantissa == 0.0) {
+      return Double.compare(mantissa, other.mantissa);
+    }
+    return exponent != other.exponent
+           ? Long.compare(exponent, other.exponent)
+           : Double.compare(mantissa, other.mantissa);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ScaledDouble)) {
+      return false;
+    }
+    ScaledDouble that = (ScaledDouble) o;
+    return Double.compare(mantissa, that.mantissa) == 0
+        && exponent == that.exponent;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Double.hashCode(mantissa) + Long.hashCode(exponent);
+  }
+
+  /**
+   * @return the value in decimal scientific notation, such as 1.234E-5000,
+   * to about twelve significant digits.
+   */
+  @Override
+  public String toString() {
+    if (mantissa == 0.0) {
+      return "0.0";
+    }
+    final double log10 = Math.log10(mantissa) + exponent * Math.log10(2.0);
+    final double decade = Math.floor(log10);
+    return Math.pow(10.0, log10 - decade) + "E" + (long) decade;
+  }
+}
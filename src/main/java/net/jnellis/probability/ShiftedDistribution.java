@@ -0,0 +1,117 @@
+/*
+ * ShiftedDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+
+/**
+ * A distribution moved along the random variable, Y = X + shift. Every
+ * query is the base distribution's at y - shift, so the closed forms of the
+ * base are kept. A negative shift turns, for example, the trials of a
+ * {@link NegativeBinomial} into its failures; values moved below zero are
+ * left out of the streams.
+ * <pre>
+ * ShiftedDistribution failures = new ShiftedDistribution(
+ *     lessThanOrEqual, new NegativeBinomial(equal, 3, 0.4), -3);
+ * double result = failures.getResult(5);
+ * </pre>
+ */
+public class ShiftedDistribution extends DiscreteProbability {
+
+  private final DiscreteProbability base;
+  private final int shift;
+
+  /**
+   * @param rvOperation The cumulative operation on this probability
+   * @param base        the distribution to shift
+   * @param shift       the amount added to the base's random variable
+   */
+  public ShiftedDistribution(CumulativeOperation rvOperation,
+                             DiscreteProbability base,
+                             int shift) {
+    super(rvOperation);
+    this.base = Objects.requireNonNull(base, "base can't be null.");
+    this.shift = shift;
+  }
+
+  /**
+   * The base's random variable, clamped so that values out of the int range
+   * stay out of the support.
+   */
+  private int unshift(int randomVariable) {
+    long value = (long) randomVariable - shift;
+    return (int) Long.max(-1L, Long.min(Integer.MAX_VALUE - 1, value));
+  }
+
+  @Override
+  public double getResult(int randomVariable) {
+    return resultFromDistribution(randomVariable);
+  }
+
+  @Override
+  public double computeResult(int randomVariable) {
+    int value = unshift(randomVariable);
+    return value < 0 ? 0.0 : base.computeResult(value);
+  }
+
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    return base.cumulativeProbability(unshift(randomVariable));
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    return base.survivalProbability(unshift(randomVariable));
+  }
+
+  @Override
+  public int quantile(double probability) {
+    return (int) Long.min(Integer.MAX_VALUE - 1,
+                          (long) base.quantile(probability) + shift);
+  }
+
+  @Override
+  double nextResult(int randomVariable, double result) {
+    int value = unshift(randomVariable);
+    return value < 0
+           ? computeResult(randomVariable + 1)
+           : base.nextResult(value, result);
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return (int) Long.max(0L, Long.min(Integer.MAX_VALUE - 1,
+                                       (long) base.upperLimit(tailMass)
+                                           + shift));
+  }
+
+  @Override
+  public double getExpectedValue() {
+    return base.getExpectedValue() + shift;
+  }
+
+  @Override
+  public double getVariance() {
+    return base.getVariance();
+  }
+
+  /**
+   * @return the distribution that was shifted.
+   */
+  public DiscreteProbability getBase() {
+    return base;
+  }
+
+  /**
+   * @return the amount added to the base's random variable.
+   */
+  public int getShift() {
+    return shift;
+  }
+}
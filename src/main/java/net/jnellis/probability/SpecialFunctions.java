@@ -0,0 +1,591 @@
+/*
+ * SpecialFunctions.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * Special functions needed by the closed form cumulative distributions and
+ * the approximations.
+ * <p>
+ * The densities are computed with Loader's saddle point method, the Stirling
+ * error plus the deviance term, rather than differences of log gamma values.
+ * Differences of log gammas lose all of their significant digits when the
+ * arguments are in the millions, the saddle point form does not. The
+ * incomplete gamma and beta functions take their prefactors from these
+ * densities and switch to Gauss-Legendre quadrature when the shape
+ * parameters are large so that their cost does not grow with the parameters.
+ */
+public final class SpecialFunctions {
+
+  /**
+   * log(sqrt(2 * pi))
+   */
+  static final double LN_SQRT_2PI = 0.918938533204672741780329736406;
+
+  private static final double LN_2PI = 1.837877066409345483560659472811;
+
+  private static final double EPSILON = 1.0e-16;
+
+  private static final double TINY = 1.0e-300;
+
+  private static final int MAX_ITERATIONS = 100_000;
+
+  /**
+   * Shape parameter above which the incomplete gamma function is integrated
+   * by quadrature.
+   */
+  private static final double LARGE_GAMMA_SHAPE = 100.0;
+
+  /**
+   * Shape parameters above which the incomplete beta function is integrated
+   * by quadrature.
+   */
+  private static final double LARGE_BETA_SHAPE = 3000.0;
+
+  private static final double[] LANCZOS = {
+      0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+      771.32342877765313, -176.61502916214059, 12.507343278686905,
+      -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7};
+
+  /**
+   * Stirling errors of the integers 0 through 15 computed from exact
+   * factorials.
+   */
+  private static final double[] STIRLING_ERRORS = new double[16];
+
+  /**
+   * Gauss-Legendre abscissas and weights on the interval [0,1].
+   */
+  private static final double[] ABSCISSAS;
+  private static final double[] WEIGHTS;
+
+  static {
+    double factorial = 1.0;
+    STIRLING_ERRORS[0] = 0.0;
+    for (int n = 1; n < STIRLING_ERRORS.length; n++) {
+      factorial *= n;
+      STIRLING_ERRORS[n] =
+          Math.log(factorial) - (n + 0.5) * Math.log(n) + n - LN_SQRT_2PI;
+    }
+    final int points = 24;
+    ABSCISSAS = new double[points];
+    WEIGHTS = new double[points];
+    // Newton's method on the roots of the Legendre polynomial of degree
+    // 'points', the roots are symmetric so only half are found.
+    for (int i = 0; i < (points + 1) / 2; i++) {
+      double z = Math.cos(Math.PI * (i + 0.75) / (points + 0.5));
+      double derivative;
+      double previous;
+      do {
+        double p1 = 1.0;
+        double p2 = 0.0;
+        for (int j = 0; j < points; j++) {
+          double p3 = p2;
+          p2 = p1;
+          p1 = ((2.0 * j + 1.0) * z * p2 - j * p3) / (j + 1);
+        }
+        derivative = points * (z * p1 - p2) / (z * z - 1.0);
+        previous = z;
+        z = previous - p1 / derivative;
+      } while (Math.abs(z - previous) > 1.0e-15);
+      double weight = 1.0 / ((1.0 - z * z) * derivative * derivative);
+      ABSCISSAS[i] = 0.5 - 0.5 * z;
+      ABSCISSAS[points - 1 - i] = 0.5 + 0.5 * z;
+      WEIGHTS[i] = weight;
+      WEIGHTS[points - 1 - i] = weight;
+    }
+  }
+
+  private SpecialFunctions() {}
+
+  /**
+   * The natural log of the gamma function by the Lanczos approximation.
+   *
+   * @param x a positive value
+   * @return ln(&#915;(x))
+   */
+  public static double logGamma(double x) {
+    if (x < 0.5) {
+      return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x)))
+          - logGamma(1.0 - x);
+    }
+    x -= 1.0;
+    double sum = LANCZOS[0];
+    for (int i = 1; i < LANCZOS.length; i++) {
+      sum += LANCZOS[i] / (x + i);
+    }
+    double t = x + 7.5;
+    return LN_SQRT_2PI + (x + 0.5) * Math.log(t) - t + Math.log(sum);
+  }
+
+  /**
+   * The digamma function, the derivative of ln(&#915;(x)), by the
+   * recurrence up to x &gt;= 10 and then the asymptotic series.
+   *
+   * @param x a positive value
+   * @return &#968;(x)
+   */
+  public static double digamma(double x) {
+    assert x > 0.0;
+    double result = 0.0;
+    while (x < 10.0) {
+      result -= 1.0 / x;
+      x += 1.0;
+    }
+    final double r = 1.0 / (x * x);
+    return result + Math.log(x) - 0.5 / x
+        - r * (1.0 / 12 - r * (1.0 / 120 - r * (1.0 / 252 - r * (1.0 / 240
+        - r * (1.0 / 132 - r * 691.0 / 32760)))));
+  }
+
+  /**
+   * The trigamma function, the derivative of the digamma function, by the
+   * recurrence up to x &gt;= 10 and then the asymptotic series.
+   *
+   * @param x a positive value
+   * @return &#968;'(x)
+   */
+  public static double trigamma(double x) {
+    assert x > 0.0;
+    double result = 0.0;
+    while (x < 10.0) {
+      result += 1.0 / (x * x);
+      x += 1.0;
+    }
+    final double r = 1.0 / (x * x);
+    return result + 1.0 / x + 0.5 * r
+        + r / x * (1.0 / 6 - r * (1.0 / 30 - r * (1.0 / 42 - r * (1.0 / 30
+        - r * 5.0 / 66))));
+  }
+
+  /**
+   * The error of Stirling's approximation,
+   * ln(n!) - ln(sqrt(2 * pi * n) * (n/e)^n)
+   *
+   * @param n a non-negative value
+   * @return the difference between ln(n!) and Stirling's approximation.
+   */
+  public static double stirlingError(double n) {
+    if (n <= 15.0) {
+      if (n == Math.floor(n)) {
+        return STIRLING_ERRORS[(int) n];
+      }
+      return logGamma(n + 1.0) - (n + 0.5) * Math.log(n) + n - LN_SQRT_2PI;
+    }
+    final double s0 = 1.0 / 12;
+    final double s1 = 1.0 / 360;
+    final double s2 = 1.0 / 1260;
+    final double s3 = 1.0 / 1680;
+    final double s4 = 1.0 / 1188;
+    double nn = n * n;
+    if (n > 500) {
+      return (s0 - s1 / nn) / n;
+    }
+    if (n > 80) {
+      return (s0 - (s1 - s2 / nn) / nn) / n;
+    }
+    if (n > 35) {
+      return (s0 - (s1 - (s2 - s3 / nn) / nn) / nn) / n;
+    }
+    return (s0 - (s1 - (s2 - (s3 - s4 / nn) / nn) / nn) / nn) / n;
+  }
+
+  /**
+   * The deviance term x * ln(x / mean) + mean - x, computed without
+   * cancellation when x is close to the mean.
+   *
+   * @param x    a non-negative value
+   * @param mean a positive value
+   * @return the deviance of x from the mean.
+   */
+  public static double deviance(double x, double mean) {
+    if (Math.abs(x - mean) < 0.1 * (x + mean)) {
+      double v = (x - mean) / (x + mean);
+      double sum = (x - mean) * v;
+      if (Math.abs(sum) < Double.MIN_NORMAL) {
+        return sum;
+      }
+      double term = 2.0 * x * v;
+      v *= v;
+      for (int j = 1; j < 1000; j++) {
+        term *= v;
+        double next = sum + term / (2 * j + 1);
+        if (next == sum) {
+          return next;
+        }
+        sum = next;
+      }
+    }
+    return x * Math.log(x / mean) + mean - x;
+  }
+
+  /**
+   * The natural log of the binomial density for real valued arguments,
+   * n! / (x! (n-x)!) * p^x * q^(n-x).
+   *
+   * @param x               number of successes, 0 &lt;= x &lt;= n
+   * @param n               number of trials
+   * @param chanceOfSuccess p
+   * @param chanceOfFailure q, which should be 1 - p
+   * @return the log of the density or negative infinity outside the support.
+   */
+  public static double logBinomialDensity(double x,
+                                          double n,
+                                          double chanceOfSuccess,
+                                          double chanceOfFailure) {
+    if (x < 0 || x > n) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    if (chanceOfSuccess == 0.0) {
+      return x == 0 ? 0.0 : Double.NEGATIVE_INFINITY;
+    }
+    if (chanceOfFailure == 0.0) {
+      return x == n ? 0.0 : Double.NEGATIVE_INFINITY;
+    }
+    if (x == 0) {
+      if (n == 0) {
+        return 0.0;
+      }
+      return chanceOfSuccess < 0.1
+             ? -deviance(n, n * chanceOfFailure) - n * chanceOfSuccess
+             : n * Math.log(chanceOfFailure);
+    }
+    if (x == n) {
+      return chanceOfFailure < 0.1
+             ? -deviance(n, n * chanceOfSuccess) - n * chanceOfFailure
+             : n * Math.log(chanceOfSuccess);
+    }
+    double saddle = stirlingError(n) - stirlingError(x) - stirlingError(n - x)
+        - deviance(x, n * chanceOfSuccess)
+        - deviance(n - x, n * chanceOfFailure);
+    double scale = LN_2PI + Math.log(x) + Math.log1p(-x / n);
+    return saddle - 0.5 * scale;
+  }
+
+  /**
+   * The binomial density for real valued arguments.
+   *
+   * @param x               number of successes
+   * @param n               number of trials
+   * @param chanceOfSuccess p
+   * @param chanceOfFailure q, which should be 1 - p
+   * @return the density
+   * @see #logBinomialDensity(double, double, double, double)
+   */
+  public static double binomialDensity(double x,
+                                       double n,
+                                       double chanceOfSuccess,
+                                       double chanceOfFailure) {
+    return Math.exp(logBinomialDensity(x, n, chanceOfSuccess,
+                                       chanceOfFailure));
+  }
+
+  /**
+   * The natural log of the hypergeometric density, (rCy)*((N-r)C(n-y))/(NCn),
+   * as a ratio of binomial densities.
+   *
+   * @param y successes in the sample
+   * @param N population size
+   * @param n sample size
+   * @param r number of success states in the population
+   * @return the log of the density or negative infinity outside the support.
+   */
+  public static double logHyperGeometricDensity(double y,
+                                                double N,
+                                                double n,
+                                                double r) {
+    if (y < 0 || y > r || n - y > N - r || y > n) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    final double p = n / N;
+    final double q = (N - n) / N;
+    return logBinomialDensity(y, r, p, q)
+        + logBinomialDensity(n - y, N - r, p, q)
+        - logBinomialDensity(n, N, p, q);
+  }
+
+  /**
+   * The natural log of the Poisson density for a real valued argument,
+   * lambda^x * e^-lambda / x!
+   *
+   * @param x      a non-negative value
+   * @param lambda the mean
+   * @return the log of the density or negative infinity outside the support.
+   */
+  public static double logPoissonDensity(double x, double lambda) {
+    if (x < 0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    if (lambda == 0.0) {
+      return x == 0 ? 0.0 : Double.NEGATIVE_INFINITY;
+    }
+    if (x == 0) {
+      return -lambda;
+    }
+    return -stirlingError(x) - deviance(x, lambda)
+        - 0.5 * (LN_2PI + Math.log(x));
+  }
+
+  /**
+   * The Poisson density for a real valued argument.
+   *
+   * @param x      a non-negative value
+   * @param lambda the mean
+   * @return the density
+   * @see #logPoissonDensity(double, double)
+   */
+  public static double poissonDensity(double x, double lambda) {
+    return Math.exp(logPoissonDensity(x, lambda));
+  }
+
+  /**
+   * The regularized lower incomplete gamma function P(a,x).
+   *
+   * @param a shape, a positive value
+   * @param x a non-negative value
+   * @return P(a,x)
+   */
+  public static double regularizedGammaP(double a, double x) {
+    return incompleteGamma(a, x, false);
+  }
+
+  /**
+   * The regularized upper incomplete gamma function Q(a,x) = 1 - P(a,x).
+   * This keeps its relative precision when the result is tiny.
+   *
+   * @param a shape, a positive value
+   * @param x a non-negative value
+   * @return Q(a,x)
+   */
+  public static double regularizedGammaQ(double a, double x) {
+    return incompleteGamma(a, x, true);
+  }
+
+  private static double incompleteGamma(double a, double x, boolean upper) {
+    if (x <= 0.0) {
+      return upper ? 1.0 : 0.0;
+    }
+    if (Double.isInfinite(x)) {
+      return upper ? 0.0 : 1.0;
+    }
+    if (a >= LARGE_GAMMA_SHAPE) {
+      return gammaQuadrature(a, x, upper);
+    }
+    // x^a * e^-x / gamma(a)
+    double prefactor = a * poissonDensity(a, x);
+    if (x < a + 1.0) {
+      double term = 1.0 / a;
+      double sum = term;
+      double ap = a;
+      for (int i = 0; i < MAX_ITERATIONS; i++) {
+        ap++;
+        term *= x / ap;
+        sum += term;
+        if (Math.abs(term) < Math.abs(sum) * EPSILON) {
+          break;
+        }
+      }
+      double lower = Math.min(1.0, sum * prefactor);
+      return upper ? 1.0 - lower : lower;
+    }
+    // modified Lentz's method on the continued fraction.
+    double b = x + 1.0 - a;
+    double c = 1.0 / TINY;
+    double d = 1.0 / b;
+    double h = d;
+    for (int i = 1; i < MAX_ITERATIONS; i++) {
+      double an = -i * (i - a);
+      b += 2.0;
+      d = an * d + b;
+      if (Math.abs(d) < TINY) {
+        d = TINY;
+      }
+      c = b + an / c;
+      if (Math.abs(c) < TINY) {
+        c = TINY;
+      }
+      d = 1.0 / d;
+      double delta = d * c;
+      h *= delta;
+      if (Math.abs(delta - 1.0) < EPSILON) {
+        break;
+      }
+    }
+    double tail = Math.min(1.0, prefactor * h);
+    return upper ? tail : 1.0 - tail;
+  }
+
+  private static double gammaQuadrature(double a, double x, boolean upper) {
+    final double a1 = a - 1.0;
+    final double root = Math.sqrt(a1);
+    final boolean aboveMode = x > a1;
+    final double limit = aboveMode
+                         ? Math.max(a1 + 11.5 * root, x + 6.0 * root)
+                         : Math.max(0.0, Math.min(a1 - 7.5 * root,
+                                                  x - 5.0 * root));
+    double sum = 0.0;
+    for (int j = 0; j < ABSCISSAS.length; j++) {
+      double t = x + (limit - x) * ABSCISSAS[j];
+      // the gamma(a) density at t
+      sum += WEIGHTS[j] * poissonDensity(a1, t);
+    }
+    // integral from x to the limit, which is the tail on the far side of x.
+    double tail = Math.abs(sum * (limit - x));
+    if (aboveMode) {
+      return upper ? tail : 1.0 - tail;
+    }
+    return upper ? 1.0 - tail : tail;
+  }
+
+  /**
+   * The regularized incomplete beta function I_x(a,b).
+   *
+   * @param x a value between zero and one inclusive
+   * @param a a positive shape value
+   * @param b a positive shape value
+   * @return I_x(a,b)
+   */
+  public static double regularizedBeta(double x, double a, double b) {
+    return incompleteBeta(x, a, b, false);
+  }
+
+  /**
+   * The complement of the regularized incomplete beta function,
+   * 1 - I_x(a,b) = I_(1-x)(b,a), which keeps its relative precision when
+   * the result is tiny.
+   *
+   * @param x a value between zero and one inclusive
+   * @param a a positive shape value
+   * @param b a positive shape value
+   * @return 1 - I_x(a,b)
+   */
+  public static double regularizedBetaComplement(double x, double a, double b) {
+    return incompleteBeta(x, a, b, true);
+  }
+
+  private static double incompleteBeta(double x,
+                                       double a,
+                                       double b,
+                                       boolean upper) {
+    if (x <= 0.0) {
+      return upper ? 1.0 : 0.0;
+    }
+    if (x >= 1.0) {
+      return upper ? 0.0 : 1.0;
+    }
+    if (a > LARGE_BETA_SHAPE && b > LARGE_BETA_SHAPE) {
+      return betaQuadrature(x, a, b, upper);
+    }
+    if (x < (a + 1.0) / (a + b + 2.0)) {
+      double lower = Math.min(1.0, betaTail(x, a, b));
+      return upper ? 1.0 - lower : lower;
+    }
+    double tail = Math.min(1.0, betaTail(1.0 - x, b, a));
+    return upper ? tail : 1.0 - tail;
+  }
+
+  /**
+   * I_x(a,b) by continued fraction, converges quickly for
+   * x &lt; (a+1)/(a+b+2).
+   */
+  private static double betaTail(double x, double a, double b) {
+    // x^a * (1-x)^b / (a * beta(a,b))
+    double prefactor = b / (a + b) * binomialDensity(a, a + b, x, 1.0 - x);
+    if (prefactor == 0.0) {
+      return 0.0;
+    }
+    final double qab = a + b;
+    final double qap = a + 1.0;
+    final double qam = a - 1.0;
+    double c = 1.0;
+    double d = 1.0 - qab * x / qap;
+    if (Math.abs(d) < TINY) {
+      d = TINY;
+    }
+    d = 1.0 / d;
+    double h = d;
+    for (int m = 1; m < MAX_ITERATIONS; m++) {
+      int m2 = 2 * m;
+      double aa = m * (b - m) * x / ((qam + m2) * (a + m2));
+      d = 1.0 + aa * d;
+      if (Math.abs(d) < TINY) {
+        d = TINY;
+      }
+      c = 1.0 + aa / c;
+      if (Math.abs(c) < TINY) {
+        c = TINY;
+      }
+      d = 1.0 / d;
+      h *= d * c;
+      aa = -(a + m) * (qab + m) * x / ((a + m2) * (qap + m2));
+      d = 1.0 + aa * d;
+      if (Math.abs(d) < TINY) {
+        d = TINY;
+      }
+      c = 1.0 + aa / c;
+      if (Math.abs(c) < TINY) {
+        c = TINY;
+      }
+      d = 1.0 / d;
+      double delta = d * c;
+      h *= delta;
+      if (Math.abs(delta - 1.0) < EPSILON) {
+        break;
+      }
+    }
+    return prefactor * h;
+  }
+
+  private static double betaQuadrature(double x,
+                                       double a,
+                                       double b,
+                                       boolean upper) {
+    final double mean = a / (a + b);
+    final double deviation =
+        Math.sqrt(a * b / ((a + b) * (a + b) * (a + b + 1.0)));
+    final boolean aboveMean = x > mean;
+    final double limit = aboveMean
+                         ? Math.min(1.0, Math.max(mean + 10.0 * deviation,
+                                                  x + 5.0 * deviation))
+                         : Math.max(0.0, Math.min(mean - 10.0 * deviation,
+                                                  x - 5.0 * deviation));
+    final double n = a + b - 2.0;
+    double sum = 0.0;
+    for (int j = 0; j < ABSCISSAS.length; j++) {
+      double t = x + (limit - x) * ABSCISSAS[j];
+      // the beta(a,b) density at t
+      sum += WEIGHTS[j] * (n + 1.0) * binomialDensity(a - 1.0, n, t, 1.0 - t);
+    }
+    double tail = Math.abs(sum * (limit - x));
+    if (aboveMean) {
+      return upper ? tail : 1.0 - tail;
+    }
+    return upper ? 1.0 - tail : tail;
+  }
+
+  /**
+   * The standard normal cumulative distribution function.
+   *
+   * @param z a standard score
+   * @return P(Z &lt;= z)
+   */
+  public static double normalCdf(double z) {
+    double tail = 0.5 * regularizedGammaQ(0.5, 0.5 * z * z);
+    return z < 0 ? tail : 1.0 - tail;
+  }
+
+  /**
+   * The standard normal probability density function.
+   *
+   * @param z a standard score
+   * @return the density at z
+   */
+  public static double normalDensity(double z) {
+    return Math.exp(-0.5 * z * z - LN_SQRT_2PI);
+  }
+}
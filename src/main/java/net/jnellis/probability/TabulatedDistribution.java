@@ -0,0 +1,144 @@
+/*
+ * TabulatedDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+/**
+ * A discrete probability distribution given by a table of probabilities
+ * indexed by the random variable from zero. Cumulative results, survival
+ * probabilities and quantiles are all lookups in running sums of the table.
+ * <p>
+ * Tables built by truncating distributions with infinite support, see
+ * {@link Convolution}, are missing their tail mass so the last cumulative
+ * probability may be slightly less than one.
+ * <pre>
+ * double[] die = {0, 1/6., 1/6., 1/6., 1/6., 1/6., 1/6.};
+ * TabulatedDistribution pdf = new TabulatedDistribution(lessThan, die);
+ * double underFour = pdf.getResult(4);
+ * </pre>
+ */
+public class TabulatedDistribution extends DiscreteProbability {
+
+  private final ProbabilityTables tables;
+  private final double mean;
+  private final double variance;
+
+  /**
+   * Creates a distribution from a copy of a probability table.
+   *
+   * @param rvOperation   The cumulative operation on this probability
+   * @param probabilities P(Y = y) indexed by y from zero.
+   */
+  public TabulatedDistribution(CumulativeOperation rvOperation,
+                               double[] probabilities) {
+    this(rvOperation, ProbabilityTables.of(copy(probabilities)));
+  }
+
+  /**
+   * Creates a distribution over tables that are not copied.
+   */
+  TabulatedDistribution(CumulativeOperation rvOperation,
+                        ProbabilityTables tables) {
+    this(rvOperation, tables, tables.mean(), tables.variance());
+  }
+
+  /**
+   * Creates a distribution over tables whose moments are already known.
+   */
+  TabulatedDistribution(CumulativeOperation rvOperation,
+                        ProbabilityTables tables,
+                        double mean,
+                        double variance) {
+    super(rvOperation);
+    this.tables = tables;
+    this.mean = mean;
+    this.variance = variance;
+  }
+
+  private static double[] copy(double[] probabilities) {
+    assert probabilities.length > 0 : "Table can't be empty.";
+    double[] copy = probabilities.clone();
+    for (double p : copy) {
+      assert betweenZeroAndOneInclusive(p);
+    }
+    return copy;
+  }
+
+  @Override
+  public double computeResult(int randomVariable) {
+    return tables.probability(randomVariable);
+  }
+
+  /**
+   * Cumulative results are looked up in the cumulative tables rather than
+   * summed.
+   */
+  @Override
+  public double getResult(int randomVariable) {
+    return tables.result(getCumulativeOperation(), randomVariable);
+  }
+
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    return tables.cumulativeProbability(randomVariable);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    return tables.survivalProbability(randomVariable);
+  }
+
+  /**
+   * Binary search of the cumulative table.
+   */
+  @Override
+  public int quantile(double probability) {
+    assert betweenZeroAndOneInclusive(probability);
+    return tables.quantile(probability);
+  }
+
+  @Override
+  double nextResult(int randomVariable, double result) {
+    return tables.probability(randomVariable + 1);
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return tables.size() - 1;
+  }
+
+  /**
+   * @return the largest random variable in the table.
+   */
+  public int getLargestValue() {
+    return tables.size() - 1;
+  }
+
+  /**
+   * @return a copy of the probability table.
+   */
+  public double[] getProbabilities() {
+    return tables.probabilities();
+  }
+
+  /**
+   * The Expected Value is summed from the table.
+   */
+  @Override
+  public double getExpectedValue() {
+    return mean;
+  }
+
+  /**
+   * The Variance is summed from the table.
+   */
+  @Override
+  public double getVariance() {
+    return variance;
+  }
+}
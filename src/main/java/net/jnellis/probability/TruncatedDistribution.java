@@ -0,0 +1,219 @@
+/*
+ * TruncatedDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * A distribution restricted to the random variables from a lowest to a
+ * highest value and renormalized, P(Y = y | lowest &lt;= Y &lt;= highest).
+ * <p>
+ * The normalizer, the base distribution's probability of the range, is
+ * computed once from its cumulative or survival function, whichever keeps
+ * the precision of the range. Every cumulative and survival probability is
+ * then a difference of two of the base distribution's closed forms divided
+ * by the normalizer, and quantiles bisect those.
+ * <pre>
+ * // a zero truncated Poisson
+ * TruncatedDistribution positive = new TruncatedDistribution(
+ *     lessThanOrEqual, new Poisson(equal, 2.5), 1, Integer.MAX_VALUE - 1);
+ * double result = positive.getResult(3);
+ * </pre>
+ */
+public class TruncatedDistribution extends DiscreteProbability {
+
+  private final DiscreteProbability base;
+  private final int lowest;
+  private final int highest;
+  // the range sits in the base's upper tail, so differences of survival
+  // probabilities keep more precision than differences of cumulative ones.
+  private final boolean upperTail;
+  // F(lowest - 1) and F(highest), or S(lowest - 1) and S(highest) for an
+  // upper tail range.
+  private final double below;
+  private final double through;
+  private final double normalizer;
+  private volatile double[] moments;
+
+  /**
+   * @param rvOperation The cumulative operation on this probability
+   * @param base        the distribution to truncate
+   * @param lowest      the smallest random variable kept
+   * @param highest     the largest random variable kept, or
+   *                    Integer.MAX_VALUE - 1 to keep the upper tail.
+   * @throws IllegalArgumentException if the base distribution has no
+   *                                  probability in the range.
+   */
+  public TruncatedDistribution(CumulativeOperation rvOperation,
+                               DiscreteProbability base,
+                               int lowest,
+                               int highest) {
+    super(rvOperation);
+    this.base = Objects.requireNonNull(base, "base can't be null.");
+    assert nonNegative(lowest) && lowest <= highest
+        && highest < Integer.MAX_VALUE : "Invalid range.";
+    this.lowest = lowest;
+    this.highest = highest;
+    this.upperTail = base.cumulativeProbability(lowest - 1) > 0.5;
+    if (upperTail) {
+      below = base.survivalProbability(lowest - 1);
+      through = base.survivalProbability(highest);
+      normalizer = below - through;
+    } else {
+      below = base.cumulativeProbability(lowest - 1);
+      through = base.cumulativeProbability(highest);
+      normalizer = through - below;
+    }
+    if (!(normalizer > 0.0)) {
+      throw new IllegalArgumentException(
+          "The range [" + lowest + ", " + highest + "] has no probability.");
+    }
+  }
+
+  @Override
+  public double getResult(int randomVariable) {
+    return resultFromDistribution(randomVariable);
+  }
+
+  @Override
+  public double computeResult(int randomVariable) {
+    if (randomVariable < lowest || randomVariable > highest) {
+      return 0.0;
+    }
+    return base.computeResult(randomVariable) / normalizer;
+  }
+
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    if (randomVariable < lowest) {
+      return 0.0;
+    }
+    if (randomVariable >= highest) {
+      return 1.0;
+    }
+    double result = upperTail
+                    ? below - base.survivalProbability(randomVariable)
+                    : base.cumulativeProbability(randomVariable) - below;
+    return Double.min(1.0, Double.max(0.0, result / normalizer));
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    if (randomVariable < lowest) {
+      return 1.0;
+    }
+    if (randomVariable >= highest) {
+      return 0.0;
+    }
+    double result = upperTail
+                    ? base.survivalProbability(randomVariable) - through
+                    : through - base.cumulativeProbability(randomVariable);
+    return Double.min(1.0, Double.max(0.0, result / normalizer));
+  }
+
+  /**
+   * Bisects the truncated cumulative probability between the lowest value
+   * and the base distribution's limit.
+   */
+  @Override
+  public int quantile(double probability) {
+    assert betweenZeroAndOneInclusive(probability);
+    int low = lowest - 1;
+    int high = upperLimit(1.0 - probability);
+    while (high - low > 1) {
+      int middle = (int) (((long) low + high) / 2);
+      if (cumulativeProbability(middle) < probability) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return Integer.max(lowest, high);
+  }
+
+  @Override
+  double nextResult(int randomVariable, double result) {
+    if (randomVariable < lowest || randomVariable >= highest) {
+      return computeResult(randomVariable + 1);
+    }
+    return base.nextResult(randomVariable, result * normalizer) / normalizer;
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return Integer.max(lowest, Integer.min(
+        highest, base.upperLimit(tailMass * normalizer)));
+  }
+
+  /**
+   * Summed once over the range, up to where no more than
+   * {@link #DEFAULT_TAIL_MASS} of it is left, on first use.
+   */
+  @Override
+  public double getExpectedValue() {
+    return moments()[0];
+  }
+
+  @Override
+  public double getVariance() {
+    return moments()[1];
+  }
+
+  private double[] moments() {
+    double[] result = moments;
+    if (result == null) {
+      final int last = upperLimit(DEFAULT_TAIL_MASS);
+      // offsets from the lowest value keep the sums of squares small.
+      final double mean = IntStream.rangeClosed(lowest, last)
+                                   .parallel()
+                                   .mapToDouble(y -> (double) (y - lowest)
+                                       * computeResult(y))
+                                   .sum();
+      final double variance = IntStream.rangeClosed(lowest, last)
+                                       .parallel()
+                                       .mapToDouble(y -> {
+                                         double d = y - lowest - mean;
+                                         return d * d * computeResult(y);
+                                       })
+                                       .sum();
+      result = new double[]{lowest + mean, variance};
+      moments = result;
+    }
+    return result;
+  }
+
+  /**
+   * @return the distribution that was truncated.
+   */
+  public DiscreteProbability getBase() {
+    return base;
+  }
+
+  /**
+   * @return the smallest random variable kept.
+   */
+  public int getLowest() {
+    return lowest;
+  }
+
+  /**
+   * @return the largest random variable kept.
+   */
+  public int getHighest() {
+    return highest;
+  }
+
+  /**
+   * @return the base distribution's probability of the range.
+   */
+  public double getNormalizer() {
+    return normalizer;
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * ZeroInflatedDistribution.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability;
+
+import java.util.Objects;
+
+/**
+ * A distribution with extra zeros, a structural zero with probability pi
+ * and otherwise a draw from the base distribution:
+ * <pre>
+ * P(Y = 0) = pi + (1 - pi) * P(X = 0)
+ * P(Y = y) = (1 - pi) * P(X = y), y &gt; 0
+ * </pre>
+ * Cumulative and survival probabilities and quantiles are the base's, moved
+ * by the point mass at zero.
+ * <pre>
+ * ZeroInflatedDistribution claims = new ZeroInflatedDistribution(
+ *     greaterThan, new Poisson(equal, 1.8), 0.35);
+ * double overThree = claims.getResult(3);
+ * </pre>
+ */
+public class ZeroInflatedDistribution extends DiscreteProbability {
+
+  private final DiscreteProbability base;
+  private final double zeroProbability;
+  private final double complement;
+
+  /**
+   * @param rvOperation     The cumulative operation on this probability
+   * @param base            the distribution of the counts that are not
+   *                        structural zeros
+   * @param zeroProbability the chance of a structural zero, pi
+   */
+  public ZeroInflatedDistribution(CumulativeOperation rvOperation,
+                                  DiscreteProbability base,
+                                  double zeroProbability) {
+    super(rvOperation);
+    this.base = Objects.requireNonNull(base, "base can't be null.");
+    assert betweenZeroAndOneInclusive(zeroProbability);
+    this.zeroProbability = zeroProbability;
+    this.complement = 1.0 - zeroProbability;
+  }
+
+  @Override
+  public double getResult(int randomVariable) {
+    return resultFromDistribution(randomVariable);
+  }
+
+  @Override
+  public double computeResult(int randomVariable) {
+    if (randomVariable < 0) {
+      return 0.0;
+    }
+    double result = complement * base.computeResult(randomVariable);
+    return randomVariable == 0 ? zeroProbability + result : result;
+  }
+
+  @Override
+  public double cumulativeProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 0.0;
+    }
+    return zeroProbability
+        + complement * base.cumulativeProbability(randomVariable);
+  }
+
+  @Override
+  public double survivalProbability(int randomVariable) {
+    if (randomVariable < 0) {
+      return 1.0;
+    }
+    return complement * base.survivalProbability(randomVariable);
+  }
+
+  /**
+   * The base's quantile of the probability left after the structural
+   * zeros.
+   */
+  @Override
+  public int quantile(double probability) {
+    assert betweenZeroAndOneInclusive(probability);
+    if (probability <= zeroProbability) {
+      return 0;
+    }
+    return base.quantile(
+        Double.min(1.0, (probability - zeroProbability) / complement));
+  }
+
+  @Override
+  double nextResult(int randomVariable, double result) {
+    if (randomVariable < 1 || complement == 0.0) {
+      return computeResult(randomVariable + 1);
+    }
+    return complement * base.nextResult(randomVariable, result / complement);
+  }
+
+  @Override
+  int upperLimit(double tailMass) {
+    return complement <= tailMass ? 0 : base.upperLimit(tailMass / complement);
+  }
+
+  @Override
+  public double getExpectedValue() {
+    return complement * base.getExpectedValue();
+  }
+
+  /**
+   * (1 - pi)(&#963;&#178; + &#956;&#178;) - ((1 - pi)&#956;)&#178;
+   */
+  @Override
+  public double getVariance() {
+    final double mean = base.getExpectedValue();
+    return complement * (base.getVariance() + zeroProbability * mean * mean);
+  }
+
+  /**
+   * @return the distribution of the counts that are not structural zeros.
+   */
+  public DiscreteProbability getBase() {
+    return base;
+  }
+
+  /**
+   * @return the chance of a structural zero.
+   */
+  public double getZeroProbability() {
+    return zeroProbability;
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * BatchEvaluator.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.batch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates a file of query rows, see {@link RowParser} for the format, and
+ * writes one result per line in the same order.
+ * <p>
+ * The work is a three stage pipeline. The calling thread maps the input a
+ * chunk of whole lines at a time and parses it into primitive columns. Each
+ * parsed block is evaluated in a fork join pool, where rows are grouped by
+ * distribution and parameters so each group creates its distribution, or
+ * its table, once. A writer thread takes the evaluated blocks in input
+ * order. A bounded queue between the stages keeps only a few blocks in
+ * memory however large the input is.
+ * <pre>
+ * java net.jnellis.probability.batch.BatchEvaluator queries.csv results.txt
+ * </pre>
+ */
+public final class BatchEvaluator {
+
+  /**
+   * The default size of the chunks the input is mapped in.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+  /**
+   * The number of blocks that may be parsed ahead of the writer.
+   */
+  private static final int BLOCKS_IN_FLIGHT = 4;
+
+  private static final int BYTES_PER_ROW_ESTIMATE = 32;
+
+  private final int parallelism;
+  private final int chunkSize;
+  private final PrintStream progress;
+
+  /**
+   * @param parallelism the number of threads evaluating rows
+   * @param chunkSize   the number of input bytes mapped at a time, which
+   *                    must be more than the longest line.
+   * @param progress    receives throughput reports every second, or null
+   *                    for none
+   */
+  public BatchEvaluator(int parallelism, int chunkSize, PrintStream progress) {
+    assert parallelism > 0 && chunkSize > 0;
+    this.parallelism = parallelism;
+    this.chunkSize = chunkSize;
+    this.progress = progress;
+  }
+
+  /**
+   * Usage: BatchEvaluator input output [parallelism] [chunkMegabytes]
+   *
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {
+    if (args.length < 2 || args.length > 4) {
+      System.err.println("Usage: BatchEvaluator input output"
+                             + " [parallelism] [chunkMegabytes]");
+      System.exit(2);
+    }
+    int parallelism = args.length > 2
+                      ? Integer.parseInt(args[2])
+                      : Runtime.getRuntime().availableProcessors();
+    int chunkSize = args.length > 3
+                    ? Integer.parseInt(args[3]) << 20
+                    : DEFAULT_CHUNK_SIZE;
+    try {
+      new BatchEvaluator(parallelism, chunkSize, System.err)
+          .evaluate(Paths.get(args[0]), Paths.get(args[1]));
+    } catch (IOException | RuntimeException e) {
+      System.err.println(e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Evaluates every row of the input and writes the results.
+   *
+   * @param input  the query rows
+   * @param output the results, one per line in the order of the rows
+   * @return the number of rows evaluated
+   * @throws IOException              if a file can't be read or written
+   * @throws IllegalArgumentException if a row is malformed
+   */
+  public long evaluate(Path input, Path output) throws IOException {
+    final AtomicLong rows = new AtomicLong();
+    final AtomicLong bytes = new AtomicLong();
+    final BlockingQueue<CompletableFuture<RowBlock>> queue =
+        new ArrayBlockingQueue<>(BLOCKS_IN_FLIGHT);
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    final ScheduledExecutorService reporter = startReporter(rows, bytes);
+    final long started = System.nanoTime();
+    try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+         FileChannel out = FileChannel.open(
+             output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+             StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ResultWriter writer = new ResultWriter(queue, out, rows, bytes);
+      final Thread writerThread = new Thread(writer, "batch-writer");
+      writerThread.start();
+      try {
+        read(in, queue, pool, writer);
+      } finally {
+        put(queue, ResultWriter.END);
+        join(writerThread);
+      }
+      if (writer.failure() != null) {
+        Throwable failure = writer.failure();
+        if (failure.getCause() != null) {
+          failure = failure.getCause();
+        }
+        if (failure instanceof IOException) {
+          throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        throw new IOException(failure);
+      }
+    } finally {
+      pool.shutdown();
+      if (reporter != null) {
+        reporter.shutdownNow();
+      }
+    }
+    report("done", rows.get(), bytes.get(), System.nanoTime() - started);
+    return rows.get();
+  }
+
+  /**
+   * Maps and parses the input a chunk at a time, handing each block to the
+   * pool and queueing its evaluation for the writer.
+   */
+  private void read(FileChannel in,
+                    BlockingQueue<CompletableFuture<RowBlock>> queue,
+                    ForkJoinPool pool,
+                    ResultWriter writer) throws IOException {
+    final long size = in.size();
+    final RowParser parser = new RowParser(0L);
+    long start = 0L;
+    while (start < size && writer.failure() == null) {
+      long length = Math.min(chunkSize, size - start);
+      MappedByteBuffer chunk =
+          in.map(FileChannel.MapMode.READ_ONLY, start, length);
+      int end = (int) length;
+      if (start + length < size) {
+        // stop after the last whole line of the chunk.
+        while (end > 0 && chunk.get(end - 1) != '\n') {
+          end--;
+        }
+        if (end == 0) {
+          throw new IllegalArgumentException(
+              "Line " + (parser.line() + 1) + " is longer than the chunk size.");
+        }
+      }
+      chunk.limit(end);
+      RowBlock block = new RowBlock(parser.line(), end,
+                                    end / BYTES_PER_ROW_ESTIMATE);
+      parser.parse(chunk, block);
+      put(queue, CompletableFuture.supplyAsync(block::evaluate, pool));
+      start += end;
+    }
+  }
+
+  private ScheduledExecutorService startReporter(AtomicLong rows,
+                                                 AtomicLong bytes) {
+    if (progress == null) {
+      return null;
+    }
+    final long started = System.nanoTime();
+    ScheduledExecutorService reporter =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "batch-progress");
+          thread.setDaemon(true);
+          return thread;
+        });
+    reporter.scheduleAtFixedRate(
+        () -> report("progress", rows.get(), bytes.get(),
+                     System.nanoTime() - started),
+        1, 1, TimeUnit.SECONDS);
+    return reporter;
+  }
+
+  private void report(String label, long rows, long bytes, long nanos) {
+    if (progress == null) {
+      return;
+    }
+    double seconds = Math.max(1.0E-9, nanos / 1.0E9);
+    progress.printf("%s: %,d rows in %.1f s, %,.0f rows/s, %.1f MB/s%n",
+                    label, rows, seconds, rows / seconds,
+                    bytes / seconds / (1 << 20));
+  }
+
+  private static void put(BlockingQueue<CompletableFuture<RowBlock>> queue,
+                          CompletableFuture<RowBlock> block)
+      throws InterruptedIOException {
+    try {
+      queue.put(block);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while queueing a block.");
+    }
+  }
+
+  private static void join(Thread thread) {
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * ResultWriter.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The last stage of the pipeline, which takes evaluated blocks in input
+ * order and writes one result per line. Each result is formatted into a
+ * reused StringBuilder and copied into a direct buffer, so writing does not
+ * allocate per row either.
+ */
+final class ResultWriter implements Runnable {
+
+  /**
+   * Queued after the last block.
+   */
+  static final CompletableFuture<RowBlock> END =
+      CompletableFuture.completedFuture(null);
+
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final BlockingQueue<CompletableFuture<RowBlock>> queue;
+  private final FileChannel channel;
+  private final AtomicLong rows;
+  private final AtomicLong bytes;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final StringBuilder text = new StringBuilder(32);
+  private volatile Throwable failure;
+
+  /**
+   * @param queue   evaluations of blocks in input order, ending with
+   *                {@link #END}
+   * @param channel the output
+   * @param rows    counts the rows written
+   * @param bytes   counts the input bytes of the blocks written
+   */
+  ResultWriter(BlockingQueue<CompletableFuture<RowBlock>> queue,
+               FileChannel channel,
+               AtomicLong rows,
+               AtomicLong bytes) {
+    this.queue = queue;
+    this.channel = channel;
+    this.rows = rows;
+    this.bytes = bytes;
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (true) {
+        CompletableFuture<RowBlock> next = queue.take();
+        if (next == END) {
+          break;
+        }
+        write(next.join());
+      }
+      flush();
+    } catch (Throwable e) {
+      failure = e;
+      // keep draining so the reader never blocks on a full queue.
+      while (true) {
+        try {
+          if (queue.take() == END) {
+            break;
+          }
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return what stopped the writer, or null if it finished.
+   */
+  Throwable failure() {
+    return failure;
+  }
+
+  private void write(RowBlock block) throws IOException {
+    final double[] results = block.results;
+    for (int i = 0; i < block.size; i++) {
+      text.setLength(0);
+      text.append(results[i]).append('\n');
+      if (buffer.remaining() < text.length()) {
+        flush();
+      }
+      for (int j = 0; j < text.length(); j++) {
+        buffer.put((byte) text.charAt(j));
+      }
+    }
+    rows.addAndGet(block.size);
+    bytes.addAndGet(block.bytes);
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * RowBlock.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.batch;
+
+import net.jnellis.probability.DiscreteProbability;
+import net.jnellis.probability.DistributionType;
+import net.jnellis.probability.TabulatedDistribution;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static net.jnellis.probability.CumulativeOperation.equal;
+
+/**
+ * A block of parsed query rows held in primitive columns, along with their
+ * results once evaluated.
+ * <p>
+ * Rows are grouped by distribution type and parameters with an open
+ * addressing hash table on the primitive keys, then counting sorted by
+ * group, so grouping allocates nothing per row. Each group creates its
+ * distribution once, and a group with enough rows to pay for it evaluates
+ * against the distribution's table instead.
+ */
+final class RowBlock {
+
+  static final int MAX_PARAMETERS = 3;
+
+  /**
+   * A group tabulates its distribution when it has at least one row for
+   * every this many values of the table.
+   */
+  static final int ROWS_PER_TABLE_VALUE = 64;
+
+  final long firstLine;
+  final long bytes;
+  int size;
+  int[] types;
+  double[] parameters;
+  int[] randomVariables;
+  byte[] operations;
+  double[] results;
+
+  RowBlock(long firstLine, long bytes, int capacity) {
+    this.firstLine = firstLine;
+    this.bytes = bytes;
+    capacity = Integer.max(16, capacity);
+    types = new int[capacity];
+    parameters = new double[capacity * MAX_PARAMETERS];
+    randomVariables = new int[capacity];
+    operations = new byte[capacity];
+  }
+
+  /**
+   * Makes room for one more row and returns its index.
+   */
+  int next() {
+    if (size == types.length) {
+      int capacity = size + (size >> 1);
+      types = Arrays.copyOf(types, capacity);
+      parameters = Arrays.copyOf(parameters, capacity * MAX_PARAMETERS);
+      randomVariables = Arrays.copyOf(randomVariables, capacity);
+      operations = Arrays.copyOf(operations, capacity);
+    }
+    Arrays.fill(parameters, size * MAX_PARAMETERS,
+                (size + 1) * MAX_PARAMETERS, 0.0);
+    return size++;
+  }
+
+  /**
+   * Evaluates every row, in parallel by group, in the calling fork join
+   * pool.
+   */
+  RowBlock evaluate() {
+    results = new double[size];
+    // group id of each row by open addressing on the primitive key.
+    final int capacity = Integer.highestOneBit(Integer.max(2, size) * 2) * 2;
+    final int mask = capacity - 1;
+    final int[] slots = new int[capacity];
+    Arrays.fill(slots, -1);
+    final int[] groupOf = new int[size];
+    final int[] groupFirstRow = new int[size];
+    int groups = 0;
+    for (int row = 0; row < size; row++) {
+      int slot = hash(row) & mask;
+      while (true) {
+        int group = slots[slot];
+        if (group < 0) {
+          slots[slot] = groups;
+          groupFirstRow[groups] = row;
+          groupOf[row] = groups++;
+          break;
+        }
+        if (sameKey(groupFirstRow[group], row)) {
+          groupOf[row] = group;
+          break;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+    // counting sort of the rows by group.
+    final int[] start = new int[groups + 1];
+    for (int row = 0; row < size; row++) {
+      start[groupOf[row] + 1]++;
+    }
+    for (int group = 0; group < groups; group++) {
+      start[group + 1] += start[group];
+    }
+    final int[] order = new int[size];
+    final int[] fill = Arrays.copyOf(start, groups);
+    for (int row = 0; row < size; row++) {
+      order[fill[groupOf[row]]++] = row;
+    }
+    IntStream.range(0, groups)
+             .parallel()
+             .forEach(group -> evaluate(groupFirstRow[group], order,
+                                        start[group], start[group + 1]));
+    return this;
+  }
+
+  private void evaluate(int firstRow, int[] order, int from, int to) {
+    final DistributionType type = DistributionType.fromCode(types[firstRow]);
+    final double[] parameters = Arrays.copyOfRange(
+        this.parameters, firstRow * MAX_PARAMETERS,
+        firstRow * MAX_PARAMETERS + type.getParameterCount());
+    final DiscreteProbability distribution = type.create(equal, parameters);
+    final DiscreteProbability table =
+        worthTabulating(type, distribution, to - from)
+        ? new TabulatedDistribution(equal, distribution.pmfStream().toArray())
+        : distribution;
+    // a table of an infinite support is missing its far tail, so upper tails
+    // come from the distribution's closed form.
+    final boolean finite = type == DistributionType.binomial
+        || type == DistributionType.hyperGeometric;
+    for (int i = from; i < to; i++) {
+      int row = order[i];
+      int operation = operations[row];
+      results[row] = evaluate(finite || operation < 4 ? table : distribution,
+                              operation, randomVariables[row]);
+    }
+  }
+
+  /**
+   * A table costs about one evaluation per value, the hypergeometric has no
+   * closed form cumulative distribution so it is always tabulated.
+   */
+  private static boolean worthTabulating(DistributionType type,
+                                         DiscreteProbability distribution,
+                                         int rows) {
+    if (type == DistributionType.hyperGeometric) {
+      return true;
+    }
+    double values = distribution.getExpectedValue()
+        + 10.0 * Math.sqrt(distribution.getVariance()) + 1.0;
+    return (double) rows * ROWS_PER_TABLE_VALUE >= values;
+  }
+
+  /**
+   * The result of an operation, by its index in
+   * {@link RowParser#OPERATIONS}.
+   */
+  static double evaluate(DiscreteProbability distribution,
+                         int operation,
+                         int randomVariable) {
+    switch (operation) {
+      case 0:
+        return distribution.computeResult(randomVariable);
+      case 1:
+        return 1.0 - distribution.computeResult(randomVariable);
+      case 2:
+        return distribution.cumulativeProbability(randomVariable - 1);
+      case 3:
+        return distribution.cumulativeProbability(randomVariable);
+      case 4:
+        return distribution.survivalProbability(randomVariable);
+      default:
+        return distribution.survivalProbability(randomVariable - 1);
+    }
+  }
+
+  private int hash(int row) {
+    long hash = types[row];
+    for (int i = 0; i < MAX_PARAMETERS; i++) {
+      hash = hash * 0x9E3779B97F4A7C15L
+          + Double.doubleToLongBits(parameters[row * MAX_PARAMETERS + i]);
+    }
+    hash ^= hash >>> 31;
+    hash *= 0xBF58476D1CE4E5B9L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private boolean sameKey(int left, int right) {
+    if (types[left] != types[right]) {
+      return false;
+    }
+    for (int i = 0; i < MAX_PARAMETERS; i++) {
+      if (Double.doubleToLongBits(parameters[left * MAX_PARAMETERS + i])
+          != Double.doubleToLongBits(parameters[right * MAX_PARAMETERS + i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
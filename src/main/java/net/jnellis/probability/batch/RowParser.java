@@ -0,0 +1,333 @@
+/*
+ * RowParser.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.batch;
+
+import net.jnellis.probability.CumulativeOperation;
+import net.jnellis.probability.DistributionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static net.jnellis.probability.CumulativeOperation.*;
+
+/**
+ * Parses query rows straight from the bytes of a buffer into a
+ * {@link RowBlock}, without allocating a String per row. A row is
+ * <pre>
+ * type,parameter,...,randomVariable,operation
+ * </pre>
+ * where the type is a {@link DistributionType} name with its number of
+ * parameters and the operation is the name of one of the six cumulative
+ * operation constants, for example
+ * <pre>
+ * binomial,1000000,0.3,300100,lessThanOrEqual
+ * poisson,4.5,3,greaterThan
+ * </pre>
+ * Blank lines and lines starting with '#' are skipped. Numbers that fit
+ * the exact fast path, at most 15 significant digits with a small
+ * exponent, are converted directly; anything else falls back to
+ * {@link Double#parseDouble}.
+ */
+final class RowParser {
+
+  static final CumulativeOperation[] OPERATIONS = {
+      equal, notEqual, lessThan, lessThanOrEqual, greaterThan,
+      greaterThanOrEqual};
+
+  private static final byte[][] OPERATION_NAMES = {
+      bytes("equal"), bytes("notEqual"), bytes("lessThan"),
+      bytes("lessThanOrEqual"), bytes("greaterThan"),
+      bytes("greaterThanOrEqual")};
+
+  private static final DistributionType[] TYPES = {
+      DistributionType.binomial, DistributionType.poisson,
+      DistributionType.geometric, DistributionType.negativeBinomial,
+      DistributionType.hyperGeometric};
+
+  private static final byte[][] TYPE_NAMES = new byte[TYPES.length][];
+
+  private static final double[] POWERS_OF_TEN = new double[23];
+
+  static {
+    for (int i = 0; i < TYPES.length; i++) {
+      TYPE_NAMES[i] = bytes(TYPES[i].name());
+    }
+    POWERS_OF_TEN[0] = 1.0;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+    }
+  }
+
+  private final byte[] scratch = new byte[64];
+  private long line;
+  // the field being parsed, as absolute positions in the buffer.
+  private int fieldStart;
+  private int fieldEnd;
+
+  /**
+   * @param firstLine the line number of the first row parsed
+   */
+  RowParser(long firstLine) {
+    this.line = firstLine;
+  }
+
+  private static byte[] bytes(String name) {
+    return name.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @return the line number of the next row.
+   */
+  long line() {
+    return line;
+  }
+
+  /**
+   * Parses every line from the buffer's position to its limit.
+   *
+   * @param buffer whole lines of input
+   * @param block  receives the rows
+   * @throws IllegalArgumentException with the line number of a malformed row
+   */
+  void parse(ByteBuffer buffer, RowBlock block) {
+    int position = buffer.position();
+    final int limit = buffer.limit();
+    while (position < limit) {
+      int end = position;
+      while (end < limit && buffer.get(end) != '\n') {
+        end++;
+      }
+      int lineEnd = end;
+      if (lineEnd > position && buffer.get(lineEnd - 1) == '\r') {
+        lineEnd--;
+      }
+      line++;
+      parseLine(buffer, position, lineEnd, block);
+      position = end + 1;
+    }
+    buffer.position(limit);
+  }
+
+  private void parseLine(ByteBuffer buffer,
+                         int start,
+                         int end,
+                         RowBlock block) {
+    int first = skipBlanks(buffer, start, end);
+    if (first == end || buffer.get(first) == '#') {
+      return;
+    }
+    int position = nextField(buffer, start, end);
+    int type = match(buffer, TYPE_NAMES);
+    if (type < 0) {
+      throw malformed("unknown distribution type");
+    }
+    int row = block.next();
+    block.types[row] = TYPES[type].getCode();
+    for (int i = 0; i < TYPES[type].getParameterCount(); i++) {
+      position = nextField(buffer, position, end);
+      block.parameters[row * RowBlock.MAX_PARAMETERS + i] =
+          parseDouble(buffer);
+    }
+    position = nextField(buffer, position, end);
+    block.randomVariables[row] = parseInt(buffer);
+    position = nextField(buffer, position, end);
+    int operation = match(buffer, OPERATION_NAMES);
+    if (operation < 0) {
+      throw malformed("unknown operation");
+    }
+    block.operations[row] = (byte) operation;
+    if (position < end) {
+      throw malformed("too many fields");
+    }
+  }
+
+  /**
+   * Finds the field starting at the position, trimmed of blanks, and
+   * returns the position after its comma.
+   */
+  private int nextField(ByteBuffer buffer, int position, int end) {
+    if (position > end) {
+      throw malformed("too few fields");
+    }
+    int comma = position;
+    while (comma < end && buffer.get(comma) != ',') {
+      comma++;
+    }
+    fieldStart = skipBlanks(buffer, position, comma);
+    fieldEnd = comma;
+    while (fieldEnd > fieldStart && isBlank(buffer.get(fieldEnd - 1))) {
+      fieldEnd--;
+    }
+    if (fieldStart == fieldEnd) {
+      throw malformed("empty field");
+    }
+    return comma + 1;
+  }
+
+  private static int skipBlanks(ByteBuffer buffer, int position, int end) {
+    while (position < end && isBlank(buffer.get(position))) {
+      position++;
+    }
+    return position;
+  }
+
+  private static boolean isBlank(byte b) {
+    return b == ' ' || b == '\t';
+  }
+
+  private int match(ByteBuffer buffer, byte[][] names) {
+    final int length = fieldEnd - fieldStart;
+    for (int i = 0; i < names.length; i++) {
+      byte[] name = names[i];
+      if (name.length != length) {
+        continue;
+      }
+      int j = 0;
+      while (j < length && buffer.get(fieldStart + j) == name[j]) {
+        j++;
+      }
+      if (j == length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int parseInt(ByteBuffer buffer) {
+    int position = fieldStart;
+    boolean negative = buffer.get(position) == '-';
+    if (negative || buffer.get(position) == '+') {
+      position++;
+    }
+    if (position == fieldEnd) {
+      throw malformed("bad integer");
+    }
+    long value = 0L;
+    for (; position < fieldEnd; position++) {
+      int digit = buffer.get(position) - '0';
+      if (digit < 0 || digit > 9) {
+        throw malformed("bad integer");
+      }
+      value = value * 10 + digit;
+      if (value > Integer.MAX_VALUE + 1L) {
+        throw malformed("integer out of range");
+      }
+    }
+    value = negative ? -value : value;
+    if (value > Integer.MAX_VALUE) {
+      throw malformed("integer out of range");
+    }
+    return (int) value;
+  }
+
+  private double parseDouble(ByteBuffer buffer) {
+    int position = fieldStart;
+    final boolean negative = buffer.get(position) == '-';
+    if (negative || buffer.get(position) == '+') {
+      position++;
+    }
+    long mantissa = 0L;
+    int significant = 0;
+    int exponent = 0;
+    boolean digits = false;
+    boolean exact = true;
+    for (; position < fieldEnd; position++) {
+      int digit = buffer.get(position) - '0';
+      if (digit < 0 || digit > 9) {
+        break;
+      }
+      digits = true;
+      if (significant < 15) {
+        mantissa = mantissa * 10 + digit;
+        if (mantissa > 0) {
+          significant++;
+        }
+      } else {
+        exact = false;
+      }
+    }
+    if (position < fieldEnd && buffer.get(position) == '.') {
+      for (position++; position < fieldEnd; position++) {
+        int digit = buffer.get(position) - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        digits = true;
+        if (significant < 15) {
+          mantissa = mantissa * 10 + digit;
+          exponent--;
+          if (mantissa > 0) {
+            significant++;
+          }
+        } else if (digit != 0) {
+          exact = false;
+        }
+      }
+    }
+    if (digits && position < fieldEnd
+        && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+      position++;
+      boolean negativeExponent = position < fieldEnd
+          && buffer.get(position) == '-';
+      if (negativeExponent
+          || (position < fieldEnd && buffer.get(position) == '+')) {
+        position++;
+      }
+      int value = 0;
+      boolean exponentDigits = false;
+      for (; position < fieldEnd; position++) {
+        int digit = buffer.get(position) - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        exponentDigits = true;
+        value = Integer.min(100000, value * 10 + digit);
+      }
+      if (!exponentDigits) {
+        digits = false;
+      }
+      exponent += negativeExponent ? -value : value;
+    }
+    if (!digits || position != fieldEnd) {
+      return slowParseDouble(buffer);
+    }
+    if (mantissa == 0L) {
+      return negative ? -0.0 : 0.0;
+    }
+    if (!exact || exponent < -22 || exponent > 22) {
+      return slowParseDouble(buffer);
+    }
+    // a mantissa of at most 15 digits and a power of ten up to 1e22 are
+    // both exact doubles, so one rounding gives the correct result.
+    double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent]
+                                : mantissa * POWERS_OF_TEN[exponent];
+    return negative ? -value : value;
+  }
+
+  private double slowParseDouble(ByteBuffer buffer) {
+    int length = fieldEnd - fieldStart;
+    if (length > scratch.length) {
+      throw malformed("bad number");
+    }
+    for (int i = 0; i < length; i++) {
+      scratch[i] = buffer.get(fieldStart + i);
+    }
+    try {
+      return Double.parseDouble(
+          new String(scratch, 0, length, StandardCharsets.US_ASCII));
+    } catch (NumberFormatException e) {
+      throw malformed("bad number");
+    }
+  }
+
+  private IllegalArgumentException malformed(String reason) {
+    return new IllegalArgumentException(
+        "Malformed row at line " + line + ": " + reason);
+  }
+}
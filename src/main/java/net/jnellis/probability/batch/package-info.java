@@ -0,0 +1,14 @@
+/*
+ * package-info.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+/**
+ * A command line tool that evaluates large files of probability queries,
+ * grouping queries by their distribution so tables are shared, evaluating
+ * them in parallel and writing the results in input order.
+ */
+package net.jnellis.probability.batch;
@@ -0,0 +1,228 @@
+/*
+ * Combinatorics.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.combinatorics;
+
+import net.jnellis.probability.DiscreteProbability;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exact factorials, binomial coefficients and hypergeometric probabilities
+ * from prime factorizations.
+ * <p>
+ * By Legendre's formula the exponent of a prime p in n! is the sum of
+ * floor(n/p<sup>i</sup>), so the exponent of p in a ratio of factorials is
+ * a handful of integer divisions. A coefficient is the product of the prime
+ * powers with positive exponents, multiplied in machine words until they
+ * would overflow and then as a balanced product tree of big integers, which
+ * avoids ever dividing big integers. The primes come from the
+ * {@link PrimeSieve#shared() shared sieve}.
+ * <p>
+ * The floating point probabilities of the probability package can be
+ * checked against these:
+ * <pre>
+ * BigInteger coefficient = Combinatorics.binomial(1000, 300);
+ * ExactRatio p = Combinatorics.hyperGeometric(1000, 100, 300, 30);
+ * double error = new HyperGeometric(equal, 1000, 100, 300).computeResult(30)
+ *     - p.doubleValue();
+ * </pre>
+ */
+public final class Combinatorics {
+
+  private Combinatorics() {}
+
+  /**
+   * Legendre's formula, the exponent of a prime in n!.
+   *
+   * @param number n, non-negative
+   * @param prime  a prime p
+   * @return the sum of floor(n/p<sup>i</sup>) for i &gt;= 1
+   */
+  public static long factorialExponent(int number, int prime) {
+    assert number >= 0 : "Number must be non-negative.";
+    assert prime > 1 : "Prime must be greater than one.";
+    long exponent = 0L;
+    long quotient = number;
+    while (quotient >= prime) {
+      quotient /= prime;
+      exponent += quotient;
+    }
+    return exponent;
+  }
+
+  /**
+   * The exponent of a prime in C(n, k), the number of carries when adding
+   * k and n - k in base p.
+   */
+  private static long binomialExponent(int n, int k, int prime) {
+    return factorialExponent(n, prime) - factorialExponent(k, prime)
+        - factorialExponent(n - k, prime);
+  }
+
+  /**
+   * @param number n, non-negative
+   * @return n!
+   */
+  public static BigInteger factorial(int number) {
+    assert number >= 0 : "Number must be non-negative.";
+    final int[] primes = PrimeSieve.shared().primesThrough(number);
+    final long[] exponents = new long[PrimeSieve.shared().count(number)];
+    for (int i = 0; i < exponents.length; i++) {
+      exponents[i] = factorialExponent(number, primes[i]);
+    }
+    return product(primes, exponents);
+  }
+
+  /**
+   * The binomial coefficient.
+   *
+   * @param n the number of items, non-negative
+   * @param k the number chosen
+   * @return C(n, k), zero when k is outside zero to n.
+   */
+  public static BigInteger binomial(int n, int k) {
+    assert n >= 0 : "n must be non-negative.";
+    if (k < 0 || k > n) {
+      return BigInteger.ZERO;
+    }
+    final int[] primes = PrimeSieve.shared().primesThrough(n);
+    final long[] exponents = new long[PrimeSieve.shared().count(n)];
+    for (int i = 0; i < exponents.length; i++) {
+      exponents[i] = binomialExponent(n, k, primes[i]);
+    }
+    return product(primes, exponents);
+  }
+
+  /**
+   * The binomial coefficient as a long, built up as C(n, i) = C(n, i-1)
+   * (n-i+1)/i after dividing out the common factors of C(n, i-1) and i so
+   * no intermediate value is larger than the result.
+   *
+   * @param n the number of items, non-negative
+   * @param k the number chosen
+   * @return C(n, k), zero when k is outside zero to n.
+   * @throws ArithmeticException if C(n, k) overflows a long
+   */
+  public static long binomialExact(int n, int k) {
+    assert n >= 0 : "n must be non-negative.";
+    if (k < 0 || k > n) {
+      return 0L;
+    }
+    final int chosen = Integer.min(k, n - k);
+    long coefficient = 1L;
+    for (int i = 1; i <= chosen; i++) {
+      long common = DiscreteProbability.gcd(coefficient, i);
+      // i / common divides n - i + 1 since C(n, i) is an integer.
+      coefficient = Math.multiplyExact(coefficient / common,
+                                       (n - i + 1L) / (i / common));
+    }
+    return coefficient;
+  }
+
+  /**
+   * The exact hypergeometric probability of y successes,
+   * C(r, y) C(N-r, n-y) / C(N, n), in lowest terms.
+   *
+   * @param populationSize population size, N
+   * @param sampleSize     sample size, n
+   * @param successStates  the success states in the population, r
+   * @param successes      y
+   * @return P(Y = y)
+   */
+  public static ExactRatio hyperGeometric(int populationSize,
+                                          int sampleSize,
+                                          int successStates,
+                                          int successes) {
+    final int N = populationSize;
+    final int n = sampleSize;
+    final int r = successStates;
+    final int y = successes;
+    assert 0 <= n && n <= N : "Sample size must be between 0 and N.";
+    assert 0 <= r && r <= N : "Success states must be between 0 and N.";
+    if (y < 0 || y > n || y > r || n - y > N - r) {
+      return new ExactRatio(BigInteger.ZERO, BigInteger.ONE);
+    }
+    final int[] primes = PrimeSieve.shared().primesThrough(N);
+    final long[] numerator = new long[PrimeSieve.shared().count(N)];
+    final long[] denominator = new long[numerator.length];
+    for (int i = 0; i < numerator.length; i++) {
+      int p = primes[i];
+      // the exponents of the denominator and numerator cancel exactly.
+      long exponent = binomialExponent(r, y, p)
+          + binomialExponent(N - r, n - y, p) - binomialExponent(N, n, p);
+      if (exponent > 0L) {
+        numerator[i] = exponent;
+      } else {
+        denominator[i] = -exponent;
+      }
+    }
+    return new ExactRatio(product(primes, numerator),
+                          product(primes, denominator));
+  }
+
+  /**
+   * The binomial probability computed with 34 significant digits from
+   * the exact coefficient and the exact binary value of the chance of
+   * success, a reference for the double precision probability.
+   *
+   * @param trials          n
+   * @param chanceOfSuccess p
+   * @param successes       y
+   * @return C(n, y) p<sup>y</sup> (1-p)<sup>n-y</sup>
+   */
+  public static double binomialProbability(int trials,
+                                           double chanceOfSuccess,
+                                           int successes) {
+    assert 0.0 <= chanceOfSuccess && chanceOfSuccess <= 1.0;
+    if (successes < 0 || successes > trials) {
+      return 0.0;
+    }
+    final MathContext context = MathContext.DECIMAL128;
+    final BigDecimal p = new BigDecimal(chanceOfSuccess);
+    final BigDecimal q = BigDecimal.ONE.subtract(p);
+    return new BigDecimal(binomial(trials, successes))
+        .multiply(p.pow(successes, context), context)
+        .multiply(q.pow(trials - successes, context), context)
+        .doubleValue();
+  }
+
+  /**
+   * The product of the primes raised to their exponents.
+   */
+  private static BigInteger product(int[] primes, long[] exponents) {
+    final List<BigInteger> factors = new ArrayList<>();
+    long word = 1L;
+    for (int i = 0; i < exponents.length; i++) {
+      for (long e = exponents[i]; e > 0L; e--) {
+        if (word > Long.MAX_VALUE / primes[i]) {
+          factors.add(BigInteger.valueOf(word));
+          word = 1L;
+        }
+        word *= primes[i];
+      }
+    }
+    factors.add(BigInteger.valueOf(word));
+    return product(factors, 0, factors.size());
+  }
+
+  private static BigInteger product(List<BigInteger> factors,
+                                    int from,
+                                    int to) {
+    if (to - from == 1) {
+      return factors.get(from);
+    }
+    final int middle = (from + to) >>> 1;
+    return product(factors, from, middle)
+        .multiply(product(factors, middle, to));
+  }
+}
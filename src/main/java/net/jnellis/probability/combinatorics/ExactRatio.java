@@ -0,0 +1,85 @@
+/*
+ * ExactRatio.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.combinatorics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Objects;
+
+/**
+ * A non-negative ratio of integers in lowest terms, such as an exact
+ * hypergeometric probability.
+ */
+public final class ExactRatio {
+
+  private final BigInteger numerator;
+  private final BigInteger denominator;
+
+  /**
+   * @param numerator   the numerator, already coprime to the denominator
+   * @param denominator the positive denominator
+   */
+  ExactRatio(BigInteger numerator, BigInteger denominator) {
+    this.numerator = numerator;
+    this.denominator = denominator;
+  }
+
+  /**
+   * @return the numerator, coprime to the denominator.
+   */
+  public BigInteger getNumerator() {
+    return numerator;
+  }
+
+  /**
+   * @return the positive denominator.
+   */
+  public BigInteger getDenominator() {
+    return denominator;
+  }
+
+  /**
+   * @return the ratio rounded to the nearest double, including subnormal
+   * values.
+   */
+  public double doubleValue() {
+    if (numerator.signum() == 0) {
+      return 0.0;
+    }
+    // 34 significant digits round again to the nearest double but for
+    // the rarest near ties.
+    return new BigDecimal(numerator)
+        .divide(new BigDecimal(denominator), MathContext.DECIMAL128)
+        .doubleValue();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ExactRatio)) {
+      return false;
+    }
+    ExactRatio ratio = (ExactRatio) o;
+    return numerator.equals(ratio.numerator)
+        && denominator.equals(ratio.denominator);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(numerator, denominator);
+  }
+
+  @Override
+  public String toString() {
+    return numerator + "/" + denominator;
+  }
+}
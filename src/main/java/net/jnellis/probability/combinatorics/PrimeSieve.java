@@ -0,0 +1,234 @@
+/*
+ * PrimeSieve.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.combinatorics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The primes up to a limit that grows as larger primes are asked for.
+ * <p>
+ * The primes found so far are an immutable array published through a
+ * volatile field, so reads never lock. Growing the sieve is synchronized and
+ * at least doubles the limit, sieving only the new segment with the primes
+ * already known, so a sequence of growing requests costs about as much as
+ * sieving the largest once. {@link #isPrime(int)} of a number beyond both the
+ * sieve and {@link #SIEVE_BOUND} is a deterministic Miller-Rabin test
+ * rather than a sieve up to the number.
+ * <pre>
+ * PrimeSieve sieve = PrimeSieve.shared();
+ * int count = sieve.count(1000000); // 78498
+ * </pre>
+ */
+public final class PrimeSieve {
+
+  private static final int INITIAL_LIMIT = 1024;
+
+  /**
+   * The largest number {@link #isPrime(int)} grows the sieve to reach.
+   */
+  public static final int SIEVE_BOUND = 1 << 20;
+
+  // Miller-Rabin with these bases is exact below 4,759,123,141.
+  private static final int[] WITNESSES = {2, 7, 61};
+
+  private static final PrimeSieve SHARED = new PrimeSieve();
+
+  /**
+   * The primes up to and including the limit, never modified once
+   * published.
+   */
+  private static final class Primes {
+    final int[] primes;
+    final int limit;
+
+    Primes(int[] primes, int limit) {
+      this.primes = primes;
+      this.limit = limit;
+    }
+  }
+
+  private volatile Primes primes = new Primes(new int[0], 1);
+
+  /**
+   * @return the sieve shared by the whole process.
+   */
+  public static PrimeSieve shared() {
+    return SHARED;
+  }
+
+  /**
+   * @param number a number
+   * @return true if the number is prime.
+   */
+  public boolean isPrime(int number) {
+    if (number < 2) {
+      return false;
+    }
+    final Primes known = primes;
+    if (number <= known.limit) {
+      return Arrays.binarySearch(known.primes, number) >= 0;
+    }
+    if (number <= SIEVE_BOUND) {
+      return Arrays.binarySearch(grow(number).primes, number) >= 0;
+    }
+    return millerRabin(number);
+  }
+
+  /**
+   * Deterministic for every int with the bases 2, 7 and 61.
+   */
+  static boolean millerRabin(int number) {
+    if (number < 2) {
+      return false;
+    }
+    if ((number & 1) == 0) {
+      return number == 2;
+    }
+    final long n = number;
+    int shift = Long.numberOfTrailingZeros(n - 1);
+    final long odd = (n - 1) >>> shift;
+    witnesses:
+    for (int witness : WITNESSES) {
+      if (witness % n == 0) {
+        continue;
+      }
+      long x = powMod(witness, odd, n);
+      if (x == 1 || x == n - 1) {
+        continue;
+      }
+      for (int i = 1; i < shift; i++) {
+        x = x * x % n;
+        if (x == n - 1) {
+          continue witnesses;
+        }
+      }
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * base<sup>exponent</sup> mod a modulus below 2<sup>31</sup>, so products
+   * fit in a long.
+   */
+  private static long powMod(long base, long exponent, long modulus) {
+    long result = 1L;
+    base %= modulus;
+    for (; exponent > 0; exponent >>>= 1) {
+      if ((exponent & 1) == 1) {
+        result = result * base % modulus;
+      }
+      base = base * base % modulus;
+    }
+    return result;
+  }
+
+  /**
+   * The prime counting function, &#960;(n).
+   *
+   * @param number n
+   * @return the number of primes no larger than n.
+   */
+  public int count(int number) {
+    if (number < 2) {
+      return 0;
+    }
+    final int[] known = primesThrough(number);
+    final int index = Arrays.binarySearch(known, number);
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  /**
+   * @param number n
+   * @return a copy of the primes no larger than n, in order.
+   */
+  public int[] primes(int number) {
+    return Arrays.copyOf(primesThrough(number), count(number));
+  }
+
+  /**
+   * @return the largest number the sieve has reached so far.
+   */
+  public int getLimit() {
+    return primes.limit;
+  }
+
+  /**
+   * The primes known so far, which include every prime no larger than the
+   * number. The array is shared and must not be modified.
+   *
+   * @param number n
+   * @return the primes up to at least n, in order.
+   */
+  int[] primesThrough(int number) {
+    final Primes known = primes;
+    if (number <= known.limit) {
+      return known.primes;
+    }
+    return grow(number).primes;
+  }
+
+  private synchronized Primes grow(int number) {
+    Primes known = primes;
+    if (number <= known.limit) {
+      return known;
+    }
+    final int limit = (int) Long.min(Integer.MAX_VALUE,
+                                     Long.max(number,
+                                              Long.max(INITIAL_LIMIT,
+                                                       2L * known.limit)));
+    // sieving up to the limit needs the primes up to its square root, a
+    // sieve that doesn't reach it yet starts over from two.
+    if ((long) known.limit * known.limit < limit) {
+      known = new Primes(new int[0], 1);
+    }
+    final int start = known.limit + 1;
+    final BitSet composite = new BitSet(limit - start + 1);
+    for (int prime : known.primes) {
+      if ((long) prime * prime > limit) {
+        break;
+      }
+      cross(composite, start, limit, prime);
+    }
+    // only a sieve from two finds its own sieving primes.
+    for (int candidate = start;
+         (long) candidate * candidate <= limit;
+         candidate++) {
+      if (!composite.get(candidate - start)) {
+        cross(composite, start, limit, candidate);
+      }
+    }
+    final int[] found = Arrays.copyOf(
+        known.primes,
+        known.primes.length + limit - start + 1 - composite.cardinality());
+    int size = known.primes.length;
+    // a long candidate, an int would overflow at a limit of MAX_VALUE.
+    for (long candidate = start; candidate <= limit; candidate++) {
+      if (!composite.get((int) (candidate - start))) {
+        found[size++] = (int) candidate;
+      }
+    }
+    known = new Primes(found, limit);
+    primes = known;
+    return known;
+  }
+
+  /**
+   * Marks the multiples of a prime in the segment, from its square.
+   */
+  private static void cross(BitSet composite, int start, int limit,
+                            int prime) {
+    long multiple = Long.max((long) prime * prime,
+                             (start + prime - 1L) / prime * prime);
+    for (; multiple <= limit; multiple += prime) {
+      composite.set((int) (multiple - start));
+    }
+  }
+}
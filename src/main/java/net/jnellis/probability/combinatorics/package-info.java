@@ -0,0 +1,15 @@
+/*
+ * package-info.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+/**
+ * Exact combinatorics, binomial coefficients and hypergeometric
+ * probabilities as integers and ratios of integers, built from the prime
+ * factorizations of factorials. These are slower than the floating point
+ * probabilities of the probability package and serve as their reference.
+ */
+package net.jnellis.probability.combinatorics;
@@ -0,0 +1,195 @@
+/*
+ * CountHistogram.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.fitting;
+
+import net.jnellis.probability.EmpiricalDistribution;
+
+import java.util.IntSummaryStatistics;
+import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * The number of times each value was observed, which is a sufficient
+ * statistic for every distribution here, so a fit costs one pass over the
+ * distinct values however many observations there were.
+ * <pre>
+ * CountHistogram data = CountHistogram.of(observations);
+ * Poisson fitted = MaximumLikelihood.poisson(lessThanOrEqual, data);
+ * </pre>
+ */
+public final class CountHistogram {
+
+  private final int minimum;
+  // counts[i] is the number of observations of minimum + i.
+  private final long[] counts;
+  private final long total;
+  private final double mean;
+  private final double variance;
+
+  private CountHistogram(int minimum, long[] counts) {
+    this.minimum = minimum;
+    this.counts = counts;
+    long total = 0L;
+    double sum = 0.0;
+    for (int i = 0; i < counts.length; i++) {
+      total += counts[i];
+      sum += (double) counts[i] * i;
+    }
+    if (total == 0L) {
+      throw new IllegalArgumentException("There are no observations.");
+    }
+    // moments about the minimum, which keeps them exact for large values.
+    final double shiftedMean = sum / total;
+    double squares = 0.0;
+    for (int i = 0; i < counts.length; i++) {
+      double deviation = i - shiftedMean;
+      squares += counts[i] * deviation * deviation;
+    }
+    this.total = total;
+    this.mean = minimum + shiftedMean;
+    this.variance = squares / total;
+  }
+
+  /**
+   * Counts the observations in parallel.
+   *
+   * @param observations non-negative values
+   * @return their histogram
+   * @throws IllegalArgumentException if there are no observations or one is
+   *                                  negative.
+   */
+  public static CountHistogram of(int... observations) {
+    Objects.requireNonNull(observations, "observations can't be null.");
+    if (observations.length == 0) {
+      throw new IllegalArgumentException("There are no observations.");
+    }
+    final IntSummaryStatistics range =
+        IntStream.of(observations).parallel().summaryStatistics();
+    if (range.getMin() < 0) {
+      throw new IllegalArgumentException("Observations can't be negative.");
+    }
+    final int minimum = range.getMin();
+    final int width = range.getMax() - minimum + 1;
+    final long[] counts = IntStream.of(observations)
+                                   .parallel()
+                                   .collect(() -> new long[width],
+                                            (histogram, y) ->
+                                                histogram[y - minimum]++,
+                                            CountHistogram::merge);
+    return new CountHistogram(minimum, counts);
+  }
+
+  /**
+   * @param counts the number of observations of each value, indexed by the
+   *               value.
+   * @return the histogram of the counts
+   * @throws IllegalArgumentException if there are no observations or a
+   *                                  count is negative.
+   */
+  public static CountHistogram fromCounts(long[] counts) {
+    Objects.requireNonNull(counts, "counts can't be null.");
+    int first = 0;
+    int last = counts.length - 1;
+    for (long count : counts) {
+      if (count < 0) {
+        throw new IllegalArgumentException("Counts can't be negative.");
+      }
+    }
+    while (first <= last && counts[first] == 0L) {
+      first++;
+    }
+    while (last >= first && counts[last] == 0L) {
+      last--;
+    }
+    if (first > last) {
+      throw new IllegalArgumentException("There are no observations.");
+    }
+    long[] trimmed = new long[last - first + 1];
+    System.arraycopy(counts, first, trimmed, 0, trimmed.length);
+    return new CountHistogram(first, trimmed);
+  }
+
+  /**
+   * @param observed an empirical distribution
+   * @return the histogram of its observations
+   */
+  public static CountHistogram of(EmpiricalDistribution observed) {
+    Objects.requireNonNull(observed, "observed can't be null.");
+    long[] counts = new long[observed.getLargestValue() + 1];
+    for (int y = 0; y < counts.length; y++) {
+      counts[y] = observed.getCount(y);
+    }
+    return fromCounts(counts);
+  }
+
+  private static void merge(long[] left, long[] right) {
+    for (int i = 0; i < left.length; i++) {
+      left[i] += right[i];
+    }
+  }
+
+  /**
+   * @return the smallest value observed.
+   */
+  public int getMinimum() {
+    return minimum;
+  }
+
+  /**
+   * @return the largest value observed.
+   */
+  public int getMaximum() {
+    return minimum + counts.length - 1;
+  }
+
+  /**
+   * @param value a value
+   * @return the number of times the value was observed.
+   */
+  public long getCount(int value) {
+    int i = value - minimum;
+    return i < 0 || i >= counts.length ? 0L : counts[i];
+  }
+
+  /**
+   * @return the number of observations.
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * @return the mean of the observations.
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * @return the variance of the observations, dividing by their number.
+   */
+  public double getVariance() {
+    return variance;
+  }
+
+  /**
+   * @return the sum over the observations of the function, evaluated once
+   * per distinct value.
+   */
+  double sum(IntToDoubleFunction function) {
+    double sum = 0.0;
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] != 0L) {
+        sum += counts[i] * function.applyAsDouble(minimum + i);
+      }
+    }
+    return sum;
+  }
+}
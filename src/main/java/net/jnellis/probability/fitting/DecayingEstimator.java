@@ -0,0 +1,174 @@
+/*
+ * DecayingEstimator.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.fitting;
+
+import java.util.Objects;
+
+/**
+ * An online estimator whose observations lose half their weight every
+ * half life, so its estimates follow a drifting stream. Observations carry
+ * a time on any clock the caller likes, in the units of the half life.
+ * <p>
+ * Weights are kept by forward decay: an observation at time t adds
+ * exp(rate * (t - landmark)) to the sums, which never have to be decayed as
+ * time passes, and the landmark is only moved forward, rescaling the sums,
+ * when the weights get large. So observations may arrive out of order and
+ * estimators of separate partitions merge exactly. The sums are updated
+ * together under the estimator's lock.
+ * <pre>
+ * DecayingEstimator arrivals = new DecayingEstimator(60.0);
+ * arrivals.add(eventsThisSecond, secondsSinceStart);
+ * Poisson recent = arrivals.poisson(lessThanOrEqual);
+ * </pre>
+ */
+public final class DecayingEstimator extends OnlineEstimator {
+
+  /**
+   * The largest exponent of a weight before the landmark moves.
+   */
+  private static final double MAX_EXPONENT = 500.0;
+
+  private final double halfLife;
+  private final double rate;
+  private double landmark;
+  private double latest = Double.NEGATIVE_INFINITY;
+  private double weight;
+  private double sum;
+  private double sumOfSquares;
+
+  /**
+   * @param halfLife the time over which an observation loses half its weight
+   */
+  public DecayingEstimator(double halfLife) {
+    assert halfLife > 0.0 && Double.isFinite(halfLife);
+    this.halfLife = halfLife;
+    this.rate = Math.log(2.0) / halfLife;
+  }
+
+  /**
+   * @return the time over which an observation loses half its weight.
+   */
+  public double getHalfLife() {
+    return halfLife;
+  }
+
+  /**
+   * Adds an observation.
+   *
+   * @param value a non-negative observation
+   * @param time  the time of the observation
+   */
+  public void add(int value, double time) {
+    add(value, 1L, time);
+  }
+
+  /**
+   * Adds a number of identical observations.
+   *
+   * @param value a non-negative observation
+   * @param times the number of times it was observed
+   * @param time  the time of the observations
+   */
+  public synchronized void add(int value, long times, double time) {
+    assert value >= 0 && times >= 0 && Double.isFinite(time);
+    if (weight == 0.0 || rate * (time - landmark) > MAX_EXPONENT) {
+      moveLandmark(time);
+    }
+    final double scaled = times * Math.exp(rate * (time - landmark));
+    weight += scaled;
+    sum += scaled * value;
+    sumOfSquares += scaled * value * value;
+    latest = Math.max(latest, time);
+  }
+
+  /**
+   * Adds the observations of another estimator with the same half life,
+   * such as one of another partition of the stream.
+   *
+   * @param other another estimator, which is not changed.
+   * @throws IllegalArgumentException if the half lives differ.
+   */
+  public void merge(DecayingEstimator other) {
+    Objects.requireNonNull(other, "other can't be null.");
+    if (other.halfLife != halfLife) {
+      throw new IllegalArgumentException(
+          "Only estimators with the same half life can merge.");
+    }
+    final double otherLandmark;
+    final double otherLatest;
+    final double otherWeight;
+    final double otherSum;
+    final double otherSumOfSquares;
+    // copied under the other's lock so the two locks are never held at once.
+    synchronized (other) {
+      otherLandmark = other.landmark;
+      otherLatest = other.latest;
+      otherWeight = other.weight;
+      otherSum = other.sum;
+      otherSumOfSquares = other.sumOfSquares;
+    }
+    if (otherWeight == 0.0) {
+      return;
+    }
+    synchronized (this) {
+      if (weight == 0.0 || otherLandmark > landmark) {
+        moveLandmark(otherLandmark);
+      }
+      final double scale = Math.exp(rate * (otherLandmark - landmark));
+      weight += otherWeight * scale;
+      sum += otherSum * scale;
+      sumOfSquares += otherSumOfSquares * scale;
+      latest = Math.max(latest, otherLatest);
+      limitExponent();
+    }
+  }
+
+  private void limitExponent() {
+    if (rate * (latest - landmark) > MAX_EXPONENT) {
+      moveLandmark(latest);
+    }
+  }
+
+  private void moveLandmark(double to) {
+    if (weight != 0.0) {
+      final double scale = Math.exp(rate * (landmark - to));
+      weight *= scale;
+      sum *= scale;
+      sumOfSquares *= scale;
+    }
+    landmark = to;
+  }
+
+  /**
+   * @return the decayed weight of the observations as of the latest
+   * observation.
+   */
+  @Override
+  public synchronized double getWeight() {
+    return weight == 0.0 ? 0.0
+                         : weight * Math.exp(rate * (landmark - latest));
+  }
+
+  @Override
+  public synchronized double getMean() {
+    if (weight == 0.0) {
+      throw noObservations();
+    }
+    return sum / weight;
+  }
+
+  @Override
+  public synchronized double getVariance() {
+    if (weight == 0.0) {
+      throw noObservations();
+    }
+    final double mean = sum / weight;
+    return Math.max(0.0, sumOfSquares / weight - mean * mean);
+  }
+}
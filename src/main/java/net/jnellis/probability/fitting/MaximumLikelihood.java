@@ -0,0 +1,258 @@
+/*
+ * MaximumLikelihood.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.fitting;
+
+import net.jnellis.probability.Binomial;
+import net.jnellis.probability.CumulativeOperation;
+import net.jnellis.probability.DiscreteProbability;
+import net.jnellis.probability.Geometric;
+import net.jnellis.probability.HyperGeometric;
+import net.jnellis.probability.NegativeBinomial;
+import net.jnellis.probability.Poisson;
+import net.jnellis.probability.SpecialFunctions;
+
+import java.util.Objects;
+
+/**
+ * Maximum likelihood estimates of the distributions' parameters from a
+ * {@link CountHistogram}. The Poisson, binomial and geometric estimates are
+ * closed form in the mean. The negative binomial's number of successes
+ * solves its profile score equation, written with the digamma function, by
+ * Newton's method with the trigamma function, and the hypergeometric's
+ * number of success states climbs its unimodal likelihood ratio.
+ * <pre>
+ * CountHistogram data = CountHistogram.of(observations);
+ * NegativeBinomial fitted = MaximumLikelihood.negativeBinomial(equal, data);
+ * </pre>
+ */
+public final class MaximumLikelihood {
+
+  private static final int MAX_ITERATIONS = 200;
+  private static final double RELATIVE_TOLERANCE = 1.0E-12;
+
+  private MaximumLikelihood() {}
+
+  /**
+   * @param rvOperation The cumulative operation on the distribution
+   * @param data        the observations
+   * @return the Poisson distribution whose lambda is the mean.
+   */
+  public static Poisson poisson(CumulativeOperation rvOperation,
+                                CountHistogram data) {
+    Objects.requireNonNull(data, "data can't be null.");
+    return new Poisson(rvOperation, data.getMean());
+  }
+
+  /**
+   * @param rvOperation The cumulative operation on the distribution
+   * @param trials      the known number of trials
+   * @param data        the observed numbers of successes
+   * @return the binomial distribution whose chance of success is the mean
+   * over the trials.
+   * @throws IllegalArgumentException if an observation is more than the
+   *                                  trials.
+   */
+  public static Binomial binomial(CumulativeOperation rvOperation,
+                                  int trials,
+                                  CountHistogram data) {
+    Objects.requireNonNull(data, "data can't be null.");
+    if (data.getMaximum() > trials) {
+      throw new IllegalArgumentException(
+          "An observation is more than the " + trials + " trials.");
+    }
+    return new Binomial(rvOperation, trials,
+                        Math.min(1.0, data.getMean() / trials));
+  }
+
+  /**
+   * @param rvOperation The cumulative operation on the distribution
+   * @param data        the observed trials until the first success
+   * @return the geometric distribution whose chance of success is the
+   * reciprocal of the mean.
+   * @throws IllegalArgumentException if an observation is zero.
+   */
+  public static Geometric geometric(CumulativeOperation rvOperation,
+                                    CountHistogram data) {
+    Objects.requireNonNull(data, "data can't be null.");
+    requireTrials(data);
+    return new Geometric(rvOperation, 1.0 / data.getMean());
+  }
+
+  /**
+   * The negative binomial whose number of successes k is the better of the
+   * two whole numbers either side of {@link #negativeBinomialSuccesses}, with
+   * the chance of success k / mean that maximizes the likelihood for that k.
+   *
+   * @param rvOperation The cumulative operation on the distribution
+   * @param data        the observed trials until the kth success
+   * @return the fitted distribution
+   * @throws IllegalArgumentException if an observation is zero.
+   */
+  public static NegativeBinomial negativeBinomial(
+      CumulativeOperation rvOperation,
+      CountHistogram data) {
+    final double estimate = negativeBinomialSuccesses(data);
+    int successes = (int) Math.floor(estimate);
+    if (successes < estimate
+        && profileLogLikelihood(data, successes + 1)
+        > profileLogLikelihood(data, successes)) {
+      successes++;
+    }
+    return new NegativeBinomial(rvOperation, successes,
+                                Math.min(1.0, successes / data.getMean()));
+  }
+
+  /**
+   * The real valued maximum likelihood estimate of the negative binomial's
+   * number of successes, its dispersion. Every observation is a number of
+   * trials of at least k, so the estimate is between one and the smallest
+   * observation, and with the chance of success at k / mean it is where the
+   * profile score
+   * <pre>
+   * sum(digamma(y - k + 1) - digamma(k)) + n * log(k / (mean - k))
+   * </pre>
+   * is zero.
+   *
+   * @param data the observed trials until the kth success
+   * @return the estimate of k
+   * @throws IllegalArgumentException if an observation is zero.
+   */
+  public static double negativeBinomialSuccesses(CountHistogram data) {
+    Objects.requireNonNull(data, "data can't be null.");
+    requireTrials(data);
+    double low = 1.0;
+    double high = data.getMinimum();
+    if (data.getVariance() == 0.0 || score(data, high) >= 0.0) {
+      return high;
+    }
+    if (score(data, low) <= 0.0) {
+      return low;
+    }
+    // start from the method of moments, var / mean = q / p.
+    final double mean = data.getMean();
+    double k = mean * mean / (mean + data.getVariance());
+    k = Math.max(low, Math.min(high, k));
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      final double score = score(data, k);
+      if (score > 0.0) {
+        low = k;
+      } else {
+        high = k;
+      }
+      double next = k - score / scoreDerivative(data, k);
+      if (!(next > low && next < high)) {
+        next = 0.5 * (low + high);
+      }
+      if (Math.abs(next - k) <= RELATIVE_TOLERANCE * k
+          || high - low <= RELATIVE_TOLERANCE * k) {
+        return next;
+      }
+      k = next;
+    }
+    return k;
+  }
+
+  private static double score(CountHistogram data, double k) {
+    final double digammaK = SpecialFunctions.digamma(k);
+    final double mean = data.getMean();
+    return data.sum(y -> SpecialFunctions.digamma(y - k + 1.0) - digammaK)
+        + data.getTotal() * Math.log(k / (mean - k));
+  }
+
+  private static double scoreDerivative(CountHistogram data, double k) {
+    final double trigammaK = SpecialFunctions.trigamma(k);
+    final double mean = data.getMean();
+    return -data.sum(y -> SpecialFunctions.trigamma(y - k + 1.0) + trigammaK)
+        + data.getTotal() * (1.0 / k + 1.0 / (mean - k));
+  }
+
+  /**
+   * The log likelihood with k successes and the chance of success k / mean,
+   * where each density is p times the binomial density of k - 1 successes in
+   * y - 1 trials.
+   */
+  private static double profileLogLikelihood(CountHistogram data, int k) {
+    final double p = Math.min(1.0, k / data.getMean());
+    final double q = 1.0 - p;
+    return data.sum(y -> Math.log(p) + SpecialFunctions.logBinomialDensity(
+        k - 1, y - 1, p, q));
+  }
+
+  /**
+   * The number of success states r with the largest likelihood. Each
+   * observation's likelihood ratio of r + 1 to r success states falls as r
+   * grows, so the likelihood is climbed from the method of moments estimate.
+   *
+   * @param rvOperation    The cumulative operation on the distribution
+   * @param populationSize the known population size N
+   * @param sampleSize     the known sample size n
+   * @param data           the observed successes in each sample
+   * @return the fitted distribution
+   * @throws IllegalArgumentException if the observations are impossible for
+   *                                  the population and sample sizes.
+   */
+  public static HyperGeometric hyperGeometric(CumulativeOperation rvOperation,
+                                              int populationSize,
+                                              int sampleSize,
+                                              CountHistogram data) {
+    Objects.requireNonNull(data, "data can't be null.");
+    assert sampleSize > 0 && sampleSize <= populationSize;
+    // every observation needs y <= r and n - y <= N - r.
+    final int lowest = data.getMaximum();
+    final int highest = populationSize - sampleSize + data.getMinimum();
+    if (data.getMaximum() > sampleSize || lowest > highest) {
+      throw new IllegalArgumentException(
+          "The observations are impossible with population size "
+              + populationSize + " and sample size " + sampleSize);
+    }
+    long r = Math.round(data.getMean() * populationSize / sampleSize);
+    r = Math.max(lowest, Math.min(highest, r));
+    while (r < highest
+        && logRatio(data, populationSize, sampleSize, r) > 0.0) {
+      r++;
+    }
+    while (r > lowest
+        && logRatio(data, populationSize, sampleSize, r - 1) < 0.0) {
+      r--;
+    }
+    return new HyperGeometric(rvOperation, populationSize, sampleSize,
+                              (int) r);
+  }
+
+  /**
+   * The log of the likelihood ratio of r + 1 to r success states.
+   */
+  private static double logRatio(CountHistogram data,
+                                 double populationSize,
+                                 double sampleSize,
+                                 double r) {
+    return data.sum(y -> -Math.log1p(-y / (r + 1.0))
+        + Math.log1p((y - sampleSize) / (populationSize - r)));
+  }
+
+  /**
+   * @param distribution a distribution
+   * @param data         the observations
+   * @return the log likelihood of the observations, negative infinity if
+   * one is impossible.
+   */
+  public static double logLikelihood(DiscreteProbability distribution,
+                                     CountHistogram data) {
+    Objects.requireNonNull(distribution, "distribution can't be null.");
+    Objects.requireNonNull(data, "data can't be null.");
+    return data.sum(y -> Math.log(distribution.computeResult(y)));
+  }
+
+  private static void requireTrials(CountHistogram data) {
+    if (data.getMinimum() < 1) {
+      throw new IllegalArgumentException(
+          "Observations are numbers of trials, which are at least one.");
+    }
+  }
+}
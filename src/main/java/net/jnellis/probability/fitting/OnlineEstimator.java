@@ -0,0 +1,92 @@
+/*
+ * OnlineEstimator.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.fitting;
+
+import net.jnellis.probability.Binomial;
+import net.jnellis.probability.CumulativeOperation;
+import net.jnellis.probability.Geometric;
+import net.jnellis.probability.Poisson;
+
+/**
+ * Estimates from a stream of observations that keeps a constant number of
+ * running sums instead of the observations. Every update is O(1) and
+ * estimators of separate partitions of a stream merge into the estimator
+ * of the whole. The maximum likelihood estimates of the Poisson, geometric
+ * and binomial distributions depend on the observations only through their
+ * mean, so a fresh distribution can be made from the sums at any time.
+ */
+public abstract class OnlineEstimator {
+
+  OnlineEstimator() {}
+
+  /**
+   * @return the weight of the observations, their number when they are not
+   * decayed.
+   */
+  public abstract double getWeight();
+
+  /**
+   * @return the weighted mean of the observations.
+   * @throws IllegalStateException if there are no observations.
+   */
+  public abstract double getMean();
+
+  /**
+   * @return the weighted variance of the observations, dividing by their
+   * weight.
+   * @throws IllegalStateException if there are no observations.
+   */
+  public abstract double getVariance();
+
+  /**
+   * @param rvOperation The cumulative operation on the distribution
+   * @return the Poisson distribution whose lambda is the mean.
+   * @throws IllegalStateException if there are no observations.
+   */
+  public Poisson poisson(CumulativeOperation rvOperation) {
+    return new Poisson(rvOperation, getMean());
+  }
+
+  /**
+   * @param rvOperation The cumulative operation on the distribution
+   * @return the geometric distribution whose chance of success is the
+   * reciprocal of the mean number of trials.
+   * @throws IllegalStateException if there are no observations or the mean
+   *                               is less than one trial.
+   */
+  public Geometric geometric(CumulativeOperation rvOperation) {
+    final double mean = getMean();
+    if (mean < 1.0) {
+      throw new IllegalStateException(
+          "The mean number of trials is less than one.");
+    }
+    return new Geometric(rvOperation, 1.0 / mean);
+  }
+
+  /**
+   * @param rvOperation The cumulative operation on the distribution
+   * @param trials      the known number of trials
+   * @return the binomial distribution whose chance of success is the mean
+   * over the trials.
+   * @throws IllegalStateException if there are no observations or the mean
+   *                               is more than the trials.
+   */
+  public Binomial binomial(CumulativeOperation rvOperation, int trials) {
+    final double mean = getMean();
+    if (mean > trials) {
+      throw new IllegalStateException(
+          "The mean is more than the " + trials + " trials.");
+    }
+    return new Binomial(rvOperation, trials, mean / trials);
+  }
+
+  static IllegalStateException noObservations() {
+    return new IllegalStateException("There are no observations.");
+  }
+}
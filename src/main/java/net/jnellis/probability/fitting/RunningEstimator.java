@@ -0,0 +1,106 @@
+/*
+ * RunningEstimator.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.fitting;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An online estimator weighing every observation equally. The count and the
+ * sum of the observations are exact, and the sums are adders so threads
+ * updating at once don't contend.
+ * <p>
+ * Reads don't lock out updates, so an estimate taken during updates
+ * includes each of them wholly, partly or not at all.
+ * <pre>
+ * RunningEstimator arrivals = new RunningEstimator();
+ * arrivals.add(eventsThisSecond);
+ * Poisson current = arrivals.poisson(lessThanOrEqual);
+ * </pre>
+ */
+public final class RunningEstimator extends OnlineEstimator {
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final DoubleAdder sumOfSquares = new DoubleAdder();
+
+  /**
+   * Adds an observation.
+   *
+   * @param value a non-negative observation
+   */
+  public void add(int value) {
+    add(value, 1L);
+  }
+
+  /**
+   * Adds a number of identical observations.
+   *
+   * @param value a non-negative observation
+   * @param times the number of times it was observed
+   */
+  public void add(int value, long times) {
+    assert value >= 0 && times >= 0;
+    count.add(times);
+    sum.add(value * times);
+    sumOfSquares.add((double) value * value * times);
+  }
+
+  /**
+   * Adds the observations of another estimator, such as one of another
+   * partition of the stream.
+   *
+   * @param other another estimator, which is not changed.
+   */
+  public void merge(RunningEstimator other) {
+    Objects.requireNonNull(other, "other can't be null.");
+    count.add(other.count.sum());
+    sum.add(other.sum.sum());
+    sumOfSquares.add(other.sumOfSquares.sum());
+  }
+
+  /**
+   * @return the number of observations.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return the sum of the observations.
+   */
+  public long getSum() {
+    return sum.sum();
+  }
+
+  @Override
+  public double getWeight() {
+    return count.sum();
+  }
+
+  @Override
+  public double getMean() {
+    final long n = count.sum();
+    if (n == 0L) {
+      throw noObservations();
+    }
+    return (double) sum.sum() / n;
+  }
+
+  @Override
+  public double getVariance() {
+    final long n = count.sum();
+    if (n == 0L) {
+      throw noObservations();
+    }
+    final double mean = (double) sum.sum() / n;
+    return Math.max(0.0, sumOfSquares.sum() / n - mean * mean);
+  }
+}
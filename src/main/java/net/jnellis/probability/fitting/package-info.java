@@ -0,0 +1,14 @@
+/*
+ * package-info.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+/**
+ * Maximum likelihood fitting of the distributions to observed counts. The
+ * observations are reduced to a histogram in one parallel pass and every
+ * fit works on the histogram's distinct values.
+ */
+package net.jnellis.probability.fitting;
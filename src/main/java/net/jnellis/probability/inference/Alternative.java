@@ -0,0 +1,29 @@
+/*
+ * Alternative.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference;
+
+/**
+ * The alternative hypothesis of a test, which decides which tail of the null
+ * distribution counts as evidence against it.
+ */
+public enum Alternative {
+  /**
+   * The parameter is less than its null value, p = P(Y &lt;= observed).
+   */
+  less,
+  /**
+   * The parameter is greater than its null value, p = P(Y &gt;= observed).
+   */
+  greater,
+  /**
+   * The parameter differs from its null value, p is the probability of every
+   * outcome no more likely than the observed one.
+   */
+  twoSided
+}
@@ -0,0 +1,51 @@
+/*
+ * Cells.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Orders the cells of a batch so neighbouring cells, which share work, are
+ * handled together.
+ */
+final class Cells {
+
+  private Cells() {}
+
+  /**
+   * The cells in order of their group and then their value.
+   */
+  static Integer[] sortedOrder(int[] groups, int[] values) {
+    Integer[] order = new Integer[values.length];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, Comparator.<Integer>comparingInt(i -> groups[i])
+                                 .thenComparingInt(i -> values[i]));
+    return order;
+  }
+
+  /**
+   * The ranges of sorted cells that share a group, as {start, end}.
+   */
+  static Stream<int[]> runs(Integer[] order, int[] groups) {
+    return IntStream.range(0, order.length)
+                    .filter(i -> i == 0
+                        || groups[order[i]] != groups[order[i - 1]])
+                    .mapToObj(start -> {
+                      int end = start + 1;
+                      while (end < order.length
+                          && groups[order[end]] == groups[order[start]]) {
+                        end++;
+                      }
+                      return new int[]{start, end};
+                    });
+  }
+}
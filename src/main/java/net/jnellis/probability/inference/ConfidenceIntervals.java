@@ -0,0 +1,226 @@
+/*
+ * ConfidenceIntervals.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference;
+
+import net.jnellis.probability.SpecialFunctions;
+
+/**
+ * Exact confidence intervals found by inverting the cumulative distribution
+ * functions of the binomial and Poisson distributions.
+ * <ul>
+ * <li>Clopper-Pearson for a binomial chance of success, the p where
+ * P(Y &gt;= x) and P(Y &lt;= x) are each half of one minus the
+ * confidence.</li>
+ * <li>Garwood for a Poisson mean, the same for the Poisson
+ * distribution.</li>
+ * </ul>
+ * Each bound is a root of a closed form cumulative distribution, the
+ * regularized incomplete beta or gamma function, found by Brent's method.
+ * The batch methods sort their cells so each bound starts from the bound of
+ * the neighbouring cell, which usually brackets the root at once.
+ * <pre>
+ * double[] interval = ConfidenceIntervals.clopperPearson(5, 10, 0.95);
+ * // {0.187086..., 0.812914...}
+ * </pre>
+ */
+public final class ConfidenceIntervals {
+
+  private ConfidenceIntervals() {}
+
+  /**
+   * The Clopper-Pearson interval for a binomial chance of success.
+   *
+   * @param successes  the observed number of successes
+   * @param trials     the number of trials
+   * @param confidence the confidence level, for example 0.95
+   * @return {lower, upper}
+   */
+  public static double[] clopperPearson(int successes,
+                                        int trials,
+                                        double confidence) {
+    checkConfidence(confidence);
+    assert 0 <= successes && successes <= trials;
+    final double tail = (1.0 - confidence) / 2.0;
+    final double guess = (double) successes / trials;
+    final double step = binomialStep(successes, trials);
+    return new double[]{
+        clopperPearsonLower(successes, trials, tail, guess, step),
+        clopperPearsonUpper(successes, trials, tail, guess, step)};
+  }
+
+  /**
+   * Clopper-Pearson intervals for many cells.
+   *
+   * @param successes  the observed number of successes of each cell
+   * @param trials     the number of trials of each cell
+   * @param confidence the confidence level, for example 0.95
+   * @return {lower, upper} for each cell
+   */
+  public static double[][] clopperPearson(int[] successes,
+                                          int[] trials,
+                                          double confidence) {
+    checkConfidence(confidence);
+    assert successes.length == trials.length;
+    final double tail = (1.0 - confidence) / 2.0;
+    final double[][] intervals = new double[successes.length][];
+    // runs of the same number of trials, in order of successes, are solved
+    // in sequence so each starts from its neighbour's bounds.
+    Integer[] order = Cells.sortedOrder(trials, successes);
+    Cells.runs(order, trials).parallel().forEach(run -> {
+      double[] previous = null;
+      int previousSuccesses = -1;
+      for (int i = run[0]; i < run[1]; i++) {
+        int cell = order[i];
+        int x = successes[cell];
+        int n = trials[cell];
+        assert 0 <= x && x <= n;
+        if (x == previousSuccesses) {
+          intervals[cell] = previous.clone();
+          continue;
+        }
+        double step = binomialStep(x, n);
+        double lowerGuess = previous == null ? (double) x / n : previous[0];
+        double upperGuess = previous == null ? (double) x / n : previous[1];
+        previous = new double[]{
+            clopperPearsonLower(x, n, tail, lowerGuess, step),
+            clopperPearsonUpper(x, n, tail, upperGuess, step)};
+        previousSuccesses = x;
+        intervals[cell] = previous;
+      }
+    });
+    return intervals;
+  }
+
+  /**
+   * The Garwood interval for a Poisson mean.
+   *
+   * @param count      the observed count
+   * @param confidence the confidence level, for example 0.95
+   * @return {lower, upper}
+   */
+  public static double[] garwood(int count, double confidence) {
+    checkConfidence(confidence);
+    assert count >= 0;
+    final double tail = (1.0 - confidence) / 2.0;
+    final double step = poissonStep(count);
+    return new double[]{garwoodLower(count, tail, count, step),
+                        garwoodUpper(count, tail, count, step)};
+  }
+
+  /**
+   * Garwood intervals for many counts.
+   *
+   * @param counts     the observed count of each cell
+   * @param confidence the confidence level, for example 0.95
+   * @return {lower, upper} for each cell
+   */
+  public static double[][] garwood(int[] counts, double confidence) {
+    checkConfidence(confidence);
+    final double tail = (1.0 - confidence) / 2.0;
+    final double[][] intervals = new double[counts.length][];
+    Integer[] order = Cells.sortedOrder(new int[counts.length], counts);
+    double[] previous = null;
+    int previousCount = -1;
+    for (int cell : order) {
+      int x = counts[cell];
+      assert x >= 0;
+      if (x == previousCount) {
+        intervals[cell] = previous.clone();
+        continue;
+      }
+      double step = poissonStep(x);
+      previous = new double[]{
+          garwoodLower(x, tail, previous == null ? x : previous[0], step),
+          garwoodUpper(x, tail, previous == null ? x : previous[1], step)};
+      previousCount = x;
+      intervals[cell] = previous;
+    }
+    return intervals;
+  }
+
+  /**
+   * The p where P(Y &gt;= x) = I_p(x, n-x+1) is the tail.
+   */
+  static double clopperPearsonLower(int successes,
+                                    int trials,
+                                    double tail,
+                                    double guess,
+                                    double step) {
+    if (successes == 0) {
+      return 0.0;
+    }
+    return RootFinder.solve(
+        p -> SpecialFunctions.regularizedBeta(p, successes,
+                                              trials - successes + 1.0)
+            - tail, guess, step, 0.0, 1.0);
+  }
+
+  /**
+   * The p where P(Y &lt;= x) = 1 - I_p(x+1, n-x) is the tail.
+   */
+  static double clopperPearsonUpper(int successes,
+                                    int trials,
+                                    double tail,
+                                    double guess,
+                                    double step) {
+    if (successes == trials) {
+      return 1.0;
+    }
+    return RootFinder.solve(
+        p -> SpecialFunctions.regularizedBetaComplement(
+            p, successes + 1.0, trials - successes) - tail,
+        guess, step, 0.0, 1.0);
+  }
+
+  /**
+   * The mean where P(Y &gt;= x) = P(x, mean) is the tail.
+   */
+  static double garwoodLower(int count,
+                             double tail,
+                             double guess,
+                             double step) {
+    if (count == 0) {
+      return 0.0;
+    }
+    return RootFinder.solve(
+        mean -> SpecialFunctions.regularizedGammaP(count, mean) - tail,
+        guess, step, 0.0, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * The mean where P(Y &lt;= x) = Q(x+1, mean) is the tail.
+   */
+  static double garwoodUpper(int count,
+                             double tail,
+                             double guess,
+                             double step) {
+    return RootFinder.solve(
+        mean -> SpecialFunctions.regularizedGammaQ(count + 1.0, mean) - tail,
+        guess, step, 0.0, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * About one standard error of the estimated chance of success.
+   */
+  private static double binomialStep(int successes, int trials) {
+    return (Math.sqrt(successes + 1.0) + 1.0) / (trials + 1.0);
+  }
+
+  /**
+   * About one standard error of the estimated mean.
+   */
+  private static double poissonStep(int count) {
+    return Math.sqrt(count + 1.0);
+  }
+
+  private static void checkConfidence(double confidence) {
+    assert confidence > 0.0 && confidence < 1.0
+        : "Confidence must be in (0,1).";
+  }
+}
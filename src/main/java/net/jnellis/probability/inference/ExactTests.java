@@ -0,0 +1,346 @@
+/*
+ * ExactTests.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference;
+
+import net.jnellis.probability.Binomial;
+import net.jnellis.probability.HyperGeometric;
+import net.jnellis.probability.Poisson;
+import net.jnellis.probability.SpecialFunctions;
+import net.jnellis.probability.TabulatedDistribution;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import static net.jnellis.probability.CumulativeOperation.equal;
+
+/**
+ * Exact p-values of the binomial test, the Poisson rate tests and Fisher's
+ * exact test of a 2x2 table.
+ * <p>
+ * One-sided p-values are single cumulative probabilities, which are closed
+ * forms for the binomial and Poisson. Two-sided p-values add up every
+ * outcome no more likely than the observed one. The distributions are
+ * unimodal, so that is one tail through the observed value plus the far
+ * tail beyond where the density falls to the observed density, found by
+ * bisection on the density. As in most statistics packages a relative
+ * tolerance of 1e-7 decides ties with the observed density.
+ * <p>
+ * Fisher's test needs the hypergeometric table for the margins of the 2x2
+ * table. The batch method groups tables by their margins so each
+ * distinct set of margins is tabulated once.
+ * <pre>
+ * double p = ExactTests.binomial(7, 20, 0.5, Alternative.twoSided);
+ * double q = ExactTests.fisher(3, 1, 1, 3, Alternative.greater);
+ * </pre>
+ */
+public final class ExactTests {
+
+  /**
+   * Outcomes whose density is within this relative tolerance of the
+   * observed density count as equally likely.
+   */
+  static final double RELATIVE_TOLERANCE = 1.0E-7;
+
+  private ExactTests() {}
+
+  /**
+   * The exact binomial test of a chance of success.
+   *
+   * @param successes       the observed number of successes
+   * @param trials          the number of trials
+   * @param chanceOfSuccess the chance of success under the null hypothesis
+   * @param alternative     the alternative hypothesis
+   * @return the p-value
+   */
+  public static double binomial(int successes,
+                                int trials,
+                                double chanceOfSuccess,
+                                Alternative alternative) {
+    assert 0 <= successes && successes <= trials;
+    assert chanceOfSuccess >= 0.0 && chanceOfSuccess <= 1.0;
+    final Binomial distribution = new Binomial(equal, trials, chanceOfSuccess);
+    final double chanceOfFailure = 1.0 - chanceOfSuccess;
+    switch (Objects.requireNonNull(alternative)) {
+      case less:
+        return distribution.cumulativeProbability(successes);
+      case greater:
+        return distribution.survivalProbability(successes - 1);
+      default:
+        return twoSided(successes, 0, trials,
+                        (int) Math.min(trials,
+                                       (trials + 1.0) * chanceOfSuccess),
+                        y -> SpecialFunctions.binomialDensity(
+                            y, trials, chanceOfSuccess, chanceOfFailure),
+                        distribution::cumulativeProbability,
+                        distribution::survivalProbability);
+    }
+  }
+
+  /**
+   * Exact binomial tests of many cells.
+   *
+   * @param successes   the observed number of successes of each cell
+   * @param trials      the number of trials of each cell
+   * @param chances     the null chance of success of each cell
+   * @param alternative the alternative hypothesis
+   * @return the p-value of each cell
+   */
+  public static double[] binomial(int[] successes,
+                                  int[] trials,
+                                  double[] chances,
+                                  Alternative alternative) {
+    assert successes.length == trials.length
+        && successes.length == chances.length;
+    return IntStream.range(0, successes.length)
+                    .parallel()
+                    .mapToDouble(i -> binomial(successes[i], trials[i],
+                                               chances[i], alternative))
+                    .toArray();
+  }
+
+  /**
+   * The exact Poisson test of an observed count against its expected count
+   * under the null hypothesis, the null rate times the exposure.
+   *
+   * @param count         the observed count
+   * @param expectedCount the expected count under the null hypothesis
+   * @param alternative   the alternative hypothesis
+   * @return the p-value
+   */
+  public static double poisson(int count,
+                               double expectedCount,
+                               Alternative alternative) {
+    assert count >= 0 && expectedCount >= 0.0;
+    final Poisson distribution = new Poisson(equal, expectedCount);
+    switch (Objects.requireNonNull(alternative)) {
+      case less:
+        return distribution.cumulativeProbability(count);
+      case greater:
+        return distribution.survivalProbability(count - 1);
+      default:
+        return twoSided(count, 0, Integer.MAX_VALUE - 1,
+                        (int) Math.min(Integer.MAX_VALUE - 1, expectedCount),
+                        y -> SpecialFunctions.poissonDensity(y,
+                                                             expectedCount),
+                        distribution::cumulativeProbability,
+                        distribution::survivalProbability);
+    }
+  }
+
+  /**
+   * The exact test that two Poisson rates are equal. Given the total count,
+   * the first count is binomial with a chance of success that is the first
+   * exposure's share of the total exposure.
+   *
+   * @param count1      the first observed count
+   * @param exposure1   the first exposure, such as time or population
+   * @param count2      the second observed count
+   * @param exposure2   the second exposure
+   * @param alternative the alternative to the first rate equaling the second
+   * @return the p-value
+   */
+  public static double poissonRates(int count1,
+                                    double exposure1,
+                                    int count2,
+                                    double exposure2,
+                                    Alternative alternative) {
+    assert exposure1 > 0.0 && exposure2 > 0.0;
+    return binomial(count1, count1 + count2,
+                    exposure1 / (exposure1 + exposure2), alternative);
+  }
+
+  /**
+   * Fisher's exact test of the 2x2 table
+   * <pre>
+   *   a b
+   *   c d
+   * </pre>
+   * where, given the margins, a is hypergeometric. The alternatives are
+   * about the odds ratio, ad/bc, compared to one.
+   *
+   * @param a           the top left count
+   * @param b           the top right count
+   * @param c           the bottom left count
+   * @param d           the bottom right count
+   * @param alternative the alternative hypothesis
+   * @return the p-value
+   */
+  public static double fisher(int a,
+                              int b,
+                              int c,
+                              int d,
+                              Alternative alternative) {
+    assert a >= 0 && b >= 0 && c >= 0 && d >= 0;
+    return fisher(a, new Margins(a, b, c, d).table(), alternative);
+  }
+
+  /**
+   * Fisher's exact tests of many 2x2 tables, each as {a, b, c, d}. Tables
+   * with the same margins share one hypergeometric table.
+   *
+   * @param tables      the counts of each table
+   * @param alternative the alternative hypothesis
+   * @return the p-value of each table
+   */
+  public static double[] fisher(int[][] tables, Alternative alternative) {
+    Objects.requireNonNull(alternative);
+    final double[] results = new double[tables.length];
+    final Margins[] margins = new Margins[tables.length];
+    Arrays.setAll(margins, i -> {
+      int[] t = tables[i];
+      assert t.length == 4;
+      return new Margins(t[0], t[1], t[2], t[3]);
+    });
+    Integer[] order = new Integer[tables.length];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, (i, j) -> margins[i].compareTo(margins[j]));
+    int[] group = new int[tables.length];
+    for (int i = 1; i < order.length; i++) {
+      group[order[i]] = group[order[i - 1]]
+          + (margins[order[i]].compareTo(margins[order[i - 1]]) == 0 ? 0 : 1);
+    }
+    Cells.runs(order, group).parallel().forEach(run -> {
+      TabulatedDistribution table = margins[order[run[0]]].table();
+      for (int i = run[0]; i < run[1]; i++) {
+        int cell = order[i];
+        results[cell] = fisher(tables[cell][0], table, alternative);
+      }
+    });
+    return results;
+  }
+
+  private static double fisher(int a,
+                               TabulatedDistribution table,
+                               Alternative alternative) {
+    switch (Objects.requireNonNull(alternative)) {
+      case less:
+        return table.cumulativeProbability(a);
+      case greater:
+        return table.survivalProbability(a - 1);
+      default:
+        int high = table.getLargestValue();
+        int low = 0;
+        while (low < high && table.computeResult(low) == 0.0) {
+          low++;
+        }
+        return twoSided(a, low, high, mode(table, low, high),
+                        table::computeResult,
+                        table::cumulativeProbability,
+                        table::survivalProbability);
+    }
+  }
+
+  private static int mode(TabulatedDistribution table, int low, int high) {
+    int mode = low;
+    for (int y = low + 1; y <= high; y++) {
+      if (table.computeResult(y) > table.computeResult(mode)) {
+        mode = y;
+      }
+    }
+    return mode;
+  }
+
+  /**
+   * The sum of the probabilities of every outcome no more likely than the
+   * observed one for a unimodal distribution.
+   *
+   * @param observed   the observed outcome
+   * @param low        the smallest outcome of the support
+   * @param high       the largest outcome of the support
+   * @param mode       an outcome within one of the mode
+   * @param density    P(Y = y)
+   * @param cumulative P(Y &lt;= y)
+   * @param survival   P(Y &gt; y)
+   * @return the two-sided p-value
+   */
+  static double twoSided(int observed,
+                         int low,
+                         int high,
+                         int mode,
+                         IntToDoubleFunction density,
+                         IntToDoubleFunction cumulative,
+                         IntToDoubleFunction survival) {
+    final double limit =
+        density.applyAsDouble(observed) * (1.0 + RELATIVE_TOLERANCE);
+    // step the mode onto the larger of its neighbours.
+    if (mode < high && density.applyAsDouble(mode + 1)
+        > density.applyAsDouble(mode)) {
+      mode++;
+    }
+    if (density.applyAsDouble(mode) <= limit) {
+      return 1.0;
+    }
+    if (observed < mode) {
+      // smallest y above the mode with a density no more than the limit
+      int below = mode;
+      int above = high + 1;
+      while (above - below > 1) {
+        int middle = (int) (((long) below + above) / 2);
+        if (density.applyAsDouble(middle) <= limit) {
+          above = middle;
+        } else {
+          below = middle;
+        }
+      }
+      return Math.min(1.0, cumulative.applyAsDouble(observed)
+          + survival.applyAsDouble(above - 1));
+    }
+    // largest y below the mode with a density no more than the limit
+    int below = low - 1;
+    int above = mode;
+    while (above - below > 1) {
+      int middle = (int) (((long) below + above) / 2);
+      if (density.applyAsDouble(middle) <= limit) {
+        below = middle;
+      } else {
+        above = middle;
+      }
+    }
+    return Math.min(1.0, cumulative.applyAsDouble(below)
+        + survival.applyAsDouble(observed - 1));
+  }
+
+  /**
+   * The margins of a 2x2 table, the population, the first row's total and
+   * the first column's total. The hypergeometric distribution is symmetric
+   * in the two totals so they are kept in order to share more tables.
+   */
+  private static final class Margins implements Comparable<Margins> {
+    final int population;
+    final int smaller;
+    final int larger;
+
+    Margins(int a, int b, int c, int d) {
+      this.population = a + b + c + d;
+      this.smaller = Integer.min(a + b, a + c);
+      this.larger = Integer.max(a + b, a + c);
+    }
+
+    TabulatedDistribution table() {
+      HyperGeometric distribution =
+          new HyperGeometric(equal, population, smaller, larger);
+      return new TabulatedDistribution(equal,
+                                       distribution.pmfStream().toArray());
+    }
+
+    @Override
+    public int compareTo(Margins other) {
+      int result = Integer.compare(population, other.population);
+      if (result == 0) {
+        result = Integer.compare(smaller, other.smaller);
+      }
+      if (result == 0) {
+        result = Integer.compare(larger, other.larger);
+      }
+      return result;
+    }
+  }
+}
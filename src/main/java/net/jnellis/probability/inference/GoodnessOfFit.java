@@ -0,0 +1,515 @@
+/*
+ * GoodnessOfFit.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference;
+
+import net.jnellis.probability.DiscreteProbability;
+import net.jnellis.probability.Multinomial;
+import net.jnellis.probability.SpecialFunctions;
+import net.jnellis.probability.fitting.CountHistogram;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Pearson's chi-square, the G-test and the discrete Kolmogorov-Smirnov
+ * statistic of a histogram of counts against a distribution.
+ * <p>
+ * The distribution's probabilities come from one walk of its
+ * {@link DiscreteProbability#pmfStream() recurrence}, taken alongside the
+ * histogram, which also merges neighbouring values into bins until each
+ * expects at least a minimum count, with the last bin taking every value
+ * above. Chi-square and G are computed over the bins, Kolmogorov-Smirnov
+ * over the single values.
+ * <p>
+ * P-values are the chi-square approximation for the binned statistics, or
+ * for any statistic the exact sum over every outcome of the multinomial
+ * distribution of the counts, or a Monte Carlo estimate from samples of it.
+ * Exact and Monte Carlo p-values run in parallel and take the distribution
+ * as given, so with fitted parameters they are conservative.
+ * <pre>
+ * CountHistogram data = CountHistogram.of(observations);
+ * Poisson fitted = MaximumLikelihood.poisson(equal, data);
+ * GoodnessOfFit fit = GoodnessOfFit.of(data, fitted, 1, 5.0);
+ * double p = fit.asymptoticPValue(Statistic.chiSquare);
+ * double q = fit.monteCarloPValue(Statistic.kolmogorovSmirnov, 9999, 1L);
+ * </pre>
+ */
+public final class GoodnessOfFit {
+
+  /**
+   * The statistics measuring the distance of the counts from their
+   * expectation.
+   */
+  public enum Statistic {
+    /**
+     * Pearson's chi-square, the sum of (O - E)<sup>2</sup> / E over the
+     * bins.
+     */
+    chiSquare,
+    /**
+     * The likelihood ratio statistic, 2 O log(O / E) summed over the bins.
+     */
+    gTest,
+    /**
+     * The largest difference between the empirical and the expected
+     * cumulative distributions over the values.
+     */
+    kolmogorovSmirnov
+  }
+
+  /**
+   * The smallest expected count of a bin, unless given otherwise.
+   */
+  public static final double DEFAULT_MINIMUM_EXPECTED = 5.0;
+
+  /**
+   * Exact p-values enumerate at most this many outcomes.
+   */
+  static final double EXACT_LIMIT = 1 << 24;
+
+  // Monte Carlo samples drawn from one seed in turn.
+  private static final int SAMPLE_BLOCK = 256;
+  // outcomes whose statistic is this close, relatively, are ties.
+  private static final double TIE_TOLERANCE = 1.0E-9;
+
+  private final int fittedParameters;
+  private final int firstValue;
+  private final int[] binStarts;
+  private final Partition values;
+  private final Partition bins;
+
+  private GoodnessOfFit(int fittedParameters,
+                        int firstValue,
+                        int[] binStarts,
+                        Partition values,
+                        Partition bins) {
+    this.fittedParameters = fittedParameters;
+    this.firstValue = firstValue;
+    this.binStarts = binStarts;
+    this.values = values;
+    this.bins = bins;
+  }
+
+  /**
+   * Tests counts against a distribution given in advance, with bins
+   * expecting at least {@link #DEFAULT_MINIMUM_EXPECTED}.
+   *
+   * @param observed the histogram of the observations
+   * @param expected the distribution they are tested against
+   * @return the statistics of the fit.
+   */
+  public static GoodnessOfFit of(CountHistogram observed,
+                                 DiscreteProbability expected) {
+    return of(observed, expected, 0, DEFAULT_MINIMUM_EXPECTED);
+  }
+
+  /**
+   * @param observed         the histogram of the observations
+   * @param expected         the distribution they are tested against
+   * @param fittedParameters the parameters of the distribution estimated
+   *                         from the observations, which the degrees of
+   *                         freedom lose
+   * @param minimumExpected  the smallest expected count of a bin
+   * @return the statistics of the fit.
+   */
+  public static GoodnessOfFit of(CountHistogram observed,
+                                 DiscreteProbability expected,
+                                 int fittedParameters,
+                                 double minimumExpected) {
+    Objects.requireNonNull(observed, "observed can't be null.");
+    Objects.requireNonNull(expected, "expected can't be null.");
+    assert fittedParameters >= 0 : "Fitted parameters can't be negative.";
+    assert minimumExpected >= 0.0 : "Minimum expected can't be negative.";
+    final long total = observed.getTotal();
+    final double[] pmf = expected.pmfStream().toArray();
+    // values below the support that were never observed are left out.
+    int first = 0;
+    while (first < pmf.length - 1 && pmf[first] == 0.0
+        && observed.getCount(first) == 0L) {
+      first++;
+    }
+    // one cell per value, the last holds every value above the stream.
+    final int cellCount = pmf.length - first + 1;
+    final double[] cellProbabilities = new double[cellCount];
+    final long[] cellCounts = new long[cellCount];
+    final int[] starts = new int[cellCount];
+    final double[] binProbabilities = new double[cellCount];
+    final long[] binCounts = new long[cellCount];
+    int binCount = 0;
+    double binProbability = 0.0;
+    long binObserved = 0L;
+    int binStart = first;
+    double cumulative = 0.0;
+    long counted = 0L;
+    for (int i = 0; i < cellCount; i++) {
+      final int y = first + i;
+      if (i < cellCount - 1) {
+        cellProbabilities[i] = pmf[y];
+        cellCounts[i] = observed.getCount(y);
+      } else {
+        cellProbabilities[i] = Double.max(0.0, 1.0 - cumulative);
+        cellCounts[i] = total - counted;
+      }
+      cumulative += cellProbabilities[i];
+      counted += cellCounts[i];
+      binProbability += cellProbabilities[i];
+      binObserved += cellCounts[i];
+      if (binProbability * total >= minimumExpected || i == cellCount - 1) {
+        if (binProbability * total < minimumExpected && binCount > 0) {
+          // the remainder falls short, it joins the bin before it.
+          binProbabilities[binCount - 1] += binProbability;
+          binCounts[binCount - 1] += binObserved;
+        } else {
+          starts[binCount] = binStart;
+          binProbabilities[binCount] = binProbability;
+          binCounts[binCount] = binObserved;
+          binCount++;
+        }
+        binProbability = 0.0;
+        binObserved = 0L;
+        binStart = y + 1;
+      }
+    }
+    return new GoodnessOfFit(
+        fittedParameters, first, Arrays.copyOf(starts, binCount),
+        new Partition(total, cellProbabilities, cellCounts),
+        new Partition(total, Arrays.copyOf(binProbabilities, binCount),
+                      Arrays.copyOf(binCounts, binCount)));
+  }
+
+  /**
+   * @param statistic a statistic
+   * @return its value for the observations.
+   */
+  public double getStatistic(Statistic statistic) {
+    return partitionOf(statistic).observed(statistic);
+  }
+
+  /**
+   * @return Pearson's chi-square statistic over the bins.
+   */
+  public double getChiSquare() {
+    return getStatistic(Statistic.chiSquare);
+  }
+
+  /**
+   * @return the G statistic over the bins.
+   */
+  public double getGStatistic() {
+    return getStatistic(Statistic.gTest);
+  }
+
+  /**
+   * @return the Kolmogorov-Smirnov statistic over the values.
+   */
+  public double getKolmogorovSmirnov() {
+    return getStatistic(Statistic.kolmogorovSmirnov);
+  }
+
+  /**
+   * @return the bins less one and less the fitted parameters.
+   */
+  public int getDegreesOfFreedom() {
+    return bins.probabilities.length - 1 - fittedParameters;
+  }
+
+  /**
+   * @return the smallest value of each bin, the last bin holds every value
+   * above its start.
+   */
+  public int[] getBinStarts() {
+    return binStarts.clone();
+  }
+
+  /**
+   * @return the observed count of each bin.
+   */
+  public long[] getObservedCounts() {
+    return bins.counts.clone();
+  }
+
+  /**
+   * @return the expected count of each bin.
+   */
+  public double[] getExpectedCounts() {
+    return bins.expected.clone();
+  }
+
+  /**
+   * @return the smallest value of the first cell of the Kolmogorov-Smirnov
+   * statistic, below which nothing was expected or observed.
+   */
+  public int getFirstValue() {
+    return firstValue;
+  }
+
+  /**
+   * The upper tail of the chi-square distribution with the degrees of
+   * freedom, which both binned statistics approach as the counts grow.
+   *
+   * @param statistic chi-square or G
+   * @return the approximate p-value, NaN without degrees of freedom.
+   * @throws IllegalArgumentException for the Kolmogorov-Smirnov statistic,
+   *                                  whose distribution depends on the
+   *                                  counts.
+   */
+  public double asymptoticPValue(Statistic statistic) {
+    if (statistic == Statistic.kolmogorovSmirnov) {
+      throw new IllegalArgumentException(
+          "The discrete Kolmogorov-Smirnov statistic has no asymptotic "
+              + "p-value, use an exact or Monte Carlo p-value.");
+    }
+    final int df = getDegreesOfFreedom();
+    if (df <= 0) {
+      return Double.NaN;
+    }
+    return SpecialFunctions.regularizedGammaQ(
+        0.5 * df, 0.5 * getStatistic(statistic));
+  }
+
+  /**
+   * The total probability of the outcomes whose statistic is at least the
+   * observed one, summed over every way to place the observations in the
+   * cells of the statistic.
+   *
+   * @param statistic a statistic
+   * @return the exact p-value.
+   * @throws IllegalArgumentException if there are more than
+   *                                  2<sup>24</sup> outcomes.
+   */
+  public double exactPValue(Statistic statistic) {
+    return partitionOf(statistic).exactPValue(statistic);
+  }
+
+  /**
+   * The fraction of multinomial samples whose statistic is at least the
+   * observed one, counting the observations as one of the samples. Samples
+   * are drawn in parallel from seeds split from the given one, so the
+   * estimate depends only on the seed.
+   *
+   * @param statistic a statistic
+   * @param samples   the number of samples
+   * @param seed      the seed of the samples
+   * @return the Monte Carlo p-value.
+   */
+  public double monteCarloPValue(Statistic statistic, int samples, long seed) {
+    assert samples > 0 : "There must be samples.";
+    return partitionOf(statistic).monteCarloPValue(statistic, samples, seed);
+  }
+
+  private Partition partitionOf(Statistic statistic) {
+    Objects.requireNonNull(statistic, "statistic can't be null.");
+    return statistic == Statistic.kolmogorovSmirnov ? values : bins;
+  }
+
+  /**
+   * Observations spread over cells with known probabilities.
+   */
+  private static final class Partition {
+
+    private final long total;
+    private final double[] probabilities;
+    private final long[] counts;
+    private final double[] expected;
+    // P(Y <= cell), one for the last cell.
+    private final double[] cumulative;
+
+    Partition(long total, double[] probabilities, long[] counts) {
+      this.total = total;
+      this.probabilities = probabilities;
+      this.counts = counts;
+      this.expected = new double[probabilities.length];
+      this.cumulative = new double[probabilities.length];
+      double sum = 0.0;
+      for (int i = 0; i < probabilities.length; i++) {
+        expected[i] = total * probabilities[i];
+        sum += probabilities[i];
+        cumulative[i] = sum;
+      }
+      cumulative[cumulative.length - 1] = 1.0;
+    }
+
+    double observed(Statistic statistic) {
+      return statistic(statistic, counts);
+    }
+
+    double statistic(Statistic statistic, long[] outcome) {
+      double value = 0.0;
+      long running = 0L;
+      for (int i = 0; i < outcome.length; i++) {
+        running += outcome[i];
+        value = accumulate(statistic, i, outcome[i], running, value);
+      }
+      return value;
+    }
+
+    /**
+     * The statistic after one more cell, the same arithmetic in the same
+     * order whether for the observations or an enumerated outcome, so that
+     * ties are exact.
+     */
+    private double accumulate(Statistic statistic,
+                              int cell,
+                              long count,
+                              long running,
+                              double value) {
+      final double e = expected[cell];
+      switch (statistic) {
+        case chiSquare:
+          if (e == 0.0) {
+            return count == 0L ? value : Double.POSITIVE_INFINITY;
+          }
+          final double difference = count - e;
+          return value + difference * difference / e;
+        case gTest:
+          if (count == 0L) {
+            return value;
+          }
+          return e == 0.0
+                 ? Double.POSITIVE_INFINITY
+                 : value + 2.0 * count * Math.log(count / e);
+        default:
+          return Double.max(value, Math.abs(
+              (double) running / total - cumulative[cell]));
+      }
+    }
+
+    private double threshold(Statistic statistic) {
+      final double observed = observed(statistic);
+      return observed - TIE_TOLERANCE * observed;
+    }
+
+    double exactPValue(Statistic statistic) {
+      final int k = probabilities.length;
+      int possible = 0;
+      for (double probability : probabilities) {
+        if (probability > 0.0) {
+          possible++;
+        }
+      }
+      // C(n + m - 1, m - 1) outcomes over the m cells that can be filled.
+      double outcomes = 1.0;
+      for (int i = 1; i < possible && outcomes <= EXACT_LIMIT; i++) {
+        outcomes = outcomes * (total + i) / i;
+      }
+      if (outcomes > EXACT_LIMIT) {
+        throw new IllegalArgumentException(
+            "There are too many outcomes to enumerate, "
+                + "use a Monte Carlo p-value.");
+      }
+      if (k == 1) {
+        return 1.0;
+      }
+      final double threshold = threshold(statistic);
+      final double start = SpecialFunctions.logGamma(total + 1.0);
+      final long firstMost = probabilities[0] > 0.0 ? total : 0L;
+      final double logFirst = Math.log(probabilities[0]);
+      final double sum = LongStream.rangeClosed(0L, firstMost).parallel()
+          .mapToDouble(c -> enumerate(
+              statistic, threshold, 1, total - c, c,
+              accumulate(statistic, 0, c, c, 0.0),
+              start + logTerm(c, logFirst)))
+          .sum();
+      return Double.min(1.0, sum);
+    }
+
+    private static double logTerm(long count, double logProbability) {
+      return count == 0L
+             ? 0.0
+             : count * logProbability
+                 - SpecialFunctions.logGamma(count + 1.0);
+    }
+
+    /**
+     * The probability of the outcomes with the counts so far whose
+     * statistic reaches the threshold.
+     */
+    private double enumerate(Statistic statistic,
+                             double threshold,
+                             int cell,
+                             long left,
+                             long running,
+                             double value,
+                             double logProbability) {
+      final double p = probabilities[cell];
+      final double logP = Math.log(p);
+      if (cell == probabilities.length - 1) {
+        if (p == 0.0 && left > 0L) {
+          return 0.0;
+        }
+        final double last =
+            accumulate(statistic, cell, left, running + left, value);
+        return last >= threshold
+               ? Math.exp(logProbability + logTerm(left, logP))
+               : 0.0;
+      }
+      final long most = p > 0.0 ? left : 0L;
+      double sum = 0.0;
+      for (long c = 0L; c <= most; c++) {
+        sum += enumerate(statistic, threshold, cell + 1, left - c,
+                         running + c,
+                         accumulate(statistic, cell, c, running + c, value),
+                         logProbability + logTerm(c, logP));
+      }
+      return sum;
+    }
+
+    double monteCarloPValue(Statistic statistic, int samples, long seed) {
+      assert total <= Integer.MAX_VALUE : "Too many observations to sample.";
+      final double threshold = threshold(statistic);
+      final Multinomial multinomial =
+          new Multinomial((int) total, normalized());
+      final int blocks = (samples + SAMPLE_BLOCK - 1) / SAMPLE_BLOCK;
+      final SplittableRandom seeds = new SplittableRandom(seed);
+      final long[] blockSeeds = new long[blocks];
+      for (int b = 0; b < blocks; b++) {
+        blockSeeds[b] = seeds.nextLong();
+      }
+      final long exceeded = IntStream.range(0, blocks).parallel()
+          .mapToLong(b -> {
+            final Random random = new Random(blockSeeds[b]);
+            final int end = Integer.min(samples, (b + 1) * SAMPLE_BLOCK);
+            final long[] outcome = new long[probabilities.length];
+            long count = 0L;
+            for (int s = b * SAMPLE_BLOCK; s < end; s++) {
+              int[] sample = multinomial.sample(random);
+              for (int i = 0; i < outcome.length; i++) {
+                outcome[i] = sample[i];
+              }
+              if (statistic(statistic, outcome) >= threshold) {
+                count++;
+              }
+            }
+            return count;
+          })
+          .sum();
+      return (exceeded + 1.0) / (samples + 1.0);
+    }
+
+    /**
+     * The probabilities scaled to sum to one, which the recurrence of the
+     * distribution may miss by rounding.
+     */
+    private double[] normalized() {
+      double sum = 0.0;
+      for (double probability : probabilities) {
+        sum += probability;
+      }
+      final double[] result = new double[probabilities.length];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = Double.min(1.0, probabilities[i] / sum);
+      }
+      return result;
+    }
+  }
+}
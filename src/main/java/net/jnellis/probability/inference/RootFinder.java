@@ -0,0 +1,144 @@
+/*
+ * RootFinder.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Brent's method for the root of a monotone function, started from a
+ * bracket grown outward from a guess. A good guess, such as the root of a
+ * neighbouring problem, brackets the root in a couple of evaluations.
+ */
+final class RootFinder {
+
+  private static final double EPSILON = Math.ulp(1.0);
+  private static final int MAX_ITERATIONS = 200;
+  private static final int MAX_EXPANSIONS = 2100;
+
+  private RootFinder() {}
+
+  /**
+   * Finds the root of a monotone function to nearly machine precision.
+   *
+   * @param function a monotone function of the parameter
+   * @param guess    a guess at the root, between min and max
+   * @param step     the initial half width of the bracket
+   * @param min      the smallest possible root
+   * @param max      the largest possible root, may be infinite
+   * @return the root, or the end of the range when the function does not
+   * change sign within it.
+   */
+  static double solve(DoubleUnaryOperator function,
+                      double guess,
+                      double step,
+                      double min,
+                      double max) {
+    assert step > 0.0 : "Step must be positive.";
+    double low = Math.max(min, guess - step);
+    double high = Math.min(max, guess + step);
+    double fLow = function.applyAsDouble(low);
+    double fHigh = function.applyAsDouble(high);
+    // grow the end nearer the root, which for a monotone function is the
+    // one nearer zero.
+    for (int i = 0; fLow * fHigh > 0.0; i++) {
+      if (i == MAX_EXPANSIONS) {
+        return Math.abs(fLow) < Math.abs(fHigh) ? low : high;
+      }
+      step *= 2.0;
+      if (Math.abs(fLow) < Math.abs(fHigh)) {
+        if (low == min) {
+          return min;
+        }
+        high = low;
+        fHigh = fLow;
+        low = Math.max(min, low - step);
+        fLow = function.applyAsDouble(low);
+      } else {
+        if (high == max) {
+          return max;
+        }
+        low = high;
+        fLow = fHigh;
+        high = Math.min(max, high + step);
+        fHigh = function.applyAsDouble(high);
+      }
+    }
+    return brent(function, low, fLow, high, fHigh);
+  }
+
+  /**
+   * Brent's method on a bracket whose ends have opposite signs.
+   */
+  private static double brent(DoubleUnaryOperator function,
+                              double a,
+                              double fa,
+                              double b,
+                              double fb) {
+    double c = b;
+    double fc = fb;
+    double d = b - a;
+    double e = d;
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      if ((fb > 0.0 && fc > 0.0) || (fb < 0.0 && fc < 0.0)) {
+        c = a;
+        fc = fa;
+        d = b - a;
+        e = d;
+      }
+      if (Math.abs(fc) < Math.abs(fb)) {
+        a = b;
+        b = c;
+        c = a;
+        fa = fb;
+        fb = fc;
+        fc = fa;
+      }
+      final double tolerance = 2.0 * EPSILON * Math.abs(b) + Double.MIN_NORMAL;
+      final double middle = 0.5 * (c - b);
+      if (Math.abs(middle) <= tolerance || fb == 0.0) {
+        return b;
+      }
+      if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+        // inverse quadratic interpolation, or secant when only two points
+        double s = fb / fa;
+        double p;
+        double q;
+        if (a == c) {
+          p = 2.0 * middle * s;
+          q = 1.0 - s;
+        } else {
+          double r = fb / fc;
+          q = fa / fc;
+          p = s * (2.0 * middle * q * (q - r) - (b - a) * (r - 1.0));
+          q = (q - 1.0) * (r - 1.0) * (s - 1.0);
+        }
+        if (p > 0.0) {
+          q = -q;
+        }
+        p = Math.abs(p);
+        if (2.0 * p < Math.min(3.0 * middle * q - Math.abs(tolerance * q),
+                               Math.abs(e * q))) {
+          e = d;
+          d = p / q;
+        } else {
+          d = middle;
+          e = d;
+        }
+      } else {
+        d = middle;
+        e = d;
+      }
+      a = b;
+      fa = fb;
+      b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+      fb = function.applyAsDouble(b);
+    }
+    return b;
+  }
+}
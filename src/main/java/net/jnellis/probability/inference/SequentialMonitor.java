@@ -0,0 +1,336 @@
+/*
+ * SequentialMonitor.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference;
+
+/**
+ * Wald's sequential probability ratio test and Page's CUSUM over many
+ * streams of binomial or Poisson counts, updated one observation or one
+ * batch at a time.
+ * <p>
+ * The log likelihood ratio of a batch of the alternative against the null
+ * hypothesis is linear in its count and size, the combinatorial parts of
+ * the probabilities cancel:
+ * <ul>
+ * <li>binomial, y successes of n trials,
+ * y log(p<sub>1</sub>q<sub>0</sub>/p<sub>0</sub>q<sub>1</sub>)
+ * + n log(q<sub>1</sub>/q<sub>0</sub>)</li>
+ * <li>Poisson, y events over an exposure t,
+ * y log(&#955;<sub>1</sub>/&#955;<sub>0</sub>)
+ * - t(&#955;<sub>1</sub> - &#955;<sub>0</sub>)</li>
+ * </ul>
+ * so an update is two multiplications whatever the size of the batch. The
+ * test accepts the null hypothesis when the sum falls to log(&#946;/(1-&#945;))
+ * and rejects it when it reaches log((1-&#946;)/&#945;), after which its
+ * decision stays until the stream is reset. The CUSUM, max(0, S + ratio),
+ * raises an alarm when it reaches its threshold and keeps running. A batch
+ * is one step of the CUSUM.
+ * <p>
+ * Each stream is an index into parallel primitive arrays, about 33 bytes a
+ * stream. Streams are guarded by a fixed set of striped locks, so threads
+ * updating different streams rarely contend and updates of one stream are
+ * never lost.
+ * <pre>
+ * SequentialMonitor monitor = SequentialMonitor.binomial(
+ *     0.01, 0.02, 0.05, 0.10, 5.0, 10000);
+ * Decision decision = monitor.observe(stream, errors, requests);
+ * boolean alarm = monitor.isAlarmed(stream);
+ * </pre>
+ */
+public final class SequentialMonitor {
+
+  /**
+   * The decision of the sequential probability ratio test of a stream.
+   */
+  public enum Decision {
+    /**
+     * The evidence is between the thresholds, keep observing.
+     */
+    continueSampling,
+    /**
+     * The log likelihood ratio fell to the lower threshold.
+     */
+    acceptNull,
+    /**
+     * The log likelihood ratio reached the upper threshold.
+     */
+    rejectNull
+  }
+
+  private static final int STRIPES = 64;
+
+  private static final byte ACCEPTED = 1;
+  private static final byte REJECTED = 2;
+  private static final byte DECIDED = ACCEPTED | REJECTED;
+  private static final byte ALARMED = 4;
+
+  private final double countWeight;
+  private final double sizeWeight;
+  private final double upperThreshold;
+  private final double lowerThreshold;
+  private final double cusumThreshold;
+  private final boolean binomial;
+
+  private final double[] logLikelihoodRatios;
+  private final double[] cusums;
+  private final long[] counts;
+  private final double[] sizes;
+  private final byte[] states;
+  private final Object[] locks = new Object[STRIPES];
+
+  private SequentialMonitor(double countWeight,
+                            double sizeWeight,
+                            double falsePositiveRate,
+                            double falseNegativeRate,
+                            double cusumThreshold,
+                            int streams,
+                            boolean binomial) {
+    assert falsePositiveRate > 0.0 && falseNegativeRate > 0.0
+        && falsePositiveRate + falseNegativeRate < 1.0
+        : "Error rates must be positive and sum to less than one.";
+    assert cusumThreshold > 0.0 : "CUSUM threshold must be positive.";
+    assert streams > 0 : "A monitor needs a stream.";
+    this.countWeight = countWeight;
+    this.sizeWeight = sizeWeight;
+    this.upperThreshold =
+        Math.log((1.0 - falseNegativeRate) / falsePositiveRate);
+    this.lowerThreshold =
+        Math.log(falseNegativeRate / (1.0 - falsePositiveRate));
+    this.cusumThreshold = cusumThreshold;
+    this.binomial = binomial;
+    this.logLikelihoodRatios = new double[streams];
+    this.cusums = new double[streams];
+    this.counts = new long[streams];
+    this.sizes = new double[streams];
+    this.states = new byte[streams];
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Monitors streams of trials for a change in the chance of success, such
+   * as an error rate.
+   *
+   * @param nullChance        the chance of success under the null, p0
+   * @param alternativeChance the chance of success under the alternative,
+   *                          p1
+   * @param falsePositiveRate &#945;, the chance of rejecting a true null
+   * @param falseNegativeRate &#946;, the chance of accepting a false null
+   * @param cusumThreshold    the CUSUM value that raises an alarm
+   * @param streams           the number of streams
+   * @return a monitor of the streams, all empty.
+   */
+  public static SequentialMonitor binomial(double nullChance,
+                                           double alternativeChance,
+                                           double falsePositiveRate,
+                                           double falseNegativeRate,
+                                           double cusumThreshold,
+                                           int streams) {
+    assert nullChance > 0.0 && nullChance < 1.0
+        && alternativeChance > 0.0 && alternativeChance < 1.0
+        : "Chances of success must be between zero and one.";
+    assert nullChance != alternativeChance
+        : "The hypotheses must differ.";
+    final double failures =
+        Math.log1p(-alternativeChance) - Math.log1p(-nullChance);
+    return new SequentialMonitor(
+        Math.log(alternativeChance / nullChance) - failures, failures,
+        falsePositiveRate, falseNegativeRate, cusumThreshold, streams, true);
+  }
+
+  /**
+   * Monitors streams of event counts for a change in their rate.
+   *
+   * @param nullRate          the rate per unit of exposure under the null
+   * @param alternativeRate   the rate under the alternative
+   * @param falsePositiveRate &#945;, the chance of rejecting a true null
+   * @param falseNegativeRate &#946;, the chance of accepting a false null
+   * @param cusumThreshold    the CUSUM value that raises an alarm
+   * @param streams           the number of streams
+   * @return a monitor of the streams, all empty.
+   */
+  public static SequentialMonitor poisson(double nullRate,
+                                          double alternativeRate,
+                                          double falsePositiveRate,
+                                          double falseNegativeRate,
+                                          double cusumThreshold,
+                                          int streams) {
+    assert nullRate > 0.0 && alternativeRate > 0.0
+        : "Rates must be positive.";
+    assert nullRate != alternativeRate : "The hypotheses must differ.";
+    return new SequentialMonitor(
+        Math.log(alternativeRate / nullRate), nullRate - alternativeRate,
+        falsePositiveRate, falseNegativeRate, cusumThreshold, streams,
+        false);
+  }
+
+  /**
+   * One trial of a binomial monitor, or one event in one unit of exposure
+   * of a Poisson monitor when a success.
+   *
+   * @param stream  the stream
+   * @param success true for a success, or an event
+   * @return the decision of the stream's test.
+   */
+  public Decision observe(int stream, boolean success) {
+    return observe(stream, success ? 1L : 0L, 1.0);
+  }
+
+  /**
+   * A batch of observations.
+   *
+   * @param stream the stream
+   * @param count  the successes, or events
+   * @param size   the trials, or the exposure
+   * @return the decision of the stream's test.
+   */
+  public Decision observe(int stream, long count, double size) {
+    assert count >= 0L && size >= 0.0 : "Counts must be non-negative.";
+    assert !binomial || count <= size && size == Math.rint(size)
+        : "Successes can't be more than the whole number of trials.";
+    final double ratio = countWeight * count + sizeWeight * size;
+    synchronized (lock(stream)) {
+      counts[stream] += count;
+      sizes[stream] += size;
+      byte state = states[stream];
+      if ((state & DECIDED) == 0) {
+        final double sum = logLikelihoodRatios[stream] + ratio;
+        logLikelihoodRatios[stream] = sum;
+        if (sum >= upperThreshold) {
+          state |= REJECTED;
+        } else if (sum <= lowerThreshold) {
+          state |= ACCEPTED;
+        }
+      }
+      final double cusum = Double.max(0.0, cusums[stream] + ratio);
+      cusums[stream] = cusum;
+      if (cusum >= cusumThreshold) {
+        state |= ALARMED;
+      }
+      states[stream] = state;
+      return decision(state);
+    }
+  }
+
+  /**
+   * @param stream the stream
+   * @return the decision of the stream's test.
+   */
+  public Decision getDecision(int stream) {
+    synchronized (lock(stream)) {
+      return decision(states[stream]);
+    }
+  }
+
+  /**
+   * @param stream the stream
+   * @return true once the stream's CUSUM has reached its threshold.
+   */
+  public boolean isAlarmed(int stream) {
+    synchronized (lock(stream)) {
+      return (states[stream] & ALARMED) != 0;
+    }
+  }
+
+  /**
+   * @param stream the stream
+   * @return the sum of the log likelihood ratios, up to the decision.
+   */
+  public double getLogLikelihoodRatio(int stream) {
+    synchronized (lock(stream)) {
+      return logLikelihoodRatios[stream];
+    }
+  }
+
+  /**
+   * @param stream the stream
+   * @return the CUSUM statistic.
+   */
+  public double getCusum(int stream) {
+    synchronized (lock(stream)) {
+      return cusums[stream];
+    }
+  }
+
+  /**
+   * @param stream the stream
+   * @return the successes, or events, observed.
+   */
+  public long getCount(int stream) {
+    synchronized (lock(stream)) {
+      return counts[stream];
+    }
+  }
+
+  /**
+   * @param stream the stream
+   * @return the trials, or exposure, observed.
+   */
+  public double getSize(int stream) {
+    synchronized (lock(stream)) {
+      return sizes[stream];
+    }
+  }
+
+  /**
+   * Starts a stream over, clearing its test, CUSUM and alarm.
+   *
+   * @param stream the stream
+   */
+  public void reset(int stream) {
+    synchronized (lock(stream)) {
+      logLikelihoodRatios[stream] = 0.0;
+      cusums[stream] = 0.0;
+      counts[stream] = 0L;
+      sizes[stream] = 0.0;
+      states[stream] = 0;
+    }
+  }
+
+  /**
+   * @return the number of streams.
+   */
+  public int size() {
+    return states.length;
+  }
+
+  /**
+   * @return log((1-&#946;)/&#945;), where the test rejects the null.
+   */
+  public double getUpperThreshold() {
+    return upperThreshold;
+  }
+
+  /**
+   * @return log(&#946;/(1-&#945;)), where the test accepts the null.
+   */
+  public double getLowerThreshold() {
+    return lowerThreshold;
+  }
+
+  /**
+   * @return the CUSUM value that raises an alarm.
+   */
+  public double getCusumThreshold() {
+    return cusumThreshold;
+  }
+
+  private Object lock(int stream) {
+    return locks[stream & (STRIPES - 1)];
+  }
+
+  private static Decision decision(byte state) {
+    if ((state & REJECTED) != 0) {
+      return Decision.rejectNull;
+    }
+    return (state & ACCEPTED) != 0
+           ? Decision.acceptNull
+           : Decision.continueSampling;
+  }
+}
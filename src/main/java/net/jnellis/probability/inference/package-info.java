@@ -0,0 +1,14 @@
+/*
+ * package-info.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+/**
+ * Exact hypothesis tests and confidence intervals built on the cumulative
+ * distributions of the probability package, with batch methods that share
+ * work between neighbouring cells.
+ */
+package net.jnellis.probability.inference;
@@ -0,0 +1,97 @@
+/*
+ * Endpoint.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server;
+
+import net.jnellis.probability.DiscreteProbability;
+
+/**
+ * The functions the server answers, each taking one argument per query.
+ */
+enum Endpoint {
+  /**
+   * P(Y = value)
+   */
+  pmf {
+    @Override
+    double check(double argument) {
+      return checkValue(argument);
+    }
+
+    @Override
+    double evaluate(DiscreteProbability distribution, double argument) {
+      return distribution.computeResult((int) argument);
+    }
+  },
+  /**
+   * P(Y &lt;= value)
+   */
+  cdf {
+    @Override
+    double check(double argument) {
+      return checkValue(argument);
+    }
+
+    @Override
+    double evaluate(DiscreteProbability distribution, double argument) {
+      return distribution.cumulativeProbability((int) argument);
+    }
+  },
+  /**
+   * The smallest y with P(Y &lt;= y) &gt;= p
+   */
+  quantile {
+    @Override
+    double check(double argument) {
+      if (!(argument >= 0.0 && argument < 1.0)) {
+        throw new IllegalArgumentException(
+            "p must be at least zero and less than one.");
+      }
+      return argument;
+    }
+
+    @Override
+    double evaluate(DiscreteProbability distribution, double argument) {
+      return distribution.quantile(argument);
+    }
+
+    @Override
+    void format(double result, StringBuilder text) {
+      text.append((long) result);
+    }
+  };
+
+  /**
+   * @param argument a parsed query argument
+   * @return the argument
+   * @throws IllegalArgumentException if the argument is out of range
+   */
+  abstract double check(double argument);
+
+  abstract double evaluate(DiscreteProbability distribution, double argument);
+
+  void format(double result, StringBuilder text) {
+    text.append(result);
+  }
+
+  /**
+   * @return the name of the query argument.
+   */
+  String argumentName() {
+    return this == quantile ? "p" : "value";
+  }
+
+  private static double checkValue(double argument) {
+    if (argument != Math.rint(argument) || argument < 0.0
+        || argument > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "value must be a non negative integer.");
+    }
+    return argument;
+  }
+}
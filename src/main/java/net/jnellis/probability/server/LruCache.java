@@ -0,0 +1,42 @@
+/*
+ * LruCache.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded map that evicts its least recently used entry.
+ */
+final class LruCache<K, V> {
+
+  private final Map<K, V> map;
+
+  LruCache(final int capacity) {
+    assert capacity > 0;
+    this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  synchronized V get(K key) {
+    return map.get(key);
+  }
+
+  synchronized void put(K key, V value) {
+    map.put(key, value);
+  }
+
+  synchronized int size() {
+    return map.size();
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * ParameterSet.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server;
+
+import net.jnellis.probability.DiscreteProbability;
+import net.jnellis.probability.DistributionType;
+
+import java.util.Arrays;
+
+import static net.jnellis.probability.CumulativeOperation.equal;
+
+/**
+ * A distribution type with its parameters, the key queries are batched by.
+ */
+final class ParameterSet {
+
+  private final DistributionType type;
+  private final double[] parameters;
+  private final int hash;
+
+  /**
+   * @throws IllegalArgumentException if the type is tabulated or the
+   *                                  parameters are the wrong number, not
+   *                                  finite, or out of range for the type.
+   */
+  ParameterSet(DistributionType type, double[] parameters) {
+    if (type == DistributionType.tabulated) {
+      throw new IllegalArgumentException("Tabulated distributions have no "
+                                             + "parameters to query by.");
+    }
+    if (parameters.length != type.getParameterCount()) {
+      throw new IllegalArgumentException(
+          type + " needs " + type.getParameterCount() + " parameters.");
+    }
+    for (double parameter : parameters) {
+      if (!Double.isFinite(parameter) || parameter < 0.0) {
+        throw new IllegalArgumentException(
+            "Parameters must be finite and non negative.");
+      }
+    }
+    checkRanges(type, parameters);
+    this.type = type;
+    this.parameters = parameters;
+    this.hash = 31 * type.hashCode() + Arrays.hashCode(parameters);
+  }
+
+  /**
+   * Checks what the distributions' constructors only assert, so a query
+   * is refused whether or not assertions are enabled.
+   */
+  private static void checkRanges(DistributionType type, double[] p) {
+    switch (type) {
+      case binomial:
+        count(p[0], "Trials");
+        chance(p[1]);
+        break;
+      case geometric:
+        chance(p[0]);
+        if (p[0] == 0.0) {
+          throw new IllegalArgumentException(
+              "The chance of success must be positive.");
+        }
+        break;
+      case negativeBinomial:
+        count(p[0], "Successful trials");
+        chance(p[1]);
+        if (p[0] < 1.0 || p[1] == 0.0) {
+          throw new IllegalArgumentException("Successful trials and the "
+                                                 + "chance of success must "
+                                                 + "be positive.");
+        }
+        break;
+      case hyperGeometric:
+        count(p[0], "Population size");
+        count(p[1], "Sample size");
+        count(p[2], "Success states");
+        if (p[0] < 1.0 || p[1] > p[0] || p[2] > p[0]) {
+          throw new IllegalArgumentException(
+              "The sample size and success states can't exceed a positive "
+                  + "population size.");
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private static void count(double value, String name) {
+    if (value != Math.rint(value) || value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          name + " must be a whole number no more than "
+              + Integer.MAX_VALUE + ".");
+    }
+  }
+
+  private static void chance(double value) {
+    if (value > 1.0) {
+      throw new IllegalArgumentException(
+          "The chance of success can't be more than one.");
+    }
+  }
+
+  DistributionType getType() {
+    return type;
+  }
+
+  /**
+   * @return a new distribution with these parameters.
+   */
+  DiscreteProbability create() {
+    return type.create(equal, parameters);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ParameterSet)) {
+      return false;
+    }
+    ParameterSet that = (ParameterSet) o;
+    return type == that.type && Arrays.equals(parameters, that.parameters);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return type + Arrays.toString(parameters);
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * ProbabilityServer.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.jnellis.probability.DistributionType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An HTTP service answering probability queries, so every service in a
+ * process, or on a host, shares one warm result cache.
+ * <pre>
+ * GET /pmf?type=binomial&amp;parameters=1000,0.3&amp;value=300
+ * GET /cdf?type=poisson&amp;parameters=4.5&amp;value=0,1,2,3
+ * GET /quantile?type=negativeBinomial&amp;parameters=3,0.4&amp;p=0.5,0.99
+ * GET /metrics
+ * </pre>
+ * The type is a {@link DistributionType} name and its parameters are in the
+ * order of the type's description. A request may ask for several
+ * comma separated arguments and gets one result per line.
+ * <p>
+ * Each argument is a query. A query found in the bounded result cache is
+ * answered from it, a query identical to one already being computed waits
+ * for that computation, and the rest are batched by parameter set so each
+ * batch shares one distribution. Requests run on virtual threads when the
+ * runtime has them and on a cached thread pool otherwise.
+ * <pre>
+ * ProbabilityServer server =
+ *     ProbabilityServer.create(new InetSocketAddress(8080),
+ *                              ProbabilityServer.DEFAULT_CACHE_SIZE).start();
+ * </pre>
+ */
+public final class ProbabilityServer {
+
+  /**
+   * The default number of results cached.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 1 << 20;
+
+  /**
+   * The most arguments in one request.
+   */
+  public static final int MAX_ARGUMENTS = 10000;
+
+  private static final int DISTRIBUTION_CACHE_SIZE = 1024;
+
+  private final HttpServer http;
+  private final ExecutorService executor;
+  private final LruCache<Query, Double> results;
+  private final ConcurrentHashMap<Query, CompletableFuture<Double>> inFlight =
+      new ConcurrentHashMap<>();
+  private final ServerMetrics metrics = new ServerMetrics();
+  private final QueryBatcher batcher;
+
+  private ProbabilityServer(HttpServer http, int cacheSize) {
+    this.http = http;
+    this.executor = newExecutor();
+    this.results = new LruCache<>(cacheSize);
+    this.batcher = new QueryBatcher(DISTRIBUTION_CACHE_SIZE, executor,
+                                    metrics);
+    http.setExecutor(executor);
+    for (Endpoint endpoint : Endpoint.values()) {
+      http.createContext("/" + endpoint.name(),
+                         exchange -> handle(exchange, endpoint));
+    }
+    http.createContext("/metrics", exchange -> {
+      long started = System.nanoTime();
+      respond(exchange, 200, metrics.toString());
+      metrics.request(System.nanoTime() - started, false);
+    });
+  }
+
+  /**
+   * Creates a server, which answers nothing until started.
+   *
+   * @param address   the address to listen on, port zero picks a free port
+   * @param cacheSize the number of results to cache
+   * @return the server
+   * @throws IOException if the address can't be bound
+   */
+  public static ProbabilityServer create(InetSocketAddress address,
+                                         int cacheSize) throws IOException {
+    assert cacheSize > 0;
+    return new ProbabilityServer(HttpServer.create(address, 0), cacheSize);
+  }
+
+  /**
+   * Usage: ProbabilityServer [port] [cacheSize]
+   *
+   * @param args the command line arguments
+   * @throws IOException if the port can't be bound
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    int cacheSize = args.length > 1 ? Integer.parseInt(args[1])
+                                    : DEFAULT_CACHE_SIZE;
+    ProbabilityServer server =
+        create(new InetSocketAddress(port), cacheSize).start();
+    System.err.println("Listening on " + server.getAddress());
+  }
+
+  /**
+   * Virtual threads make blocking on a coalesced query cheap. They are
+   * looked up reflectively so the library still runs on older runtimes.
+   */
+  private static ExecutorService newExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "probability-server");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * @return this server, answering requests.
+   */
+  public ProbabilityServer start() {
+    http.start();
+    return this;
+  }
+
+  /**
+   * Stops accepting requests and, after waiting for requests in progress,
+   * closes the server.
+   *
+   * @param delaySeconds the longest to wait for requests in progress
+   */
+  public void stop(int delaySeconds) {
+    http.stop(delaySeconds);
+    executor.shutdown();
+  }
+
+  /**
+   * @return the address the server listens on.
+   */
+  public InetSocketAddress getAddress() {
+    return http.getAddress();
+  }
+
+  /**
+   * @return the server's metrics.
+   */
+  public ServerMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Answers a query from the cache, from an identical query in flight, or
+   * by batching it for computation.
+   */
+  CompletableFuture<Double> submit(Query query) {
+    metrics.query();
+    Double cached = results.get(query);
+    if (cached != null) {
+      metrics.cacheHit();
+      return CompletableFuture.completedFuture(cached);
+    }
+    CompletableFuture<Double> result = new CompletableFuture<>();
+    CompletableFuture<Double> running = inFlight.putIfAbsent(query, result);
+    if (running != null) {
+      metrics.coalesced();
+      return running;
+    }
+    // cache before leaving the in flight map so the query is never in
+    // neither.
+    result.whenComplete((value, failure) -> {
+      if (failure == null) {
+        results.put(query, value);
+      }
+      inFlight.remove(query, result);
+    });
+    batcher.submit(query, result);
+    return result;
+  }
+
+  private void handle(HttpExchange exchange, Endpoint endpoint)
+      throws IOException {
+    final long started = System.nanoTime();
+    int status = 200;
+    String body;
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        status = 405;
+        body = "Only GET is supported.\n";
+      } else {
+        body = answer(endpoint, parse(exchange.getRequestURI().getRawQuery()));
+      }
+    } catch (IllegalArgumentException e) {
+      status = 400;
+      body = e.getMessage() + '\n';
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause() == null ? e : e.getCause();
+      status = cause instanceof IllegalArgumentException
+               || cause instanceof AssertionError ? 400 : 500;
+      body = "Query failed: " + cause.getMessage() + '\n';
+    } catch (RuntimeException e) {
+      status = 500;
+      body = "Query failed: " + e + '\n';
+    }
+    try {
+      respond(exchange, status, body);
+    } finally {
+      exchange.close();
+      metrics.request(System.nanoTime() - started, status != 200);
+    }
+  }
+
+  private String answer(Endpoint endpoint, Map<String, String> query) {
+    final ParameterSet parameterSet =
+        new ParameterSet(type(required(query, "type")),
+                         numbers(required(query, "parameters")));
+    final double[] arguments =
+        numbers(required(query, endpoint.argumentName()));
+    if (arguments.length > MAX_ARGUMENTS) {
+      throw new IllegalArgumentException(
+          "At most " + MAX_ARGUMENTS + " arguments per request.");
+    }
+    final List<CompletableFuture<Double>> answers =
+        new ArrayList<>(arguments.length);
+    for (double argument : arguments) {
+      answers.add(submit(new Query(parameterSet, endpoint,
+                                   endpoint.check(argument))));
+    }
+    StringBuilder text = new StringBuilder(arguments.length * 24);
+    for (CompletableFuture<Double> answer : answers) {
+      endpoint.format(answer.join(), text);
+      text.append('\n');
+    }
+    return text.toString();
+  }
+
+  private static DistributionType type(String name) {
+    try {
+      return DistributionType.valueOf(name);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown distribution type " + name);
+    }
+  }
+
+  private static String required(Map<String, String> query, String name) {
+    String value = query.get(name);
+    if (value == null || value.isEmpty()) {
+      throw new IllegalArgumentException("Missing query parameter " + name);
+    }
+    return value;
+  }
+
+  private static double[] numbers(String list) {
+    String[] items = list.split(",");
+    double[] numbers = new double[items.length];
+    for (int i = 0; i < items.length; i++) {
+      try {
+        numbers[i] = Double.parseDouble(items[i].trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Not a number: " + items[i]);
+      }
+    }
+    return numbers;
+  }
+
+  private static Map<String, String> parse(String rawQuery) {
+    Map<String, String> query = new HashMap<>();
+    if (rawQuery == null) {
+      return query;
+    }
+    for (String pair : rawQuery.split("&")) {
+      int equals = pair.indexOf('=');
+      if (equals > 0) {
+        query.put(decode(pair.substring(0, equals)),
+                  decode(pair.substring(equals + 1)));
+      }
+    }
+    return query;
+  }
+
+  private static String decode(String text) {
+    try {
+      return URLDecoder.decode(text, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body)
+      throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type",
+                                      "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
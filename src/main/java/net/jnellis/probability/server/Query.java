@@ -0,0 +1,47 @@
+/*
+ * Query.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server;
+
+/**
+ * One function of one distribution at one argument, the key of the result
+ * cache and of coalescing.
+ */
+final class Query {
+
+  final ParameterSet parameterSet;
+  final Endpoint endpoint;
+  final double argument;
+
+  Query(ParameterSet parameterSet, Endpoint endpoint, double argument) {
+    this.parameterSet = parameterSet;
+    this.endpoint = endpoint;
+    this.argument = argument;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Query)) {
+      return false;
+    }
+    Query that = (Query) o;
+    return endpoint == that.endpoint
+        && Double.doubleToLongBits(argument)
+        == Double.doubleToLongBits(that.argument)
+        && parameterSet.equals(that.parameterSet);
+  }
+
+  @Override
+  public int hashCode() {
+    return (parameterSet.hashCode() * 31 + endpoint.hashCode()) * 31
+        + Double.hashCode(argument);
+  }
+}
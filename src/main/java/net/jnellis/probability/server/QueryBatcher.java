@@ -0,0 +1,122 @@
+/*
+ * QueryBatcher.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server;
+
+import net.jnellis.probability.DiscreteProbability;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Batches queries by parameter set. The first query for a parameter set
+ * starts a drain task, and every query for the same set that arrives while
+ * the task is evaluating waits for the task's next batch, so a busy
+ * parameter set looks up its distribution once per batch instead of once
+ * per query without holding any query back to wait for company.
+ */
+final class QueryBatcher {
+
+  private static final class Pending {
+    final Query query;
+    final CompletableFuture<Double> result;
+
+    Pending(Query query, CompletableFuture<Double> result) {
+      this.query = query;
+      this.result = result;
+    }
+  }
+
+  // present for a parameter set while its drain task runs. Lists are only
+  // touched inside compute, which locks the entry.
+  private final ConcurrentHashMap<ParameterSet, List<Pending>> waiting =
+      new ConcurrentHashMap<>();
+  private final LruCache<ParameterSet, DiscreteProbability> distributions;
+  private final Executor executor;
+  private final ServerMetrics metrics;
+
+  QueryBatcher(int distributionCacheSize,
+               Executor executor,
+               ServerMetrics metrics) {
+    this.distributions = new LruCache<>(distributionCacheSize);
+    this.executor = executor;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Queues a query, completing the result when its batch is evaluated.
+   */
+  void submit(Query query, CompletableFuture<Double> result) {
+    final boolean[] first = {false};
+    waiting.compute(query.parameterSet, (set, batch) -> {
+      if (batch == null) {
+        batch = new ArrayList<>();
+        first[0] = true;
+      }
+      batch.add(new Pending(query, result));
+      return batch;
+    });
+    if (first[0]) {
+      executor.execute(() -> drain(query.parameterSet));
+    }
+  }
+
+  private void drain(ParameterSet parameterSet) {
+    List<Pending> batch;
+    while ((batch = take(parameterSet)) != null) {
+      evaluate(parameterSet, batch);
+    }
+  }
+
+  /**
+   * @return the waiting queries, or null after ending the drain when there
+   * are none.
+   */
+  private List<Pending> take(ParameterSet parameterSet) {
+    final List<List<Pending>> taken = new ArrayList<>(1);
+    waiting.compute(parameterSet, (set, batch) -> {
+      if (batch.isEmpty()) {
+        return null;
+      }
+      taken.add(batch);
+      return new ArrayList<>();
+    });
+    return taken.isEmpty() ? null : taken.get(0);
+  }
+
+  private void evaluate(ParameterSet parameterSet, List<Pending> batch) {
+    metrics.batch(batch.size());
+    final DiscreteProbability distribution;
+    try {
+      distribution = distribution(parameterSet);
+    } catch (RuntimeException | AssertionError e) {
+      batch.forEach(pending -> pending.result.completeExceptionally(e));
+      return;
+    }
+    for (Pending pending : batch) {
+      try {
+        pending.result.complete(pending.query.endpoint.evaluate(
+            distribution, pending.query.argument));
+      } catch (RuntimeException | AssertionError e) {
+        pending.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  private DiscreteProbability distribution(ParameterSet parameterSet) {
+    DiscreteProbability distribution = distributions.get(parameterSet);
+    if (distribution == null) {
+      distribution = parameterSet.create();
+      distributions.put(parameterSet, distribution);
+    }
+    return distribution;
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * ServerMetrics.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram for a {@link ProbabilityServer}.
+ * Latencies are counted in power of two buckets of nanoseconds, so a
+ * percentile is reported as the upper bound of its bucket, within a factor
+ * of two.
+ */
+public final class ServerMetrics {
+
+  private static final int BUCKETS = 64;
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder queries = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedQueries = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+  private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+  ServerMetrics() {}
+
+  void request(long nanos, boolean failed) {
+    requests.increment();
+    if (failed) {
+      errors.increment();
+    }
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+    histogram.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(
+        Long.max(1L, nanos)));
+  }
+
+  void query() {
+    queries.increment();
+  }
+
+  void cacheHit() {
+    cacheHits.increment();
+  }
+
+  void coalesced() {
+    coalesced.increment();
+  }
+
+  void batch(int size) {
+    batches.increment();
+    batchedQueries.add(size);
+  }
+
+  /**
+   * @return the number of requests answered, including errors.
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return the number of requests answered with an error.
+   */
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  /**
+   * @return the number of queries, a request has one per argument.
+   */
+  public long getQueries() {
+    return queries.sum();
+  }
+
+  /**
+   * @return the number of queries answered from the result cache.
+   */
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  /**
+   * @return the number of queries that waited on an identical query
+   * already being computed.
+   */
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  /**
+   * @return the number of batches evaluated.
+   */
+  public long getBatches() {
+    return batches.sum();
+  }
+
+  /**
+   * @return the number of queries computed, in batches.
+   */
+  public long getComputed() {
+    return batchedQueries.sum();
+  }
+
+  /**
+   * @return the mean request latency in milliseconds.
+   */
+  public double getMeanMillis() {
+    long count = requests.sum();
+    return count == 0 ? 0.0 : totalNanos.sum() / 1.0E6 / count;
+  }
+
+  /**
+   * @return the largest request latency in milliseconds.
+   */
+  public double getMaxMillis() {
+    return maxNanos.get() / 1.0E6;
+  }
+
+  /**
+   * @param percentile between zero and one hundred
+   * @return an upper bound, within a factor of two, of the request latency
+   * in milliseconds at the percentile.
+   */
+  public double getPercentileMillis(double percentile) {
+    assert percentile >= 0.0 && percentile <= 100.0;
+    long[] counts = new long[BUCKETS];
+    long total = 0L;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = histogram.get(i);
+      total += counts[i];
+    }
+    if (total == 0L) {
+      return 0.0;
+    }
+    long rank = Long.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+    long seen = 0L;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(Math.scalb(1.0, i), maxNanos.get()) / 1.0E6;
+      }
+    }
+    return getMaxMillis();
+  }
+
+  /**
+   * @return one "name value" line per metric.
+   */
+  @Override
+  public String toString() {
+    return "requests " + getRequests() + '\n'
+        + "errors " + getErrors() + '\n'
+        + "queries " + getQueries() + '\n'
+        + "cacheHits " + getCacheHits() + '\n'
+        + "coalesced " + getCoalesced() + '\n'
+        + "batches " + getBatches() + '\n'
+        + "computed " + getComputed() + '\n'
+        + "meanMillis " + getMeanMillis() + '\n'
+        + "p50Millis " + getPercentileMillis(50.0) + '\n'
+        + "p99Millis " + getPercentileMillis(99.0) + '\n'
+        + "maxMillis " + getMaxMillis() + '\n';
+  }
+}
@@ -0,0 +1,14 @@
+/*
+ * package-info.java
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+/**
+ * An embeddable HTTP service answering probability queries, which shares
+ * one result cache between everything in the process and coalesces
+ * concurrent identical queries so each is computed once.
+ */
+package net.jnellis.probability.server;
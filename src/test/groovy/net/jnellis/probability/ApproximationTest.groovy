@@ -0,0 +1,97 @@
+/*
+ * ApproximationTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import org.apache.commons.math3.distribution.BinomialDistribution
+import org.apache.commons.math3.distribution.HypergeometricDistribution
+import org.apache.commons.math3.distribution.PoissonDistribution
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Approximate results must stay within the tolerance they were given.
+ */
+class ApproximationTest extends Specification {
+
+  @Unroll
+  def "binomial of #n trials with p=#p, P(Y<=#y) within #tolerance"() {
+    expect:
+    double expected = new BinomialDistribution(null, n, p)
+        .cumulativeProbability(y)
+    double result = new Binomial(lessThanOrEqual, n, p, tolerance).getResult(y)
+    Math.abs(result - expected) <= tolerance
+
+    where:
+    n       | p        | y      | tolerance
+    20000   | 0.3      | 6000   | 0.01
+    20000   | 0.3      | 5900   | 0.01
+    2000000 | 0.000001 | 3      | 0.01
+    2000000 | 0.999999 | 1999997| 0.01
+    5000    | 0.5      | 2460   | 0.001
+  }
+
+  @Unroll
+  def "binomial approximation of the #op operation stays within tolerance"() {
+    expect:
+    double exact = new Binomial(op, 20000, 0.3).getResult(6010)
+    double result = new Binomial(op, 20000, 0.3, 0.01).getResult(6010)
+    Math.abs(result - exact) <= 0.01
+
+    where:
+    op << [equal, notEqual, lessThan, lessThanOrEqual,
+           greaterThan, greaterThanOrEqual]
+  }
+
+  def "a tolerance too small for any approximation gives the exact result"() {
+    expect:
+    new Binomial(lessThanOrEqual, 5, 0.2, 1.0E-9).getResult(2) ==
+        new Binomial(lessThanOrEqual, 5, 0.2).getResult(2)
+    new Poisson(lessThanOrEqual, 7, 1.0E-9).getResult(5) ==
+        new Poisson(lessThanOrEqual, 7).getResult(5)
+  }
+
+  def "custom cumulative operations are never approximated"() {
+    setup:
+    CumulativeOperation twice = { rv, p -> 2.0 * p.applyAsDouble(rv) }
+
+    expect:
+    new Binomial(twice, 20000, 0.3, 0.5).getResult(6000) ==
+        2.0 * Binomial.probability(20000, 0.3, 6000)
+  }
+
+  @Unroll
+  def "Poisson with lambda #lambda, P(Y<=#y) within #tolerance"() {
+    expect:
+    double expected = new PoissonDistribution(lambda).cumulativeProbability(y)
+    double result = new Poisson(lessThanOrEqual, lambda, tolerance).getResult(y)
+    Math.abs(result - expected) <= tolerance
+
+    where:
+    lambda | y     | tolerance
+    40000  | 40100 | 0.01
+    2500   | 2450  | 0.01
+  }
+
+  @Unroll
+  def "hypergeometric with a tiny sampling fraction, P(Y<=#y) within #tolerance"() {
+    expect:
+    double expected = new HypergeometricDistribution(null, N, r, n)
+        .cumulativeProbability(y)
+    double result = new HyperGeometric(lessThanOrEqual, N, n, r, tolerance)
+        .getResult(y)
+    Math.abs(result - expected) <= tolerance
+
+    where:
+    N       | n     | r      | y    | tolerance
+    1000000 | 50    | 300000 | 15   | 0.001
+    1000000 | 10000 | 200    | 3    | 0.05
+  }
+}
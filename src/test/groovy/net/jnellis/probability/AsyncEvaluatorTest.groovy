@@ -0,0 +1,157 @@
+/*
+ * AsyncEvaluatorTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.Flow
+import java.util.concurrent.TimeUnit
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Futures and publishers against the blocking calls.
+ */
+class AsyncEvaluatorTest extends Specification {
+  def executor = Executors.newFixedThreadPool(4)
+  AsyncEvaluator async = new AsyncEvaluator(executor, 4)
+
+  def cleanup() {
+    executor.shutdownNow()
+  }
+
+  @Unroll
+  def "getResult with #operation matches the blocking call"() {
+    setup:
+    def poisson = new Poisson(operation, 40.0)
+
+    expect:
+    Math.abs(async.getResult(poisson, 37).get() - poisson.getResult(37)) < 1.0E-14
+
+    where:
+    operation << [lessThan, lessThanOrEqual, greaterThan, greaterThanOrEqual,
+                  equal, notEqual]
+  }
+
+  def "long sums are split and agree with the closed form"() {
+    setup:
+    def binomial = new Binomial(lessThan, 10000000, 0.3)
+
+    expect:
+    Math.abs(async.getResult(binomial, 3001000).get()
+                 - binomial.cumulativeProbability(3000999)) < 1.0E-10
+  }
+
+  def "cancelling stops the summation"() {
+    setup:
+    def binomial = new Binomial(lessThanOrEqual, Integer.MAX_VALUE - 1, 0.9)
+    def result = async.getResult(binomial, 1900000000)
+
+    when:
+    Thread.sleep(50)
+    result.cancel(true)
+    // the summing tasks give up their threads, so new work runs.
+    def next = async.getResult(new Poisson(lessThan, 4.5), 3)
+
+    then:
+    next.get(5, TimeUnit.SECONDS) > 0.0
+
+    when:
+    result.get()
+
+    then:
+    thrown(CancellationException)
+  }
+
+  def "bulk probabilities and quantiles"() {
+    setup:
+    def poisson = new Poisson(equal, 4.5)
+
+    expect:
+    [async.pmf(poisson, 0, 30).get(), (0..30).collect { poisson.computeResult(it) }]
+        .transpose().every { a, b -> Math.abs(a - b) < 1.0E-15 }
+    async.quantiles(poisson, 0.1, 0.5, 0.9).get() ==
+        [poisson.quantile(0.1), poisson.quantile(0.5), poisson.quantile(0.9)] as int[]
+  }
+
+  def "the cdf publisher honors demand and completes"() {
+    setup:
+    def poisson = new Poisson(equal, 4.5)
+    def received = [].asSynchronized()
+    def done = new CountDownLatch(1)
+    def subscriber = new Flow.Subscriber<Double>() {
+      Flow.Subscription subscription
+
+      void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription
+        subscription.request(3)
+      }
+
+      void onNext(Double value) {
+        received << value
+        if (received.size() % 3 == 0) {
+          subscription.request(3)
+        }
+      }
+
+      void onError(Throwable failure) {
+        done.countDown()
+      }
+
+      void onComplete() {
+        done.countDown()
+      }
+    }
+
+    when:
+    async.cdfPublisher(poisson, 0, 20).subscribe(subscriber)
+    done.await(5, TimeUnit.SECONDS)
+
+    then:
+    received.size() == 21
+    (0..20).every { Math.abs(received[it] - poisson.cumulativeProbability(it)) < 1.0E-14 }
+  }
+
+  def "a cancelled subscription gets no more values"() {
+    setup:
+    def count = 0
+    def cancelled = new CountDownLatch(1)
+    def subscriber = new Flow.Subscriber<Double>() {
+      Flow.Subscription subscription
+
+      void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription
+        subscription.request(Long.MAX_VALUE)
+      }
+
+      void onNext(Double value) {
+        if (++count == 1000) {
+          subscription.cancel()
+          cancelled.countDown()
+        }
+      }
+
+      void onError(Throwable failure) {}
+
+      void onComplete() {}
+    }
+
+    when:
+    async.pmfPublisher(new Poisson(equal, 4.5), 0, 1000000).subscribe(subscriber)
+    cancelled.await(5, TimeUnit.SECONDS)
+    Thread.sleep(50)
+
+    then:
+    count == 1000
+  }
+}
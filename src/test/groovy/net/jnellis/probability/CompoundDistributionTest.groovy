@@ -0,0 +1,92 @@
+/*
+ * CompoundDistributionTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Panjer's recursion and the transform against summing the frequency over
+ * repeated convolutions of the severity.
+ */
+class CompoundDistributionTest extends Specification {
+  double resolution = 1.0E-13
+  double[] severity = [0.1, 0.4, 0.3, 0.2]
+
+  double[] bruteForce(DiscreteProbability frequency, int maxAggregate) {
+    double[] result = new double[maxAggregate + 1]
+    double[] convolution = [1.0]
+    (0..400).each { n ->
+      double p = frequency.computeResult(n)
+      for (int s = 0; s < Math.min(convolution.length, result.length); s++) {
+        result[s] += p * convolution[s]
+      }
+      convolution = FastFourierTransform.convolveDirectly(convolution, severity)
+      if (convolution.length > result.length) {
+        convolution = Arrays.copyOf(convolution, result.length)
+      }
+    }
+    result
+  }
+
+  @Unroll
+  def "both methods agree with brute force for #frequency.class.simpleName"() {
+    setup:
+    def expected = bruteForce(frequency, 200)
+    def terms = CompoundDistribution.frequency(frequency)
+    def size = CompoundDistribution.transformSize(terms, severity, 200)
+    def recursion = CompoundDistribution.recursion(terms, severity, 200)
+    def transform = CompoundDistribution.transform(terms, severity, 200, size)
+
+    expect:
+    (0..200).every { Math.abs(recursion[it] - expected[it]) < resolution }
+    (0..200).every { Math.abs(transform[it] - expected[it]) < resolution }
+
+    where:
+    frequency << [new Poisson(equal, 20),
+                  new Binomial(equal, 30, 0.4),
+                  new Binomial(equal, 10, 1.0),
+                  new NegativeBinomial(equal, 3, 0.3)]
+  }
+
+  def "recursion survives a start value that underflows"() {
+    setup:
+    def terms = CompoundDistribution.frequency(new Poisson(equal, 5000))
+    def recursion = CompoundDistribution.recursion(terms, severity, 40000)
+    def size = CompoundDistribution.transformSize(terms, severity, 40000)
+    def transform = CompoundDistribution.transform(terms, severity, 40000, size)
+
+    expect:
+    Math.abs(recursion.sum() - 1.0) < 1.0E-11
+    (0..40000).every { Math.abs(recursion[it] - transform[it]) < 1.0E-14 }
+  }
+
+  def "aggregate of poisson events that each count one is poisson"() {
+    setup:
+    double[] one = [0.0, 1.0]
+    def aggregate = CompoundDistribution.of(lessThanOrEqual,
+                                            new Poisson(equal, 50), one, 200)
+
+    expect:
+    (0..200).every {
+      Math.abs(aggregate.getResult(it) - Poisson.probability(50, it) -
+                   (it > 0 ? aggregate.getResult(it - 1) : 0.0)) < resolution
+    }
+  }
+
+  def "other frequencies are rejected"() {
+    when:
+    CompoundDistribution.of(equal, new Geometric(equal, 0.5), severity, 10)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
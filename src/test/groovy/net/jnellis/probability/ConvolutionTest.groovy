@@ -0,0 +1,86 @@
+/*
+ * ConvolutionTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Sums of independent variables against sums with known distributions.
+ */
+class ConvolutionTest extends Specification {
+  double resolution = 1.0E-12
+
+  def "sum of poisson variables is poisson"() {
+    setup:
+    def sum = Convolution.of(lessThanOrEqual,
+                             new Poisson(equal, 300), new Poisson(equal, 200))
+    def poisson = new Poisson(lessThanOrEqual, 500)
+
+    expect:
+    (0..700).every { Math.abs(sum.getResult(it) - poisson.cumulativeProbability(it)) < resolution }
+    Math.abs(sum.getExpectedValue() - 500) < 1.0E-9
+  }
+
+  def "sum of binomial variables with the same chance is binomial"() {
+    setup:
+    def sum = Convolution.of(equal, new Binomial(equal, 100, 0.3),
+                             new Binomial(equal, 40, 0.3),
+                             new Binomial(equal, 3, 0.3))
+
+    expect:
+    sum.getLargestValue() == 143
+    (0..143).every { Math.abs(sum.getResult(it) - Binomial.probability(143, 0.3, it)) < resolution }
+  }
+
+  def "mean and variance of a mixed sum add up"() {
+    setup:
+    def sum = Convolution.of(lessThanOrEqual, new Poisson(equal, 4.5),
+                             new Binomial(equal, 20, 0.3),
+                             new HyperGeometric(equal, 50, 10, 12))
+    def hyperGeometricVariance = 10 * 12 / 50 * 38 / 50 * 40 / 49
+
+    expect:
+    Math.abs(sum.getExpectedValue() - 12.9) < 1.0E-9
+    Math.abs(sum.getVariance() - (4.5 + 4.2 + hyperGeometricVariance)) < 1.0E-9
+    Math.abs(sum.cumulativeProbability(sum.getLargestValue()) - 1.0) < 1.0E-14
+  }
+
+  @Unroll
+  def "quantile #p of the sum agrees with poisson"() {
+    setup:
+    def sum = Convolution.of(lessThanOrEqual,
+                             new Poisson(equal, 300), new Poisson(equal, 200))
+    def poisson = new Poisson(lessThanOrEqual, 500)
+
+    expect:
+    sum.quantile(p) == poisson.quantile(p)
+    sum.cumulativeProbability(sum.quantile(p)) >= p
+    sum.cumulativeProbability(sum.quantile(p) - 1) < p
+
+    where:
+    p << [0.01, 0.25, 0.5, 0.75, 0.99]
+  }
+
+  @Unroll
+  def "tabulated cumulative operation #op agrees with summing"() {
+    setup:
+    double[] die = [0, 1 / 6, 1 / 6, 1 / 6, 1 / 6, 1 / 6, 1 / 6]
+    def pdf = new TabulatedDistribution(op, die)
+
+    expect:
+    Math.abs(pdf.getResult(4) - op.apply(4, pdf.&computeResult)) < resolution
+
+    where:
+    op << [equal, notEqual, lessThan, lessThanOrEqual,
+           greaterThan, greaterThanOrEqual]
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * DifferentiableProbabilityTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Closed form scores against central differences of the log probability.
+ */
+class DifferentiableProbabilityTest extends Specification {
+
+  @Unroll
+  def "#name scores match central differences"() {
+    setup:
+    def h = 1.0E-6
+    def distribution = create(parameter)
+
+    expect:
+    randomVariables.every { int y ->
+      double difference = (Math.log(create(parameter + h).computeResult(y))
+          - Math.log(create(parameter - h).computeResult(y))) / (2 * h)
+      double direct = Math.log(distribution.computeResult(y))
+      Math.abs(distribution.score(y) - difference) < 1.0E-8 * Math.max(1.0, Math.abs(difference)) &&
+          Math.abs(distribution.logProbability(y) - direct) < 1.0E-13 * Math.max(1.0, Math.abs(direct))
+    }
+
+    where:
+    name               | parameter | randomVariables         | create
+    "binomial"         | 0.3       | [0, 1, 5, 12, 39, 40]   | { p -> new Binomial(equal, 40, p) }
+    "poisson"          | 4.5       | [0, 1, 3, 7, 20]        | { l -> new Poisson(equal, l) }
+    "geometric"        | 0.2       | [1, 2, 5, 30]           | { p -> new Geometric(equal, p) }
+    "negativeBinomial" | 0.4       | [3, 4, 8, 20]           | { p -> new NegativeBinomial(equal, 3, p) }
+  }
+
+  def "outside the support there is no score"() {
+    expect:
+    new Binomial(equal, 40, 0.3).logProbability(41) == Double.NEGATIVE_INFINITY
+    Double.isNaN(new Binomial(equal, 40, 0.3).score(41))
+    Double.isNaN(new Geometric(equal, 0.2).score(0))
+    Double.isNaN(new NegativeBinomial(equal, 3, 0.4).score(2))
+  }
+
+  def "the score of the maximum likelihood estimate is zero"() {
+    setup:
+    int[] observations = [2, 5, 3, 4, 6, 1, 0, 3]
+    double mean = observations.sum() / observations.length
+
+    expect:
+    Math.abs(new Poisson(equal, mean).totalScore(observations).getScore()) < 1.0E-12
+  }
+
+  def "batches match single observations"() {
+    setup:
+    def binomial = new Binomial(equal, 40, 0.3)
+    def random = new Random(1)
+    int[] observations = (1..5000).collect { random.nextInt(41) }
+    double[] logProbabilities = new double[observations.length]
+    double[] scores = new double[observations.length]
+    binomial.scores(observations, logProbabilities, scores)
+    def total = binomial.totalScore(observations)
+
+    expect:
+    (0..<observations.length).every {
+      logProbabilities[it] == binomial.logProbability(observations[it]) &&
+          scores[it] == binomial.score(observations[it])
+    }
+    Math.abs(total.getScore() - scores.sum()) < 1.0E-8
+    Math.abs(total.getLogProbability() - logProbabilities.sum()) < 1.0E-8
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * DistributionRegistryTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Interning, shared tables and eviction by weight.
+ */
+class DistributionRegistryTest extends Specification {
+  DistributionRegistry registry = new DistributionRegistry(1 << 20)
+
+  def "the same type, parameters and operation share an instance"() {
+    setup:
+    def first = registry.get(lessThan, DistributionType.binomial, 1000, 0.3)
+
+    expect:
+    registry.get(lessThan, DistributionType.binomial, 1000, 0.3).is(first)
+    !registry.get(equal, DistributionType.binomial, 1000, 0.3).is(first)
+    !registry.get(lessThan, DistributionType.binomial, 1000, 0.4).is(first)
+    registry.intern(new Binomial(lessThan, 1000, 0.3)).is(first)
+    registry.size() == 2
+    registry.getMisses() == 2
+    registry.getHits() == 3
+  }
+
+  def "tables are computed once and shared by every operation"() {
+    setup:
+    def greater = registry.tabulated(greaterThan, DistributionType.poisson, 4.5)
+    def weight = registry.getWeight()
+    def less = registry.tabulated(lessThanOrEqual, DistributionType.poisson, 4.5)
+
+    expect:
+    registry.tabulated(greaterThan, DistributionType.poisson, 4.5).is(greater)
+    Math.abs(greater.getResult(3) - new Poisson(greaterThan, 4.5).getResult(3)) < 1.0E-14
+    Math.abs(less.getResult(3) + greater.getResult(3) - 1.0) < 1.0E-14
+    registry.getWeight() == weight + DistributionRegistry.INSTANCE_WEIGHT
+  }
+
+  def "invalid parameters leave nothing behind"() {
+    when:
+    registry.get(equal, DistributionType.poisson, -1.0)
+
+    then:
+    thrown(AssertionError)
+    registry.size() == 0
+    registry.getWeight() == 0
+  }
+
+  def "tabulated distributions aren't interned"() {
+    setup:
+    def table = new TabulatedDistribution(equal, [0.5, 0.5] as double[])
+
+    expect:
+    registry.intern(table).is(table)
+
+    when:
+    registry.get(equal, DistributionType.tabulated)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  def "approximate distributions aren't interned"() {
+    setup:
+    def approximate = new Binomial(lessThanOrEqual, 100000, 0.3, 1e-2)
+
+    expect:
+    registry.intern(approximate).is(approximate)
+    registry.size() == 0
+    registry.get(lessThanOrEqual, DistributionType.binomial, 100000, 0.3)
+        .getTolerance() == 0.0d
+  }
+
+  def "fractional counts share the entry of their whole counts"() {
+    expect:
+    registry.get(equal, DistributionType.binomial, 1000.5, 0.3).is(
+        registry.get(equal, DistributionType.binomial, 1000, 0.3))
+    registry.size() == 1
+    registry.getMisses() == 1
+    registry.getHits() == 1
+  }
+
+  def "stays within its weight under concurrent use"() {
+    setup:
+    def pool = Executors.newFixedThreadPool(8)
+    def tasks = (0..<8).collect { int seed ->
+      { ->
+        def random = new Random(seed)
+        (0..<20000).every {
+          int trials = random.nextInt(3000)
+          def distribution = random.nextInt(10) == 0
+              ? registry.tabulated(equal, DistributionType.binomial, trials, 0.5)
+              : registry.get(lessThanOrEqual, DistributionType.binomial, trials, 0.5)
+          distribution.getExpectedValue() == trials * 0.5
+        }
+      } as Callable<Boolean>
+    }
+
+    expect:
+    pool.invokeAll(tasks).every { it.get() }
+    registry.getEvictions() > 0
+    registry.getWeight() <= registry.getMaximumWeight()
+
+    when:
+    registry.clear()
+
+    then:
+    registry.size() == 0
+    registry.getWeight() == 0
+
+    cleanup:
+    pool.shutdown()
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * DistributionStreamTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Streams generated by recurrence must agree with the direct computations,
+ * sequential or parallel.
+ */
+class DistributionStreamTest extends Specification {
+  double resolution = 1.0E-12
+
+  @Unroll
+  def "pmf stream of #distribution.class.simpleName matches computeResult"() {
+    expect:
+    double[] sequential = distribution.pmfStream().toArray()
+    double[] parallel = distribution.pmfStream().parallel().toArray()
+    sequential.length == length
+    (0..<sequential.length).every {
+      Math.abs(sequential[it] - distribution.computeResult(it)) < resolution &&
+          Math.abs(parallel[it] - sequential[it]) < resolution
+    }
+
+    where:
+    distribution                             | length
+    new Binomial(equal, 5000, 0.3)           | 5001
+    new Poisson(equal, 3000)                 | 3446
+    new Poisson(equal, 0.5)                  | 14
+    new Geometric(equal, 0.02)               | 1711
+    new NegativeBinomial(equal, 3, 0.02)     | 2049
+    new HyperGeometric(equal, 800, 400, 300) | 301
+  }
+
+  @Unroll
+  def "cdf stream of #distribution.class.simpleName matches the sum of the pmf"() {
+    expect:
+    double[] cdf = distribution.cdfStream().parallel().toArray()
+    (0..<cdf.length).every {
+      Math.abs(cdf[it] - lessThanOrEqual.apply(it, distribution.&computeResult)) < 1.0E-10
+    }
+    Math.abs(cdf[cdf.length - 1] - 1.0) < 1.0E-14
+
+    where:
+    distribution << [new Binomial(equal, 3000, 0.4),
+                     new Poisson(equal, 2500),
+                     new Geometric(equal, 0.1),
+                     new NegativeBinomial(equal, 4, 0.3),
+                     new HyperGeometric(equal, 200, 50, 80)]
+  }
+
+  def "the tail mass truncates an infinite support"() {
+    setup:
+    def poisson = new Poisson(equal, 7)
+    double[] pmf = poisson.pmfStream(1.0E-6).toArray()
+    int last = pmf.length - 1
+
+    expect:
+    poisson.survivalProbability(last) <= 1.0E-6
+    poisson.survivalProbability(last - 1) > 1.0E-6
+  }
+
+  @Unroll
+  def "closed form cumulative probability of #distribution.class.simpleName at #y"() {
+    expect:
+    Math.abs(distribution.cumulativeProbability(y) -
+                 lessThanOrEqual.apply(y, distribution.&computeResult)) < resolution
+    Math.abs(distribution.survivalProbability(y) -
+                 greaterThan.apply(y, distribution.&computeResult)) < resolution
+
+    where:
+    distribution                           | y
+    new Binomial(equal, 600, 1.0 / 3)      | 200
+    new Poisson(equal, 5.1)                | 4
+    new Geometric(equal, 0.02)             | 4
+    new NegativeBinomial(equal, 3, 0.02)   | 20
+    new HyperGeometric(equal, 200, 50, 80) | 12
+    new HyperGeometric(equal, 200, 50, 80) | 27
+  }
+
+  def "a parallel cdf stream of a large hypergeometric matches the sequential one"() {
+    setup:
+    def hyperGeometric = new HyperGeometric(equal, 40000, 20000, 20000)
+    double[] sequential = hyperGeometric.cdfStream().toArray()
+    double[] parallel = hyperGeometric.cdfStream().parallel().toArray()
+
+    expect:
+    parallel.length == sequential.length
+    (0..<sequential.length).every {
+      Math.abs(parallel[it] - sequential[it]) < 1.0E-10
+    }
+  }
+
+  def "negative binomial with one success is the geometric distribution"() {
+    expect:
+    Math.abs(NegativeBinomial.probability(1, 0.3, y) -
+                 Geometric.probability(0.3, y)) < resolution
+
+    where:
+    y << [1, 2, 5, 10]
+  }
+
+  def "Poisson probability with lambda below one"() {
+    expect:
+    Math.abs(Poisson.probability(0.5, 3) -
+                 Math.exp(-0.5) * 0.125 / 6) < resolution
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * EmpiricalDistributionTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.IntStream
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Fenwick tree queries against running sums of the same counts.
+ */
+class EmpiricalDistributionTest extends Specification {
+  double resolution = 1.0E-15
+
+  long[] counts() {
+    def random = new Random(3)
+    long[] counts = new long[501]
+    10000.times {
+      counts[(int) Math.min(500, Math.abs(random.nextGaussian() * 50 + 150))]++
+    }
+    counts
+  }
+
+  @Unroll
+  def "cumulative operation #op agrees with summing the counts"() {
+    setup:
+    long[] counts = counts()
+    def observed = new EmpiricalDistribution(op, 500)
+    counts.eachWithIndex { long count, int value -> observed.add(value, count) }
+    def built = new EmpiricalDistribution(op, counts)
+
+    expect:
+    (0..500).step(7).every {
+      double expected = op.apply(it, observed.&computeResult)
+      Math.abs(observed.getResult(it) - expected) < 1.0E-12 &&
+          Math.abs(built.getResult(it) - expected) < 1.0E-12
+    }
+
+    where:
+    op << [equal, notEqual, lessThan, lessThanOrEqual,
+           greaterThan, greaterThanOrEqual]
+  }
+
+  def "quantiles agree with a linear search of the running sums"() {
+    setup:
+    long[] counts = counts()
+    long[] running = new long[counts.length]
+    long total = 0
+    counts.eachWithIndex { long count, int i -> total += count; running[i] = total }
+    def observed = new EmpiricalDistribution(lessThanOrEqual, counts)
+
+    expect:
+    (0..1000).every {
+      double p = it / 1000.0
+      int expected = 0
+      while (running[expected] < p * total) {
+        expected++
+      }
+      observed.quantile(p) == expected
+    }
+  }
+
+  def "concurrent additions are all counted"() {
+    setup:
+    def observed = new EmpiricalDistribution(equal, 100)
+    IntStream.range(0, 1000000).parallel().forEach { observed.add(it % 101) }
+
+    expect:
+    observed.getTotal() == 1000000
+    observed.getCount(7) == 9901
+    Math.abs(observed.getExpectedValue() - 49.99995) < 1.0E-9
+  }
+
+  def "a snapshot is independent of later additions"() {
+    setup:
+    def observed = new EmpiricalDistribution(lessThanOrEqual, counts())
+    def snapshot = observed.snapshot()
+    observed.add(5, 1000)
+
+    expect:
+    snapshot.getTotal() == 10000
+    observed.getTotal() == 11000
+    Math.abs(snapshot.pmfStream().sum() - 1.0) < resolution * 100
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * LongDistributionTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * The long distributions against the int distributions where both apply,
+ * and against themselves past 2^31.
+ */
+class LongDistributionTest extends Specification {
+
+  @Unroll
+  def "#large.class.simpleName agrees with #small.class.simpleName"() {
+    expect:
+    (0..400).every {
+      Math.abs(large.getResult(it) - small.getResult(it)) < 1.0E-12 &&
+          Math.abs(large.computeResult(it) - small.computeResult(it)) < 1.0E-14
+    }
+    [0.01, 0.3, 0.5, 0.99].every { large.quantile(it) == small.quantile(it) }
+
+    where:
+    large                                                   | small
+    new LongBinomial(lessThanOrEqual, 1000, 0.3)            | new Binomial(lessThanOrEqual, 1000, 0.3)
+    new LongPoisson(greaterThan, 45.5)                      | new Poisson(greaterThan, 45.5)
+    new LongGeometric(greaterThanOrEqual, 0.05)             | new Geometric(greaterThanOrEqual, 0.05)
+    new LongNegativeBinomial(lessThan, 7, 0.2)              | new NegativeBinomial(lessThan, 7, 0.2)
+    new LongHyperGeometric(lessThanOrEqual, 5000, 700, 1300) | new HyperGeometric(lessThanOrEqual, 5000, 700, 1300)
+  }
+
+  @Unroll
+  def "#distribution.class.simpleName past 2^31 is consistent"() {
+    setup:
+    long median = distribution.quantile(0.5)
+
+    expect:
+    median > Integer.MAX_VALUE
+    distribution.cumulativeProbability(median) >= 0.5
+    distribution.cumulativeProbability(median - 1) < 0.5
+    Math.abs(distribution.cumulativeProbability(median) +
+                 distribution.survivalProbability(median) - 1.0) < 1.0E-12
+    Math.abs(distribution.cumulativeProbability(median) -
+                 distribution.cumulativeProbability(median - 1) -
+                 distribution.computeResult(median)) < 1.0E-10
+
+    where:
+    distribution << [
+        new LongBinomial(equal, 50000000000L, 0.3),
+        new LongPoisson(equal, 1.0E12),
+        new LongGeometric(equal, 1.0E-11),
+        new LongNegativeBinomial(equal, 3000000000L, 0.6),
+        new LongHyperGeometric(equal, 40000000000L, 30000000000L, 10000000000L)]
+  }
+
+  def "cumulative operations apply to a long distribution function"() {
+    setup:
+    def cdf = { long y -> y < 0 ? 0.0 : 1.0 - Math.pow(0.5, y + 1) }
+
+    expect:
+    CumulativeOperation.fromLongDistribution(lessThanOrEqual, 3L, cdf) == 0.9375
+    CumulativeOperation.fromLongDistribution(greaterThanOrEqual, 1L, cdf) == 0.5
+    CumulativeOperation.fromLongDistribution(equal, 0L, cdf) == 0.5
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * MappedDistributionTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.PosixFilePermissions
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Tables written to a file and mapped back against the distributions they
+ * were written from.
+ */
+class MappedDistributionTest extends Specification {
+  Path directory = Files.createTempDirectory("tables")
+
+  def cleanup() {
+    directory.toFile().deleteDir()
+  }
+
+  @Unroll
+  def "mapped #distribution.class.simpleName answers like the original"() {
+    setup:
+    def file = directory.resolve("table.dscp")
+    MappedDistribution.write(file, distribution)
+    def mapped = MappedDistribution.open(file, lessThanOrEqual)
+
+    expect:
+    mapped.getType() == DistributionType.of(distribution)
+    mapped.getParameters() == mapped.getType().parameters(distribution)
+    mapped.getExpectedValue() == distribution.getExpectedValue()
+    (0..mapped.getLargestValue()).step(step).every {
+      Math.abs(mapped.getResult(it) - distribution.cumulativeProbability(it)) < 1.0E-12 &&
+          Math.abs(mapped.computeResult(it) - distribution.computeResult(it)) < 1.0E-14
+    }
+
+    where:
+    distribution                           | step
+    new Binomial(equal, 100000, 0.3)       | 97
+    new Poisson(equal, 5000.0)             | 13
+    new Geometric(equal, 0.01)             | 7
+    new NegativeBinomial(equal, 20, 0.25)  | 3
+    new HyperGeometric(equal, 500, 100, 60) | 1
+  }
+
+  def "a damaged file fails its checksum"() {
+    setup:
+    def file = directory.resolve("table.dscp")
+    MappedDistribution.write(file, new Poisson(equal, 100.0))
+    byte[] bytes = Files.readAllBytes(file)
+    bytes[bytes.length - 10] ^= 1
+    Files.write(file, bytes)
+
+    when:
+    MappedDistribution.open(file, equal, true)
+
+    then:
+    thrown(IOException)
+
+    when:
+    def unverified = MappedDistribution.open(file, equal)
+
+    then:
+    notThrown(IOException)
+    unverified.largestValue > 100
+  }
+
+  def "a damaged header fails without verification"() {
+    setup:
+    def file = directory.resolve("table.dscp")
+    MappedDistribution.write(file, new Poisson(equal, 100.0))
+    byte[] bytes = Files.readAllBytes(file)
+    bytes[16] ^= 1
+    Files.write(file, bytes)
+
+    when:
+    MappedDistribution.open(file, equal)
+
+    then:
+    thrown(IOException)
+  }
+
+  def "published tables are readable by every user"() {
+    setup:
+    def file = directory.resolve("table.dscp")
+    MappedDistribution.write(file, new Poisson(equal, 10.0))
+
+    expect:
+    !Files.getFileStore(file).supportsFileAttributeView("posix") ||
+        PosixFilePermissions.toString(Files.getPosixFilePermissions(file)) ==
+        "rw-r--r--"
+  }
+
+  def "types recreate distributions from their parameters"() {
+    setup:
+    def binomial = new Binomial(equal, 40, 0.2)
+    def type = DistributionType.of(binomial)
+    def copy = type.create(lessThan, type.parameters(binomial))
+
+    expect:
+    type == DistributionType.binomial
+    DistributionType.fromCode(type.getCode()) == type
+    copy.getResult(8) == new Binomial(lessThan, 40, 0.2).getResult(8)
+  }
+}
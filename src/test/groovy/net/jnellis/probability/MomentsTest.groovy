@@ -0,0 +1,112 @@
+/*
+ * MomentsTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.IntToDoubleFunction
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Closed form moments and generating functions against sums over the
+ * probability distribution function.
+ */
+class MomentsTest extends Specification {
+
+  static double sum(DiscreteProbability distribution, int highest, IntToDoubleFunction g) {
+    double total = 0.0
+    for (int y = 0; y <= highest; y++) {
+      double p = distribution.computeResult(y)
+      if (p > 0.0) {
+        total += g.applyAsDouble(y) * p
+      }
+    }
+    total
+  }
+
+  static boolean close(double actual, double expected) {
+    Math.abs(actual - expected) <= 1.0E-10 * Math.max(1.0, Math.abs(expected))
+  }
+
+  @Unroll
+  def "#name closed forms match sums of its probabilities"() {
+    setup:
+    double mean = distribution.getExpectedValue()
+    double sd = Math.sqrt(distribution.getVariance())
+
+    expect:
+    close(distribution.getSkewness(), sum(distribution, highest, { y -> Math.pow((y - mean) / sd, 3) }))
+    close(distribution.getKurtosis(), sum(distribution, highest, { y -> Math.pow((y - mean) / sd, 4) }) - 3.0)
+    (0..5).every { int r ->
+      close(distribution.factorialMoment(r), sum(distribution, highest, { y ->
+        double product = 1.0
+        for (int i = 0; i < r; i++) {
+          product *= y - i
+        }
+        product
+      }))
+    }
+    [-0.5d, 0.3d, 0.9d, 1.0d].every { double s ->
+      close(distribution.generatingFunction(s), sum(distribution, highest, { y -> Math.pow(s, y) }))
+    }
+
+    where:
+    name               | distribution                          | highest
+    "binomial"         | new Binomial(equal, 40, 0.3)          | 40
+    "poisson"          | new Poisson(equal, 4.5)               | 200
+    "geometric"        | new Geometric(equal, 0.2)             | 400
+    "negativeBinomial" | new NegativeBinomial(equal, 3, 0.4)   | 400
+    "hyperGeometric"   | new HyperGeometric(equal, 60, 20, 25) | 20
+  }
+
+  def "distributions without closed forms sum their moments"() {
+    setup:
+    def poisson = new Poisson(equal, 4.5)
+    def shifted = new ShiftedDistribution(equal, poisson, 0)
+
+    expect:
+    close(shifted.getSkewness(), poisson.getSkewness())
+    close(shifted.getKurtosis(), poisson.getKurtosis())
+    close(shifted.factorialMoment(3), poisson.factorialMoment(3))
+    close(shifted.generatingFunction(0.3), poisson.generatingFunction(0.3))
+  }
+
+  def "expectations sum a function over the support"() {
+    setup:
+    def binomial = new Binomial(equal, 1000000, 0.3)
+    double sd = Math.sqrt(binomial.getVariance())
+
+    expect:
+    Math.abs(binomial.expectation({ y -> Math.pow((y - 300000.0) / sd, 4) })
+                 - 3.0 - binomial.getKurtosis()) < 1.0E-10
+    close(binomial.expectation({ y -> y }), binomial.getExpectedValue())
+  }
+
+  def "conditional expectations divide by the probability of the range"() {
+    setup:
+    def poisson = new Poisson(equal, 4.5)
+    double expected = sum(poisson, 9, { y -> y >= 5 ? y : 0 }) / sum(poisson, 9, { y -> y >= 5 ? 1 : 0 })
+
+    expect:
+    close(poisson.conditionalExpectation({ y -> y }, 5, 9), expected)
+    Double.isNaN(new Binomial(equal, 10, 0.3).conditionalExpectation({ y -> y }, 11, 20))
+  }
+
+  def "conditional expectations far out in a tail keep their precision"() {
+    setup:
+    def binomial = new Binomial(equal, 1000000, 0.3)
+    double tail = binomial.conditionalExpectation({ y -> y }, 303000, Integer.MAX_VALUE)
+
+    expect:
+    tail > 303000 && tail < 303100
+    close(binomial.conditionalExpectation({ y -> 1.0 }, 303000, Integer.MAX_VALUE), 1.0)
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * MultinomialTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * The chain of binomial densities against the factorial formula.
+ */
+class MultinomialTest extends Specification {
+  Multinomial multinomial = new Multinomial(12, 0.1, 0.2, 0.3, 0.4)
+
+  static double logFactorial(int n) {
+    (2..<Math.max(2, n + 1)).sum(0.0) { Math.log(it) }
+  }
+
+  @Unroll
+  def "probability of #counts"() {
+    setup:
+    def expected = logFactorial(12) +
+        [counts, [0.1, 0.2, 0.3, 0.4]].transpose().sum(0.0) { int x, double p ->
+          x * Math.log(p) - logFactorial(x)
+        }
+
+    expect:
+    Math.abs(multinomial.logProbability(counts as int[]) - expected) < 1.0E-12
+
+    where:
+    counts << [[1, 2, 4, 5], [12, 0, 0, 0], [0, 0, 0, 12], [3, 3, 3, 3]]
+  }
+
+  def "impossible counts have no probability"() {
+    expect:
+    multinomial.probability(1, 2, 3, 4) == 0.0
+    new Multinomial(5, 0.5, 0.5, 0.0).probability(2, 2, 1) == 0.0
+  }
+
+  def "batches match single outcomes"() {
+    setup:
+    def random = new Random(3)
+    int[][] outcomes = (1..2000).collect { multinomial.sample(random) } as int[][]
+
+    expect:
+    multinomial.logProbabilities(outcomes) ==
+        outcomes.collect { multinomial.logProbability(it) } as double[]
+  }
+
+  def "samples follow the distribution"() {
+    setup:
+    def random = new Random(7)
+    def trials = 100000
+    def firsts = new int[13]
+    trials.times { firsts[multinomial.sample(random)[0]]++ }
+    def first = multinomial.marginal(equal, 0)
+
+    expect:
+    (0..3).every {
+      Math.abs(firsts[it] / trials - first.computeResult(it)) < 0.01
+    }
+  }
+
+  def "marginals and conditionals are binomial"() {
+    expect:
+    multinomial.marginal(equal, 2).chanceOfSuccess == 0.3
+    multinomial.conditional(equal, 1, 3, 2).trials == 10
+    Math.abs(multinomial.conditional(equal, 1, 3, 2).chanceOfSuccess - 0.2 / 0.6) < 1.0E-15
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * MultivariateHyperGeometricTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Bridge hands against counts of combinations.
+ */
+class MultivariateHyperGeometricTest extends Specification {
+  MultivariateHyperGeometric hands =
+      new MultivariateHyperGeometric(13, 13, 13, 13, 13)
+
+  static BigInteger choose(int n, int k) {
+    (1..k).inject(BigInteger.ONE) { c, i ->
+      c * BigInteger.valueOf(n - k + i) / BigInteger.valueOf(i)
+    }
+  }
+
+  @Unroll
+  def "chance of a #suits hand"() {
+    setup:
+    def ways = suits.inject(BigInteger.ONE) { w, x -> w * choose(13, x) }
+    def expected = ways.doubleValue() / choose(52, 13).doubleValue()
+
+    expect:
+    Math.abs(hands.probability(suits as int[]) / expected - 1.0) < 1.0E-12
+
+    where:
+    suits << [[4, 3, 3, 3], [13, 0, 0, 0], [5, 4, 2, 2], [0, 6, 7, 0]]
+  }
+
+  def "impossible hands have no probability"() {
+    expect:
+    hands.probability(4, 4, 4, 4) == 0.0
+    hands.probability(14, 0, 0, -1) == 0.0
+  }
+
+  def "samples follow the distribution"() {
+    setup:
+    def random = new Random(5)
+    def samples = 100000
+    def spades = new int[14]
+    samples.times { spades[hands.sample(random)[0]]++ }
+    def marginal = hands.marginal(equal, 0)
+
+    expect:
+    hands.logProbabilities([[4, 3, 3, 3], [4, 4, 4, 4]] as int[][]) ==
+        [hands.logProbability(4, 3, 3, 3), Double.NEGATIVE_INFINITY] as double[]
+    (0..6).every {
+      Math.abs(spades[it] / samples - marginal.computeResult(it)) < 0.01
+    }
+  }
+
+  def "marginals and conditionals are hypergeometric"() {
+    setup:
+    def conditional = hands.conditional(equal, 1, 0, 5)
+
+    expect:
+    hands.marginal(equal, 0).populationSize == 52
+    conditional.populationSize == 39
+    conditional.sampleSize == 8
+    conditional.successStates == 13
+  }
+}
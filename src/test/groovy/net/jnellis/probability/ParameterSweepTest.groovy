@@ -0,0 +1,107 @@
+/*
+ * ParameterSweepTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Parameter sweeps against the closed forms of every cell.
+ */
+class ParameterSweepTest extends Specification {
+
+  static boolean close(double actual, double expected) {
+    Math.abs(actual - expected) <= 1.0E-13 * Math.max(1.0E-3, Math.abs(expected))
+  }
+
+  static double expected(DiscreteProbability distribution, int y) {
+    switch (distribution.getCumulativeOperation()) {
+      case lessThan: return distribution.cumulativeProbability(y - 1)
+      case lessThanOrEqual: return distribution.cumulativeProbability(y)
+      case greaterThan: return distribution.survivalProbability(y)
+      case greaterThanOrEqual: return distribution.survivalProbability(y - 1)
+      case equal: return distribution.computeResult(y)
+      default: return 1.0 - distribution.computeResult(y)
+    }
+  }
+
+  def "a grid includes both ends"() {
+    expect:
+    ParameterSweep.grid(0.1, 0.2, 3) as List == [0.1d, 0.15000000000000002d, 0.2d]
+    ParameterSweep.grid(1, 50, 50)[49] == 50.0d
+  }
+
+  @Unroll
+  def "binomial sweep of #operation matches each cell"() {
+    setup:
+    double[] chances = ParameterSweep.grid(0.25, 0.35, 41)
+    int[] randomVariables = [280, 290, 300, 301, 302, 310, 320, 0, 100, 500, 999, 1000, 300]
+    def table = ParameterSweep.binomial(operation, 1000, chances, randomVariables)
+
+    expect:
+    table.length == chances.length
+    (0..<chances.length).every { i ->
+      def distribution = new Binomial(operation, 1000, chances[i])
+      (0..<randomVariables.length).every { j ->
+        close(table[i][j], expected(distribution, randomVariables[j]))
+      }
+    }
+
+    where:
+    operation << [lessThan, lessThanOrEqual, greaterThan, greaterThanOrEqual, equal, notEqual]
+  }
+
+  @Unroll
+  def "#name sweep matches each cell"() {
+    setup:
+    int[] randomVariables = (0..<80) as int[]
+
+    expect:
+    (0..<parameters.length).every { i ->
+      def distribution = create(parameters[i])
+      (0..<randomVariables.length).every { j ->
+        close(table[i][j], expected(distribution, randomVariables[j]))
+      }
+    }
+
+    where:
+    name               | parameters                           | table                                                                                               | create
+    "poisson"          | ParameterSweep.grid(1, 50, 50)       | ParameterSweep.poisson(greaterThan, ParameterSweep.grid(1, 50, 50), (0..<80) as int[])            | { l -> new Poisson(greaterThan, l) }
+    "geometric"        | ParameterSweep.grid(0.1, 0.9, 9)     | ParameterSweep.geometric(lessThanOrEqual, ParameterSweep.grid(0.1, 0.9, 9), (0..<80) as int[])    | { p -> new Geometric(lessThanOrEqual, p) }
+    "negativeBinomial" | ParameterSweep.grid(0.2, 0.6, 9)     | ParameterSweep.negativeBinomial(greaterThanOrEqual, 3, ParameterSweep.grid(0.2, 0.6, 9), (0..<80) as int[]) | { p -> new NegativeBinomial(greaterThanOrEqual, 3, p) }
+    "hyperGeometric"   | [100d, 200d, 300d, 400d] as double[] | ParameterSweep.hyperGeometric(lessThanOrEqual, 1000, 100, [100, 200, 300, 400] as int[], (0..<80) as int[]) | { r -> new HyperGeometric(lessThanOrEqual, 1000, 100, (int) r) }
+  }
+
+  def "operations other than the constants are evaluated cell by cell"() {
+    setup:
+    CumulativeOperation pair = { int rv, p -> p.applyAsDouble(rv) + p.applyAsDouble(rv + 1) }
+    double[] lambdas = [1.5, 4.5]
+    def table = ParameterSweep.poisson(pair, lambdas, 0, 3, 7)
+
+    expect:
+    table[1][1] == new Poisson(equal, 4.5).computeResult(3) + new Poisson(equal, 4.5).computeResult(4)
+  }
+
+  def "a dense sweep of a large binomial stays within rounding of the closed forms"() {
+    setup:
+    double[] chances = ParameterSweep.grid(0.29, 0.31, 5)
+    int[] randomVariables = (298000..<299000) as int[]
+    def table = ParameterSweep.binomial(lessThanOrEqual, 1000000, chances, randomVariables)
+
+    expect:
+    (0..<chances.length).every { i ->
+      def distribution = new Binomial(lessThanOrEqual, 1000000, chances[i])
+      (0..<randomVariables.length).step(37).every { j ->
+        Math.abs(table[i][j] - distribution.cumulativeProbability(randomVariables[j])) < 1.0E-12
+      }
+    }
+  }
+}
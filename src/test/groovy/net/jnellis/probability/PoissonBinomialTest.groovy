@@ -0,0 +1,103 @@
+/*
+ * PoissonBinomialTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * The Poisson binomial distribution against the binomial and against
+ * trial by trial dynamic programming.
+ */
+class PoissonBinomialTest extends Specification {
+  double resolution = 1.0E-12
+
+  @Unroll
+  def "identical chances of #p over #n trials is the binomial distribution"() {
+    setup:
+    double[] chances = new double[n]
+    Arrays.fill(chances, p)
+    def table = PoissonBinomial.probabilities(chances)
+
+    expect:
+    table.length == n + 1
+    (0..n).every { Math.abs(table[it] - Binomial.probability(n, p, it)) < resolution }
+
+    where:
+    n    | p
+    1    | 0.5
+    10   | 1.0 / 6
+    64   | 0.3
+    65   | 0.3
+    5000 | 0.3
+  }
+
+  def "different chances agree with trial by trial dynamic programming"() {
+    setup:
+    def random = new Random(42)
+    double[] chances = (0..<2000).collect { random.nextDouble() } as double[]
+    double[] expected = new double[chances.length + 1]
+    expected[0] = 1.0
+    chances.eachWithIndex { double p, int i ->
+      for (int k = i + 1; k > 0; k--) {
+        expected[k] = expected[k] * (1.0 - p) + expected[k - 1] * p
+      }
+      expected[0] *= 1.0 - p
+    }
+    def pdf = new PoissonBinomial(equal, chances)
+
+    expect:
+    (0..chances.length).every { Math.abs(pdf.getResult(it) - expected[it]) < resolution }
+    Math.abs(pdf.getExpectedValue() - chances.sum()) < resolution
+  }
+
+  @Unroll
+  def "cumulative operation #op of the free throw example at 7"() {
+    setup:
+    double[] chances = [0.9, 0.75, 0.6, 0.8, 0.7, 0.85, 0.5, 0.65, 0.7, 0.8]
+    def pdf = new PoissonBinomial(op, chances)
+
+    expect:
+    Math.abs(pdf.getResult(7) - op.apply(7, pdf.&computeResult)) < resolution
+
+    where:
+    op << [equal, notEqual, lessThan, lessThanOrEqual,
+           greaterThan, greaterThanOrEqual]
+  }
+
+  def "refined normal approximation stays within tolerance"() {
+    setup:
+    def random = new Random(7)
+    double[] chances = (0..<100000).collect { random.nextDouble() } as double[]
+    def exact = new PoissonBinomial(lessThanOrEqual, chances)
+    def approximate = new PoissonBinomial(lessThanOrEqual, chances, 0.005)
+
+    expect:
+    (49000..51000).step(50).every {
+      Math.abs(approximate.getResult(it) - exact.getResult(it)) <= 0.005
+    }
+  }
+
+  def "the skewness refinement counts against the tolerance"() {
+    setup:
+    // Berry-Esseen alone bounds the error by 0.1234, the refinement adds
+    // |skewness| * phi(0) / 6 = 0.0146.
+    double[] chances = new double[2000]
+    Arrays.fill(chances, 0.01d)
+    def exact = new Binomial(lessThanOrEqual, 2000, 0.01)
+
+    expect:
+    Double.isNaN(new PoissonBinomial(lessThanOrEqual, chances, 0.13)
+                     .approximateResult(20))
+    Math.abs(new PoissonBinomial(lessThanOrEqual, chances, 0.14)
+                 .approximateResult(20) - exact.getResult(20)) <= 0.14
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * QuantizedDistributionTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+import static net.jnellis.probability.QuantizedDistribution.Encoding.*
+
+/**
+ * Compact tables within the error bounds of their encodings and the
+ * residual mass of their truncated tails.
+ */
+class QuantizedDistributionTest extends Specification {
+
+  static boolean within(double actual, double expected, double bound) {
+    Math.abs(actual - expected) <= (bound + 1.0E-10) * expected + 1.0E-15
+  }
+
+  @Unroll
+  def "#encoding tables of a large poisson are within their bound"() {
+    setup:
+    def poisson = new Poisson(equal, 100000.0)
+    def quantized = QuantizedDistribution.of(equal, poisson, encoding)
+    def bound = encoding.relativeErrorBound
+
+    expect:
+    quantized.firstValue > 95000
+    quantized.largestValue < 105000
+    quantized.tableBytes ==
+        encoding.bytesPerValue * (quantized.largestValue
+            - quantized.firstValue + 1)
+    (quantized.firstValue..quantized.largestValue).step(97).every {
+      within(quantized.computeResult(it), poisson.computeResult(it), bound)
+    }
+    within(quantized.cumulativeProbability(99000),
+           poisson.cumulativeProbability(99000), bound)
+    within(quantized.survivalProbability(101000),
+           poisson.survivalProbability(101000), bound)
+    quantized.quantile(0.5) == poisson.quantile(0.5)
+    quantized.expectedValue == 100000.0d
+
+    where:
+    encoding << [float64, float32, logFixedPoint]
+  }
+
+  def "residual mass bounds the truncated tails"() {
+    setup:
+    def binomial = new Binomial(equal, 100000, 0.3)
+    def quantized = QuantizedDistribution.of(lessThanOrEqual, binomial,
+                                             float32, 1.0E-9)
+    def first = quantized.firstValue
+    def last = quantized.largestValue
+
+    expect:
+    quantized.lowerResidualMass <= 1.0E-9
+    quantized.upperResidualMass <= 1.0E-9
+    binomial.cumulativeProbability(first) >= 1.0E-9
+    binomial.survivalProbability(last - 1) > 1.0E-9
+    quantized.computeResult(first - 1) == 0.0d
+    quantized.cumulativeProbability(first - 1) == quantized.lowerResidualMass
+    quantized.cumulativeProbability(0) == quantized.lowerResidualMass
+    within(quantized.survivalProbability(last),
+           quantized.upperResidualMass, float32.relativeErrorBound)
+    quantized.survivalProbability(last + 1) == 0.0d
+    quantized.getResult(first - 1) == quantized.lowerResidualMass
+    Math.abs(quantized.getResult(last) - 1.0) <= 1.0E-6
+  }
+
+  @Unroll
+  def "#encoding results of #operation are within the bound and residuals"() {
+    setup:
+    def binomial = new Binomial(operation, 10000, 0.3)
+    // the binomial's own cumulative results sum every term on each call.
+    def exact = new TabulatedDistribution(
+        operation, (0..10000).collect { binomial.computeResult(it) } as double[])
+    def quantized = QuantizedDistribution.of(operation, binomial, encoding,
+                                             1.0E-9)
+    def bound = encoding.relativeErrorBound
+    def residual = quantized.lowerResidualMass + quantized.upperResidualMass
+
+    expect:
+    (quantized.firstValue..quantized.largestValue).step(7).every {
+      double actual = quantized.getResult(it)
+      double expected = exact.getResult(it)
+      operation == equal
+      ? within(actual, expected, bound)
+      : Math.abs(actual - expected) <=
+          (bound + 1.0E-10) * Math.max(expected, 1.0 - expected) + residual
+    }
+
+    where:
+    [encoding, operation] << [[float64, float32, logFixedPoint],
+                              [equal, notEqual, lessThan, lessThanOrEqual,
+                               greaterThan, greaterThanOrEqual]].combinations()
+  }
+
+  def "log fixed point keeps deep tails relative"() {
+    setup:
+    def binomial = new Binomial(equal, 2000, 0.5)
+    def quantized = QuantizedDistribution.of(equal, binomial, logFixedPoint,
+                                             1.0E-300)
+    def floats = QuantizedDistribution.of(equal, binomial, float32, 1.0E-300)
+    def y = quantized.firstValue
+
+    expect:
+    binomial.computeResult(y) < 1.0E-290
+    within(quantized.computeResult(y), binomial.computeResult(y),
+           logFixedPoint.relativeErrorBound)
+    floats.computeResult(y) == 0.0d
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * ScaledDoubleTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Scaled doubles and the scaled probabilities of the pmf loops.
+ */
+class ScaledDoubleTest extends Specification {
+
+  static boolean close(double actual, double expected) {
+    Math.abs(actual - expected) <= 1.0E-12 * Math.max(1.0, Math.abs(expected))
+  }
+
+  def "arithmetic keeps the exponent apart"() {
+    setup:
+    def tiny = ScaledDouble.of(1.0E-200)
+
+    expect:
+    ScaledDouble.of(6.0).getMantissa() == 1.5d
+    ScaledDouble.of(6.0).getExponent() == 2L
+    ScaledDouble.of(6.0).divide(ScaledDouble.of(3.0)).doubleValue() == 2.0d
+    tiny.multiply(tiny).doubleValue() == 0.0d
+    close(tiny.multiply(tiny).log(), 2 * Math.log(1.0E-200))
+    tiny.multiply(tiny).divide(tiny).doubleValue() == 1.0E-200
+    ScaledDouble.of(3.0E-310).doubleValue() == 3.0E-310d
+    ScaledDouble.of(Double.MIN_VALUE).doubleValue() == Double.MIN_VALUE
+    ScaledDouble.ZERO.log() == Double.NEGATIVE_INFINITY
+    ScaledDouble.of(1.0E-300).multiply(1.0E-300) < ScaledDouble.of(1.0E-300)
+    ScaledDouble.of(0.0) == ScaledDouble.ZERO
+  }
+
+  def "powers fall back to squaring only when they underflow"() {
+    expect:
+    ScaledDouble.pow(0.7, 10).doubleValue() == Math.pow(0.7, 10)
+    close(ScaledDouble.pow(0.7, 100000).log(), 100000 * Math.log(0.7))
+    ScaledDouble.pow(0.0, 3) == ScaledDouble.ZERO
+    ScaledDouble.pow(0.0, 0) == ScaledDouble.ONE
+  }
+
+  @Unroll
+  def "binomial probabilities of #trials trials keep their tails"() {
+    expect:
+    [0, 1, 10, 100, trials.intdiv(2), trials - 10, trials].every { int y ->
+      close(Binomial.scaledProbability(trials, 0.3, y).log(),
+            SpecialFunctions.logBinomialDensity(y, trials, 0.3, 0.7))
+    }
+
+    where:
+    trials << [1000, 100000]
+  }
+
+  def "chances too small for a product near the underflow still count"() {
+    expect:
+    Math.abs(Binomial.scaledProbability(2000000, 1e-300, 1000).log()
+                 + 682179.25) < 0.01
+    close(Binomial.scaledProbability(2000000, 1e-300, 1000).log(),
+          SpecialFunctions.logBinomialDensity(1000, 2000000, 1e-300, 1.0))
+    close(NegativeBinomial.scaledProbability(1000, 1e-300, 2000000).log(),
+          Math.log(1000 / 2000000.0) + SpecialFunctions.logBinomialDensity(
+              1000, 2000000, 1e-300, 1.0))
+  }
+
+  def "the doubles are unchanged wherever they didn't underflow"() {
+    expect:
+    (0..1000).every { int y ->
+      double scaled = Binomial.scaledProbability(1000, 0.3, y).doubleValue()
+      scaled == Binomial.probability(1000, 0.3, y) &&
+          (scaled < Double.MIN_NORMAL || close(scaled, new Binomial(equal, 1000, 0.3).computeResult(y)))
+    }
+  }
+
+  def "negative binomial and hypergeometric tails"() {
+    setup:
+    def negativeBinomial = new NegativeBinomial(equal, 5, 0.9)
+
+    expect:
+    NegativeBinomial.probability(5, 0.9, 20000) == 0.0d
+    close(NegativeBinomial.scaledProbability(5, 0.9, 20000).log(),
+          negativeBinomial.logProbability(20000))
+    close(NegativeBinomial.scaledProbability(1, 0.9, 20000).log(),
+          Math.log(0.9) + 19999 * Math.log(0.1))
+    close(HyperGeometric.scaledProbability(100000, 5000, 30000, 0).log(),
+          SpecialFunctions.logHyperGeometricDensity(0, 100000, 5000, 30000))
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * SpecialFunctionsTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import org.apache.commons.math3.special.Beta
+import org.apache.commons.math3.special.Erf
+import org.apache.commons.math3.special.Gamma
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * Checks the special functions against apache commons math.
+ */
+class SpecialFunctionsTest extends Specification {
+  double resolution = 1.0E-12
+
+  @Unroll
+  def "log gamma of #x"() {
+    expect:
+    Math.abs(SpecialFunctions.logGamma(x) - Gamma.logGamma(x)) <
+        resolution * Math.max(1.0, Math.abs(Gamma.logGamma(x)))
+
+    where:
+    x << [0.1, 0.5, 1.0, 2.5, 10.0, 171.5, 1.0E6]
+  }
+
+  @Unroll
+  def "digamma and trigamma of #x"() {
+    expect:
+    Math.abs(SpecialFunctions.digamma(x) - Gamma.digamma(x)) <
+        resolution * Math.max(1.0, Math.abs(Gamma.digamma(x)))
+    Math.abs(SpecialFunctions.trigamma(x) - Gamma.trigamma(x)) <
+        resolution * Math.max(1.0, Gamma.trigamma(x))
+
+    where:
+    x << [0.1, 0.5, 1.0, 2.5, 9.9, 10.0, 171.5, 1.0E6]
+  }
+
+  @Unroll
+  def "regularized gamma Q(#a, #x) and P(#a, #x)"() {
+    expect:
+    Math.abs(SpecialFunctions.regularizedGammaQ(a, x) -
+                 Gamma.regularizedGammaQ(a, x)) < resolution
+    Math.abs(SpecialFunctions.regularizedGammaP(a, x) -
+                 Gamma.regularizedGammaP(a, x)) < resolution
+
+    where:
+    a      | x
+    0.5    | 0.01
+    1.0    | 1.0
+    5.0    | 2.0
+    5.0    | 11.0
+    99.0   | 80.0
+    150.0  | 140.0
+    1001.0 | 1000.0
+    1001.0 | 1100.0
+  }
+
+  @Unroll
+  def "regularized beta I(#x; #a, #b)"() {
+    expect:
+    Math.abs(SpecialFunctions.regularizedBeta(x, a, b) -
+                 Beta.regularizedBeta(x, a, b)) < resolution
+    Math.abs(SpecialFunctions.regularizedBetaComplement(x, a, b) -
+                 (1.0 - Beta.regularizedBeta(x, a, b))) < resolution
+
+    where:
+    x     | a      | b
+    0.1   | 0.5    | 0.5
+    0.3   | 2.0    | 5.0
+    0.9   | 2.0    | 5.0
+    0.5   | 40.0   | 41.0
+    0.7   | 4000.0 | 1700.0
+    0.49  | 5000.0 | 5000.0
+    0.51  | 5000.0 | 5000.0
+  }
+
+  @Unroll
+  def "normal cdf at #z"() {
+    expect:
+    double expected = 0.5 * Erf.erfc(-z / Math.sqrt(2.0))
+    Math.abs(SpecialFunctions.normalCdf(z) - expected) < resolution
+
+    where:
+    z << [-8.0, -3.0, -1.0, -0.1, 0.0, 0.5, 2.0, 5.0]
+  }
+
+  def "saddle point densities match the exact probabilities"() {
+    expect:
+    Math.abs(SpecialFunctions.binomialDensity(200, 600, 1.0 / 3, 2.0 / 3) -
+                 Binomial.probability(600, 1.0 / 3, 200)) < resolution
+    Math.abs(SpecialFunctions.poissonDensity(80011, 79999) -
+                 Poisson.probability(79999, 80011)) < resolution
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * WrappedDistributionTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Truncated, shifted, mixture and zero inflated distributions against sums
+ * of their base distributions' probabilities.
+ */
+class WrappedDistributionTest extends Specification {
+  static final double TOLERANCE = 1.0E-12
+
+  static boolean agrees(DiscreteProbability wrapped, Closure<Double> pmf, int last) {
+    double cumulative = 0.0
+    (0..last).every { int y ->
+      double probability = pmf(y)
+      cumulative += probability
+      Math.abs(wrapped.computeResult(y) - probability) < TOLERANCE &&
+          Math.abs(wrapped.cumulativeProbability(y) - cumulative) < TOLERANCE &&
+          Math.abs(wrapped.survivalProbability(y) - (1.0 - cumulative)) < TOLERANCE
+    }
+  }
+
+  static boolean quantilesAgree(DiscreteProbability distribution) {
+    [0.001, 0.1, 0.35, 0.5, 0.9, 0.999].every { double p ->
+      int y = distribution.quantile(p)
+      distribution.cumulativeProbability(y) >= p &&
+          distribution.cumulativeProbability(y - 1) < p
+    }
+  }
+
+  def "a zero truncated poisson"() {
+    setup:
+    def poisson = new Poisson(equal, 2.5)
+    def truncated = new TruncatedDistribution(lessThanOrEqual, poisson, 1,
+                                              Integer.MAX_VALUE - 1)
+    def normalizer = 1.0 - Math.exp(-2.5)
+    def mean = 2.5 / normalizer
+
+    expect:
+    agrees(truncated, { y -> y == 0 ? 0.0 : poisson.computeResult(y) / normalizer }, 30)
+    quantilesAgree(truncated)
+    Math.abs(truncated.getExpectedValue() - mean) < TOLERANCE
+    Math.abs(truncated.getVariance() - ((2.5 + 6.25) / normalizer - mean * mean)) < 1.0E-10
+    Math.abs(truncated.pmfStream().sum() - 1.0) < TOLERANCE
+  }
+
+  def "a range in the upper tail keeps its precision"() {
+    setup:
+    def binomial = new Binomial(equal, 1000, 0.3)
+    def truncated = new TruncatedDistribution(greaterThan, binomial, 400, 450)
+    def normalizer = (400..450).sum(0.0) { binomial.computeResult(it) }
+    def expected = (421..450).sum(0.0) { binomial.computeResult(it) } / normalizer
+
+    expect:
+    Math.abs(truncated.getResult(420) / expected - 1.0) < 1.0E-10
+    Math.abs(truncated.getNormalizer() / normalizer - 1.0) < 1.0E-10
+    truncated.computeResult(399) == 0.0
+    truncated.computeResult(451) == 0.0
+  }
+
+  def "a range with no probability is rejected"() {
+    when:
+    new TruncatedDistribution(equal, new Binomial(equal, 10, 0.0), 1, 10)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  def "negative binomial failures"() {
+    setup:
+    def trials = new NegativeBinomial(equal, 3, 0.4)
+    def failures = new ShiftedDistribution(lessThanOrEqual, trials, -3)
+
+    expect:
+    agrees(failures, { y -> trials.computeResult(y + 3) }, 40)
+    failures.getExpectedValue() == trials.getExpectedValue() - 3
+    failures.getVariance() == trials.getVariance()
+    failures.quantile(0.5) == trials.quantile(0.5) - 3
+    Math.abs(failures.pmfStream().sum() - 1.0) < TOLERANCE
+  }
+
+  @Unroll
+  def "zero inflated poisson with pi #pi"() {
+    setup:
+    def poisson = new Poisson(equal, 1.8)
+    def inflated = new ZeroInflatedDistribution(greaterThan, poisson, pi)
+    def mean = (1 - pi) * 1.8
+    def secondMoment = (1 - pi) * (1.8 + 1.8 * 1.8)
+
+    expect:
+    agrees(inflated, { y -> (y == 0 ? pi : 0.0) + (1 - pi) * poisson.computeResult(y) }, 30)
+    quantilesAgree(inflated)
+    Math.abs(inflated.getExpectedValue() - mean) < TOLERANCE
+    Math.abs(inflated.getVariance() - (secondMoment - mean * mean)) < TOLERANCE
+    inflated.getResult(3) == inflated.survivalProbability(3)
+
+    where:
+    pi << [0.0, 0.35, 0.9]
+  }
+
+  def "a mixture of poisson and negative binomial"() {
+    setup:
+    def poisson = new Poisson(equal, 2.0)
+    def negativeBinomial = new NegativeBinomial(equal, 2, 0.1)
+    def mixture = new MixtureDistribution(lessThanOrEqual, [7.0, 3.0] as double[],
+                                          poisson, negativeBinomial)
+    def pmf = { int y -> 0.7 * poisson.computeResult(y) + 0.3 * negativeBinomial.computeResult(y) }
+    def mean = (0..500).sum(0.0) { it * pmf(it) }
+    def secondMoment = (0..500).sum(0.0) { it * it * pmf(it) }
+
+    expect:
+    mixture.getWeights() == [0.7, 0.3] as double[]
+    agrees(mixture, pmf, 100)
+    quantilesAgree(mixture)
+    Math.abs(mixture.getExpectedValue() - mean) < 1.0E-10
+    Math.abs(mixture.getVariance() - (secondMoment - mean * mean)) < 1.0E-8
+  }
+
+  def "batches match single random variables"() {
+    setup:
+    def components = (0..<3000).collect { new Poisson(equal, 1.0 + it * 0.01) }
+    def mixture = new MixtureDistribution(equal, ([1.0] * 3000) as double[],
+                                          components as DiscreteProbability[])
+    int[] few = [0, 1, 5, 10, 30]
+    int[] many = (0..<5000).collect { it % 40 }
+
+    expect:
+    [mixture.computeResults(few), few.collect { mixture.computeResult(it) }]
+        .transpose().every { a, b -> Math.abs(a - b) < TOLERANCE }
+    [mixture.cumulativeProbabilities(few), few.collect { mixture.cumulativeProbability(it) }]
+        .transpose().every { a, b -> Math.abs(a - b) < TOLERANCE }
+    [mixture.survivalProbabilities(many), many.collect { mixture.survivalProbability(it) }]
+        .transpose().every { a, b -> Math.abs(a - b) < TOLERANCE }
+  }
+
+  def "wrappers compose"() {
+    setup:
+    def mixture = new MixtureDistribution(equal, [0.5, 0.5] as double[],
+                                          new Poisson(equal, 3.0), new Geometric(equal, 0.2))
+    def composed = new ZeroInflatedDistribution(
+        equal, new ShiftedDistribution(equal, new TruncatedDistribution(equal, mixture, 0, 50), 1), 0.2)
+
+    expect:
+    Math.abs(composed.pmfStream().sum() - 1.0) < TOLERANCE
+    composed.cumulativeProbability(51) == 1.0
+    composed.computeResult(52) == 0.0
+    quantilesAgree(composed)
+  }
+}
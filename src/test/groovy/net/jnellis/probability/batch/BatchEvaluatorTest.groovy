@@ -0,0 +1,112 @@
+/*
+ * BatchEvaluatorTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.batch
+
+import net.jnellis.probability.Binomial
+import net.jnellis.probability.Geometric
+import net.jnellis.probability.HyperGeometric
+import net.jnellis.probability.NegativeBinomial
+import net.jnellis.probability.Poisson
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static net.jnellis.probability.CumulativeOperation.*
+
+/**
+ * Query files evaluated in chunks against the distributions directly.
+ */
+class BatchEvaluatorTest extends Specification {
+  Path directory = Files.createTempDirectory("batch")
+  Path input = directory.resolve("queries.csv")
+  Path output = directory.resolve("results.txt")
+
+  def cleanup() {
+    directory.toFile().deleteDir()
+  }
+
+  @Unroll
+  def "rows are answered in order with a chunk size of #chunkSize"() {
+    setup:
+    def random = new Random(7)
+    def expected = []
+    def lines = ["# type,parameters,randomVariable,operation", ""]
+    2000.times {
+      def operation = [equal, notEqual, lessThan, lessThanOrEqual,
+                       greaterThan, greaterThanOrEqual][random.nextInt(6)]
+      switch (random.nextInt(5)) {
+        case 0:
+          int rv = random.nextInt(60)
+          lines << "binomial,200,0.2,$rv,$operation"
+          expected << new Binomial(operation, 200, 0.2).getResult(rv)
+          break
+        case 1:
+          int rv = random.nextInt(20)
+          lines << "poisson, 6.5 ,$rv,$operation\r"
+          expected << new Poisson(operation, 6.5).getResult(rv)
+          break
+        case 2:
+          int rv = 1 + random.nextInt(20)
+          lines << "geometric,0.2,$rv,$operation"
+          expected << new Geometric(operation, 0.2).getResult(rv)
+          break
+        case 3:
+          int rv = random.nextInt(40)
+          lines << "negativeBinomial,3,0.3,$rv,$operation"
+          expected << new NegativeBinomial(operation, 3, 0.3).getResult(rv)
+          break
+        default:
+          int rv = random.nextInt(12)
+          lines << "hyperGeometric,60,25,18,$rv,$operation"
+          expected << new HyperGeometric(operation, 60, 25, 18).getResult(rv)
+      }
+    }
+    Files.write(input, lines)
+
+    when:
+    long rows = new BatchEvaluator(3, chunkSize, null).evaluate(input, output)
+    def results = Files.readAllLines(output).collect { it as double }
+
+    then:
+    rows == 2000
+    results.size() == 2000
+    [results, expected].transpose().every { double result, double value ->
+      Math.abs(result - value) < 1.0E-12
+    }
+
+    where:
+    chunkSize << [256, 4096, BatchEvaluator.DEFAULT_CHUNK_SIZE]
+  }
+
+  def "a malformed row is reported with its line number"() {
+    setup:
+    Files.write(input, ["poisson,4.5,3,lessThan", "binomial,10,0.5,3"])
+
+    when:
+    new BatchEvaluator(1, BatchEvaluator.DEFAULT_CHUNK_SIZE, null)
+        .evaluate(input, output)
+
+    then:
+    def e = thrown(IllegalArgumentException)
+    e.message == "Malformed row at line 2: too few fields"
+  }
+
+  def "a line longer than the chunk size is an error"() {
+    setup:
+    Files.write(input, ["poisson,4.5,3,lessThan", "poisson,4.5,3,lessThan"])
+
+    when:
+    new BatchEvaluator(1, 8, null).evaluate(input, output)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
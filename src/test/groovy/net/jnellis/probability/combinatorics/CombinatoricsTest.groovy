@@ -0,0 +1,148 @@
+/*
+ * CombinatoricsTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.combinatorics
+
+import net.jnellis.probability.Binomial
+import net.jnellis.probability.HyperGeometric
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Exact coefficients against products of integers, and the floating point
+ * probabilities against the exact ones.
+ */
+class CombinatoricsTest extends Specification {
+
+  def "the sieve counts primes as it grows"() {
+    setup:
+    def sieve = new PrimeSieve()
+
+    expect:
+    sieve.count(100) == 25
+    sieve.count(1000000) == 78498
+    sieve.getLimit() >= 1000000
+    sieve.isPrime(999983)
+    !sieve.isPrime(999981)
+    !sieve.isPrime(1)
+    sieve.primes(30) as List == [2, 3, 5, 7, 11, 13, 17, 19, 23, 29]
+    (0..<2000).every { sieve.isPrime(it) == BigInteger.valueOf(it).isProbablePrime(50) }
+  }
+
+  def "large numbers are tested without growing the sieve to them"() {
+    setup:
+    def sieve = new PrimeSieve()
+    def random = new Random(46)
+    def numbers = (1..1000).collect { random.nextInt(Integer.MAX_VALUE - 1) + 2 }
+
+    expect:
+    sieve.isPrime(Integer.MAX_VALUE)
+    !sieve.isPrime(Integer.MAX_VALUE - 2)
+    !sieve.isPrime(25326001) // a strong pseudoprime to bases 2, 3 and 5
+    numbers.every { sieve.isPrime(it) == BigInteger.valueOf(it).isProbablePrime(50) }
+    sieve.getLimit() <= PrimeSieve.SIEVE_BOUND
+  }
+
+  def "threads growing the sieve at once agree"() {
+    setup:
+    def sieve = new PrimeSieve()
+    def counts = Collections.synchronizedList([])
+    def threads = (1..8).collect { i ->
+      Thread.start { counts << sieve.count(250000 * i) }
+    }
+    threads*.join()
+
+    expect:
+    counts.contains(78498)
+    sieve.count(2000000) == 148933
+  }
+
+  def "Legendre's formula counts the factors of a prime in a factorial"() {
+    expect:
+    Combinatorics.factorialExponent(100, 2) == 97
+    Combinatorics.factorialExponent(100, 5) == 24
+    Combinatorics.factorialExponent(4, 5) == 0
+  }
+
+  @Unroll
+  def "C(#n, #k) is the product of its ratios"() {
+    setup:
+    BigInteger expected = BigInteger.ONE
+    for (int i = 1; i <= k; i++) {
+      expected = expected.multiply(BigInteger.valueOf(n - k + i)).divide(BigInteger.valueOf(i))
+    }
+
+    expect:
+    Combinatorics.binomial(n, k) == expected
+
+    where:
+    n    | k
+    0    | 0
+    5    | 2
+    66   | 33
+    1000 | 300
+    4001 | 2000
+  }
+
+  def "factorials and coefficients outside the range"() {
+    expect:
+    Combinatorics.factorial(0) == 1G
+    Combinatorics.factorial(20) == 2432902008176640000G
+    Combinatorics.binomial(5, 6) == 0G
+    Combinatorics.binomial(5, -1) == 0G
+  }
+
+  def "long coefficients are exact or overflow"() {
+    expect:
+    (0..62).every { int n ->
+      (0..n).every { int k ->
+        Combinatorics.binomialExact(n, k) == Combinatorics.binomial(n, k).longValueExact()
+      }
+    }
+    Combinatorics.binomialExact(66, 33) == 7219428434016265740L
+
+    when:
+    Combinatorics.binomialExact(68, 34)
+
+    then:
+    thrown(ArithmeticException)
+  }
+
+  def "hypergeometric ratios are in lowest terms and sum to one"() {
+    setup:
+    def ratios = (0..20).collect { Combinatorics.hyperGeometric(60, 20, 25, it) }
+    // every denominator divides C(60, 20)
+    def samples = Combinatorics.binomial(60, 20)
+    def total = ratios.inject(0G) { sum, ratio ->
+      sum.add(ratio.getNumerator().multiply(samples.divide(ratio.getDenominator())))
+    }
+
+    expect:
+    ratios.every { it.getNumerator().gcd(it.getDenominator()) == 1G || it.getNumerator() == 0G }
+    total == samples
+    Combinatorics.hyperGeometric(60, 20, 25, 21).getNumerator() == 0G
+    Combinatorics.hyperGeometric(10, 4, 5, 2).toString() == "10/21"
+  }
+
+  def "the floating point probabilities agree with the exact ones"() {
+    setup:
+    def hyper = new HyperGeometric(equal, 1000, 100, 300)
+
+    expect:
+    (0..100).every { int y ->
+      double exact = Combinatorics.hyperGeometric(1000, 100, 300, y).doubleValue()
+      Math.abs(hyper.computeResult(y) - exact) <= 1.0E-13 * exact
+    }
+    (0..1000).every { int y ->
+      double exact = Combinatorics.binomialProbability(1000, 0.3, y)
+      exact < Double.MIN_NORMAL || Math.abs(Binomial.probability(1000, 0.3, y) - exact) <= 1.0E-12 * exact
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * MaximumLikelihoodTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.fitting
+
+import net.jnellis.probability.EmpiricalDistribution
+import net.jnellis.probability.HyperGeometric
+import net.jnellis.probability.NegativeBinomial
+import spock.lang.Specification
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Fits against closed forms and against brute force searches of the
+ * likelihood.
+ */
+class MaximumLikelihoodTest extends Specification {
+
+  def "histograms from observations and from counts agree"() {
+    setup:
+    def fromObservations = CountHistogram.of(3, 5, 5, 7, 3, 5)
+    def fromCounts = CountHistogram.fromCounts([0, 0, 0, 2, 0, 3, 0, 1] as long[])
+    def observed = new EmpiricalDistribution(equal, [0, 0, 0, 2, 0, 3, 0, 1] as long[])
+
+    expect:
+    [fromCounts, CountHistogram.of(observed)].every {
+      it.minimum == 3 && it.maximum == 7 && it.total == 6 &&
+          it.getCount(5) == 3 && it.mean == fromObservations.mean &&
+          it.variance == fromObservations.variance
+    }
+    fromObservations.mean == 28 / 6
+  }
+
+  def "closed form estimates are functions of the mean"() {
+    setup:
+    def data = CountHistogram.of(1, 2, 2, 3, 4, 6)
+
+    expect:
+    MaximumLikelihood.poisson(equal, data).lambda == 3.0
+    MaximumLikelihood.binomial(equal, 10, data).chanceOfSuccess == 0.3
+    MaximumLikelihood.geometric(equal, data).chanceOfSuccess == 1.0 / 3.0
+  }
+
+  def "the negative binomial's successes maximize the profile likelihood"() {
+    setup:
+    def random = new Random(5)
+    int[] trials = (1..20000).collect {
+      int successes = 0, y = 12
+      while (successes < 3) {
+        y++
+        if (random.nextDouble() < 0.1) {
+          successes++
+        }
+      }
+      y
+    } as int[]
+    def data = CountHistogram.of(trials)
+    def fitted = MaximumLikelihood.negativeBinomial(equal, data)
+    def best = (1..data.minimum).max { k ->
+      MaximumLikelihood.logLikelihood(
+          new NegativeBinomial(equal, k, k / data.mean), data)
+    }
+
+    expect:
+    MaximumLikelihood.negativeBinomialSuccesses(data) > 1.0
+    MaximumLikelihood.negativeBinomialSuccesses(data) < data.minimum
+    fitted.successfulTrials == best
+    fitted.chanceOfSuccess == best / data.mean
+  }
+
+  def "the hypergeometric's success states maximize the likelihood"() {
+    setup:
+    def random = new Random(11)
+    def population = (1..200).collect { it <= 70 ? 1 : 0 }
+    int[] successes = (1..2000).collect {
+      Collections.shuffle(population, random)
+      population.take(30).sum()
+    } as int[]
+    def data = CountHistogram.of(successes)
+    def best = (data.maximum..200 - 30 + data.minimum).max { r ->
+      MaximumLikelihood.logLikelihood(new HyperGeometric(equal, 200, 30, r), data)
+    }
+
+    expect:
+    MaximumLikelihood.hyperGeometric(equal, 200, 30, data).successStates == best
+  }
+
+  def "observations outside the support are rejected"() {
+    when:
+    MaximumLikelihood.geometric(equal, CountHistogram.of(0, 1, 2))
+
+    then:
+    thrown(IllegalArgumentException)
+
+    when:
+    MaximumLikelihood.binomial(equal, 3, CountHistogram.of(1, 4))
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
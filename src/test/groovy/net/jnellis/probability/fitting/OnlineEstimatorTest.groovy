@@ -0,0 +1,82 @@
+/*
+ * OnlineEstimatorTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.fitting
+
+import spock.lang.Specification
+
+import java.util.stream.IntStream
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Streaming estimates against the same estimates from stored observations.
+ */
+class OnlineEstimatorTest extends Specification {
+
+  def "running estimates from parallel partitions merge to the whole"() {
+    setup:
+    def left = new RunningEstimator()
+    def right = new RunningEstimator()
+    IntStream.range(0, 100000).parallel().forEach {
+      (it % 2 == 0 ? left : right).add(it % 7)
+    }
+    left.merge(right)
+    def whole = CountHistogram.of(IntStream.range(0, 100000).map { it % 7 }.toArray())
+
+    expect:
+    left.count == 100000
+    left.mean == whole.mean
+    Math.abs(left.variance - whole.variance) < 1.0E-9
+    left.poisson(equal).lambda == whole.mean
+    left.binomial(equal, 6).chanceOfSuccess == whole.mean / 6
+  }
+
+  def "decayed estimates weigh observations by their age"() {
+    setup:
+    def random = new Random(1)
+    def halfLife = 50.0
+    def partitions = (1..3).collect { new DecayingEstimator(halfLife) }
+    def observations = (1..5000).collect {
+      [random.nextDouble() * 10000.0, random.nextInt(20)]
+    }
+    observations.eachWithIndex { observation, i ->
+      partitions[i % 3].add(observation[1] as int, observation[0] as double)
+    }
+    def estimator = partitions[0]
+    estimator.merge(partitions[1])
+    estimator.merge(partitions[2])
+    double latest = observations*.getAt(0).max()
+    double weight = 0.0, sum = 0.0
+    observations.each { time, value ->
+      double w = Math.pow(0.5, (latest - time) / halfLife)
+      weight += w
+      sum += w * value
+    }
+
+    expect:
+    Math.abs(estimator.weight - weight) < 1.0E-9 * weight
+    Math.abs(estimator.mean - sum / weight) < 1.0E-9 * sum / weight
+  }
+
+  def "an estimator without observations has no estimate"() {
+    when:
+    new DecayingEstimator(1.0).poisson(equal)
+
+    then:
+    thrown(IllegalStateException)
+  }
+
+  def "estimators with different half lives don't merge"() {
+    when:
+    new DecayingEstimator(1.0).merge(new DecayingEstimator(2.0))
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * ConfidenceIntervalsTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * Interval bounds against published values and against the tail
+ * probabilities they are defined by.
+ */
+class ConfidenceIntervalsTest extends Specification {
+
+  @Unroll
+  def "clopper pearson interval of #x in #n"() {
+    setup:
+    def interval = ConfidenceIntervals.clopperPearson(x, n, 0.95)
+
+    expect:
+    Math.abs(interval[0] - lower) < 1.0E-6 * Math.max(lower, 1.0E-3)
+    Math.abs(interval[1] - upper) < 1.0E-6 * upper
+
+    where:
+    x | n       || lower         | upper
+    5 | 10      || 0.187086      | 0.812914
+    0 | 10      || 0.0           | 0.308497
+    1 | 1000000 || 2.531781E-8   | 5.571631E-6
+  }
+
+  @Unroll
+  def "garwood interval of #x"() {
+    setup:
+    def interval = ConfidenceIntervals.garwood(x, 0.95)
+
+    expect:
+    Math.abs(interval[0] - lower) < 1.0E-6
+    Math.abs(interval[1] - upper) < 1.0E-6
+
+    where:
+    x  || lower    | upper
+    0  || 0.0      | 3.688879
+    5  || 1.623486 | 11.668332
+  }
+
+  def "batch intervals agree with single intervals"() {
+    setup:
+    def random = new Random(1)
+    int[] trials = (0..<5000).collect { 100 + random.nextInt(5) } as int[]
+    int[] successes = trials.collect { random.nextInt(it + 1) } as int[]
+    def intervals = ConfidenceIntervals.clopperPearson(successes, trials, 0.99)
+    def counts = successes
+    def garwoods = ConfidenceIntervals.garwood(counts, 0.99)
+
+    expect:
+    (0..<trials.length).every {
+      def single = ConfidenceIntervals.clopperPearson(successes[it], trials[it], 0.99)
+      def poisson = ConfidenceIntervals.garwood(counts[it], 0.99)
+      Math.abs(single[0] - intervals[it][0]) < 1.0E-14 &&
+          Math.abs(single[1] - intervals[it][1]) < 1.0E-14 &&
+          Math.abs(poisson[0] - garwoods[it][0]) < 1.0E-12 &&
+          Math.abs(poisson[1] - garwoods[it][1]) < 1.0E-12
+    }
+  }
+}
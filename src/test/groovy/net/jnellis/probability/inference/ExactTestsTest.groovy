@@ -0,0 +1,68 @@
+/*
+ * ExactTestsTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.inference.Alternative.*
+
+/**
+ * p-values against published results of the same tests.
+ */
+class ExactTestsTest extends Specification {
+  double resolution = 5.0E-5
+
+  @Unroll
+  def "binomial test of #x in #n against #p, #alternative"() {
+    expect:
+    Math.abs(ExactTests.binomial(x, n, p, alternative) - expected) < resolution
+
+    where:
+    x   | n   | p    | alternative || expected
+    7   | 20  | 0.5  | twoSided    || 0.2632
+    682 | 925 | 0.75 | twoSided    || 0.3825
+    682 | 925 | 0.75 | less        || 0.19601
+    10  | 10  | 0.5  | greater     || 0.0009766
+    5   | 10  | 0.5  | twoSided    || 1.0
+  }
+
+  def "poisson tests"() {
+    expect:
+    Math.abs(ExactTests.poisson(10, 5, greater) - 0.03183) < resolution
+    Math.abs(ExactTests.poissonRates(11, 800, 21, 3011, twoSided) - 0.07967) < resolution
+  }
+
+  @Unroll
+  def "fisher test of the tea tasting table, #alternative"() {
+    expect:
+    Math.abs(ExactTests.fisher(3, 1, 1, 3, alternative) - expected) < resolution
+
+    where:
+    alternative || expected
+    twoSided    || 0.4857
+    greater     || 0.2429
+    less        || 0.9857
+  }
+
+  def "batch fisher tests agree with single tests"() {
+    setup:
+    def random = new Random(1)
+    int[][] tables = (0..<2000).collect {
+      [random.nextInt(20), random.nextInt(20), random.nextInt(20), 20] as int[]
+    } as int[][]
+    def results = ExactTests.fisher(tables, twoSided)
+
+    expect:
+    (0..<tables.length).every {
+      int[] t = tables[it]
+      results[it] == ExactTests.fisher(t[0], t[1], t[2], t[3], twoSided)
+    }
+  }
+}
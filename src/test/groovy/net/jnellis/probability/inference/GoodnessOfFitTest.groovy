@@ -0,0 +1,115 @@
+/*
+ * GoodnessOfFitTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference
+
+import net.jnellis.probability.Binomial
+import net.jnellis.probability.Poisson
+import net.jnellis.probability.fitting.CountHistogram
+import net.jnellis.probability.fitting.MaximumLikelihood
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.jnellis.probability.CumulativeOperation.equal
+import static net.jnellis.probability.inference.GoodnessOfFit.Statistic.*
+
+/**
+ * Binning and statistics against direct sums over the probabilities, and
+ * exact p-values against Monte Carlo estimates.
+ */
+class GoodnessOfFitTest extends Specification {
+
+  // deaths by horse kick in the Prussian cavalry.
+  def kicks = CountHistogram.fromCounts([109L, 65L, 22L, 3L, 1L] as long[])
+
+  def "small expectations merge into their neighbours"() {
+    setup:
+    def poisson = MaximumLikelihood.poisson(equal, kicks)
+    def fit = GoodnessOfFit.of(kicks, poisson, 1, 5.0)
+    def expected = fit.expectedCounts
+
+    expect:
+    fit.binStarts == [0, 1, 2] as int[]
+    fit.observedCounts == [109L, 65L, 26L] as long[]
+    Math.abs(expected[0] - 200 * Poisson.probability(0.61, 0)) < 1.0E-9
+    Math.abs(expected[1] - 200 * Poisson.probability(0.61, 1)) < 1.0E-9
+    Math.abs(expected.sum() - 200.0) < 1.0E-9
+    fit.degreesOfFreedom == 1
+  }
+
+  def "statistics match their definitions"() {
+    setup:
+    def fit = GoodnessOfFit.of(kicks, new Poisson(equal, 0.61), 1, 5.0)
+    def observed = fit.observedCounts
+    def expected = fit.expectedCounts
+    def chi = (0..2).sum { (observed[it] - expected[it])**2 / expected[it] }
+    def g = 2 * (0..2).sum {
+      observed[it] * Math.log(observed[it] / expected[it])
+    }
+    def cumulative = 0.0d
+    def running = 0L
+    def ks = (0..4).collect {
+      cumulative += Poisson.probability(0.61, it)
+      running += kicks.getCount(it)
+      Math.abs(running / 200.0d - cumulative)
+    }.max()
+
+    expect:
+    Math.abs(fit.chiSquare - chi) < 1.0E-12
+    Math.abs(fit.GStatistic - g) < 1.0E-12
+    Math.abs(fit.kolmogorovSmirnov - ks) < 1.0E-12
+    Math.abs(fit.asymptoticPValue(chiSquare) - 0.80215) < 1.0E-5
+  }
+
+  @Unroll
+  def "exact #statistic p-value agrees with monte carlo"() {
+    setup:
+    def data = CountHistogram.fromCounts([3L, 5L, 2L, 1L] as long[])
+    def fit = GoodnessOfFit.of(data, new Binomial(equal, 3, 0.4), 0, 1.0)
+    def exact = fit.exactPValue(statistic)
+
+    expect:
+    exact > 0.0 && exact <= 1.0
+    Math.abs(fit.monteCarloPValue(statistic, 100000, 7L) - exact) < 0.01
+    fit.monteCarloPValue(statistic, 1000, 3L) ==
+        fit.monteCarloPValue(statistic, 1000, 3L)
+
+    where:
+    statistic << [chiSquare, gTest, kolmogorovSmirnov]
+  }
+
+  def "a perfect fit has a p-value of one"() {
+    setup:
+    def data = CountHistogram.fromCounts([1L, 2L, 1L] as long[])
+    def fit = GoodnessOfFit.of(data, new Binomial(equal, 2, 0.5), 0, 0.5)
+
+    expect:
+    fit.chiSquare < 1.0E-24
+    Math.abs(fit.exactPValue(chiSquare) - 1.0) < 1.0E-12
+  }
+
+  def "too many outcomes to enumerate"() {
+    setup:
+    def fit = GoodnessOfFit.of(kicks, new Poisson(equal, 0.61), 1, 0.0)
+
+    when:
+    fit.exactPValue(chiSquare)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  def "kolmogorov smirnov has no asymptotic p-value"() {
+    when:
+    GoodnessOfFit.of(kicks, new Poisson(equal, 0.61))
+                 .asymptoticPValue(kolmogorovSmirnov)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
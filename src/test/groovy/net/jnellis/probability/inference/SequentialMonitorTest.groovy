@@ -0,0 +1,133 @@
+/*
+ * SequentialMonitorTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.inference
+
+import net.jnellis.probability.Binomial
+import net.jnellis.probability.Poisson
+import spock.lang.Specification
+
+import static net.jnellis.probability.inference.SequentialMonitor.Decision.*
+
+/**
+ * Incremental log likelihood ratios against ratios of the full
+ * probabilities, and the decisions and alarms they lead to.
+ */
+class SequentialMonitorTest extends Specification {
+
+  def "binomial ratios match the full recomputation"() {
+    setup:
+    def monitor = SequentialMonitor.binomial(0.01, 0.03, 0.01, 0.01, 100.0, 4)
+    def batches = [[1, 50], [0, 50], [2, 40], [1, 60], [0, 30]]
+    int x = 0
+    int n = 0
+
+    expect:
+    batches.every { batch ->
+      monitor.observe(2, batch[0], batch[1])
+      x += batch[0]
+      n += batch[1]
+      double full = Math.log(Binomial.probability(n, 0.03, x)
+                                 / Binomial.probability(n, 0.01, x))
+      Math.abs(monitor.getLogLikelihoodRatio(2) - full) < 1.0E-12
+    }
+    monitor.getCount(2) == 4
+    monitor.getSize(2) == 230.0d
+    monitor.getLogLikelihoodRatio(0) == 0.0d
+  }
+
+  def "poisson ratios match the full recomputation"() {
+    setup:
+    def monitor = SequentialMonitor.poisson(2.0, 3.0, 0.01, 0.01, 100.0, 1)
+    monitor.observe(0, 7, 2.0)
+    monitor.observe(0, 2, 1.5)
+    double full = Math.log(Poisson.probability(10.5, 9)
+                               / Poisson.probability(7.0, 9))
+
+    expect:
+    Math.abs(monitor.getLogLikelihoodRatio(0) - full) < 1.0E-12
+  }
+
+  def "bernoulli observations are batches of one trial"() {
+    setup:
+    def single = SequentialMonitor.binomial(0.1, 0.2, 0.05, 0.05, 100.0, 1)
+    def batch = SequentialMonitor.binomial(0.1, 0.2, 0.05, 0.05, 100.0, 1)
+    [true, false, false, true, false].each { single.observe(0, it) }
+    batch.observe(0, 2, 5)
+
+    expect:
+    Math.abs(single.getLogLikelihoodRatio(0)
+                 - batch.getLogLikelihoodRatio(0)) < 1.0E-14
+  }
+
+  def "wald thresholds"() {
+    setup:
+    def monitor = SequentialMonitor.binomial(0.1, 0.2, 0.05, 0.10, 5.0, 1)
+
+    expect:
+    Math.abs(monitor.upperThreshold - Math.log(0.90 / 0.05)) < 1.0E-15
+    Math.abs(monitor.lowerThreshold - Math.log(0.10 / 0.95)) < 1.0E-15
+    monitor.cusumThreshold == 5.0d
+  }
+
+  def "decisions stay until the stream is reset"() {
+    setup:
+    def monitor = SequentialMonitor.binomial(0.01, 0.1, 0.05, 0.05, 100.0, 2)
+
+    when:
+    def first = monitor.observe(1, 5, 10)
+    def ratio = monitor.getLogLikelihoodRatio(1)
+    def second = monitor.observe(1, 0, 1000)
+
+    then:
+    first == rejectNull
+    second == rejectNull
+    monitor.getLogLikelihoodRatio(1) == ratio
+    monitor.getDecision(0) == continueSampling
+
+    when:
+    monitor.reset(1)
+
+    then:
+    monitor.getDecision(1) == continueSampling
+    monitor.observe(1, 0, 1000) == acceptNull
+  }
+
+  def "cusum restarts at zero and raises an alarm"() {
+    setup:
+    def monitor = SequentialMonitor.poisson(1.0, 2.0, 0.001, 0.001, 3.0, 1)
+
+    when:
+    monitor.observe(0, 0, 10.0)
+
+    then:
+    monitor.getCusum(0) == 0.0d
+    !monitor.isAlarmed(0)
+
+    when:
+    monitor.observe(0, 8, 2.0)
+
+    then:
+    Math.abs(monitor.getCusum(0) - (8 * Math.log(2.0) - 2.0)) < 1.0E-12
+    monitor.isAlarmed(0)
+  }
+
+  def "concurrent updates of shared streams are not lost"() {
+    setup:
+    def monitor = SequentialMonitor.poisson(1.0, 1.5, 0.001, 0.001, 1.0E9, 100)
+    def threads = (0..<8).collect {
+      Thread.start {
+        10000.times { i -> monitor.observe(i % 100, 1, 1.0) }
+      }
+    }
+    threads*.join()
+
+    expect:
+    (0..<100).every { monitor.getCount(it) == 800 }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * ProbabilityServerTest.groovy
+ *
+ * Copyright (c) 2015. Joe Nellis
+ * Distributed under MIT License. See accompanying file License.txt or at
+ * http://opensource.org/licenses/MIT
+ */
+
+package net.jnellis.probability.server
+
+import net.jnellis.probability.Binomial
+import net.jnellis.probability.NegativeBinomial
+import net.jnellis.probability.Poisson
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.Executors
+
+import static net.jnellis.probability.CumulativeOperation.equal
+
+/**
+ * Queries over HTTP against the distributions directly.
+ */
+class ProbabilityServerTest extends Specification {
+  @Shared
+  ProbabilityServer server =
+      ProbabilityServer.create(new InetSocketAddress("127.0.0.1", 0), 1000)
+                       .start()
+
+  def cleanupSpec() {
+    server.stop(0)
+  }
+
+  def get(String path) {
+    def connection = new URL("http://127.0.0.1:${server.address.port}$path")
+        .openConnection() as HttpURLConnection
+    def status = connection.responseCode
+    def stream = status == 200 ? connection.inputStream : connection.errorStream
+    [status, stream.getText("UTF-8").readLines()]
+  }
+
+  @Unroll
+  def "#path is answered"() {
+    when:
+    def (status, lines) = get(path)
+
+    then:
+    status == 200
+    lines == expected.collect { it.toString() }
+
+    where:
+    path                                                       | expected
+    "/pmf?type=binomial&parameters=1000,0.3&value=300"         | [new Binomial(equal, 1000, 0.3).computeResult(300)]
+    "/cdf?type=poisson&parameters=4.5&value=0,3"               | [0, 3].collect { new Poisson(equal, 4.5).cumulativeProbability(it) }
+    "/quantile?type=negativeBinomial&parameters=3%2C0.4&p=0.5" | [new NegativeBinomial(equal, 3, 0.4).quantile(0.5)]
+  }
+
+  @Unroll
+  def "#path is a bad request"() {
+    expect:
+    get(path)[0] == 400
+
+    where:
+    path << ["/pmf?type=unknown&parameters=3&value=1",
+             "/pmf?type=poisson&parameters=3,4&value=1",
+             "/pmf?type=poisson&parameters=3&value=1.5",
+             "/quantile?type=poisson&parameters=3&p=1",
+             "/cdf?type=poisson&parameters=3",
+             "/pmf?type=binomial&parameters=10,1.5&value=1",
+             "/pmf?type=binomial&parameters=10.5,0.5&value=1",
+             "/pmf?type=geometric&parameters=0&value=1",
+             "/pmf?type=negativeBinomial&parameters=0,0.5&value=1",
+             "/pmf?type=hyperGeometric&parameters=10,20,5&value=1"]
+  }
+
+  def "concurrent identical queries are computed once"() {
+    setup:
+    def metrics = server.metrics
+    def computed = metrics.computed
+    def pool = Executors.newFixedThreadPool(16)
+
+    when:
+    def answers = (1..200).collect {
+      pool.submit({ get("/cdf?type=binomial&parameters=200000,0.4&value=80000") } as java.util.concurrent.Callable)
+    }*.get()
+
+    then:
+    answers.every { it == answers[0] && it[0] == 200 }
+    metrics.computed - computed == 1
+
+    cleanup:
+    pool.shutdown()
+  }
+}